@@ -0,0 +1,260 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Arrays;
+
+/**
+ * A growable byte buffer for the content of a {@link GraphicsStream}.  
+ * Text is appended as US-ASCII and numbers are written directly as ASCII 
+ * digits, without creating intermediate {@code String} objects.  
+ * <p>
+ * Numbers written by {@link #append(double, int)} are rounded half-even on 
+ * their exact binary value, trailing zeros are dropped, {@code '.'} is the 
+ * decimal separator and negative values that round to zero are written as 
+ * {@code "-0"}.  For the precisions used by {@link GraphicsStream} (0, 2 and 
+ * 6 decimals) this is the same output as a {@code DecimalFormat} with the 
+ * pattern {@code "0"}, {@code "0.##"} or {@code "0.######"}, which the tests
+ * check.  Other precisions are not checked and may differ from 
+ * {@code DecimalFormat} for values close to a tie.
+ * 
+ * @since 1.9
+ */
+final class ContentBuffer {
+
+    /** The maximum number of decimal places supported. */
+    static final int MAX_DECIMALS = 6;
+    
+    /** Powers of ten up to {@code MAX_DECIMALS}. */
+    private static final long[] POWERS = { 1L, 10L, 100L, 1000L, 10000L, 
+            100000L, 1000000L };
+    
+    /** 
+     * Scaled values from this magnitude up are left to 
+     * {@code DecimalFormat} (well below 2^52, so that the arithmetic below 
+     * is exact).
+     */
+    private static final double LIMIT = 1e15;
+    
+    /** Used to split a double into two halves of 26 bits (2^27 + 1). */
+    private static final double SPLITTER = 134217729.0;
+    
+    /** The content. */
+    private byte[] buf;
+    
+    /** The number of bytes used. */
+    private int count;
+    
+    /** 
+     * Formatters for values out of range of the fast path (created when 
+     * needed). 
+     */
+    private DecimalFormat[] formats;
+
+    /**
+     * Creates a new empty buffer.
+     */
+    ContentBuffer() {
+        this.buf = new byte[256];
+    }
+    
+    /**
+     * Returns the number of bytes in the buffer.
+     * 
+     * @return The number of bytes in the buffer. 
+     */
+    int size() {
+        return this.count;
+    }
+    
+    private void ensureCapacity(int extra) {
+        if (this.count + extra > this.buf.length) {
+            this.buf = Arrays.copyOf(this.buf, 
+                    Math.max(this.buf.length * 2, this.count + extra));
+        }
+    }
+    
+    /**
+     * Appends a character (which must be in the US-ASCII range).
+     * 
+     * @param c  the character.
+     * 
+     * @return This buffer. 
+     */
+    ContentBuffer append(char c) {
+        ensureCapacity(1);
+        this.buf[this.count++] = (byte) c;
+        return this;
+    }
+
+    /**
+     * Appends a string, which is expected to contain only US-ASCII 
+     * characters (other characters are written as {@code '?'}, as 
+     * {@link PDFUtils#toBytes(java.lang.String)} does).
+     * 
+     * @param s  the string ({@code null} not permitted).
+     * 
+     * @return This buffer. 
+     */
+    ContentBuffer append(String s) {
+        int len = s.length();
+        ensureCapacity(len);
+        for (int i = 0; i < len; i++) {
+            char c = s.charAt(i);
+            if (c < 128) {
+                this.buf[this.count++] = (byte) c;
+            } else {
+                this.buf[this.count++] = (byte) '?';
+                if (Character.isHighSurrogate(c) && i + 1 < len 
+                        && Character.isLowSurrogate(s.charAt(i + 1))) {
+                    i++;  // one replacement for the whole code point
+                }
+            }
+        }
+        return this;
+    }
+    
+    /**
+     * Appends a number with at most the specified number of decimal places.
+     * 
+     * @param d  the number.
+     * @param decimals  the maximum number of decimal places (in the range 
+     *     {@code 0} to {@link #MAX_DECIMALS}).
+     * 
+     * @return This buffer. 
+     */
+    ContentBuffer append(double d, int decimals) {
+        double a = Math.abs(d);
+        double scale = POWERS[decimals];
+        double p = a * scale;
+        if (!(p < LIMIT)) {  // also catches NaN and infinity
+            return append(format(d, decimals));
+        }
+        long n = (long) p;
+        if (p >= 0.25) {
+            // a * scale = p + err exactly (Dekker's product), and since p is
+            // within a factor of two of n + 0.5 their difference is exact, 
+            // so the sign of diff + err says which way the exact value lies
+            double err = productError(a, scale, p);
+            double diff = p - (n + 0.5);
+            double s = diff + err;
+            if (s > 0.0 || (s == 0.0 && (n & 1L) == 1L)) {
+                n++;
+            }
+        }
+        if (Double.doubleToRawLongBits(d) < 0L) {
+            append('-');
+        }
+        long pow = POWERS[decimals];
+        appendDigits(n / pow, 1);
+        long fraction = n % pow;
+        if (fraction != 0L) {
+            int places = decimals;
+            while (fraction % 10L == 0L) {
+                fraction /= 10L;
+                places--;
+            }
+            append('.');
+            appendDigits(fraction, places);
+        }
+        return this;
+    }
+    
+    /**
+     * Appends the decimal digits of a non-negative value, padded with 
+     * leading zeros to the minimum width.
+     */
+    private void appendDigits(long value, int minWidth) {
+        int width = 1;
+        for (long v = value / 10L; v != 0L; v /= 10L) {
+            width++;
+        }
+        width = Math.max(width, minWidth);
+        ensureCapacity(width);
+        int i = this.count + width;
+        this.count = i;
+        long v = value;
+        while (width-- > 0) {
+            this.buf[--i] = (byte) ('0' + (int) (v % 10L));
+            v /= 10L;
+        }
+    }
+    
+    /**
+     * Returns the rounding error of the product {@code p = a * b}, that is
+     * {@code a * b - p} computed exactly (Dekker).
+     */
+    private static double productError(double a, double b, double p) {
+        double c = SPLITTER * a;
+        double ah = c - (c - a);
+        double al = a - ah;
+        c = SPLITTER * b;
+        double bh = c - (c - b);
+        double bl = b - bh;
+        return ((ah * bh - p) + ah * bl + al * bh) + al * bl;
+    }
+    
+    private String format(double d, int decimals) {
+        if (this.formats == null) {
+            this.formats = new DecimalFormat[MAX_DECIMALS + 1];
+        }
+        DecimalFormat f = this.formats[decimals];
+        if (f == null) {
+            DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+            dfs.setDecimalSeparator('.');
+            StringBuilder pattern = new StringBuilder("0");
+            if (decimals > 0) {
+                pattern.append('.');
+                for (int i = 0; i < decimals; i++) {
+                    pattern.append('#');
+                }
+            }
+            f = new DecimalFormat(pattern.toString(), dfs);
+            this.formats[decimals] = f;
+        }
+        return f.format(d);
+    }
+    
+    /**
+     * Returns a copy of the buffer content.
+     * 
+     * @return A new byte array. 
+     */
+    byte[] toByteArray() {
+        return Arrays.copyOf(this.buf, this.count);
+    }
+
+}
@@ -40,16 +40,13 @@ import java.awt.GradientPaint;
 import java.awt.Image;
 import java.awt.RadialGradientPaint;
 import java.awt.Shape;
-import java.awt.Stroke;
 import java.awt.geom.AffineTransform;
+import java.awt.geom.Ellipse2D;
 import java.awt.geom.Line2D;
 import java.awt.geom.NoninvertibleTransformException;
 import java.awt.geom.Path2D;
 import java.awt.geom.PathIterator;
-import java.io.ByteArrayOutputStream;
-import java.io.IOException;
-import java.text.DecimalFormat;
-import java.text.DecimalFormatSymbols;
+import java.awt.geom.Rectangle2D;
 import com.orsonpdf.util.Args;
 
 /**
@@ -69,7 +66,7 @@ public class GraphicsStream extends Stream {
     private Page page;
     
     /** The stream content. */
-    private ByteArrayOutputStream content;
+    private ContentBuffer content;
     
     /** The most recent font applied. */
     private Font font;
@@ -77,17 +74,26 @@ public class GraphicsStream extends Stream {
     /** The most recent alpha transparency value (in the range 0 to 255). */
     private int alpha;
     
+    /** The miter limit in effect (10 is the PDF default). */
+    private float miterLimit = 10f;
+    
     private AffineTransform prevTransInv;
     
-    /**
-     * The decimal formatter for coordinates of geometrical shapes.
-     */
-    private DecimalFormat geometryFormat;
+    /** The number of decimal places for coordinates of geometrical shapes. */
+    private static final int GEOMETRY_DP = 2;
     
-    /**
-     * The decimal formatter for transform matrices.
+    /** The number of decimal places for transform matrices. */
+    private static final int TRANSFORM_DP = 6;
+    
+    /** 
+     * The distance of the Bezier control points from the ends of each 
+     * quarter of an ellipse, as a fraction of the radius (the same value as
+     * used by Java2D).
      */
-    private DecimalFormat transformFormat;
+    private static final double ELLIPSE_CTRL = 0.5522847498307933;
+    
+    /** Reused for iterating over paths. */
+    private final float[] coords = new float[6];
     
     /**
      * Creates a new instance.
@@ -98,22 +104,28 @@ public class GraphicsStream extends Stream {
     GraphicsStream(int number, Page page) {
         super(number);
         this.page = page;
-        this.content = new ByteArrayOutputStream();
+        this.content = new ContentBuffer();
         this.font = new Font("Dialog", Font.PLAIN, 12);
         this.alpha = 255;
-        // force the formatters to use a '.' for the decimal point
-        DecimalFormatSymbols dfs = new DecimalFormatSymbols();
-        dfs.setDecimalSeparator('.');
-        this.geometryFormat = new DecimalFormat("0.##", dfs);
-        this.transformFormat = new DecimalFormat("0.######", dfs);
     }
     
-    private void addContent(String s) {
-        try {
-            this.content.write(PDFUtils.toBytes(s));
-        } catch (IOException e) {
-            throw new RuntimeException(e);
+    /**
+     * Returns the buffer that content is appended to.  Numbers are written
+     * into it directly, in the same format as a {@code DecimalFormat} with 
+     * the pattern {@code "0.##"} for geometry and {@code "0.######"} for 
+     * transforms (always with a '.' for the decimal point, whatever the 
+     * locale).
+     */
+    private ContentBuffer content() {
+        if (this.content == null) {
+            throw new IllegalStateException(
+                    "The page has been written and can no longer be drawn on.");
         }
+        return this.content;
+    }
+    
+    private void addContent(String s) {
+        content().append(s);
     }
 
     /**
@@ -136,14 +148,13 @@ public class GraphicsStream extends Stream {
      * @param t  the transform ({@code null} not permitted).
      */
     void applyTransform(AffineTransform t) {
-        StringBuilder b = new StringBuilder();
-        b.append(transformDP(t.getScaleX())).append(" ");
-        b.append(transformDP(t.getShearY())).append(" ");
-        b.append(transformDP(t.getShearX())).append(" ");
-        b.append(transformDP(t.getScaleY())).append(" ");
-        b.append(transformDP(t.getTranslateX())).append(" ");
-        b.append(transformDP(t.getTranslateY())).append(" cm\n");
-        addContent(b.toString());
+        ContentBuffer b = content();
+        b.append(t.getScaleX(), TRANSFORM_DP).append(' ');
+        b.append(t.getShearY(), TRANSFORM_DP).append(' ');
+        b.append(t.getShearX(), TRANSFORM_DP).append(' ');
+        b.append(t.getScaleY(), TRANSFORM_DP).append(' ');
+        b.append(t.getTranslateX(), TRANSFORM_DP).append(' ');
+        b.append(t.getTranslateY(), TRANSFORM_DP).append(" cm\n");
     }
     
     /**
@@ -192,35 +203,42 @@ public class GraphicsStream extends Stream {
      */
     void applyClip(Shape clip) {
         Args.nullNotPermitted(clip, "clip");
-        StringBuilder b = new StringBuilder();
-        Path2D p = new Path2D.Double(clip);
-        b.append(getPDFPath(p));
-        b.append("W n\n");
-        addContent(b.toString());
+        writeShape(clip);
+        content().append("W n\n");
     }
     
     /**
-     * Applies a stroke.  If the stroke is not an instance of 
-     * {@code BasicStroke} this method will do nothing.
+     * Applies a stroke.  The cap and join styles of {@code BasicStroke} 
+     * have the same numbering as the PDF line cap and line join styles.  The
+     * miter limit is only written for mitered joins, the only ones it 
+     * affects, and only when it differs from the limit in effect.
      * 
-     * @param s  the stroke. 
+     * @param bs  the stroke ({@code null} not permitted). 
      */
-    void applyStroke(Stroke s) {
-        if (!(s instanceof BasicStroke)) {
-            return;
+    void applyStroke(BasicStroke bs) {
+        ContentBuffer b = content();
+        b.append(bs.getLineWidth(), GEOMETRY_DP).append(" w\n");
+        b.append(bs.getEndCap() + " J\n");
+        b.append(bs.getLineJoin() + " j\n");
+        if (bs.getLineJoin() == BasicStroke.JOIN_MITER 
+                && bs.getMiterLimit() != this.miterLimit) {
+            this.miterLimit = bs.getMiterLimit();
+            b.append(this.miterLimit, GEOMETRY_DP).append(" M\n");
         }
-        BasicStroke bs = (BasicStroke) s;
-        StringBuilder b = new StringBuilder();
-        b.append(bs.getLineWidth()).append(" ").append("w\n");
-        b.append(bs.getEndCap()).append(" J\n");
-        b.append(bs.getLineJoin()).append(" j\n");
         float[] dashArray = bs.getDashArray();
         if (dashArray != null) {
-            b.append(PDFUtils.toPDFArray(dashArray)).append(" 0 d\n");
+            b.append('[');
+            for (int i = 0; i < dashArray.length; i++) {
+                if (i != 0) {
+                    b.append(' ');
+                }
+                b.append(dashArray[i], GEOMETRY_DP);
+            }
+            b.append("] ");
+            b.append(bs.getDashPhase(), GEOMETRY_DP).append(" d\n");
         } else {
             b.append("[] 0 d\n");
         }
-        addContent(b.toString());
     }
     
     /**
@@ -347,35 +365,18 @@ public class GraphicsStream extends Stream {
         }
     }
     
-    private String geomDP(double d) {
-        if (this.geometryFormat != null) {
-            return geometryFormat.format(d);            
-        } else {
-            return String.valueOf(d);
-        }
-    }
-    
-    private String transformDP(double d) {
-        if (this.transformFormat != null) {
-            return transformFormat.format(d);            
-        } else {
-            return String.valueOf(d);
-        }
-    }
-
     /**
      * Draws the specified line.
      * 
      * @param line  the line ({@code null} not permitted). 
      */
     void drawLine(Line2D line) {
-        StringBuilder b = new StringBuilder();
-        b.append(geomDP(line.getX1())).append(" ").append(geomDP(line.getY1()))
-                .append(" ").append("m\n");
-        b.append(geomDP(line.getX2())).append(" ").append(geomDP(line.getY2()))
-                .append(" ").append("l\n");
+        ContentBuffer b = content();
+        b.append(line.getX1(), GEOMETRY_DP).append(' ')
+                .append(line.getY1(), GEOMETRY_DP).append(" m\n");
+        b.append(line.getX2(), GEOMETRY_DP).append(' ')
+                .append(line.getY2(), GEOMETRY_DP).append(" l\n");
         b.append("S\n");
-        addContent(b.toString());
     }
     
     /**
@@ -384,9 +385,8 @@ public class GraphicsStream extends Stream {
      * @param path  the path ({@code null} not permitted). 
      */
     void drawPath2D(Path2D path) {
-        StringBuilder b = new StringBuilder();
-        b.append(getPDFPath(path)).append("S\n");
-        addContent(b.toString());
+        writePath(path);
+        content().append("S\n");
     }
     
     /**
@@ -395,9 +395,38 @@ public class GraphicsStream extends Stream {
      * @param path  the path ({@code null} not permitted).
      */
     void fillPath2D(Path2D path) {
-        StringBuilder b = new StringBuilder();
-        b.append(getPDFPath(path)).append("f\n");
-        addContent(b.toString());
+        writePath(path);
+        content().append("f\n");
+    }
+    
+    /**
+     * Draws the specified shape.  Nothing is written for an empty rectangle
+     * or ellipse (one with a negative width or height), matching Java2D.
+     * 
+     * @param s  the shape ({@code null} not permitted).
+     * 
+     * @since 1.9
+     */
+    void drawShape(Shape s) {
+        if (s instanceof Line2D) {
+            drawLine((Line2D) s);
+        } else if (writeShape(s)) {
+            content().append("S\n");
+        }
+    }
+    
+    /**
+     * Fills the specified shape.  Nothing is written for an empty rectangle
+     * or ellipse (one with a negative width or height), matching Java2D.
+     * 
+     * @param s  the shape ({@code null} not permitted).
+     * 
+     * @since 1.9
+     */
+    void fillShape(Shape s) {
+        if (writeShape(s)) {
+            content().append("f\n");
+        }
     }
     
     /**
@@ -426,12 +455,11 @@ public class GraphicsStream extends Stream {
         AffineTransform t = new AffineTransform(1.0, 0.0, 0.0, -1.0, 0.0, 
                 y * 2); 
         applyTextTransform(t);
-        StringBuilder b = new StringBuilder();
-        b.append(fontRef).append(" ").append(this.font.getSize())
+        ContentBuffer b = content();
+        b.append(fontRef).append(' ').append(this.font.getSize(), 0)
                 .append(" Tf ");
-        b.append(geomDP(x)).append(" ").append(geomDP(y)).append(" Td (")
-                .append(text).append(") Tj ET\n");
-        addContent(b.toString());
+        b.append(x, GEOMETRY_DP).append(' ').append(y, GEOMETRY_DP)
+                .append(" Td (").append(text).append(") Tj ET\n");
     }
 
     /**
@@ -445,26 +473,117 @@ public class GraphicsStream extends Stream {
      */
     void drawImage(Image img, int x, int y, int w, int h) {
         String imageRef = this.page.addImage(img, true);
-        StringBuilder b = new StringBuilder();
+        ContentBuffer b = content();
         b.append("q\n");
-        b.append(geomDP(w)).append(" 0 0 ").append(geomDP(h)).append(" ");
-        b.append(geomDP(x)).append(" ").append(geomDP(y)).append(" cm\n");
+        b.append(w, GEOMETRY_DP).append(" 0 0 ").append(h, GEOMETRY_DP)
+                .append(' ');
+        b.append(x, GEOMETRY_DP).append(' ').append(y, GEOMETRY_DP)
+                .append(" cm\n");
         b.append(imageRef).append(" Do\n");
         b.append("Q\n");
-        addContent(b.toString());
     }
 
     /**
-     * A utility method to convert a {@code Path2D} instance to a PDF 
-     * path string.
+     * Draws the specified JPEG image into the rectangle {@code (x, y, w, h)}.
+     * The rows of JPEG data run from top to bottom, so the image is mapped
+     * with a negative height.  Nothing is written if the data is not a 
+     * supported JPEG image.
      * 
-     * @param path  the path ({@code null} not permitted).
+     * @param data  the content of a JPEG file.
+     * @param x  the x-coordinate of the destination.
+     * @param y  the y-coordinate of the destination.
+     * @param w  the width of the destination.
+     * @param h  the height of the destination.
+     * @param clip  a clip to apply while drawing the image ({@code null} 
+     *     permitted).
      * 
-     * @return The string. 
+     * @since 1.9
      */
-    private String getPDFPath(Path2D path) {
-        StringBuilder b = new StringBuilder();   
-        float[] coords = new float[6];
+    void drawJPEGImage(byte[] data, int x, int y, int w, int h, Shape clip) {
+        String imageRef = this.page.addJPEGImage(data);
+        ContentBuffer b = content();
+        b.append("q\n");
+        if (clip != null) {
+            applyClip(clip);
+        }
+        b.append(w, GEOMETRY_DP).append(" 0 0 ").append(-h, GEOMETRY_DP)
+                .append(' ');
+        b.append(x, GEOMETRY_DP).append(' ').append(y + h, GEOMETRY_DP)
+                .append(" cm\n");
+        b.append(imageRef).append(" Do\n");
+        b.append("Q\n");
+    }
+
+    /**
+     * Writes the PDF path operators for a shape to the content: the 
+     * {@code re} operator for a rectangle, four Bezier curves for an 
+     * ellipse (the same curves that Java2D uses) and the segments from the
+     * path iterator otherwise.
+     * 
+     * @param s  the shape ({@code null} not permitted).
+     * 
+     * @return {@code false} if the shape is an empty rectangle or ellipse
+     *     and nothing was written.
+     */
+    private boolean writeShape(Shape s) {
+        if (s instanceof Rectangle2D) {
+            Rectangle2D r = (Rectangle2D) s;
+            if (r.getWidth() < 0.0 || r.getHeight() < 0.0) {
+                return false;
+            }
+            content().append(r.getX(), GEOMETRY_DP).append(' ')
+                    .append(r.getY(), GEOMETRY_DP).append(' ')
+                    .append(r.getWidth(), GEOMETRY_DP).append(' ')
+                    .append(r.getHeight(), GEOMETRY_DP).append(" re\n");
+        } else if (s instanceof Ellipse2D) {
+            Ellipse2D e = (Ellipse2D) s;
+            double w = e.getWidth();
+            double h = e.getHeight();
+            if (w < 0.0 || h < 0.0) {
+                return false;
+            }
+            double x = e.getX();
+            double y = e.getY();
+            double pcv = 0.5 + ELLIPSE_CTRL * 0.5;
+            double ncv = 0.5 - ELLIPSE_CTRL * 0.5;
+            ContentBuffer b = content();
+            b.append(x + w, GEOMETRY_DP).append(' ');
+            b.append(y + 0.5 * h, GEOMETRY_DP).append(" m\n");
+            writeCurve(x + w, y + pcv * h, x + pcv * w, y + h, 
+                    x + 0.5 * w, y + h);
+            writeCurve(x + ncv * w, y + h, x, y + pcv * h, 
+                    x, y + 0.5 * h);
+            writeCurve(x, y + ncv * h, x + ncv * w, y, 
+                    x + 0.5 * w, y);
+            writeCurve(x + pcv * w, y, x + w, y + ncv * h, 
+                    x + w, y + 0.5 * h);
+            b.append("h\n");
+        } else {
+            writePath(s);
+        }
+        return true;
+    }
+    
+    private void writeCurve(double x1, double y1, double x2, double y2, 
+            double x3, double y3) {
+        ContentBuffer b = content();
+        b.append(x1, GEOMETRY_DP).append(' ');
+        b.append(y1, GEOMETRY_DP).append(' ');
+        b.append(x2, GEOMETRY_DP).append(' ');
+        b.append(y2, GEOMETRY_DP).append(' ');
+        b.append(x3, GEOMETRY_DP).append(' ');
+        b.append(y3, GEOMETRY_DP).append(" c\n");
+    }
+    
+    /**
+     * Writes the PDF path operators for a shape to the content, from the
+     * shape's path iterator.
+     * 
+     * @param path  the shape ({@code null} not permitted).
+     */
+    private void writePath(Shape path) {
+        ContentBuffer b = content();
+        float[] coords = this.coords;
         float lastX = 0;
         float lastY = 0;
         PathIterator iterator = path.getPathIterator(null);
@@ -472,14 +591,14 @@ public class GraphicsStream extends Stream {
             int type = iterator.currentSegment(coords);
             switch (type) {
             case (PathIterator.SEG_MOVETO):
-                b.append(geomDP(coords[0])).append(" ");
-                b.append(geomDP(coords[1])).append(" m\n");
+                b.append(coords[0], GEOMETRY_DP).append(' ');
+                b.append(coords[1], GEOMETRY_DP).append(" m\n");
                 lastX = coords[0];
                 lastY = coords[1];
                 break;
             case (PathIterator.SEG_LINETO):
-                b.append(geomDP(coords[0])).append(" ");
-                b.append(geomDP(coords[1])).append(" l\n");                
+                b.append(coords[0], GEOMETRY_DP).append(' ');
+                b.append(coords[1], GEOMETRY_DP).append(" l\n");
                 lastX = coords[0];
                 lastY = coords[1];
                 break;
@@ -492,22 +611,22 @@ public class GraphicsStream extends Stream {
                 float y0 = 0.25f * lastY + 0.75f * coords[1];
                 float x1 = 0.5f * coords[0] + 0.5f * coords[2];
                 float y1 = 0.5f * coords[1] + 0.5f * coords[3];
-                b.append(geomDP(x0)).append(" ");
-                b.append(geomDP(y0)).append(" ");
-                b.append(geomDP(x1)).append(" ");
-                b.append(geomDP(y1)).append(" ");
-                b.append(geomDP(coords[2])).append(" ");
-                b.append(geomDP(coords[3])).append(" c\n");
+                b.append(x0, GEOMETRY_DP).append(' ');
+                b.append(y0, GEOMETRY_DP).append(' ');
+                b.append(x1, GEOMETRY_DP).append(' ');
+                b.append(y1, GEOMETRY_DP).append(' ');
+                b.append(coords[2], GEOMETRY_DP).append(' ');
+                b.append(coords[3], GEOMETRY_DP).append(" c\n");
                 lastX = coords[2];
                 lastY = coords[3];
                 break;
             case (PathIterator.SEG_CUBICTO):
-                b.append(geomDP(coords[0])).append(" ");
-                b.append(geomDP(coords[1])).append(" ");
-                b.append(geomDP(coords[2])).append(" ");
-                b.append(geomDP(coords[3])).append(" ");
-                b.append(geomDP(coords[4])).append(" ");
-                b.append(geomDP(coords[5])).append(" c\n");
+                b.append(coords[0], GEOMETRY_DP).append(' ');
+                b.append(coords[1], GEOMETRY_DP).append(' ');
+                b.append(coords[2], GEOMETRY_DP).append(' ');
+                b.append(coords[3], GEOMETRY_DP).append(' ');
+                b.append(coords[4], GEOMETRY_DP).append(' ');
+                b.append(coords[5], GEOMETRY_DP).append(" c\n");
                 lastX = coords[4];
                 lastY = coords[5];
                 break;
@@ -519,11 +638,25 @@ public class GraphicsStream extends Stream {
             }
             iterator.next();
         }
-        return b.toString();
+    }
+
+    /**
+     * Discards the content once it has been written out by a streaming 
+     * document.  Any further drawing throws an 
+     * {@code IllegalStateException}.
+     * 
+     * @since 1.9
+     */
+    @Override
+    void release() {
+        this.content = null;
     }
 
     @Override
     public byte[] getRawStreamData() {
+        if (this.content == null) {
+            throw new IllegalStateException("The content has been released.");
+        }
         return this.content.toByteArray();
     }
 
@@ -0,0 +1,188 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.Image;
+import java.awt.image.BufferedImage;
+import java.awt.image.WritableRaster;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+
+/**
+ * Extracts the pixel data of images in the form written to the PDF output
+ * (8-bit RGB samples and, for the soft mask, 8-bit alpha samples, with the 
+ * rows from bottom to top), and computes the content hash used to share one
+ * image object between repeated uses of the same image.  You won't normally
+ * interact directly with this class.
+ * 
+ * @since 1.9
+ */
+final class ImageData {
+    
+    private static final char[] HEX = "0123456789abcdef".toCharArray();
+    
+    private ImageData() {
+        // no need to instantiate this
+    }
+    
+    /**
+     * Returns the image itself if it is a {@code BufferedImage}, otherwise
+     * draws it onto a new transparent {@code BufferedImage}.
+     * 
+     * @param img  the image ({@code null} not permitted).
+     * 
+     * @return A buffered image. 
+     */
+    static BufferedImage toBufferedImage(Image img) {
+        if (img instanceof BufferedImage) {
+            return (BufferedImage) img;
+        }
+        int width = img.getWidth(null);
+        int height = img.getHeight(null);
+        BufferedImage bi = new BufferedImage(width, height, 
+                BufferedImage.TYPE_INT_ARGB);
+        Graphics2D g2 = bi.createGraphics();
+        g2.setBackground(new Color(255, 255, 255, 0));
+        g2.clearRect(0, 0, width, height);
+        g2.drawImage(img, 0, 0, null);
+        g2.dispose();
+        return bi;
+    }
+    
+    /**
+     * Extracts the samples of an image.  The raster is read a row at a time;
+     * for the common image types the rows are copied straight from the data
+     * buffer without converting each pixel through the color model, which
+     * is what {@code BufferedImage.getRGB(int, int)} would do.  The result
+     * is the same.
+     * 
+     * @param bi  the image ({@code null} not permitted).
+     * @param rgb  an array of length {@code width * height * 3} for the 
+     *     color samples ({@code null} permitted).
+     * @param alpha  an array of length {@code width * height} for the alpha
+     *     samples ({@code null} permitted).
+     */
+    static void extract(BufferedImage bi, byte[] rgb, byte[] alpha) {
+        int width = bi.getWidth();
+        int height = bi.getHeight();
+        WritableRaster raster = bi.getRaster();
+        int type = bi.getType();
+        int i = 0;
+        int j = 0;
+        if (type == BufferedImage.TYPE_3BYTE_BGR 
+                || type == BufferedImage.TYPE_4BYTE_ABGR) {
+            // the data elements are returned in band order: R, G, B (, A)
+            int bands = type == BufferedImage.TYPE_3BYTE_BGR ? 3 : 4;
+            byte[] row = new byte[width * bands];
+            for (int y = height - 1; y >= 0; y--) {
+                raster.getDataElements(0, y, width, 1, row);
+                for (int k = 0; k < row.length; k += bands) {
+                    if (rgb != null) {
+                        rgb[i++] = row[k];
+                        rgb[i++] = row[k + 1];
+                        rgb[i++] = row[k + 2];
+                    }
+                    if (alpha != null) {
+                        alpha[j++] = bands == 4 ? row[k + 3] : (byte) 255;
+                    }
+                }
+            }
+            return;
+        }
+        int[] row = new int[width];
+        boolean opaque = type == BufferedImage.TYPE_INT_RGB 
+                || type == BufferedImage.TYPE_INT_BGR;
+        for (int y = height - 1; y >= 0; y--) {
+            if (type == BufferedImage.TYPE_INT_RGB 
+                    || type == BufferedImage.TYPE_INT_ARGB) {
+                raster.getDataElements(0, y, width, 1, row);
+            } else if (type == BufferedImage.TYPE_INT_BGR) {
+                raster.getDataElements(0, y, width, 1, row);
+                for (int x = 0; x < width; x++) {
+                    int p = row[x];
+                    row[x] = (p & 0xff) << 16 | (p & 0xff00) | (p >> 16 & 0xff);
+                }
+            } else {
+                bi.getRGB(0, y, width, 1, row, 0, width);
+            }
+            for (int x = 0; x < width; x++) {
+                int p = row[x];
+                if (rgb != null) {
+                    rgb[i++] = (byte) (p >> 16);
+                    rgb[i++] = (byte) (p >> 8);
+                    rgb[i++] = (byte) p;
+                }
+                if (alpha != null) {
+                    alpha[j++] = opaque ? (byte) 255 : (byte) (p >> 24);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns a hash of the specified data, as a hex string.
+     * 
+     * @param prefix  a prefix for the key, and part of the hash.
+     * @param width  the image width.
+     * @param height  the image height.
+     * @param data  the data arrays to include ({@code null} entries are
+     *     skipped).
+     * 
+     * @return The key. 
+     */
+    static String key(String prefix, int width, int height, byte[]... data) {
+        MessageDigest digest;
+        try {
+            digest = MessageDigest.getInstance("SHA-1");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new RuntimeException(ex);
+        }
+        digest.update(PDFUtils.toBytes(prefix + " " + width + " " + height));
+        for (byte[] d : data) {
+            if (d != null) {
+                digest.update((byte) 0);
+                digest.update(d);
+            }
+        }
+        byte[] hash = digest.digest();
+        StringBuilder b = new StringBuilder(prefix).append(':');
+        for (byte h : hash) {
+            b.append(HEX[(h >> 4) & 0xf]).append(HEX[h & 0xf]);
+        }
+        return b.toString();
+    }
+
+}
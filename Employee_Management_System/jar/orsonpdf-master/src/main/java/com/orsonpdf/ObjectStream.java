@@ -0,0 +1,133 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+
+/**
+ * An object stream (PDF 1.5), which holds the bodies of a number of 
+ * non-stream objects so that they can be compressed together.  Each object is
+ * identified in the cross-reference stream by the number of the object 
+ * stream and its index within it.  You won't normally interact directly with
+ * this class, it is used by {@link PDFWriter}.
+ * 
+ * @since 1.9
+ */
+final class ObjectStream extends Stream {
+
+    /** The object numbers and offsets that precede the object bodies. */
+    private StringBuilder header;
+    
+    /** The object bodies. */
+    private ByteArrayOutputStream body;
+    
+    /** The number of objects added so far. */
+    private int count;
+    
+    /**
+     * Creates a new empty object stream.
+     * 
+     * @param number  the PDF object number.
+     */
+    ObjectStream(int number) {
+        super(number);
+        this.header = new StringBuilder();
+        this.body = new ByteArrayOutputStream();
+    }
+    
+    /**
+     * Returns the number of objects in the stream.
+     * 
+     * @return The number of objects in the stream. 
+     */
+    int getCount() {
+        return this.count;
+    }
+    
+    /**
+     * Adds an object to the stream.  The object must not be a 
+     * {@link Stream}.
+     * 
+     * @param object  the object ({@code null} not permitted).
+     * 
+     * @return The index of the object within the stream.
+     * 
+     * @throws IOException if there is a problem getting the object bytes.
+     */
+    int add(PDFObject object) throws IOException {
+        if (this.count > 0) {
+            this.header.append(' ');
+        }
+        this.header.append(object.getNumber()).append(' ');
+        this.header.append(this.body.size());
+        this.body.write(object.getObjectBytes());
+        return this.count++;
+    }
+    
+    @Override
+    public byte[] getRawStreamData() {
+        ByteArrayOutputStream baos = new ByteArrayOutputStream();
+        try {
+            baos.write(PDFUtils.toBytes(this.header + "\n"));
+            this.body.writeTo(baos);
+        } catch (IOException ex) {
+            throw new RuntimeException(ex);
+        }
+        return baos.toByteArray();
+    }
+    
+    @Override
+    void release() {
+        this.header = null;
+        this.body = null;
+    }
+
+    /**
+     * Creates the dictionary for the object stream.
+     * 
+     * @param streamLength  the stream length.
+     * 
+     * @return The dictionary. 
+     */
+    @Override
+    protected Dictionary createDictionary(int streamLength) {
+        Dictionary dictionary = super.createDictionary(streamLength);
+        dictionary.setType("/ObjStm");
+        dictionary.put("/N", Integer.valueOf(this.count));
+        dictionary.put("/First", Integer.valueOf(this.header.length() + 1));
+        return dictionary;
+    }
+
+}
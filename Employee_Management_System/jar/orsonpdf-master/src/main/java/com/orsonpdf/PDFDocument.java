@@ -32,18 +32,27 @@
 
 package com.orsonpdf;
 
+import java.awt.Image;
 import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.BufferedOutputStream;
 import java.io.ByteArrayOutputStream;
+import java.io.Closeable;
 import java.io.File;
 import java.io.FileNotFoundException;
 import java.io.FileOutputStream;
 import java.io.IOException;
-import java.io.UnsupportedEncodingException;
+import java.io.OutputStream;
+import java.nio.channels.Channels;
+import java.nio.channels.WritableByteChannel;
 import java.util.ArrayList;
 import java.util.Date;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import com.orsonpdf.filter.FlateFilter;
 import com.orsonpdf.util.Args;
 
 /**
@@ -58,10 +67,21 @@ import com.orsonpdf.util.Args;
  * <code>g2.draw(new Rectangle(10, 10, 40, 50));<br></code>
  * <code>pdfDoc.writeToFile(new File("demo.pdf"));<br></code>
  * <p>
+ * For long documents the output can be streamed instead, so that only the 
+ * page being drawn is held in memory:
+ * <p>
+ * <code>PDFDocument pdfDoc = new PDFDocument();<br></code>
+ * <code>pdfDoc.startStreaming(new FileOutputStream("report.pdf"));<br></code>
+ * <code>for (...) {<br></code>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;Page page = pdfDoc.createPage(new Rectangle(612, 468));<br></code>
+ * <code>&nbsp;&nbsp;&nbsp;&nbsp;// draw on page.getGraphics2D()<br></code>
+ * <code>}<br></code>
+ * <code>pdfDoc.close();<br></code>
+ * <p>
  * The implementation is light-weight and works very well alongside packages 
  * such as <b>JFreeChart</b> and <b>Orson Charts</b>.
  */
-public class PDFDocument {
+public class PDFDocument implements Closeable {
     
     private static final Logger LOGGER = Logger.getLogger(
             PDFDocument.class.getName());
@@ -90,6 +110,13 @@ public class PDFDocument {
     /** A list of other objects added to the document. */
     private List<PDFObject> otherObjects;
     
+    /** 
+     * The images in the document, by content hash, so that an image that is
+     * drawn repeatedly (a logo on every page, for example) is only embedded
+     * once.
+     */
+    private Map<String, Stream> images;
+    
     /** The next PDF object number in the document. */
     private int nextNumber = 1;
 
@@ -99,6 +126,25 @@ public class PDFDocument {
      * the output can be read in a text editor.
      */
     private boolean debug;
+    
+    /**
+     * A flag that controls whether the document is written as PDF 1.5, with
+     * the objects other than streams packed into compressed object streams
+     * and a cross-reference stream in place of the cross-reference table.
+     */
+    private boolean objectStreamsEnabled;
+    
+    /** 
+     * The writer for the document output when streaming, otherwise 
+     * {@code null}.
+     */
+    private PDFWriter writer;
+    
+    /** The number of pages already written when streaming. */
+    private int pagesWritten;
+    
+    /** A flag that is set once a streamed document has been closed. */
+    private boolean closed;
 
     /**
      * Creates a new {@code PDFDocument}, initially with no content.
@@ -119,6 +165,7 @@ public class PDFDocument {
         this.pages = new Pages(this.nextNumber++, 0, this);
         this.catalog.put("Pages", this.pages);
         this.otherObjects = new ArrayList<PDFObject>();
+        this.images = new HashMap<String, Stream>();
     }
     
     /**
@@ -190,16 +237,62 @@ public class PDFDocument {
     public void setDebugMode(boolean debug) {
         this.debug = debug;
     }
+    
+    /**
+     * Returns the flag that controls whether the document is written as 
+     * PDF 1.5 with object streams.  The default is {@code false}.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.9
+     */
+    public boolean isObjectStreamsEnabled() {
+        return this.objectStreamsEnabled;
+    }
+    
+    /**
+     * Sets the flag that controls whether the document is written as PDF 1.5
+     * with object streams.  When set, the page, font, graphics state and 
+     * other dictionaries are packed into object streams that are compressed
+     * together (unless the debug mode is set), and the cross-reference 
+     * table and trailer are replaced by a compressed cross-reference stream.
+     * This makes the output smaller, particularly for documents with many
+     * pages, but it requires a PDF 1.5 reader (Acrobat 6 or later).  The 
+     * flag must be set before streaming is started.
+     * 
+     * @param enabled  the new flag value.
+     * 
+     * @since 1.9
+     */
+    public void setObjectStreamsEnabled(boolean enabled) {
+        if (this.writer != null) {
+            throw new IllegalStateException(
+                    "The document is already being streamed.");
+        }
+        this.objectStreamsEnabled = enabled;
+    }
 
     /**
      * Creates a new {@code Page}, adds it to the document, and returns
-     * a reference to the {@code Page}.
+     * a reference to the {@code Page}.  When the document is being streamed
+     * (see {@link #startStreaming(java.io.OutputStream)}), the pages created 
+     * earlier are written out first and can no longer be drawn on.
      * 
      * @param bounds  the page bounds ({@code null} not permitted).
      * 
      * @return The new page. 
      */
     public Page createPage(Rectangle2D bounds) {
+        if (this.writer != null) {
+            if (this.closed) {
+                throw new IllegalStateException("The document is closed.");
+            }
+            try {
+                writePages();
+            } catch (IOException ex) {
+                throw new RuntimeException(ex);
+            }
+        }
         Page page = new Page(this.nextNumber++, 0, this.pages, bounds, 
                 !this.debug);
         this.pages.add(page);
@@ -216,6 +309,75 @@ public class PDFDocument {
         this.otherObjects.add(object);
     }
 
+    /**
+     * Returns the image object for the specified image, creating it (and 
+     * adding it to the document) if an image with the same content has not
+     * been added before.  The samples are extracted straight away, both to 
+     * compute the content hash and so that later changes to a 
+     * {@code BufferedImage} do not affect the output.
+     * 
+     * @param img  the image ({@code null} not permitted).
+     * @param addSoftMaskImage  add a soft mask image with the alpha values?
+     * 
+     * @return The image object.
+     * 
+     * @since 1.9
+     */
+    PDFImage findOrCreateImage(Image img, boolean addSoftMaskImage) {
+        Args.nullNotPermitted(img, "img");
+        BufferedImage bi = ImageData.toBufferedImage(img);
+        int w = bi.getWidth();
+        int h = bi.getHeight();
+        byte[] rgb = new byte[w * h * 3];
+        byte[] alpha = addSoftMaskImage ? new byte[w * h] : null;
+        ImageData.extract(bi, rgb, alpha);
+        String key = ImageData.key("RGB", w, h, rgb, alpha);
+        PDFImage image = (PDFImage) this.images.get(key);
+        if (image == null) {
+            String softMaskImageRef = null;
+            if (alpha != null) {
+                PDFSoftMaskImage softMaskImage = new PDFSoftMaskImage(
+                        getNextNumber(), w, h, alpha);
+                softMaskImage.addFilter(new FlateFilter());
+                addObject(softMaskImage);
+                softMaskImageRef = softMaskImage.getReference();
+            }
+            image = new PDFImage(getNextNumber(), w, h, rgb, 
+                    softMaskImageRef);
+            image.addFilter(new FlateFilter());
+            addObject(image);
+            this.images.put(key, image);
+        }
+        return image;
+    }
+    
+    /**
+     * Returns the image object for the specified JPEG data, creating it (and
+     * adding it to the document) if the same data has not been added before.
+     * 
+     * @param data  the content of a JPEG file ({@code null} not permitted).
+     * 
+     * @return The image object.
+     * 
+     * @throws IllegalArgumentException if {@code data} is not a supported
+     *     JPEG image.
+     * 
+     * @since 1.9
+     */
+    PDFJPEGImage findOrCreateJPEGImage(byte[] data) {
+        Args.nullNotPermitted(data, "data");
+        String key = ImageData.key("DCT", 0, 0, data);
+        PDFJPEGImage image = (PDFJPEGImage) this.images.get(key);
+        if (image == null) {
+            // the number is only taken once the data is known to be valid
+            image = new PDFJPEGImage(this.nextNumber, data);
+            getNextNumber();
+            addObject(image);
+            this.images.put(key, image);
+        }
+        return image;
+    }
+
     /**
      * Returns a new PDF object number and increments the internal counter
      * for the next PDF object number.  This method is used to ensure that
@@ -229,71 +391,190 @@ public class PDFDocument {
         return result;
     }
 
+    /**
+     * Returns {@code true} if the document is being written to a stream as
+     * its pages are completed, and {@code false} if it is held in memory
+     * until {@link #getPDFBytes()} is called.
+     * 
+     * @return A boolean.
+     * 
+     * @since 1.9
+     */
+    public boolean isStreaming() {
+        return this.writer != null;
+    }
+    
+    /**
+     * Starts writing the document to the specified stream.  From now on, 
+     * each page is written out (along with the images, patterns and other 
+     * resources it uses) when the next page is created, and its content is 
+     * then released, so memory use is bounded by the page being drawn rather
+     * than the whole document.  The fonts, the page tree, the document 
+     * information and the cross-reference table are written by 
+     * {@link #close()}, which must be called to complete the document and 
+     * which also closes the stream.  The title and author can be set at any 
+     * time before then.
+     * <p>
+     * A page must not be drawn on once the next page has been created; doing
+     * so throws an {@code IllegalStateException}.
+     * 
+     * @param out  the output stream ({@code null} not permitted).
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     * 
+     * @since 1.9
+     */
+    public void startStreaming(OutputStream out) throws IOException {
+        Args.nullNotPermitted(out, "out");
+        if (this.writer != null) {
+            throw new IllegalStateException(
+                    "The document is already being streamed.");
+        }
+        this.writer = createWriter(new BufferedOutputStream(out));
+        this.writer.writeHeader(getVersion());
+    }
+
+    /**
+     * Starts writing the document to the specified channel (for example, a
+     * {@code FileChannel}).  See {@link #startStreaming(java.io.OutputStream)}
+     * for details.
+     * 
+     * @param channel  the channel ({@code null} not permitted).
+     * 
+     * @throws IOException if there is a problem writing to the channel.
+     * 
+     * @since 1.9
+     */
+    public void startStreaming(WritableByteChannel channel) 
+            throws IOException {
+        Args.nullNotPermitted(channel, "channel");
+        startStreaming(Channels.newOutputStream(channel));
+    }
+    
+    /**
+     * Returns the number of bytes written so far when the document is being
+     * streamed, otherwise {@code 0}.
+     * 
+     * @return The number of bytes written.
+     * 
+     * @since 1.9
+     */
+    public long getBytesWritten() {
+        return this.writer != null ? this.writer.getPosition() : 0L;
+    }
+    
+    /**
+     * Completes a streamed document by writing the remaining pages, the fonts,
+     * the page tree, the catalog and document information, and finally the 
+     * cross-reference table and trailer, then closes the stream.  For a 
+     * document that is not being streamed this method does nothing.  Calling
+     * this method more than once has no further effect.
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     * 
+     * @since 1.9
+     */
+    @Override
+    public void close() throws IOException {
+        if (this.writer == null || this.closed) {
+            return;
+        }
+        this.closed = true;
+        try {
+            writePages();
+            for (PDFFont font: this.pages.getFonts()) {
+                this.writer.writeObject(font);
+            }
+            this.writer.writeObject(this.pages);
+            this.writer.writeObject(this.catalog);
+            this.writer.writeObject(this.outlines);
+            this.writer.writeObject(this.info);
+            this.writer.writeXrefAndTrailer(this.nextNumber, this.catalog, 
+                    this.info);
+            this.writer.flush();
+        } finally {
+            this.writer.close();
+        }
+    }
+    
+    /**
+     * Writes the pages that have not been written yet, followed by the 
+     * objects added to the document since the last call, then releases 
+     * them.
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    private void writePages() throws IOException {
+        List<Page> pageList = this.pages.getPages();
+        for (int i = this.pagesWritten; i < pageList.size(); i++) {
+            Page page = pageList.get(i);
+            this.writer.writeObject(page);
+            this.writer.writeObject(page.getContents());
+            page.release();
+        }
+        this.pagesWritten = pageList.size();
+        for (PDFObject object: this.otherObjects) {
+            this.writer.writeObject(object);
+            if (object instanceof Stream) {
+                ((Stream) object).release();
+            }
+        }
+        this.otherObjects.clear();
+        this.writer.flush();
+    }
+
     /**
      * Returns a byte array containing the encoding of this PDF document.
+     * This is not available when the document is being streamed.
      * 
      * @return A byte array containing the encoding of this PDF document. 
      */
     public byte[] getPDFBytes() {
-        int[] xref = new int[this.nextNumber];
+        if (this.writer != null) {
+            throw new IllegalStateException(
+                    "The document is being streamed.");
+        }
         ByteArrayOutputStream bos = new ByteArrayOutputStream();
+        PDFWriter w = createWriter(bos);
+        // the writer takes numbers for any object streams, which are only
+        // needed for this output, so the next number is restored afterwards
+        int next = this.nextNumber;
         try {
-            bos.write(toBytes("%PDF-1.4\n"));
-            bos.write(new byte[] { (byte) 37, (byte) 128, (byte) 129, 
-                (byte) 130, (byte) 131, (byte) 10});
-            xref[this.catalog.getNumber() - 1] = bos.size();  // offset to catalog
-            bos.write(this.catalog.toPDFBytes());
-            xref[this.outlines.getNumber() - 1] = bos.size();  // offset to outlines
-            bos.write(this.outlines.toPDFBytes());            
-            xref[this.info.getNumber() - 1] = bos.size();  // offset to info
-            bos.write(this.info.toPDFBytes());
-            xref[this.pages.getNumber() - 1] = bos.size();  // offset to pages
-            bos.write(this.pages.toPDFBytes());
+            w.writeHeader(getVersion());
+            w.writeObject(this.catalog);
+            w.writeObject(this.outlines);
+            w.writeObject(this.info);
+            w.writeObject(this.pages);
             for (Page page : this.pages.getPages()) {
-                xref[page.getNumber() - 1] = bos.size();
-                bos.write(page.toPDFBytes());
-                PDFObject contents = page.getContents();
-                xref[contents.getNumber() - 1] = bos.size();
-                bos.write(contents.toPDFBytes());
+                w.writeObject(page);
+                w.writeObject(page.getContents());
             }
             for (PDFFont font: this.pages.getFonts()) {
-                xref[font.getNumber() - 1] = bos.size();
-                bos.write(font.toPDFBytes());
+                w.writeObject(font);
             }
             for (PDFObject object: this.otherObjects) {
-                xref[object.getNumber() - 1] = bos.size();
-                bos.write(object.toPDFBytes());
-            }
-            xref[xref.length - 1] = bos.size();
-            // write the xref table
-            bos.write(toBytes("xref\n"));
-            bos.write(toBytes("0 " + String.valueOf(this.nextNumber) 
-                    + "\n"));
-            bos.write(toBytes("0000000000 65535 f \n"));
-            for (int i = 0; i < this.nextNumber - 1; i++) {
-                String offset = String.valueOf(xref[i]);
-                int len = offset.length();
-                String offset10 = "0000000000".substring(len) + offset;
-                bos.write(toBytes(offset10 + " 00000 n \n"));
+                w.writeObject(object);
             }
-  
-            // write the trailer
-            bos.write(toBytes("trailer\n"));
-            Dictionary trailer = new Dictionary();
-            trailer.put("/Size", Integer.valueOf(this.nextNumber));
-            trailer.put("/Root", this.catalog);
-            trailer.put("/Info", this.info);
-            bos.write(trailer.toPDFBytes());
-            bos.write(toBytes("startxref\n"));
-            bos.write(toBytes(String.valueOf(xref[this.nextNumber - 1]) 
-                    + "\n"));
-            bos.write(toBytes("%%EOF"));
+            w.writeXrefAndTrailer(this.nextNumber, this.catalog, this.info);
         } catch (IOException ex) {
             throw new RuntimeException(ex);
+        } finally {
+            this.nextNumber = next;
         }
         return bos.toByteArray();
     }
     
+    private PDFWriter createWriter(OutputStream out) {
+        if (this.objectStreamsEnabled) {
+            return new PDFWriter(out, this, !this.debug);
+        }
+        return new PDFWriter(out);
+    }
+    
+    private String getVersion() {
+        return this.objectStreamsEnabled ? "1.5" : "1.4";
+    }
+    
     /**
      * Writes the PDF document to a file.  This is not a robust method, it
      * exists mainly for the demo output. 
@@ -319,22 +600,5 @@ public class PDFDocument {
             }
         }
     }
-   
-    /**
-     * A utility method to convert a string to US-ASCII byte format.
-     * 
-     * @param s  the string.
-     * 
-     * @return The corresponding byte array.
-     */
-    private byte[] toBytes(String s) {
-        byte[] result = null;
-        try {
-            result = s.getBytes("US-ASCII");
-        } catch (UnsupportedEncodingException ex) {
-            throw new RuntimeException(ex);
-        }
-        return result;
-    }
 
 }
@@ -99,6 +99,15 @@ public final class PDFGraphics2D extends Graphics2D {
             AlphaComposite.SRC_OVER, 1.0f);
 
     private Stroke stroke = new BasicStroke(1.0f);
+    
+    /** 
+     * The stroke as applied to the graphics stream, or {@code null} if the 
+     * current stroke has no {@code BasicStroke} equivalent.
+     */
+    private BasicStroke nativeStroke = (BasicStroke) this.stroke;
+    
+    /** Maps other strokes to a {@code BasicStroke} (can be null). */
+    private StrokeMapper strokeMapper;
 
     private AffineTransform transform = new AffineTransform();
 
@@ -196,7 +205,7 @@ public final class PDFGraphics2D extends Graphics2D {
         this.gs.applyFont(getFont());
         this.gs.applyStrokeColor(getColor());
         this.gs.applyFillColor(getColor());
-        this.gs.applyStroke(getStroke());
+        this.gs.applyStroke(this.nativeStroke);
     }
 
     /**
@@ -215,6 +224,7 @@ public final class PDFGraphics2D extends Graphics2D {
         copy.setPaint(getPaint());
         copy.setColor(getColor());
         copy.setComposite(getComposite());
+        copy.setStrokeMapper(getStrokeMapper());
         copy.setStroke(getStroke());
         copy.setFont(getFont());
         copy.setBackground(getBackground());
@@ -373,8 +383,11 @@ public final class PDFGraphics2D extends Graphics2D {
     }
 
     /**
-     * Sets the stroke that will be used to draw shapes.  Only 
-     * {@code BasicStroke} is supported.
+     * Sets the stroke that will be used to draw shapes.  A 
+     * {@code BasicStroke} (or a stroke that the stroke mapper maps to one) is
+     * written as PDF line width, cap, join, miter limit and dash settings.
+     * Shapes drawn with any other stroke are filled with the outline from 
+     * {@code Stroke.createStrokedShape()} instead.
      * 
      * @param s  the stroke ({@code null} not permitted).
      * 
@@ -387,7 +400,48 @@ public final class PDFGraphics2D extends Graphics2D {
             return;
         }
         this.stroke = s;
-        this.gs.applyStroke(s);
+        applyNativeStroke();
+    }
+    
+    private void applyNativeStroke() {
+        BasicStroke bs;
+        if (this.stroke instanceof BasicStroke) {
+            bs = (BasicStroke) this.stroke;
+        } else if (this.strokeMapper != null) {
+            bs = this.strokeMapper.mapToBasicStroke(this.stroke);
+        } else {
+            bs = null;
+        }
+        this.nativeStroke = bs;
+        if (bs != null) {
+            this.gs.applyStroke(bs);
+        }
+    }
+    
+    /**
+     * Returns the stroke mapper, which maps strokes that are not a 
+     * {@code BasicStroke} to one.  The default value is {@code null}.
+     * 
+     * @return The stroke mapper (possibly {@code null}).
+     * 
+     * @since 1.9
+     */
+    public StrokeMapper getStrokeMapper() {
+        return this.strokeMapper;
+    }
+    
+    /**
+     * Sets the stroke mapper, which maps strokes that are not a 
+     * {@code BasicStroke} to one so that they can be drawn with the PDF 
+     * stroke operators rather than by filling their outline.
+     * 
+     * @param mapper  the mapper ({@code null} permitted).
+     * 
+     * @since 1.9
+     */
+    public void setStrokeMapper(StrokeMapper mapper) {
+        this.strokeMapper = mapper;
+        applyNativeStroke();
     }
 
     /**
@@ -469,10 +523,12 @@ public final class PDFGraphics2D extends Graphics2D {
     }
     /**
      * Draws the specified shape with the current {@code paint} and 
-     * {@code stroke}.  There is direct handling for {@code Line2D} 
-     * and {@code Path2D} instances.  All other shapes are mapped to a 
-     * {@code GeneralPath} and then drawn (effectively as {@code Path2D} 
-     * objects).
+     * {@code stroke}.  {@code Line2D}, {@code Rectangle2D} and 
+     * {@code Ellipse2D} instances are written with dedicated operators, and
+     * other shapes are written from their path iterator.  If the current
+     * stroke has no {@code BasicStroke} equivalent (see 
+     * {@link #setStrokeMapper(com.orsonpdf.StrokeMapper)}) the outline of
+     * the stroked shape is filled instead.
      * 
      * @param s  the shape ({@code null} not permitted). 
      * 
@@ -480,37 +536,25 @@ public final class PDFGraphics2D extends Graphics2D {
      */
     @Override
     public void draw(Shape s) {
-        if (!(this.stroke instanceof BasicStroke)) {
+        if (this.nativeStroke == null) {
             fill(this.stroke.createStrokedShape(s));
             return;
         }
-        if (s instanceof Line2D) {
-            if (this.clip != null) {
-                this.gs.pushGraphicsState();
-                this.gs.applyClip(invTransformedClip(this.clip));
-                this.gs.drawLine((Line2D) s);
-                this.gs.popGraphicsState();
-            } else {
-                this.gs.drawLine((Line2D) s);
-            }
-        } else if (s instanceof Path2D) {
-            if (this.clip != null) {
-                this.gs.pushGraphicsState();
-                this.gs.applyClip(invTransformedClip(this.clip));
-                this.gs.drawPath2D((Path2D) s);
-                this.gs.popGraphicsState();
-            } else {
-                this.gs.drawPath2D((Path2D) s);                
-            }
+        if (this.clip != null) {
+            this.gs.pushGraphicsState();
+            this.gs.applyClip(invTransformedClip(this.clip));
+            this.gs.drawShape(s);
+            this.gs.popGraphicsState();
         } else {
-            draw(new GeneralPath(s));  // fallback
+            this.gs.drawShape(s);
         }
     }
 
     /**
-     * Fills the specified shape with the current {@code paint}.  There is
-     * direct handling for {@code Path2D} instances. All other shapes are 
-     * mapped to a {@code GeneralPath} and then filled.
+     * Fills the specified shape with the current {@code paint}.  
+     * {@code Rectangle2D} and {@code Ellipse2D} instances are written with
+     * dedicated operators, and other shapes are written from their path 
+     * iterator.
      * 
      * @param s  the shape ({@code null} not permitted). 
      * 
@@ -518,17 +562,13 @@ public final class PDFGraphics2D extends Graphics2D {
      */    
     @Override
     public void fill(Shape s) {
-        if (s instanceof Path2D) {
-            if (this.clip != null) {
-                this.gs.pushGraphicsState();
-                this.gs.applyClip(invTransformedClip(this.clip));
-                this.gs.fillPath2D((Path2D) s);
-                this.gs.popGraphicsState();
-            } else {
-                this.gs.fillPath2D((Path2D) s);
-            }
+        if (this.clip != null) {
+            this.gs.pushGraphicsState();
+            this.gs.applyClip(invTransformedClip(this.clip));
+            this.gs.fillShape(s);
+            this.gs.popGraphicsState();
         } else {
-            fill(new GeneralPath(s));  // fallback
+            this.gs.fillShape(s);
         }
     }
 
@@ -1263,6 +1303,34 @@ public final class PDFGraphics2D extends Graphics2D {
         drawRenderedImage(ri, xform);
     }
 
+    /**
+     * Draws a JPEG image into the rectangle defined by {@code (x, y, w, h)},
+     * embedding the JPEG data in the PDF output as it is.  This is much 
+     * faster than decoding the image and drawing it with one of the 
+     * {@code drawImage()} methods, since the image is not re-encoded, and 
+     * the output is usually much smaller.  As with the other images, the
+     * data is only embedded once however many times it is drawn.
+     * 
+     * @param data  the content of a JPEG file ({@code null} not permitted).
+     * @param x  the x-coordinate.
+     * @param y  the y-coordinate.
+     * @param w  the width.
+     * @param h  the height.
+     * 
+     * @return {@code true} if the image is drawn.
+     * 
+     * @throws IllegalArgumentException if {@code data} is not a supported
+     *     JPEG image (see {@link PDFJPEGImage}).
+     * 
+     * @since 1.9
+     */
+    public boolean drawJPEGImage(byte[] data, int x, int y, int w, int h) {
+        Args.nullNotPermitted(data, "data");
+        this.gs.drawJPEGImage(data, x, y, w, h, this.clip != null 
+                ? invTransformedClip(this.clip) : null);
+        return true;
+    }
+
     /**
      * Draws an image at the location {@code (x, y)}.  Note that the 
      * {@code observer} is ignored.
@@ -0,0 +1,216 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import com.orsonpdf.util.Args;
+import java.nio.charset.Charset;
+
+/**
+ * Represents a JPEG image in a PDF document.  The JPEG data is embedded 
+ * as it is, with the {@code /DCTDecode} filter, so the image is neither 
+ * decoded nor re-encoded.  Baseline and progressive JPEGs with 8 bits per
+ * sample and 1 (gray), 3 (YCbCr or RGB) or 4 (CMYK) components are 
+ * supported.
+ * 
+ * @since 1.9
+ */
+public class PDFJPEGImage extends Stream {
+
+    /** The width. */
+    private int width;
+    
+    /** The height. */
+    private int height;
+    
+    /** The number of color components. */
+    private int components;
+    
+    /** 
+     * Set when the JPEG has an Adobe marker, in which case CMYK samples are
+     * stored inverted. 
+     */
+    private boolean adobe;
+    
+    /** The JPEG data. */
+    private byte[] data;
+    
+    /**
+     * Creates a new JPEG image object.
+     * 
+     * @param number  the PDF object number.
+     * @param data  the content of a JPEG file ({@code null} not permitted).
+     * 
+     * @throws IllegalArgumentException if {@code data} is not a supported
+     *     JPEG image.
+     */
+    public PDFJPEGImage(int number, byte[] data) {
+        super(number);
+        Args.nullNotPermitted(data, "data");
+        this.data = data;
+        readHeader(data);
+    }
+    
+    private static int u16(byte[] data, int pos) {
+        return (data[pos] & 0xff) << 8 | (data[pos + 1] & 0xff);
+    }
+    
+    /**
+     * Reads the image size and the number of components from the frame 
+     * header.
+     */
+    private void readHeader(byte[] data) {
+        if (data.length < 4 || (data[0] & 0xff) != 0xFF 
+                || (data[1] & 0xff) != 0xD8) {
+            throw new IllegalArgumentException("Not a JPEG image.");
+        }
+        int pos = 2;
+        while (pos + 4 <= data.length) {
+            if ((data[pos] & 0xff) != 0xFF) {
+                throw new IllegalArgumentException("Malformed JPEG image.");
+            }
+            int marker = data[pos + 1] & 0xff;
+            if (marker == 0xFF) {  // fill byte
+                pos++;
+                continue;
+            }
+            if (marker == 0x01 || (marker >= 0xD0 && marker <= 0xD8)) {
+                pos += 2;  // markers without a segment
+                continue;
+            }
+            int length = u16(data, pos + 2);
+            int start = pos + 4;
+            if (marker >= 0xC0 && marker <= 0xCF && marker != 0xC4 
+                    && marker != 0xC8 && marker != 0xCC) {
+                if (start + 6 > data.length) {
+                    break;
+                }
+                int precision = data[start] & 0xff;
+                this.height = u16(data, start + 1);
+                this.width = u16(data, start + 3);
+                this.components = data[start + 5] & 0xff;
+                if (precision != 8) {
+                    throw new IllegalArgumentException(
+                            "Unsupported JPEG precision: " + precision);
+                }
+                if (this.components != 1 && this.components != 3 
+                        && this.components != 4) {
+                    throw new IllegalArgumentException(
+                            "Unsupported number of JPEG components: " 
+                            + this.components);
+                }
+                if (this.width == 0 || this.height == 0) {
+                    throw new IllegalArgumentException(
+                            "JPEG image without a size in the frame header.");
+                }
+                return;
+            }
+            if (marker == 0xEE && start + 5 <= data.length 
+                    && "Adobe".equals(new String(data, start, 5, 
+                    Charset.forName("US-ASCII")))) {
+                this.adobe = true;
+            }
+            if (marker == 0xDA) {
+                break;  // start of scan, the frame header should precede it
+            }
+            pos += 2 + length;
+        }
+        throw new IllegalArgumentException("JPEG frame header not found.");
+    }
+    
+    /**
+     * Returns the image width (in pixels).
+     * 
+     * @return The image width.
+     */
+    public int getWidth() {
+        return this.width;
+    }
+    
+    /**
+     * Returns the image height (in pixels).
+     * 
+     * @return The image height.
+     */
+    public int getHeight() {
+        return this.height;
+    }
+
+    /**
+     * Returns the JPEG data, which is written without further encoding.
+     * 
+     * @return The JPEG data. 
+     */
+    @Override
+    public byte[] getRawStreamData() {
+        if (this.data == null) {
+            throw new IllegalStateException("The image has been released.");
+        }
+        return this.data;
+    }
+    
+    @Override
+    void release() {
+        this.data = null;
+    }
+    
+    /**
+     * Creates a dictionary reflecting the current configuration for this
+     * image.
+     * 
+     * @param streamLength  the stream length.
+     * 
+     * @return A dictionary. 
+     */
+    @Override
+    protected Dictionary createDictionary(int streamLength) {
+        Dictionary dictionary = super.createDictionary(streamLength);
+        dictionary.setType("/XObject");
+        dictionary.put("/Subtype", "/Image");
+        if (this.components == 1) {
+            dictionary.put("/ColorSpace", "/DeviceGray");
+        } else if (this.components == 3) {
+            dictionary.put("/ColorSpace", "/DeviceRGB");
+        } else {
+            dictionary.put("/ColorSpace", "/DeviceCMYK");
+            if (this.adobe) {
+                dictionary.put("/Decode", "[1 0 1 0 1 0 1 0]");
+            }
+        }
+        dictionary.put("/BitsPerComponent", 8);
+        dictionary.put("/Width", this.width);
+        dictionary.put("/Height", this.height);
+        dictionary.put("/Filter", "/DCTDecode");
+        return dictionary;
+    }
+}
@@ -33,9 +33,7 @@
 package com.orsonpdf;
 
 import com.orsonpdf.util.Args;
-import java.awt.Graphics2D;
 import java.awt.Image;
-import java.awt.image.BufferedImage;
 
 /**
  * Represents a soft mask image in a PDF document.
@@ -51,6 +49,12 @@ public class PDFSoftMaskImage extends Stream {
     /** The image. */
     Image image;
     
+    /** 
+     * The samples, if they were extracted when the image was added (can be
+     * {@code null}).
+     */
+    private byte[] data;
+    
     /**
      * Creates a new soft mask image object.
      * 
@@ -64,37 +68,54 @@ public class PDFSoftMaskImage extends Stream {
         this.height = img.getHeight(null);
         this.image = img;
     }
+    
+    /**
+     * Creates a new soft mask image object for alpha samples that have 
+     * already been extracted (see {@link ImageData}).
+     * 
+     * @param number  the PDF object number.
+     * @param width  the image width.
+     * @param height  the image height.
+     * @param data  the alpha samples ({@code null} not permitted).
+     * 
+     * @since 1.9
+     */
+    PDFSoftMaskImage(int number, int width, int height, byte[] data) {
+        super(number);
+        Args.nullNotPermitted(data, "data");
+        this.width = width;
+        this.height = height;
+        this.data = data;
+    }
 
     /**
-     * Returns the raw image data.  Each call will resample the image data
-     * and populate a new array.  Note that the stream may encode this
-     * data before it is written to the PDF output.
+     * Returns the raw image data.  Unless the samples were extracted when
+     * the image was added to the document, each call will resample the 
+     * image data and populate a new array.  Note that the stream may encode
+     * this data before it is written to the PDF output.
      * 
      * @return The raw stream data. 
      */
     @Override
     public byte[] getRawStreamData() {
-        BufferedImage bi;
-        if (!(this.image instanceof BufferedImage)) {
-            bi = new BufferedImage(this.width, this.height, 
-                    BufferedImage.TYPE_INT_ARGB);
-            Graphics2D g2 = bi.createGraphics();
-            g2.drawImage(this.image, 0, 0, null);
-        } else {
-            bi = (BufferedImage) this.image;
+        if (this.data != null) {
+            return this.data;
+        }
+        if (this.image == null) {
+            throw new IllegalStateException("The image has been released.");
         }
         // create a byte array of the image data to go in the PDF
         byte[] result = new byte[this.width * this.height];
-        int i = 0;
-        for (int hh = this.height - 1; hh >= 0; hh--) {
-            for (int ww = 0; ww < this.width; ww++) {
-                int rgb = bi.getRGB(ww, hh);
-                result[i++] = (byte) (rgb >> 24);
-            }
-        }
+        ImageData.extract(ImageData.toBufferedImage(this.image), null, result);
         return result;
     }
     
+    @Override
+    void release() {
+        this.image = null;
+        this.data = null;
+    }
+    
     /**
      * Creates a dictionary reflecting the current configuration for this
      * image.
@@ -0,0 +1,290 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import com.orsonpdf.filter.FlateFilter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.util.Arrays;
+
+/**
+ * Writes the objects of a PDF document to an output stream in the order they
+ * are supplied, keeping a count of the bytes written so that the offset of 
+ * each object can be recorded for the cross-reference table.  Only the 
+ * offsets are retained, so the objects can be discarded once written.  You 
+ * won't normally interact directly with this class, it is used by 
+ * {@link PDFDocument}.
+ * <p>
+ * A writer can also produce PDF 1.5 output, where objects other than streams
+ * are packed into compressed object streams and the cross-reference table 
+ * and trailer are replaced by a cross-reference stream.
+ * 
+ * @since 1.9
+ */
+final class PDFWriter {
+
+    /** The maximum number of objects held in one object stream. */
+    private static final int MAX_OBJECTS_PER_STREAM = 100;
+
+    /** The destination. */
+    private OutputStream out;
+    
+    /** The number of bytes written so far. */
+    private long position;
+    
+    /** 
+     * The byte offset of each object, indexed by object number (0 for 
+     * objects not yet written). 
+     */
+    private long[] offsets;
+    
+    /**
+     * The cross-reference entry type of each object: 0 if not yet written, 1
+     * if written at the offset in {@code offsets}, 2 if written to the object
+     * stream whose number is in {@code offsets}.
+     */
+    private byte[] types;
+    
+    /** The index of each object within its object stream (type 2 only). */
+    private int[] indices;
+    
+    /** 
+     * The document that supplies the numbers for object streams and the 
+     * cross-reference stream, or {@code null} if the writer does not use 
+     * object streams.
+     */
+    private PDFDocument document;
+    
+    /** Compress the object streams and the cross-reference stream? */
+    private boolean compress;
+    
+    /** The object stream being filled (can be {@code null}). */
+    private ObjectStream objectStream;
+    
+    /**
+     * Creates a new writer.
+     * 
+     * @param out  the destination ({@code null} not permitted). 
+     */
+    PDFWriter(OutputStream out) {
+        this(out, null, false);
+    }
+    
+    /**
+     * Creates a new writer that packs objects into object streams (PDF 1.5).
+     * 
+     * @param out  the destination ({@code null} not permitted). 
+     * @param document  the document that supplies the numbers for the object
+     *     streams and the cross-reference stream ({@code null} for a writer 
+     *     that does not use object streams).
+     * @param compress  apply a {@link FlateFilter} to the object streams and
+     *     the cross-reference stream?
+     */
+    PDFWriter(OutputStream out, PDFDocument document, boolean compress) {
+        this.out = out;
+        this.offsets = new long[64];
+        this.types = new byte[64];
+        this.indices = new int[64];
+        this.document = document;
+        this.compress = compress;
+    }
+    
+    /**
+     * Returns the number of bytes written so far.
+     * 
+     * @return The number of bytes written so far. 
+     */
+    long getPosition() {
+        return this.position;
+    }
+    
+    /**
+     * Writes the file header for the specified PDF version.  The header is
+     * followed by a comment containing binary characters, as recommended in 
+     * the PDF specification.
+     * 
+     * @param version  the version (for example {@code "1.4"}).
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    void writeHeader(String version) throws IOException {
+        write(PDFUtils.toBytes("%PDF-" + version + "\n"));
+        write(new byte[] { (byte) 37, (byte) 128, (byte) 129, (byte) 130, 
+                (byte) 131, (byte) 10});
+    }
+    
+    /**
+     * Writes an object, recording its offset.  When object streams are in
+     * use, objects other than streams are added to the current object 
+     * stream instead, which is written once it is full.
+     * 
+     * @param object  the object ({@code null} not permitted).
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    void writeObject(PDFObject object) throws IOException {
+        int number = object.getNumber();
+        ensureCapacity(number);
+        if (this.document == null || object instanceof Stream 
+                || object.getGeneration() != 0) {
+            this.types[number] = 1;
+            this.offsets[number] = this.position;
+            write(object.toPDFBytes());
+            return;
+        }
+        if (this.objectStream == null) {
+            this.objectStream = new ObjectStream(
+                    this.document.getNextNumber());
+        }
+        this.types[number] = 2;
+        this.offsets[number] = this.objectStream.getNumber();
+        this.indices[number] = this.objectStream.add(object);
+        if (this.objectStream.getCount() >= MAX_OBJECTS_PER_STREAM) {
+            writeObjectStream();
+        }
+    }
+    
+    /**
+     * Writes the current object stream and releases its data.
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    private void writeObjectStream() throws IOException {
+        ObjectStream os = this.objectStream;
+        this.objectStream = null;
+        if (this.compress) {
+            os.addFilter(new FlateFilter());
+        }
+        writeObject(os);
+        os.release();
+    }
+    
+    private void ensureCapacity(int number) {
+        if (number >= this.offsets.length) {
+            int n = Math.max(number + 1, this.offsets.length * 2);
+            this.offsets = Arrays.copyOf(this.offsets, n);
+            this.types = Arrays.copyOf(this.types, n);
+            this.indices = Arrays.copyOf(this.indices, n);
+        }
+    }
+    
+    /**
+     * Writes the cross-reference table for objects {@code 1} to 
+     * {@code size - 1}, followed by the trailer.  When object streams are in
+     * use, the last object stream is written first and the table and trailer
+     * are written as a cross-reference stream, which takes the next object
+     * number (so the table has more than {@code size} entries).
+     * 
+     * @param size  the number of entries in the cross-reference table (one
+     *     more than the highest object number).
+     * @param catalog  the document catalog.
+     * @param info  the document information dictionary.
+     * 
+     * @throws IOException if there is a problem writing to the stream.
+     */
+    void writeXrefAndTrailer(int size, PDFObject catalog, PDFObject info) 
+            throws IOException {
+        if (this.document != null) {
+            writeXrefStream(size, catalog, info);
+            return;
+        }
+        long xref = this.position;
+        StringBuilder b = new StringBuilder();
+        b.append("xref\n");
+        b.append("0 ").append(size).append("\n");
+        b.append("0000000000 65535 f \n");
+        for (int i = 1; i < size; i++) {
+            String offset = String.valueOf(
+                    i < this.offsets.length ? this.offsets[i] : 0L);
+            b.append("0000000000".substring(offset.length())).append(offset);
+            b.append(" 00000 n \n");
+        }
+        b.append("trailer\n");
+        write(PDFUtils.toBytes(b.toString()));
+        Dictionary trailer = new Dictionary();
+        trailer.put("/Size", Integer.valueOf(size));
+        trailer.put("/Root", catalog);
+        trailer.put("/Info", info);
+        write(trailer.toPDFBytes());
+        write(PDFUtils.toBytes("startxref\n" + xref + "\n%%EOF"));
+    }
+    
+    private void writeXrefStream(int size, PDFObject catalog, PDFObject info)
+            throws IOException {
+        if (this.objectStream != null) {
+            writeObjectStream();
+        }
+        int number = this.document.getNextNumber();
+        ensureCapacity(number);
+        long xref = this.position;
+        this.types[number] = 1;
+        this.offsets[number] = xref;
+        int n = Math.max(size, number + 1);
+        byte[] t = Arrays.copyOf(this.types, n);
+        long[] f2 = Arrays.copyOf(this.offsets, n);
+        int[] f3 = Arrays.copyOf(this.indices, n);
+        f3[0] = 65535;  // the head of the free list
+        XRefStream xrefStream = new XRefStream(number, t, f2, f3, catalog, 
+                info);
+        if (this.compress) {
+            xrefStream.addFilter(new FlateFilter());
+        }
+        write(xrefStream.toPDFBytes());
+        write(PDFUtils.toBytes("startxref\n" + xref + "\n%%EOF"));
+    }
+
+    /**
+     * Flushes the destination stream.
+     * 
+     * @throws IOException if there is a problem flushing the stream.
+     */
+    void flush() throws IOException {
+        this.out.flush();
+    }
+    
+    /**
+     * Closes the destination stream.
+     * 
+     * @throws IOException if there is a problem closing the stream.
+     */
+    void close() throws IOException {
+        this.out.close();
+    }
+    
+    private void write(byte[] bytes) throws IOException {
+        this.out.write(bytes);
+        this.position += bytes.length;
+    }
+
+}
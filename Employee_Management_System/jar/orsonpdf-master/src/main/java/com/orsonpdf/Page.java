@@ -98,6 +98,18 @@ public class Page extends PDFObject {
     private AffineTransform j2DTransform;
 
     private Dictionary xObjects = new Dictionary();
+    
+    /** 
+     * The names of the images used on the page (an image that is drawn more
+     * than once is only added to the resources once). 
+     */
+    private Map<Stream, String> imagesOnPage = new HashMap<Stream, String>();
+    
+    /** 
+     * A flag that is set once a streaming document has written the page and
+     * released its content.
+     */
+    private boolean released;
 
     /**
      * Creates a new page.
@@ -173,6 +185,10 @@ public class Page extends PDFObject {
      * @return The {@code PDFGraphics2D} instance for drawing to the page.
      */
     public PDFGraphics2D getGraphics2D() {
+        if (this.released) {
+            throw new IllegalStateException(
+                    "The page has been written and can no longer be drawn on.");
+        }
         if (this.graphics2d == null) {
             this.graphics2d = new PDFGraphics2D(this.contents, 
                     (int) this.bounds.getWidth(), 
@@ -341,52 +357,73 @@ public class Page extends PDFObject {
     }
 
     /**
-     * Adds a soft mask image to the page.  This is called from the 
-     * {@link #addImage(java.awt.Image)} method to support image transparency.
+     * Adds an image to the page.  The document creates the required PDF 
+     * objects (or reuses them, if an image with the same content was added
+     * before), and a reference is added in the {@code xObjects} resources.
+     * You should not call this method directly, it exists for the use of the
+     * {@link PDFGraphics2D#drawImage(java.awt.Image, int, int, int, int, java.awt.image.ImageObserver)} 
+     * method.
      * 
      * @param img  the image ({@code null} not permitted).
+     * @param addSoftMaskImage  add a soft mask image for transparency?
      * 
-     * @return The soft mask image reference.
+     * @return The image reference name.
      */
-    String addSoftMaskImage(Image img) {
+    String addImage(Image img, boolean addSoftMaskImage) {
         Args.nullNotPermitted(img, "img");
         PDFDocument pdfDoc = this.parent.getDocument();
-        PDFSoftMaskImage softMaskImage = new PDFSoftMaskImage(
-                pdfDoc.getNextNumber(), img);
-        softMaskImage.addFilter(new FlateFilter());
-        pdfDoc.addObject(softMaskImage);
-        String reference = "/Image" + this.xObjects.size();
-        this.xObjects.put(reference, softMaskImage);
-        return softMaskImage.getReference();
+        return findOrCreateImageReference(pdfDoc.findOrCreateImage(img, 
+                addSoftMaskImage));
     }
     
     /**
-     * Adds an image to the page.  This creates the required PDF object, 
-     * as well as adding a reference in the {@code xObjects} resources.
-     * You should not call this method directly, it exists for the use of the
-     * {@link PDFGraphics2D#drawImage(java.awt.Image, int, int, int, int, java.awt.image.ImageObserver)} 
-     * method.
+     * Adds a JPEG image to the page, embedding the JPEG data as it is (see
+     * {@link PDFJPEGImage}).  You should not call this method directly, it 
+     * exists for the use of the 
+     * {@link PDFGraphics2D#drawJPEGImage(byte[], int, int, int, int)} method.
      * 
-     * @param img  the image ({@code null} not permitted).
+     * @param data  the content of a JPEG file ({@code null} not permitted).
      * 
      * @return The image reference name.
+     * 
+     * @since 1.9
      */
-    String addImage(Image img, boolean addSoftMaskImage) {
-        Args.nullNotPermitted(img, "img");
+    String addJPEGImage(byte[] data) {
         PDFDocument pdfDoc = this.parent.getDocument();
-        String softMaskImageRef = null;
-        if (addSoftMaskImage) {
-            softMaskImageRef = addSoftMaskImage(img);
+        return findOrCreateImageReference(pdfDoc.findOrCreateJPEGImage(data));
+    }
+    
+    private String findOrCreateImageReference(Stream image) {
+        String reference = this.imagesOnPage.get(image);
+        if (reference == null) {
+            reference = "/Image" + this.xObjects.size();
+            this.xObjects.put(reference, image);
+            this.imagesOnPage.put(image, reference);
         }
-        PDFImage image = new PDFImage(pdfDoc.getNextNumber(), img, 
-                softMaskImageRef);
-        image.addFilter(new FlateFilter());
-        pdfDoc.addObject(image);
-        String reference = "/Image" + this.xObjects.size();
-        this.xObjects.put(reference, image);
         return reference;
     }
     
+    /**
+     * Releases the page content and resources after a streaming document has
+     * written the page, so that they can be garbage collected.  Only the
+     * object number is still needed (for the page tree).
+     * 
+     * @since 1.9
+     */
+    void release() {
+        this.released = true;
+        this.contents.release();
+        this.graphics2d = null;
+        this.fontsOnPage.clear();
+        this.gradientPaintsOnPage.clear();
+        this.radialGradientPaintsOnPage.clear();
+        this.alphaDictionaries.clear();
+        this.patterns = new Dictionary();
+        this.graphicsStates = new Dictionary();
+        this.xObjects = new Dictionary();
+        this.imagesOnPage.clear();
+    }
+    
     @Override
     public byte[] getObjectBytes() {
         return createDictionary().toPDFBytes();
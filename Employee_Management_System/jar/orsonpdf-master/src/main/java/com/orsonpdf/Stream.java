@@ -126,6 +126,17 @@ public abstract class Stream extends PDFObject {
         return dictionary;
     }
     
+    /**
+     * Called by a streaming {@link PDFDocument} once the stream has been 
+     * written, so that the data can be discarded.  The default 
+     * implementation does nothing.
+     * 
+     * @since 1.9
+     */
+    void release() {
+        // nothing to discard by default
+    }
+    
     /**
      * Returns the raw data for the stream.
      * 
@@ -0,0 +1,64 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import java.awt.BasicStroke;
+import java.awt.Stroke;
+
+/**
+ * Maps a {@code Stroke} that is not a {@code BasicStroke} to a 
+ * {@code BasicStroke} with the same appearance, so that 
+ * {@link PDFGraphics2D} can draw with it using the PDF line width, cap, 
+ * join, miter limit and dash operators.  Strokes that cannot be mapped are
+ * drawn by filling the outline returned by 
+ * {@code Stroke.createStrokedShape()}, which is correct for any stroke but 
+ * multiplies the number of path segments in the output.
+ * 
+ * @since 1.9
+ * 
+ * @see PDFGraphics2D#setStrokeMapper(com.orsonpdf.StrokeMapper) 
+ */
+public interface StrokeMapper {
+
+    /**
+     * Returns a {@code BasicStroke} that draws the same way as the 
+     * specified stroke, or {@code null} if there is none.
+     * 
+     * @param s  the stroke (never {@code null} or a {@code BasicStroke}).
+     * 
+     * @return The equivalent {@code BasicStroke} (possibly {@code null}). 
+     */
+    BasicStroke mapToBasicStroke(Stroke s);
+    
+}
@@ -0,0 +1,130 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2015, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+/**
+ * A cross-reference stream (PDF 1.5), which replaces both the 
+ * cross-reference table and the trailer.  Each entry is a row of three 
+ * big-endian fields: the entry type (0 for a free object, 1 for an object 
+ * at a byte offset in the file, 2 for an object in an object stream), 
+ * then the offset or the number of the object stream, then the generation 
+ * number or the index within the object stream.  You won't normally 
+ * interact directly with this class, it is used by {@link PDFWriter}.
+ * 
+ * @since 1.9
+ */
+final class XRefStream extends Stream {
+
+    /** The encoded entries. */
+    private byte[] data;
+    
+    /** The widths of the three fields of an entry, in bytes. */
+    private int[] widths;
+    
+    /** The number of entries. */
+    private int size;
+    
+    /** The document catalog. */
+    private PDFObject catalog;
+    
+    /** The document information dictionary. */
+    private PDFObject info;
+    
+    /**
+     * Creates a new cross-reference stream for objects {@code 0} to 
+     * {@code types.length - 1}.
+     * 
+     * @param number  the PDF object number (the last in the document).
+     * @param types  the entry types.
+     * @param fields2  the offsets (type 1) or object stream numbers (type 2).
+     * @param fields3  the indices within the object streams (type 2) or
+     *     generation numbers.
+     * @param catalog  the document catalog.
+     * @param info  the document information dictionary.
+     */
+    XRefStream(int number, byte[] types, long[] fields2, int[] fields3, 
+            PDFObject catalog, PDFObject info) {
+        super(number);
+        this.size = types.length;
+        long max = 0L;
+        for (int i = 0; i < this.size; i++) {
+            max = Math.max(max, fields2[i]);
+        }
+        int w2 = 1;
+        while (w2 < 8 && (max >>> (8 * w2)) != 0) {
+            w2++;
+        }
+        this.widths = new int[] { 1, w2, 2 };
+        int rowLength = 3 + w2;
+        this.data = new byte[this.size * rowLength];
+        for (int i = 0; i < this.size; i++) {
+            int p = i * rowLength;
+            this.data[p] = types[i];
+            for (int b = w2; b > 0; b--) {
+                this.data[p + b] = (byte) (fields2[i] >>> (8 * (w2 - b)));
+            }
+            this.data[p + w2 + 1] = (byte) (fields3[i] >>> 8);
+            this.data[p + w2 + 2] = (byte) fields3[i];
+        }
+        this.catalog = catalog;
+        this.info = info;
+    }
+    
+    @Override
+    public byte[] getRawStreamData() {
+        return this.data;
+    }
+    
+    /**
+     * Creates the dictionary for the cross-reference stream, which also 
+     * carries the trailer entries.
+     * 
+     * @param streamLength  the stream length.
+     * 
+     * @return The dictionary. 
+     */
+    @Override
+    protected Dictionary createDictionary(int streamLength) {
+        Dictionary dictionary = super.createDictionary(streamLength);
+        dictionary.setType("/XRef");
+        dictionary.put("/Size", Integer.valueOf(this.size));
+        dictionary.put("/W", new String[] { String.valueOf(this.widths[0]), 
+                String.valueOf(this.widths[1]), 
+                String.valueOf(this.widths[2]) });
+        dictionary.put("/Root", this.catalog);
+        dictionary.put("/Info", this.info);
+        return dictionary;
+    }
+
+}
@@ -0,0 +1,166 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import java.awt.Rectangle;
+import java.awt.geom.AffineTransform;
+import java.awt.geom.Path2D;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+
+/**
+ * A simple benchmark for the number formatting in {@link GraphicsStream}
+ * (run the {@code main()} method, it is not part of the unit tests).  It 
+ * compares the {@code DecimalFormat} approach used up to version 1.8 with
+ * {@link ContentBuffer}, then times drawing chart-like pages through 
+ * {@link PDFGraphics2D}.
+ */
+public class GraphicsStreamBenchmark {
+    
+    private static final int WARMUP = 5;
+    
+    private static final int RUNS = 10;
+    
+    /** Coordinates of a typical chart series. */
+    private static double[] coordinates(int count) {
+        Random r = new Random(42L);
+        double[] result = new double[count];
+        for (int i = 0; i < count; i++) {
+            result[i] = (float) (r.nextDouble() * 600.0);
+        }
+        return result;
+    }
+    
+    /**
+     * Formats the coordinates as path operators the way version 1.8 did: 
+     * a string per number, and the bytes of each operator written to a
+     * {@code ByteArrayOutputStream}.
+     */
+    private static int formatWithDecimalFormat(double[] values) 
+            throws IOException {
+        DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+        dfs.setDecimalSeparator('.');
+        DecimalFormat f = new DecimalFormat("0.##", dfs);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (int i = 0; i < values.length; i += 2) {
+            StringBuilder b = new StringBuilder();
+            b.append(f.format(values[i])).append(" ");
+            b.append(f.format(values[i + 1])).append(" l\n");
+            out.write(PDFUtils.toBytes(b.toString()));
+        }
+        return out.size();
+    }
+    
+    private static int formatWithContentBuffer(double[] values) {
+        ContentBuffer b = new ContentBuffer();
+        for (int i = 0; i < values.length; i += 2) {
+            b.append(values[i], 2).append(' ');
+            b.append(values[i + 1], 2).append(" l\n");
+        }
+        return b.size();
+    }
+    
+    /** 
+     * Draws a page of line series with a few transforms, as a chart would.
+     */
+    private static int drawPage(double[] values) {
+        PDFDocument doc = new PDFDocument();
+        Page page = doc.createPage(new Rectangle(612, 792));
+        PDFGraphics2D g2 = page.getGraphics2D();
+        int perSeries = 200;
+        for (int s = 0; s + perSeries <= values.length; s += perSeries) {
+            g2.setTransform(AffineTransform.getRotateInstance(s * 0.001));
+            Path2D path = new Path2D.Double();
+            path.moveTo(values[s], values[s + 1]);
+            for (int i = s + 2; i < s + perSeries; i += 2) {
+                path.lineTo(values[i], values[i + 1]);
+            }
+            g2.draw(path);
+        }
+        return ((GraphicsStream) page.getContents()).getRawStreamData().length;
+    }
+    
+    private interface Task {
+        int run() throws IOException;
+    }
+    
+    private static void time(String name, Task task) throws IOException {
+        ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+        com.sun.management.ThreadMXBean allocation = threads 
+                instanceof com.sun.management.ThreadMXBean 
+                ? (com.sun.management.ThreadMXBean) threads : null;
+        long id = Thread.currentThread().getId();
+        for (int i = 0; i < WARMUP; i++) {
+            task.run();
+        }
+        long bytes = allocation != null 
+                ? allocation.getThreadAllocatedBytes(id) : 0L;
+        long start = System.nanoTime();
+        int size = 0;
+        for (int i = 0; i < RUNS; i++) {
+            size = task.run();
+        }
+        long nanos = (System.nanoTime() - start) / RUNS;
+        String allocated = allocation != null ? String.valueOf(
+                (allocation.getThreadAllocatedBytes(id) - bytes) / RUNS / 1024)
+                + " KiB allocated" : "allocation not available";
+        System.out.println(name + ": " + (nanos / 1000) + " us per run, " 
+                + allocated + ", " + size + " bytes of output");
+    }
+    
+    public static void main(String[] args) throws IOException {
+        final double[] values = coordinates(400000);
+        time("DecimalFormat", new Task() {
+            public int run() throws IOException {
+                return formatWithDecimalFormat(values);
+            }
+        });
+        time("ContentBuffer", new Task() {
+            public int run() {
+                return formatWithContentBuffer(values);
+            }
+        });
+        time("PDFGraphics2D page", new Task() {
+            public int run() {
+                return drawPage(values);
+            }
+        });
+    }
+
+}
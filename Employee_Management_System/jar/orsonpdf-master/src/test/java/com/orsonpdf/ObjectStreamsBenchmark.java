@@ -0,0 +1,142 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+package com.orsonpdf;
+
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Rectangle;
+import java.io.IOException;
+import java.io.OutputStream;
+
+/**
+ * A simple benchmark for the PDF 1.5 output with object streams (run the
+ * {@code main()} method, it is not part of the unit tests).  It writes a 
+ * multi-page report, with text in several fonts, translucent fills and 
+ * gradients on every page, as PDF 1.4 and as PDF 1.5, both in memory and 
+ * streamed, and prints the file size and the time taken for each.
+ */
+public class ObjectStreamsBenchmark {
+    
+    private static final int PAGES = 200;
+    
+    private static final int WARMUP = 3;
+    
+    private static final int RUNS = 5;
+    
+    /** An output stream that only counts the bytes written to it. */
+    private static final class CountingOutputStream extends OutputStream {
+        
+        long count;
+        
+        @Override
+        public void write(int b) {
+            this.count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) {
+            this.count += len;
+        }
+    }
+    
+    private static void drawPage(Page page, int index) {
+        PDFGraphics2D g2 = page.getGraphics2D();
+        g2.setFont(new Font("SansSerif", Font.BOLD, 14));
+        g2.setPaint(Color.BLACK);
+        g2.drawString("Department report, page " + (index + 1), 40, 40);
+        g2.setFont(new Font("Serif", Font.PLAIN, 10));
+        for (int row = 0; row < 20; row++) {
+            g2.setPaint(new Color(0, 0, 255, 20 + row * 10));
+            g2.fill(new Rectangle(40, 60 + row * 30, 500, 24));
+            g2.setPaint(Color.DARK_GRAY);
+            g2.drawString("Employee " + (index * 20 + row), 50, 76 + row * 30);
+        }
+        g2.setPaint(new GradientPaint(40f, 0f, Color.RED, 540f, 0f, 
+                Color.YELLOW));
+        g2.fill(new Rectangle(40, 680, 500, 40));
+    }
+    
+    private static PDFDocument createDocument(boolean objectStreams) {
+        PDFDocument doc = new PDFDocument();
+        doc.setObjectStreamsEnabled(objectStreams);
+        return doc;
+    }
+    
+    private static long inMemory(boolean objectStreams) {
+        PDFDocument doc = createDocument(objectStreams);
+        for (int i = 0; i < PAGES; i++) {
+            drawPage(doc.createPage(new Rectangle(612, 792)), i);
+        }
+        return doc.getPDFBytes().length;
+    }
+    
+    private static long streamed(boolean objectStreams) throws IOException {
+        PDFDocument doc = createDocument(objectStreams);
+        CountingOutputStream out = new CountingOutputStream();
+        doc.startStreaming(out);
+        for (int i = 0; i < PAGES; i++) {
+            drawPage(doc.createPage(new Rectangle(612, 792)), i);
+        }
+        doc.close();
+        return out.count;
+    }
+    
+    private static void time(String name, boolean objectStreams, 
+            boolean streaming) throws IOException {
+        for (int i = 0; i < WARMUP; i++) {
+            if (streaming) {
+                streamed(objectStreams);
+            } else {
+                inMemory(objectStreams);
+            }
+        }
+        long size = 0L;
+        long start = System.nanoTime();
+        for (int i = 0; i < RUNS; i++) {
+            size = streaming ? streamed(objectStreams) 
+                    : inMemory(objectStreams);
+        }
+        long millis = (System.nanoTime() - start) / RUNS / 1000000L;
+        System.out.println(name + ": " + size + " bytes, " + millis 
+                + " ms per document of " + PAGES + " pages");
+    }
+    
+    public static void main(String[] args) throws IOException {
+        time("PDF 1.4, in memory", false, false);
+        time("PDF 1.5, in memory", true, false);
+        time("PDF 1.4, streamed", false, true);
+        time("PDF 1.5, streamed", true, true);
+    }
+
+}
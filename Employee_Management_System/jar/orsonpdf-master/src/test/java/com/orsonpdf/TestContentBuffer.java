@@ -0,0 +1,124 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import java.text.DecimalFormat;
+import java.text.DecimalFormatSymbols;
+import java.util.Random;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ContentBuffer} class.  The number output must match
+ * the {@code DecimalFormat} patterns previously used by 
+ * {@link GraphicsStream}, so that the PDF output is unchanged.
+ */
+public class TestContentBuffer {
+    
+    private static DecimalFormat format(String pattern) {
+        DecimalFormatSymbols dfs = new DecimalFormatSymbols();
+        dfs.setDecimalSeparator('.');
+        return new DecimalFormat(pattern, dfs);
+    }
+    
+    private static String append(double d, int decimals) {
+        ContentBuffer b = new ContentBuffer();
+        b.append(d, decimals);
+        return new String(b.toByteArray());
+    }
+    
+    private static void check(DecimalFormat f, double d, int decimals) {
+        assertEquals(String.valueOf(d), f.format(d), append(d, decimals));
+    }
+    
+    @Test
+    public void testSpecialValues() {
+        DecimalFormat f0 = format("0");
+        DecimalFormat f2 = format("0.##");
+        DecimalFormat f6 = format("0.######");
+        double[] values = { 0.0, -0.0, 1.0, -1.0, 0.005, 0.015, 0.025, 0.125,
+                0.375, 1.005, 2.675, 999.995, -0.001, -0.004999, 1e-300, 
+                1.5e-7, 0.0000005, 0.0000015, 1.0000005, 123456789012.345, 
+                1e15, -1e20, Double.MAX_VALUE, Double.MIN_VALUE, Double.NaN };
+        for (double d : values) {
+            check(f0, d, 0);
+            check(f2, d, 2);
+            check(f6, d, 6);
+        }
+        assertEquals("12", append(12, 0));
+        assertEquals("-0", append(-0.4, 0));
+    }
+    
+    /**
+     * Random values, including floats (path coordinates are floats) and 
+     * values close to the halfway point between two outputs.
+     */
+    @Test
+    public void testRandomValues() {
+        DecimalFormat f0 = format("0");
+        DecimalFormat f2 = format("0.##");
+        DecimalFormat f6 = format("0.######");
+        Random r = new Random(1234L);
+        for (int i = 0; i < 100000; i++) {
+            double d;
+            switch (i % 4) {
+            case 0:
+                d = (r.nextDouble() - 0.5) * 2000.0;
+                break;
+            case 1:
+                d = (float) ((r.nextDouble() - 0.5) * 2000.0);
+                break;
+            case 2:
+                d = (r.nextInt(2000000) - 1000000) / 1000.0 + 0.005;
+                break;
+            default:
+                d = (r.nextInt(2000000000) - 1000000000) / 1e7 + 5e-7;
+                break;
+            }
+            check(f0, d, 0);
+            check(f2, d, 2);
+            check(f6, d, 6);
+        }
+    }
+    
+    @Test
+    public void testAppendString() {
+        String s = "BT (caf\u00e9 \ud83d\ude00) Tj ET\n";
+        ContentBuffer b = new ContentBuffer();
+        b.append(s);
+        assertArrayEquals(PDFUtils.toBytes(s), b.toByteArray());
+    }
+    
+}
@@ -0,0 +1,169 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import java.awt.BasicStroke;
+import java.awt.Rectangle;
+import java.awt.Shape;
+import java.awt.Stroke;
+import java.awt.geom.Ellipse2D;
+import java.awt.geom.GeneralPath;
+import java.awt.geom.Rectangle2D;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests for the content written by {@link PDFGraphics2D} to the 
+ * {@link GraphicsStream}.
+ */
+public class TestGraphicsStream {
+    
+    private GraphicsStream gs;
+    
+    private PDFGraphics2D g2;
+    
+    /** A stroke that is not a {@code BasicStroke}. */
+    private static final class WrappedStroke implements Stroke {
+        
+        private final BasicStroke stroke;
+        
+        WrappedStroke(BasicStroke stroke) {
+            this.stroke = stroke;
+        }
+        
+        @Override
+        public Shape createStrokedShape(Shape s) {
+            return this.stroke.createStrokedShape(s);
+        }
+    }
+    
+    @Before
+    public void setUp() {
+        PDFDocument pdfDoc = new PDFDocument();
+        Page page = pdfDoc.createPage(new Rectangle(0, 0, 300, 200));
+        this.gs = (GraphicsStream) page.getContents();
+        this.g2 = page.getGraphics2D();
+    }
+    
+    /**
+     * Returns the content written since the previous call.
+     */
+    private String content() {
+        return new String(this.gs.getRawStreamData());
+    }
+    
+    private String contentAfter(String before) {
+        return content().substring(before.length());
+    }
+    
+    @Test
+    public void testRectangle() {
+        String before = content();
+        this.g2.draw(new Rectangle2D.Double(10.5, 20.0, 30.25, 40.0));
+        assertEquals("10.5 20 30.25 40 re\nS\n", contentAfter(before));
+        before = content();
+        this.g2.fill(new Rectangle(1, 2, 3, 4));
+        assertEquals("1 2 3 4 re\nf\n", contentAfter(before));
+        
+        // Java2D draws nothing for a negative width or height
+        before = content();
+        this.g2.draw(new Rectangle2D.Double(10.0, 20.0, -5.0, 40.0));
+        this.g2.fill(new Rectangle2D.Double(10.0, 20.0, 5.0, -1.0));
+        assertEquals("", contentAfter(before));
+    }
+    
+    /**
+     * The ellipse is written with the same curves as its path iterator.
+     */
+    @Test
+    public void testEllipse() {
+        Ellipse2D e = new Ellipse2D.Double(10.0, 20.0, 100.0, 50.0);
+        String before = content();
+        this.g2.draw(e);
+        String direct = contentAfter(before);
+        before = content();
+        this.g2.draw(new GeneralPath(e));
+        assertEquals(contentAfter(before), direct);
+    }
+    
+    @Test
+    public void testDashPhase() {
+        String before = content();
+        this.g2.setStroke(new BasicStroke(2.0f, BasicStroke.CAP_ROUND, 
+                BasicStroke.JOIN_MITER, 4.0f, new float[] { 4f, 2f }, 1.5f));
+        assertEquals("2 w\n1 J\n0 j\n4 M\n[4 2] 1.5 d\n", 
+                contentAfter(before));
+        before = content();
+        this.g2.setStroke(new BasicStroke(1.0f));
+        assertEquals("1 w\n2 J\n0 j\n10 M\n[] 0 d\n", 
+                contentAfter(before));
+        
+        // no exponent notation, which is not valid in a content stream
+        before = content();
+        this.g2.setStroke(new BasicStroke(0.0001f, BasicStroke.CAP_SQUARE, 
+                BasicStroke.JOIN_MITER, 10.0f, 
+                new float[] { 0.0005f, 1e-4f }, 0.0001f));
+        assertEquals("0 w\n2 J\n0 j\n[0 0] 0 d\n", contentAfter(before));
+    }
+    
+    @Test
+    public void testStrokeMapper() {
+        BasicStroke dashed = new BasicStroke(3.0f, BasicStroke.CAP_BUTT, 
+                BasicStroke.JOIN_BEVEL, 10.0f, new float[] { 6f, 3f }, 0f);
+        this.g2.setStroke(new WrappedStroke(dashed));
+        String before = content();
+        this.g2.draw(new Rectangle(10, 10, 100, 50));
+        String outline = contentAfter(before);
+        assertTrue(outline.endsWith("f\n"));
+        assertFalse(outline.contains("S\n"));
+        
+        this.g2.setStrokeMapper(new StrokeMapper() {
+            @Override
+            public BasicStroke mapToBasicStroke(Stroke s) {
+                return s instanceof WrappedStroke 
+                        ? ((WrappedStroke) s).stroke : null;
+            }
+        });
+        assertEquals(this.g2.getStrokeMapper().mapToBasicStroke(
+                this.g2.getStroke()), dashed);
+        before = content();
+        this.g2.draw(new Rectangle(10, 10, 100, 50));
+        assertEquals("10 10 100 50 re\nS\n", contentAfter(before));
+        assertTrue(before.endsWith("3 w\n0 J\n2 j\n[6 3] 0 d\n"));
+    }
+
+}
@@ -0,0 +1,110 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import java.awt.Color;
+import java.awt.GradientPaint;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link ImageData} class.
+ */
+public class TestImageData {
+    
+    private static BufferedImage createImage(int type) {
+        BufferedImage img = new BufferedImage(13, 7, type);
+        Graphics2D g2 = img.createGraphics();
+        g2.setPaint(new GradientPaint(0f, 0f, new Color(255, 0, 0, 40), 
+                13f, 7f, new Color(20, 200, 90, 255)));
+        g2.fillRect(0, 0, 13, 7);
+        g2.setColor(new Color(10, 20, 250, 128));
+        g2.fillRect(3, 2, 5, 3);
+        g2.dispose();
+        return img;
+    }
+    
+    /**
+     * The samples the way they were extracted up to version 1.8, with
+     * {@code getRGB()} for each pixel.
+     */
+    private static void getRGB(BufferedImage bi, byte[] rgb, byte[] alpha) {
+        int i = 0;
+        int j = 0;
+        for (int hh = bi.getHeight() - 1; hh >= 0; hh--) {
+            for (int ww = 0; ww < bi.getWidth(); ww++) {
+                int p = bi.getRGB(ww, hh);
+                rgb[i++] = (byte) (p >> 16);
+                rgb[i++] = (byte) (p >> 8);
+                rgb[i++] = (byte) p;
+                alpha[j++] = (byte) (p >> 24);
+            }
+        }
+    }
+    
+    private static void check(BufferedImage bi) {
+        int n = bi.getWidth() * bi.getHeight();
+        byte[] expectedRGB = new byte[n * 3];
+        byte[] expectedAlpha = new byte[n];
+        getRGB(bi, expectedRGB, expectedAlpha);
+        byte[] rgb = new byte[n * 3];
+        byte[] alpha = new byte[n];
+        ImageData.extract(bi, rgb, alpha);
+        assertArrayEquals(expectedRGB, rgb);
+        assertArrayEquals(expectedAlpha, alpha);
+        byte[] rgbOnly = new byte[n * 3];
+        ImageData.extract(bi, rgbOnly, null);
+        assertArrayEquals(expectedRGB, rgbOnly);
+    }
+    
+    @Test
+    public void testExtract() {
+        int[] types = { BufferedImage.TYPE_INT_RGB, 
+                BufferedImage.TYPE_INT_ARGB, BufferedImage.TYPE_INT_ARGB_PRE,
+                BufferedImage.TYPE_INT_BGR, BufferedImage.TYPE_3BYTE_BGR,
+                BufferedImage.TYPE_4BYTE_ABGR, 
+                BufferedImage.TYPE_4BYTE_ABGR_PRE, 
+                BufferedImage.TYPE_USHORT_565_RGB, 
+                BufferedImage.TYPE_BYTE_GRAY, BufferedImage.TYPE_BYTE_INDEXED };
+        for (int type : types) {
+            BufferedImage img = createImage(type);
+            check(img);
+            // a sub-image shares the data buffer, with an offset
+            check(img.getSubimage(2, 1, 9, 5));
+        }
+    }
+
+}
@@ -0,0 +1,427 @@
+/* =====================================================================
+ * OrsonPDF : a fast, light-weight PDF library for the Java(tm) platform
+ * =====================================================================
+ * 
+ * (C)opyright 2013-2017, by Object Refinery Limited.  All rights reserved.
+ *
+ * Project Info:  http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ * This program is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ *
+ * This program is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ *
+ * You should have received a copy of the GNU General Public License
+ * along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ * 
+ * [Oracle and Java are registered trademarks of Oracle and/or its affiliates. 
+ * Other names may be trademarks of their respective owners.]
+ * 
+ * If you do not wish to be bound by the terms of the GPL, an alternative
+ * commercial license can be purchased.  For details, please see visit the
+ * Orson PDF home page:
+ * 
+ * http://www.object-refinery.com/orsonpdf/index.html
+ * 
+ */
+
+
+package com.orsonpdf;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.GradientPaint;
+import java.awt.Rectangle;
+import java.awt.geom.Rectangle2D;
+import java.awt.image.BufferedImage;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.nio.charset.Charset;
+import java.util.Arrays;
+import java.util.zip.DataFormatException;
+import java.util.zip.Inflater;
+import javax.imageio.ImageIO;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import org.junit.Test;
+
+/**
+ * Tests for the {@link PDFDocument} class, in particular the streaming 
+ * output.
+ */
+public class TestPDFDocument {
+    
+    private static void drawPage(Page page, int i) {
+        PDFGraphics2D g2 = page.getGraphics2D();
+        g2.setPaint(new GradientPaint(0f, 0f, Color.RED, 100f, 0f, 
+                Color.BLUE));
+        g2.fill(new Rectangle(10, 10, 100, 50));
+        g2.setPaint(new Color(0, 0, 255, 128));
+        g2.draw(new Rectangle2D.Double(5.5, 6.25, 80, 40));
+        g2.setFont(new Font("Serif", Font.PLAIN, 12));
+        g2.drawString("Page " + i, 20, 100);
+        BufferedImage img = new BufferedImage(4, 3, 
+                BufferedImage.TYPE_INT_RGB);
+        img.setRGB(1, 1, 0x336699);
+        g2.drawImage(img, 50, 50, null);
+    }
+    
+    /**
+     * Checks that every entry in the cross-reference table points at the
+     * start of its object, and that {@code startxref} points at the table.
+     * 
+     * @return The number of entries in the table.
+     */
+    private static int checkXref(byte[] pdf) {
+        String s = new String(pdf, Charset.forName("ISO-8859-1"));
+        assertTrue(s.startsWith("%PDF-1.4\n"));
+        assertTrue(s.endsWith("%%EOF"));
+        Matcher m = Pattern.compile("startxref\n(\\d+)\n%%EOF$").matcher(s);
+        assertTrue(m.find());
+        int xref = Integer.parseInt(m.group(1));
+        assertTrue(s.startsWith("xref\n0 ", xref));
+        int eol = s.indexOf('\n', xref + 5);
+        int size = Integer.parseInt(s.substring(xref + 7, eol));
+        int entry = eol + 1 + 20;  // skip the free entry for object 0
+        for (int i = 1; i < size; i++) {
+            int offset = Integer.parseInt(s.substring(entry, entry + 10));
+            assertTrue("object " + i, s.startsWith(i + " 0 obj\n", offset));
+            entry += 20;
+        }
+        assertTrue(s.startsWith("trailer\n", entry));
+        return size;
+    }
+    
+    /**
+     * Returns the value of an integer entry in the dictionary of the object
+     * at the specified offset.
+     */
+    private static int entry(String s, int offset, String key) {
+        String dict = s.substring(offset, s.indexOf("stream\n", offset));
+        Matcher m = Pattern.compile(key + " (\\d+)").matcher(dict);
+        assertTrue(key, m.find());
+        return Integer.parseInt(m.group(1));
+    }
+    
+    /**
+     * Returns the data of the stream object at the specified offset, 
+     * decompressed if it has a filter.
+     */
+    private static byte[] streamData(byte[] pdf, String s, int offset) {
+        int start = s.indexOf("stream\n", offset) + 7;
+        byte[] data = Arrays.copyOfRange(pdf, start, 
+                start + entry(s, offset, "/Length"));
+        if (!s.substring(offset, start).contains("/FlateDecode")) {
+            return data;
+        }
+        Inflater inflater = new Inflater();
+        inflater.setInput(data);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        byte[] buffer = new byte[1024];
+        try {
+            while (!inflater.finished()) {
+                int n = inflater.inflate(buffer);
+                assertTrue(n > 0 || !inflater.needsInput());
+                out.write(buffer, 0, n);
+            }
+        } catch (DataFormatException ex) {
+            throw new RuntimeException(ex);
+        }
+        return out.toByteArray();
+    }
+    
+    /**
+     * Checks a PDF 1.5 file: {@code startxref} points at a cross-reference
+     * stream, every entry of type 1 points at the start of its object and 
+     * every entry of type 2 names an object stream that holds the object at
+     * the given index.
+     * 
+     * @return The number of objects in object streams.
+     */
+    private static int checkXrefStream(byte[] pdf) {
+        String s = new String(pdf, Charset.forName("ISO-8859-1"));
+        assertTrue(s.startsWith("%PDF-1.5\n"));
+        assertTrue(!s.contains("\nxref\n") && !s.contains("trailer"));
+        Matcher m = Pattern.compile("startxref\n(\\d+)\n%%EOF$").matcher(s);
+        assertTrue(m.find());
+        int xref = Integer.parseInt(m.group(1));
+        assertTrue(s.startsWith("<< /Type /XRef", s.indexOf('\n', xref) + 1));
+        int size = entry(s, xref, "/Size");
+        m = Pattern.compile("/W \\[1 (\\d) 2\\]").matcher(
+                s.substring(xref));
+        assertTrue(m.find());
+        int w2 = Integer.parseInt(m.group(1));
+        byte[] table = streamData(pdf, s, xref);
+        assertEquals(size * (w2 + 3), table.length);
+        long[][] entries = new long[size][3];
+        for (int i = 0; i < size; i++) {
+            int p = i * (w2 + 3);
+            entries[i][0] = table[p];
+            for (int b = 1; b <= w2; b++) {
+                entries[i][1] = (entries[i][1] << 8) | (table[p + b] & 0xff);
+            }
+            entries[i][2] = ((table[p + w2 + 1] & 0xff) << 8) 
+                    | (table[p + w2 + 2] & 0xff);
+        }
+        assertEquals(0, entries[0][0]);
+        assertEquals(65535, entries[0][2]);
+        int packed = 0;
+        for (int i = 1; i < size; i++) {
+            if (entries[i][0] == 1) {
+                assertTrue("object " + i, s.startsWith(i + " 0 obj\n", 
+                        (int) entries[i][1]));
+            } else if (entries[i][0] == 2) {
+                int os = (int) entries[i][1];
+                assertEquals(1, entries[os][0]);
+                int offset = (int) entries[os][1];
+                assertTrue(s.startsWith("<< /Type /ObjStm", 
+                        s.indexOf('\n', offset) + 1));
+                String data = new String(streamData(pdf, s, offset), 
+                        Charset.forName("ISO-8859-1"));
+                int first = entry(s, offset, "/First");
+                String[] header = data.substring(0, first).trim().split(" ");
+                assertEquals(2 * entry(s, offset, "/N"), header.length);
+                int index = (int) entries[i][2];
+                assertEquals(String.valueOf(i), header[2 * index]);
+                int start = first + Integer.parseInt(header[2 * index + 1]);
+                assertTrue("object " + i, data.startsWith("<<", start));
+                packed++;
+            }
+        }
+        return packed;
+    }
+    
+    private static int count(byte[] pdf, String s) {
+        String text = new String(pdf, Charset.forName("ISO-8859-1"));
+        int count = 0;
+        for (int i = text.indexOf(s); i >= 0; i = text.indexOf(s, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+    
+    @Test
+    public void testGetPDFBytes() {
+        PDFDocument doc = new PDFDocument();
+        for (int i = 0; i < 3; i++) {
+            drawPage(doc.createPage(new Rectangle(612, 792)), i);
+        }
+        checkXref(doc.getPDFBytes());
+    }
+    
+    @Test
+    public void testStreaming() throws IOException {
+        PDFDocument doc = new PDFDocument();
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doc.startStreaming(out);
+        assertTrue(doc.isStreaming());
+        drawPage(doc.createPage(new Rectangle(612, 792)), 0);
+        long first = out.size();
+        drawPage(doc.createPage(new Rectangle(612, 792)), 1);
+        
+        // the first page is written as soon as the second is created
+        assertTrue(out.size() > first);
+        assertEquals(out.size(), doc.getBytesWritten());
+        drawPage(doc.createPage(new Rectangle(612, 792)), 2);
+        doc.setTitle("Streamed");
+        doc.close();
+        doc.close();
+        byte[] pdf = out.toByteArray();
+        
+        // same objects as the in-memory output of an identical document
+        PDFDocument ref = new PDFDocument();
+        for (int i = 0; i < 3; i++) {
+            drawPage(ref.createPage(new Rectangle(612, 792)), i);
+        }
+        assertEquals(checkXref(ref.getPDFBytes()), checkXref(pdf));
+        String s = new String(pdf, Charset.forName("ISO-8859-1"));
+        assertTrue(s.contains("/Title (Streamed)"));
+        assertTrue(s.contains("/Count 3"));
+    }
+    
+    @Test
+    public void testDrawingOnWrittenPage() throws IOException {
+        PDFDocument doc = new PDFDocument();
+        doc.startStreaming(new ByteArrayOutputStream());
+        Page page = doc.createPage(new Rectangle(612, 792));
+        PDFGraphics2D g2 = page.getGraphics2D();
+        doc.createPage(new Rectangle(612, 792));
+        try {
+            g2.fill(new Rectangle(1, 2, 3, 4));
+            fail("Expected an IllegalStateException.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            page.getGraphics2D();
+            fail("Expected an IllegalStateException.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        try {
+            doc.getPDFBytes();
+            fail("Expected an IllegalStateException.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        doc.close();
+    }
+
+    /**
+     * An image drawn on every page is only embedded once (with its soft 
+     * mask), while an image with different content gets its own object.
+     */
+    @Test
+    public void testImagesShared() throws IOException {
+        PDFDocument doc = new PDFDocument();
+        doc.startStreaming(new ByteArrayOutputStream());
+        BufferedImage logo = new BufferedImage(20, 10, 
+                BufferedImage.TYPE_INT_ARGB);
+        logo.setRGB(3, 4, 0x80ff0000);
+        for (int i = 0; i < 5; i++) {
+            PDFGraphics2D g2 = doc.createPage(
+                    new Rectangle(612, 792)).getGraphics2D();
+            g2.drawImage(logo, 10, 10, null);
+            g2.drawImage(logo, 100, 10, null);
+        }
+        doc.close();
+        
+        PDFDocument ref = new PDFDocument();
+        for (int i = 0; i < 5; i++) {
+            PDFGraphics2D g2 = ref.createPage(
+                    new Rectangle(612, 792)).getGraphics2D();
+            g2.drawImage(logo, 10, 10, null);
+        }
+        logo.setRGB(5, 5, 0xff00ff00);
+        ref.createPage(new Rectangle(612, 792)).getGraphics2D().drawImage(
+                logo, 10, 10, null);
+        byte[] pdf = ref.getPDFBytes();
+        checkXref(pdf);
+        assertEquals(4, count(pdf, "/Subtype /Image"));
+        assertEquals(2, count(pdf, "/SMask"));
+    }
+    
+    @Test
+    public void testJPEGImage() throws IOException {
+        BufferedImage img = new BufferedImage(16, 8, 
+                BufferedImage.TYPE_INT_RGB);
+        img.setRGB(1, 1, 0x336699);
+        ByteArrayOutputStream jpeg = new ByteArrayOutputStream();
+        assertTrue(ImageIO.write(img, "jpeg", jpeg));
+        byte[] data = jpeg.toByteArray();
+        
+        PDFDocument doc = new PDFDocument();
+        for (int i = 0; i < 3; i++) {
+            PDFGraphics2D g2 = doc.createPage(
+                    new Rectangle(612, 792)).getGraphics2D();
+            g2.drawJPEGImage(data, 10, 20, 160, 80);
+        }
+        byte[] pdf = doc.getPDFBytes();
+        checkXref(pdf);
+        assertEquals(1, count(pdf, "/Filter /DCTDecode"));
+        assertEquals(1, count(pdf, "/Width 16"));
+        assertEquals(1, count(pdf, new String(data, 
+                Charset.forName("ISO-8859-1"))));
+    }
+    
+    @Test
+    public void testInvalidJPEGImage() {
+        PDFDocument doc = new PDFDocument();
+        doc.setDebugMode(true);
+        Page page = doc.createPage(new Rectangle(612, 792));
+        PDFGraphics2D g2 = page.getGraphics2D();
+        g2.setClip(new Rectangle(0, 0, 50, 50));
+        int size = ((GraphicsStream) page.getContents()).getRawStreamData()
+                .length;
+        try {
+            g2.drawJPEGImage(new byte[] { 1, 2, 3, 4, 5 }, 0, 0, 10, 10);
+            fail("Expected an IllegalArgumentException.");
+        } catch (IllegalArgumentException e) {
+            // expected
+        }
+        assertEquals(size, ((GraphicsStream) page.getContents())
+                .getRawStreamData().length);
+        assertEquals(0, count(doc.getPDFBytes(), "/Subtype /Image"));
+    }
+    
+    @Test
+    public void testObjectStreams() {
+        PDFDocument doc = new PDFDocument();
+        doc.setObjectStreamsEnabled(true);
+        for (int i = 0; i < 3; i++) {
+            drawPage(doc.createPage(new Rectangle(612, 792)), i);
+        }
+        byte[] pdf = doc.getPDFBytes();
+        assertEquals(0, count(pdf, "/Type /Page"));
+        assertEquals(0, count(pdf, "/Type /Catalog"));
+        assertArrayEquals(pdf, doc.getPDFBytes());
+        
+        // every object other than a stream is in an object stream
+        doc.setObjectStreamsEnabled(false);
+        byte[] classic = doc.getPDFBytes();
+        int streams = count(classic, "endstream\n");
+        assertEquals(checkXref(classic) - 1 - streams, checkXrefStream(pdf));
+        assertEquals(streams + 2, count(pdf, "endstream\n"));
+        assertTrue(pdf.length < classic.length);
+    }
+    
+    @Test
+    public void testObjectStreamsDebugMode() {
+        PDFDocument doc = new PDFDocument();
+        doc.setObjectStreamsEnabled(true);
+        doc.setDebugMode(true);
+        drawPage(doc.createPage(new Rectangle(612, 792)), 0);
+        byte[] pdf = doc.getPDFBytes();
+        checkXrefStream(pdf);
+        assertEquals(1, count(pdf, "/Type /Page\n"));
+        
+        // only the image is compressed, as in the PDF 1.4 output
+        doc.setObjectStreamsEnabled(false);
+        assertEquals(count(doc.getPDFBytes(), "/FlateDecode"), 
+                count(pdf, "/FlateDecode"));
+    }
+    
+    /**
+     * A streamed document in PDF 1.5 fills several object streams, with 
+     * numbers interleaved with those of the later pages.
+     */
+    @Test
+    public void testStreamingWithObjectStreams() throws IOException {
+        PDFDocument doc = new PDFDocument();
+        doc.setObjectStreamsEnabled(true);
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        doc.startStreaming(out);
+        try {
+            doc.setObjectStreamsEnabled(false);
+            fail("Expected an IllegalStateException.");
+        } catch (IllegalStateException e) {
+            // expected
+        }
+        for (int i = 0; i < 150; i++) {
+            drawPage(doc.createPage(new Rectangle(612, 792)), i);
+        }
+        doc.setTitle("Streamed");
+        doc.close();
+        byte[] pdf = out.toByteArray();
+        assertEquals(out.size(), doc.getBytesWritten());
+        
+        PDFDocument ref = new PDFDocument();
+        ref.setObjectStreamsEnabled(true);
+        for (int i = 0; i < 150; i++) {
+            drawPage(ref.createPage(new Rectangle(612, 792)), i);
+        }
+        assertEquals(checkXrefStream(ref.getPDFBytes()), 
+                checkXrefStream(pdf));
+        assertTrue(count(pdf, "/Type /ObjStm") > 1);
+    }
+
+}
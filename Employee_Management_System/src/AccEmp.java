@@ -108,21 +108,18 @@ public class AccEmp extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        EmpLog4 ob=new EmpLog4();
-        ob.setVisible(true);
+        Navigator.show(EmpLog4.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
-        EmpLog5 ob=new EmpLog5();
-        ob.setVisible(true);
+        Navigator.show(EmpLog5.class);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new Emp().setVisible(true);
+            Navigator.switchTo(this,Emp.class);
            // exit(0);
             
         }finally{
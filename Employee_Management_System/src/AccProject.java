@@ -14,38 +14,25 @@ import java.sql.*;
 import java.text.MessageFormat;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
-import net.proteanit.sql.DbUtils;
 public class AccProject extends javax.swing.JFrame {
 Connection conn;
+    LiveTable<WorksRecord> live;
     ResultSet rs;
     PreparedStatement pst;
+    ProjectRepository projects;
     /**
      * Creates new form AccProject
      */
     public AccProject() {
           initComponents();
-        conn=javaconnect.ConnecrDb();
-        Update();
+        conn=javaconnect.ConnecrDb(this);
+        projects=new ProjectRepository(conn);
+        live=LiveTable.follow(this,jTable1,conn,ChangeBus.WORKS_ON,"select Employee_id,Project_No,Department,Hours from Works_on where Department='Accounts'",
+                w->"Accounts".equals(w.getDepartment()));
     }
    public void Update() {
         //To change body of generated methods, choose Tools | Templates.
-        try{   
-        String sql="select Employee_id,Project_No,Department,Hours from Works_on where Department='Accounts'";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
-            try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
-            }
-        }
+        live.reload();
     }
     /**
      * This method is called from within the constructor to initialize the form.
@@ -195,7 +182,7 @@ Connection conn;
 
         jPanel2.setBorder(javax.swing.BorderFactory.createTitledBorder(javax.swing.BorderFactory.createLineBorder(new java.awt.Color(248, 19, 19)), "Operations", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Dialog", 0, 24), new java.awt.Color(251, 8, 8))); // NOI18N
 
-        jButton4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/clr.png")); // NOI18N
+        jButton4.setIcon(ImageAssets.icon("clr.png")); // NOI18N
         jButton4.setText("Clear");
         jButton4.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -203,7 +190,7 @@ Connection conn;
             }
         });
 
-        jButton3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/upd.png")); // NOI18N
+        jButton3.setIcon(ImageAssets.icon("upd.png")); // NOI18N
         jButton3.setText("Update");
         jButton3.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -211,7 +198,7 @@ Connection conn;
             }
         });
 
-        jButton2.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/dele.png")); // NOI18N
+        jButton2.setIcon(ImageAssets.icon("dele.png")); // NOI18N
         jButton2.setText("Delete");
         jButton2.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -219,7 +206,7 @@ Connection conn;
             }
         });
 
-        jButton1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/sve.png")); // NOI18N
+        jButton1.setIcon(ImageAssets.icon("sve.png")); // NOI18N
         jButton1.setText("Save");
         jButton1.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -255,7 +242,7 @@ Connection conn;
 
         getContentPane().add(jPanel2, new org.netbeans.lib.awtextra.AbsoluteConstraints(403, 252, -1, -1));
 
-        jButton6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/prn.png")); // NOI18N
+        jButton6.setIcon(ImageAssets.icon("prn.png")); // NOI18N
         jButton6.setText("Print");
         jButton6.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -326,7 +313,7 @@ Connection conn;
 
         getContentPane().add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(10, 240, -1, -1));
 
-        jLabel6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/proje.jpg")); // NOI18N
+        jLabel6.setIcon(ImageAssets.icon("proje.jpg")); // NOI18N
         getContentPane().add(jLabel6, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1440, 630));
 
         pack();
@@ -376,44 +363,32 @@ Connection conn;
     private void jButton7ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton7ActionPerformed
         // TODO add your handling code here:
 
-        try{
-            String sql="select * from Project where Project_No=? and Dept_id=11";
-            //   String sql1="select * from Emp_info where Name=?";
-            pst=conn.prepareStatement(sql);
-            //   pst=conn.prepareStatement(sql1);
-            pst.setString(1, jTextField9.getText());
-            rs=pst.executeQuery();
-            if(rs.next())
+        String key=jTextField9.getText();
+        QueryExecutor.submit(this,"find Project",()->projects.findByNo(key),proj->{
+            if(proj!=null && proj.getDeptId()!=null && proj.getDeptId()==11)
             {
-                String add1=rs.getString("Project_No");
+                String add1=Repository.text(proj.getProjectNo());
                 jTextField1.setText(add1);
 
-                String add2=rs.getString("Project_Name");
+                String add2=proj.getProjectName();
                 jTextField2.setText(add2);
 
-                String add3=rs.getString("Project_Loc");
+                String add3=proj.getProjectLoc();
                 jTextField3.setText(add3);
 
-                String add4=rs.getString("Dept_id");
+                String add4=Repository.text(proj.getDeptId());
                 jTextField4.setText(add4);
 
             }
             else{
                 JOptionPane.showMessageDialog(null,"Invalid Input");
             }
-
-        }
-        catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null,e);
-
-        }
+        });
     }//GEN-LAST:event_jButton7ActionPerformed
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
-       LaAccounts ob=new LaAccounts();
-        ob.setVisible(true);
+       Navigator.show(LaAccounts.class);
     }//GEN-LAST:event_jButton5ActionPerformed
 
     private void jTable1MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jTable1MouseClicked
@@ -430,21 +405,11 @@ Connection conn;
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
-        try{
-            String val1=jTextField1.getText();
-            String val2=jTextField2.getText();
-            String val3=jTextField3.getText();
-            String val4=jTextField4.getText();
-
-            String sql="update Project set Project_Name='"+val2+"',Project_Loc='"+val3+"',Dept_id='"+val4+"' where Project_No='"+val1+"'";
-            pst=conn.prepareStatement(sql);
-            pst.execute();
-            JOptionPane.showMessageDialog(null, "Data Updated");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
+        String val3=jTextField3.getText();
+        String val4=jTextField4.getText();
+        QueryExecutor.submit(this,"update Project",()->projects.update(val1,val2,val3,Repository.toInteger(val4)),r->JOptionPane.showMessageDialog(null, "Data Updated"));
     }//GEN-LAST:event_jButton3ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
@@ -453,39 +418,20 @@ Connection conn;
         int p=JOptionPane.showConfirmDialog(null,"Are You Sure?","Delete",JOptionPane.YES_NO_OPTION);
         if(p==0)
         {
-            String sql="delete from Project where Project_No=?";
-            try{
-                pst=conn.prepareStatement(sql);
-                pst.setString(1, jTextField1.getText());
-                pst.execute();
-
-                JOptionPane.showMessageDialog(null, "Deleted");
-            }catch(Exception e)
-            {
-                JOptionPane.showMessageDialog(null, e);
-
-            }
-        }Update();
+            String key=jTextField1.getText();
+            QueryExecutor.submit(this,"delete Project",()->projects.delete(Repository.toLong(key)),
+                    r->JOptionPane.showMessageDialog(null, "Deleted"));
+        }
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="Insert into Project(Project_No,Project_Name,Project_Loc,Dept_id) values(?,?,?,?)";
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jTextField2.getText());
-            pst.setString(3, jTextField3.getText());
-
-            pst.setString(4, jTextField4.getText());
-
-            pst.execute();
-            JOptionPane.showMessageDialog(null,"Data Saved");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }Update();
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
+        String val3=jTextField3.getText();
+        String val4=jTextField4.getText();
+        QueryExecutor.submit(this,"insert Project",()->projects.insert(Repository.toLong(val1),val2,val3,Repository.toInteger(val4)),
+                r->JOptionPane.showMessageDialog(null,"Data Saved"));
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton6ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton6ActionPerformed
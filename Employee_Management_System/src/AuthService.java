@@ -0,0 +1,329 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Checks logins against the salted PBKDF2 hashes in Credentials. Hashing
+ * is deliberately slow, so it runs on a small bounded set of verifier
+ * threads: only auth.threads logins are hashed at once, up to auth.queue
+ * more wait, and anything beyond that is refused rather than piling up.
+ *
+ * A successful login is remembered for auth.session_ttl; logging in
+ * again with the same password within that time is answered from memory,
+ * without touching the database or re-running PBKDF2. Only a fast digest
+ * of the password is kept, never the password itself.
+ *
+ * @author prateek
+ */
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.sql.*;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.crypto.SecretKeyFactory;
+import javax.crypto.spec.PBEKeySpec;
+public final class AuthService {
+
+    static final String ALGORITHM="PBKDF2WithHmacSHA256";
+    static final int SALT_BYTES=16;
+    static final int HASH_BITS=256;
+
+    private static final Logger LOG=Logger.getLogger(AuthService.class.getName());
+
+    private static final SecureRandom RANDOM=new SecureRandom();
+
+    /** Mixed into the session digests; different on every run. */
+    private static final byte[] PEPPER=new byte[SALT_BYTES];
+
+    static
+    {
+        RANDOM.nextBytes(PEPPER);
+    }
+
+    private static ThreadPoolExecutor verifiers;
+    private static Map<String,Session> sessions;
+    private static long sessionTtl;
+
+    private static final AtomicLong SESSION_HITS=new AtomicLong();
+    private static final AtomicLong VERIFICATIONS=new AtomicLong();
+    private static final AtomicLong REJECTED=new AtomicLong();
+
+    private AuthService()
+    {
+    }
+
+    private static synchronized ThreadPoolExecutor verifiers()
+    {
+        if(verifiers==null)
+        {
+            DbConfig cfg=javaconnect.getConfig();
+            int threads=cfg.getAuthThreads();
+            verifiers=new ThreadPoolExecutor(threads,threads,0,TimeUnit.MILLISECONDS,
+                    new ArrayBlockingQueue<Runnable>(cfg.getAuthQueue()),new ThreadFactory()
+            {
+                private final AtomicInteger count=new AtomicInteger();
+
+                public Thread newThread(Runnable r)
+                {
+                    Thread t=new Thread(r,"auth-verify-"+count.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                }
+            });
+        }
+        return verifiers;
+    }
+
+    private static synchronized Map<String,Session> sessions()
+    {
+        if(sessions==null)
+        {
+            DbConfig cfg=javaconnect.getConfig();
+            final int max=cfg.getAuthSessions();
+            sessionTtl=cfg.getAuthSessionTtl();
+            sessions=new LinkedHashMap<String,Session>(16,0.75f,true)
+            {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String,Session> eldest)
+                {
+                    return size()>max;
+                }
+            };
+        }
+        return sessions;
+    }
+
+    /**
+     * Checks a username and password. Blocks while the password is
+     * verified, so call it off the EDT.
+     *
+     * @return the session of the employee, or null if the login is wrong
+     * @throws IllegalStateException if too many logins are being verified
+     */
+    public static Session authenticate(Connection conn,String username,char[] password)
+            throws SQLException,InterruptedException
+    {
+        if(username==null || username.isEmpty() || password==null || password.length==0)
+        {
+            return null;
+        }
+        Session cached=remembered(username);
+        if(cached!=null && cached.matches(password))
+        {
+            SESSION_HITS.incrementAndGet();
+            return cached;
+        }
+        for(Credential c:new CredentialRepository(conn).findByUsername(username))
+        {
+            if(verify(c,password))
+            {
+                Session session=new Session(c,password);
+                synchronized(AuthService.class)
+                {
+                    sessions().put(username,session);
+                }
+                return session;
+            }
+        }
+        return null;
+    }
+
+    private static synchronized Session remembered(String username)
+    {
+        Session s=sessions().get(username);
+        if(s!=null && System.currentTimeMillis()-s.issuedAt>sessionTtl)
+        {
+            sessions.remove(username);
+            return null;
+        }
+        return s;
+    }
+
+    private static boolean verify(final Credential c,char[] password) throws InterruptedException
+    {
+        final char[] copy=password.clone();
+        Future<Boolean> result;
+        try{
+            result=verifiers().submit(new Callable<Boolean>()
+            {
+                public Boolean call() throws Exception
+                {
+                    try{
+                        return MessageDigest.isEqual(hash(copy,c.getSalt(),c.getIterations()),c.getHash());
+                    }finally{
+                        Arrays.fill(copy,'\0');
+                    }
+                }
+            });
+        }catch(RejectedExecutionException e)
+        {
+            REJECTED.incrementAndGet();
+            LOG.log(Level.WARNING,"Login for {0} refused: verifier queue full",c.getUsername());
+            throw new IllegalStateException("Too many logins at once, please try again");
+        }
+        VERIFICATIONS.incrementAndGet();
+        try{
+            return result.get();
+        }catch(InterruptedException e)
+        {
+            result.cancel(true);
+            throw e;
+        }catch(ExecutionException e)
+        {
+            throw new IllegalStateException("Could not verify password",e.getCause());
+        }
+    }
+
+    /**
+     * Stores a new password for an employee, hashed with a fresh salt, and
+     * forgets the employee's remembered logins.
+     *
+     * @return false if there is no such employee
+     */
+    public static boolean setPassword(Connection conn,long employeeId,char[] password) throws SQLException
+    {
+        int iterations=javaconnect.getConfig().getAuthIterations();
+        byte[] salt=new byte[SALT_BYTES];
+        RANDOM.nextBytes(salt);
+        boolean saved=new CredentialRepository(conn).save(employeeId,salt,hash(password,salt,iterations),iterations);
+        forget(employeeId);
+        return saved;
+    }
+
+    /**
+     * Forgets every remembered login of an employee.
+     */
+    public static synchronized void forget(long employeeId)
+    {
+        Iterator<Session> it=sessions().values().iterator();
+        while(it.hasNext())
+        {
+            if(it.next().employeeId==employeeId)
+            {
+                it.remove();
+            }
+        }
+    }
+
+    static byte[] hash(char[] password,byte[] salt,int iterations)
+    {
+        PBEKeySpec spec=new PBEKeySpec(password,salt,iterations,HASH_BITS);
+        try{
+            return SecretKeyFactory.getInstance(ALGORITHM).generateSecret(spec).getEncoded();
+        }catch(GeneralSecurityException e)
+        {
+            throw new IllegalStateException(ALGORITHM+" not available",e);
+        }finally{
+            spec.clearPassword();
+        }
+    }
+
+    /** Logins answered from remembered sessions. */
+    public static long getSessionHits()
+    {
+        return SESSION_HITS.get();
+    }
+
+    /** Logins that ran the full password hash. */
+    public static long getVerifications()
+    {
+        return VERIFICATIONS.get();
+    }
+
+    /** Logins refused because the verifier queue was full. */
+    public static long getRejected()
+    {
+        return REJECTED.get();
+    }
+
+    /**
+     * A logged-in employee.
+     */
+    public static final class Session {
+
+        private final long employeeId;
+        private final String username;
+        private final String designation;
+        private final long issuedAt;
+        private final byte[] digest;
+
+        Session(Credential c,char[] password)
+        {
+            this.employeeId=c.getEmployeeId();
+            this.username=c.getUsername();
+            this.designation=c.getDesignation();
+            this.issuedAt=System.currentTimeMillis();
+            this.digest=digest(password);
+        }
+
+        boolean matches(char[] password)
+        {
+            return MessageDigest.isEqual(digest,digest(password));
+        }
+
+        private static byte[] digest(char[] password)
+        {
+            ByteBuffer bytes=StandardCharsets.UTF_8.encode(CharBuffer.wrap(password));
+            try{
+                MessageDigest md=MessageDigest.getInstance("SHA-256");
+                md.update(PEPPER);
+                md.update(bytes);
+                return md.digest();
+            }catch(GeneralSecurityException e)
+            {
+                throw new IllegalStateException("SHA-256 not available",e);
+            }finally{
+                if(bytes.hasArray())
+                {
+                    Arrays.fill(bytes.array(),(byte)0);
+                }
+            }
+        }
+
+        public long getEmployeeId()
+        {
+            return employeeId;
+        }
+
+        public String getUsername()
+        {
+            return username;
+        }
+
+        public String getDesignation()
+        {
+            return designation;
+        }
+
+        public boolean isDesignation(String designation)
+        {
+            return designation.equals(this.designation);
+        }
+
+        @Override
+        public String toString()
+        {
+            return "Session["+employeeId+", "+username+"]";
+        }
+    }
+}
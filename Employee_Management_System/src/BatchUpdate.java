@@ -0,0 +1,207 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * An update of a fixed set of columns, keyed on the table's id column,
+ * applied to one or more rows with bound parameters. All rows are sent as
+ * one JDBC batch inside a single transaction, and the statement is cached
+ * on the connection so repeated edits reuse the compiled SQL.
+ *
+ * An update started from a repository reads each row before and after,
+ * within the transaction, and publishes the rows it changed on ChangeBus
+ * once committed. Otherwise only a RESET of the table is published.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public class BatchUpdate {
+
+    private static final Logger LOG=Logger.getLogger(BatchUpdate.class.getName());
+
+    private final Connection conn;
+    private final Repository<?> source;
+    private final String table;
+    private final String sql;
+    private final int columnCount;
+    private final List<Object[]> rows=new ArrayList<Object[]>();
+
+    public BatchUpdate(Connection conn,String table,String keyColumn,String... columns)
+    {
+        this(conn,null,table,keyColumn,columns);
+    }
+
+    /**
+     * An update of the source repository's table that publishes each
+     * changed row.
+     */
+    public BatchUpdate(Repository<?> source,String keyColumn,String... columns)
+    {
+        this(source.getConnection(),source,source.getTable(),keyColumn,columns);
+    }
+
+    private BatchUpdate(Connection conn,Repository<?> source,String table,String keyColumn,String... columns)
+    {
+        if(columns.length==0)
+        {
+            throw new IllegalArgumentException("No columns to update");
+        }
+        this.conn=conn;
+        this.source=source;
+        this.table=table;
+        this.columnCount=columns.length;
+        StringBuilder sb=new StringBuilder("update ").append(table).append(" set ");
+        for(int i=0;i<columns.length;i++)
+        {
+            if(i>0)
+            {
+                sb.append(',');
+            }
+            sb.append(columns[i]).append("=?");
+        }
+        sb.append(" where ").append(keyColumn).append("=?");
+        this.sql=sb.toString();
+    }
+
+    /**
+     * Queues one row. Values are given in the order of the columns passed
+     * to the constructor; null stores SQL NULL.
+     */
+    public BatchUpdate add(Object key,Object... values)
+    {
+        if(values.length!=columnCount)
+        {
+            throw new IllegalArgumentException("Expected "+columnCount+" values but got "+values.length);
+        }
+        Object[] row=new Object[columnCount+1];
+        System.arraycopy(values,0,row,0,columnCount);
+        row[columnCount]=key;
+        rows.add(row);
+        return this;
+    }
+
+    public int size()
+    {
+        return rows.size();
+    }
+
+    public String getSql()
+    {
+        return sql;
+    }
+
+    /**
+     * Runs every queued row in one transaction. Nothing is written if any
+     * row fails. If the connection already has a transaction open, the
+     * rows join it and are committed or rolled back by its owner.
+     */
+    public UpdateResult execute() throws SQLException
+    {
+        long start=System.nanoTime();
+        if(rows.isEmpty())
+        {
+            return new UpdateResult(0,0,0);
+        }
+        StatementCache cache=StatementCache.of(conn);
+        int affected=0;
+        int[] counts;
+        Object[] before=null;
+        Object[] after=null;
+        synchronized(cache)
+        {
+            boolean autoCommit=conn.getAutoCommit();
+            if(autoCommit)
+            {
+                conn.setAutoCommit(false);
+            }
+            try{
+                if(source!=null)
+                {
+                    before=images();
+                }
+                PreparedStatement pst=cache.prepare(sql);
+                for(Object[] row:rows)
+                {
+                    for(int i=0;i<row.length;i++)
+                    {
+                        pst.setObject(i+1,row[i]);
+                    }
+                    pst.addBatch();
+                }
+                counts=pst.executeBatch();
+                for(int count:counts)
+                {
+                    if(count>0)
+                    {
+                        affected+=count;
+                    }
+                }
+                if(source!=null && affected>0)
+                {
+                    after=images();
+                }
+                if(autoCommit)
+                {
+                    conn.commit();
+                }
+            }catch(SQLException e)
+            {
+                if(autoCommit)
+                {
+                    conn.rollback();
+                }
+                throw e;
+            }finally{
+                if(autoCommit)
+                {
+                    conn.setAutoCommit(true);
+                }
+            }
+        }
+        if(after!=null)
+        {
+            for(int i=0;i<rows.size();i++)
+            {
+                if(counts[i]!=0)
+                {
+                    ChangeBus.publish(table,rows.get(i)[columnCount],before[i],after[i]);
+                }
+            }
+        }
+        else if(source==null && affected>0)
+        {
+            ChangeBus.publishReset(table);
+        }
+        UpdateResult result=new UpdateResult(rows.size(),affected,System.nanoTime()-start);
+        rows.clear();
+        LOG.log(Level.FINE,"{0}: {1}",new Object[]{sql,result});
+        return result;
+    }
+
+    /**
+     * Reads the queued rows as they now are, one per key, a chunk of keys
+     * per query.
+     */
+    private Object[] images() throws SQLException
+    {
+        List<Object> keys=new ArrayList<Object>(rows.size());
+        for(Object[] row:rows)
+        {
+            keys.add(row[columnCount]);
+        }
+        Map<Object,?> found=source.findByKeys(keys);
+        Object[] images=new Object[rows.size()];
+        for(int i=0;i<images.length;i++)
+        {
+            images[i]=found.get(ChangeBus.key(rows.get(i)[columnCount]));
+        }
+        return images;
+    }
+}
@@ -15,7 +15,7 @@ import java.text.MessageFormat;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import net.proteanit.sql.DbUtils;
-public class Bonus extends javax.swing.JFrame {
+public class Bonus extends javax.swing.JFrame implements Navigator.Refreshable {
 Connection conn;
     ResultSet rs;
     PreparedStatement pst;
@@ -24,7 +24,15 @@ Connection conn;
      */
     public Bonus() {
        initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
+        Update();
+    }
+
+    /**
+     * Reloads the data when the form is shown again.
+     */
+    public void refresh()
+    {
         Update();
     }
 
@@ -76,7 +84,7 @@ Connection conn;
         });
         getContentPane().add(jButton1, new org.netbeans.lib.awtextra.AbsoluteConstraints(913, 58, 62, -1));
 
-        jLabel2.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/background-7.jpg")); // NOI18N
+        jLabel2.setIcon(ImageAssets.icon("background-7.jpg")); // NOI18N
         getContentPane().add(jLabel2, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1020, 550));
 
         pack();
@@ -85,7 +93,7 @@ Connection conn;
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
+            Navigator.retain(this);
         //    new Works().setVisible(true);
            // exit(0);
             
@@ -144,24 +152,21 @@ Connection conn;
     private javax.swing.JTable jTable1;
     // End of variables declaration//GEN-END:variables
     public void Update() {
-        //To change body of generated methods, choose Tools | Templates.
-        try{   
-        String sql="select Employee_id,Bonus from Bonus";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
+        // Brings Payroll up to date for the employees whose hours or salary changed, then shows it.
+        QueryExecutor.submit(this,"payroll",()->{
+            new PayrollEngine(conn).recomputeChanged();
+            PreparedStatement st=conn.prepareStatement("select Employee_id,Salary,Hours,Overtime,Bonus,Pay from Payroll order by Employee_id");
             try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
+                ResultSet r=st.executeQuery();
+                try{
+                    return DbUtils.resultSetToTableModel(r);
+                }finally{
+                    r.close();
+                }
+            }finally{
+                st.close();
             }
-        }
+        },model->jTable1.setModel(model),e->JOptionPane.showMessageDialog(null, e));
     }
 }
 
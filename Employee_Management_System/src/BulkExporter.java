@@ -0,0 +1,72 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Exports a table to CSV, in key order, with a header naming the
+ * columns. Each row is written as the result set is walked, without
+ * collecting the rows first, so exporting the whole of Emp_info needs no
+ * more memory than one row. The file can be read back by BulkLoader.
+ *
+ * @author prateek
+ */
+import java.io.IOException;
+import java.io.Writer;
+import java.sql.*;
+import java.util.Collections;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public class BulkExporter {
+
+    static final int FETCH_SIZE=1000;
+
+    private static final Logger LOG=Logger.getLogger(BulkExporter.class.getName());
+
+    private final Connection conn;
+
+    public BulkExporter(Connection conn)
+    {
+        this.conn=conn;
+    }
+
+    /**
+     * Writes the whole table and closes the writer.
+     */
+    public BulkResult export(CsvTable table,Writer out) throws IOException, SQLException
+    {
+        long start=System.nanoTime();
+        long rows=0;
+        CsvWriter csv=new CsvWriter(out);
+        try{
+            csv.write((Object[])table.getColumns());
+            PreparedStatement pst=conn.prepareStatement(table.selectSql());
+            try{
+                pst.setFetchSize(FETCH_SIZE);
+                ResultSet rs=pst.executeQuery();
+                try{
+                    Object[] row=new Object[table.getColumnCount()];
+                    while(rs.next())
+                    {
+                        for(int i=0;i<row.length;i++)
+                        {
+                            row[i]=rs.getObject(i+1);
+                        }
+                        csv.write(row);
+                        rows++;
+                    }
+                }finally{
+                    rs.close();
+                }
+            }finally{
+                pst.close();
+            }
+        }finally{
+            csv.close();
+        }
+        BulkResult result=new BulkResult(table,rows,rows,0,Collections.<BulkResult.Rejected>emptyList(),System.nanoTime()-start);
+        LOG.log(Level.INFO,"Export {0}",result);
+        return result;
+    }
+}
@@ -0,0 +1,356 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Imports a CSV file into one table. A reader thread parses and checks
+ * the rows and hands them over in batches through a bounded queue, so it
+ * never gets more than csv.queue batches ahead and memory stays flat
+ * however large the file is. The calling thread inserts each batch as one
+ * JDBC batch in its own transaction.
+ *
+ * The first record must name the columns, in any order; columns of the
+ * table that are left out are stored as NULL. A row whose values do not
+ * parse is rejected by the reader. If the database refuses a batch (a
+ * duplicate key, say) it is rolled back and inserted again a row at a
+ * time, so only the offending rows are rejected.
+ *
+ * The imported rows are not published one by one; a RESET of the table
+ * goes out on ChangeBus instead.
+ *
+ * @author prateek
+ */
+import java.io.IOException;
+import java.io.Reader;
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public class BulkLoader {
+
+    /** Rejected rows reported in detail; the rest are only counted. */
+    static final int MAX_REJECTED=1000;
+
+    private static final Logger LOG=Logger.getLogger(BulkLoader.class.getName());
+
+    /** Put on the queue by the reader after the last batch. */
+    private static final Batch END=new Batch(0);
+
+    private final Connection conn;
+    private final int batchSize;
+    private final int queueSize;
+
+    public BulkLoader(Connection conn)
+    {
+        this(conn,javaconnect.getConfig().getCsvBatch(),javaconnect.getConfig().getCsvQueue());
+    }
+
+    public BulkLoader(Connection conn,int batchSize,int queueSize)
+    {
+        this.conn=conn;
+        this.batchSize=batchSize;
+        this.queueSize=queueSize;
+    }
+
+    /**
+     * Reads the whole file into the table and closes it.
+     *
+     * @throws IOException if the file cannot be read or its header does
+     *         not match the table; batches already inserted stay
+     */
+    public BulkResult load(final CsvTable table,Reader in) throws IOException, SQLException
+    {
+        long start=System.nanoTime();
+        final CsvReader csv=new CsvReader(in);
+        final int[] columnOf;
+        try{
+            columnOf=header(table,csv.next());
+        }catch(IOException e)
+        {
+            csv.close();
+            throw e;
+        }
+        final BlockingQueue<Batch> queue=new ArrayBlockingQueue<Batch>(queueSize);
+        final Rejects rejects=new Rejects();
+        final Parser parser=new Parser(table,csv,columnOf,queue,rejects);
+        Thread reader=new Thread(parser,"csv-reader "+table);
+        reader.setDaemon(true);
+        reader.start();
+
+        long written=0;
+        boolean autoCommit=conn.getAutoCommit();
+        PreparedStatement pst=conn.prepareStatement(table.insertSql());
+        try{
+            conn.setAutoCommit(false);
+            while(true)
+            {
+                Batch batch;
+                try{
+                    batch=queue.take();
+                }catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    throw new IOException("Import of "+table+" interrupted",e);
+                }
+                if(batch==END)
+                {
+                    break;
+                }
+                written+=insert(pst,batch,rejects);
+            }
+        }finally{
+            parser.cancelled=true;
+            queue.clear();
+            try{
+                pst.close();
+            }finally{
+                conn.setAutoCommit(autoCommit);
+            }
+            try{
+                reader.join();
+            }catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+            if(written>0)
+            {
+                ChangeBus.publishReset(table.getName());
+            }
+        }
+        if(parser.failure!=null)
+        {
+            throw parser.failure;
+        }
+        BulkResult result=new BulkResult(table,parser.rowsRead,written,rejects.count,rejects.list,System.nanoTime()-start);
+        LOG.log(Level.INFO,"Import {0}",result);
+        return result;
+    }
+
+    /**
+     * @return for each table column, its position in the file or -1
+     */
+    private static int[] header(CsvTable table,String[] names) throws IOException
+    {
+        if(names==null)
+        {
+            throw new IOException("The file is empty");
+        }
+        int[] columnOf=new int[table.getColumnCount()];
+        Arrays.fill(columnOf,-1);
+        for(int i=0;i<names.length;i++)
+        {
+            int c=table.indexOf(names[i]);
+            if(c<0)
+            {
+                throw new IOException("Column "+names[i]+" is not in "+table);
+            }
+            if(columnOf[c]>=0)
+            {
+                throw new IOException("Column "+names[i]+" appears twice");
+            }
+            columnOf[c]=i;
+        }
+        return columnOf;
+    }
+
+    /**
+     * Inserts one batch in one transaction, falling back to row by row if
+     * the batch is refused.
+     *
+     * @return rows inserted
+     */
+    private int insert(PreparedStatement pst,Batch batch,Rejects rejects) throws SQLException
+    {
+        try{
+            for(Object[] row:batch.rows)
+            {
+                bind(pst,row);
+                pst.addBatch();
+            }
+            pst.executeBatch();
+            conn.commit();
+            return batch.rows.size();
+        }catch(SQLException e)
+        {
+            pst.clearBatch();
+            conn.rollback();
+        }
+        int inserted=0;
+        for(int i=0;i<batch.rows.size();i++)
+        {
+            bind(pst,batch.rows.get(i));
+            try{
+                pst.executeUpdate();
+                inserted++;
+            }catch(SQLException e)
+            {
+                rejects.add(batch.lines[i],e.getMessage());
+            }
+        }
+        conn.commit();
+        return inserted;
+    }
+
+    private static void bind(PreparedStatement pst,Object[] row) throws SQLException
+    {
+        for(int i=0;i<row.length;i++)
+        {
+            pst.setObject(i+1,row[i]);
+        }
+    }
+
+    /**
+     * Rows parsed from the file, with the line each starts on.
+     */
+    private static final class Batch {
+
+        final List<Object[]> rows;
+        final long[] lines;
+
+        Batch(int size)
+        {
+            rows=new ArrayList<Object[]>(size);
+            lines=new long[size];
+        }
+    }
+
+    private static final class Rejects {
+
+        final List<BulkResult.Rejected> list=new ArrayList<BulkResult.Rejected>();
+        long count;
+
+        synchronized void add(long line,String reason)
+        {
+            count++;
+            if(list.size()<MAX_REJECTED)
+            {
+                list.add(new BulkResult.Rejected(line,reason));
+            }
+        }
+    }
+
+    /**
+     * Runs on the reader thread.
+     */
+    private final class Parser implements Runnable {
+
+        final CsvTable table;
+        final CsvReader csv;
+        final int[] columnOf;
+        final BlockingQueue<Batch> queue;
+        final Rejects rejects;
+
+        volatile boolean cancelled;
+        volatile IOException failure;
+        volatile long rowsRead;
+
+        Parser(CsvTable table,CsvReader csv,int[] columnOf,BlockingQueue<Batch> queue,Rejects rejects)
+        {
+            this.table=table;
+            this.csv=csv;
+            this.columnOf=columnOf;
+            this.queue=queue;
+            this.rejects=rejects;
+        }
+
+        public void run()
+        {
+            try{
+                Batch batch=new Batch(batchSize);
+                String[] values;
+                while(!cancelled && (values=csv.next())!=null)
+                {
+                    if(values.length==1 && values[0].isEmpty())
+                    {
+                        continue;
+                    }
+                    rowsRead++;
+                    Object[] row=parse(values);
+                    if(row==null)
+                    {
+                        continue;
+                    }
+                    batch.lines[batch.rows.size()]=csv.getLine();
+                    batch.rows.add(row);
+                    if(batch.rows.size()==batchSize)
+                    {
+                        put(batch);
+                        batch=new Batch(batchSize);
+                    }
+                }
+                if(!batch.rows.isEmpty())
+                {
+                    put(batch);
+                }
+            }catch(IOException e)
+            {
+                failure=e;
+            }finally{
+                try{
+                    csv.close();
+                }catch(IOException e)
+                {
+                    LOG.log(Level.FINE,null,e);
+                }
+                put(END);
+            }
+        }
+
+        /**
+         * @return the row in table column order, or null if it is rejected
+         */
+        private Object[] parse(String[] values)
+        {
+            Object[] row=new Object[columnOf.length];
+            int used=0;
+            for(int c=0;c<columnOf.length;c++)
+            {
+                if(columnOf[c]<0)
+                {
+                    continue;
+                }
+                used++;
+                if(columnOf[c]>=values.length)
+                {
+                    rejects.add(csv.getLine(),"Expected more values");
+                    return null;
+                }
+                try{
+                    row[c]=table.parse(c,values[columnOf[c]]);
+                }catch(NumberFormatException e)
+                {
+                    rejects.add(csv.getLine(),table.getColumns()[c]+" is not a number: "+values[columnOf[c]]);
+                    return null;
+                }
+            }
+            if(values.length>used)
+            {
+                rejects.add(csv.getLine(),"Expected "+used+" values but got "+values.length);
+                return null;
+            }
+            return row;
+        }
+
+        /**
+         * Waits for room on the queue, giving up once the import stops.
+         */
+        private void put(Batch batch)
+        {
+            try{
+                while(!cancelled && !queue.offer(batch,100,TimeUnit.MILLISECONDS))
+                {
+                }
+            }catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+}
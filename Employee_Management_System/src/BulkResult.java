@@ -0,0 +1,109 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Outcome of a CSV import or export: rows read, rows written, rows
+ * rejected with the reason for each, and how long it took.
+ *
+ * @author prateek
+ */
+import java.util.Collections;
+import java.util.List;
+public final class BulkResult {
+
+    private final CsvTable table;
+    private final long rowsRead;
+    private final long rowsWritten;
+    private final long rejectedCount;
+    private final List<Rejected> rejected;
+    private final long elapsedNanos;
+
+    public BulkResult(CsvTable table,long rowsRead,long rowsWritten,long rejectedCount,List<Rejected> rejected,long elapsedNanos)
+    {
+        this.table=table;
+        this.rowsRead=rowsRead;
+        this.rowsWritten=rowsWritten;
+        this.rejectedCount=rejectedCount;
+        this.rejected=Collections.unmodifiableList(rejected);
+        this.elapsedNanos=elapsedNanos;
+    }
+
+    public CsvTable getTable()
+    {
+        return table;
+    }
+
+    public long getRowsRead()
+    {
+        return rowsRead;
+    }
+
+    public long getRowsWritten()
+    {
+        return rowsWritten;
+    }
+
+    public long getRejectedCount()
+    {
+        return rejectedCount;
+    }
+
+    /**
+     * @return the rejected rows, the first BulkLoader.MAX_REJECTED of them
+     */
+    public List<Rejected> getRejected()
+    {
+        return rejected;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public double getRowsPerSecond()
+    {
+        return elapsedNanos==0 ? 0 : rowsWritten*1e9/elapsedNanos;
+    }
+
+    @Override
+    public String toString()
+    {
+        return table+": "+rowsWritten+" of "+rowsRead+" rows in "+String.format("%.2f",elapsedNanos/1e9)+" s ("
+                +String.format("%.0f",getRowsPerSecond())+" rows/s), "+rejectedCount+" rejected";
+    }
+
+    /**
+     * A row left out, by the line it starts on in the file.
+     */
+    public static final class Rejected {
+
+        private final long line;
+        private final String reason;
+
+        public Rejected(long line,String reason)
+        {
+            this.line=line;
+            this.reason=reason;
+        }
+
+        public long getLine()
+        {
+            return line;
+        }
+
+        public String getReason()
+        {
+            return reason;
+        }
+
+        @Override
+        public String toString()
+        {
+            return "line "+line+": "+reason;
+        }
+    }
+}
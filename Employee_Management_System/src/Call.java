@@ -64,8 +64,7 @@ public class Call extends JFrame implements ActionListener {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        Login l=new Login();
-        l.setVisible(true);
+        Navigator.show(Login.class);
         
     }//GEN-LAST:event_jButton1ActionPerformed
 
@@ -108,8 +107,7 @@ public class Call extends JFrame implements ActionListener {
 {
    if(event.getActionCommand().equals("Admin Login"));
    {
-       Login l=new Login();
-       l.setVisible(true);
+       Navigator.show(Login.class);
    }
 }
 
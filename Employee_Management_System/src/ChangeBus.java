@@ -0,0 +1,583 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Tells interested parts of the application what was written to Emp_info,
+ * Works_on, Project and Department. The repositories publish a ChangeEvent
+ * with the row's before and after image for every row a committed write
+ * changes, so a subscriber can patch its own copy of the data instead of
+ * reading the table again.
+ *
+ * Every event gets the next sequence number and is kept in a replay buffer
+ * of the last cdc.replay events. A subscriber may start from any sequence
+ * number it has seen, e.g. the position of an earlier subscription it
+ * closed while its form was hidden; it is first sent what it missed, or a
+ * RESET per table if that is no longer in the buffer.
+ *
+ * Each subscription queues events for its listener, which is called with
+ * a batch of them on the EDT or on a background thread, never on the
+ * writer's. Changes to a row still waiting are folded into one event, so
+ * a burst of edits costs one call. When cdc.queue different rows are
+ * waiting, the writer is held for up to cdc.wait milliseconds for the
+ * listener to catch up, before it takes the bus's lock, so other writers
+ * and the EDT carry on meanwhile; if the listener is still full when the
+ * event is queued, the waiting events are replaced by a RESET per table.
+ * Changes to a table with a RESET waiting are folded into it, as the
+ * listener reloads the table afterwards. Writers on the EDT are never
+ * held.
+ *
+ * follow() ties a subscription to a form: it is closed while the form is
+ * hidden and resumed from where it stopped when the form is shown again.
+ *
+ * @author prateek
+ */
+import java.awt.Component;
+import java.awt.EventQueue;
+import java.awt.Window;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public final class ChangeBus {
+
+    public static final String EMP_INFO="Emp_info";
+    public static final String WORKS_ON="Works_on";
+    public static final String PROJECT="Project";
+    public static final String DEPARTMENT="Department";
+
+    static final String[] TABLES={EMP_INFO,WORKS_ON,PROJECT,DEPARTMENT};
+
+    private static final Logger LOG=Logger.getLogger(ChangeBus.class.getName());
+
+    private static final Object LOCK=new Object();
+    private static final CopyOnWriteArrayList<Subscription> SUBSCRIPTIONS=new CopyOnWriteArrayList<Subscription>();
+    private static final Map<String,Long> LAST=new HashMap<String,Long>();
+    private static ChangeEvent[] replay;
+    private static long sequence;
+
+    private static volatile Thread dispatcher;
+    private static final ExecutorService DISPATCH=Executors.newSingleThreadExecutor(new ThreadFactory()
+    {
+        public Thread newThread(Runnable r)
+        {
+            Thread t=new Thread(r,"change-bus");
+            t.setDaemon(true);
+            dispatcher=t;
+            return t;
+        }
+    });
+
+    private ChangeBus()
+    {
+    }
+
+    /**
+     * Receives the changes of the subscribed tables, oldest first.
+     */
+    public interface Listener {
+
+        void changed(List<ChangeEvent> events);
+    }
+
+    /**
+     * Subscribes to changes published from now on.
+     *
+     * @param onEdt call the listener on the Event Dispatch Thread rather
+     *        than the bus's background thread
+     * @param tables the tables of interest; none means all
+     */
+    public static Subscription subscribe(Listener listener,boolean onEdt,String... tables)
+    {
+        return subscribe(listener,onEdt,-1,tables);
+    }
+
+    /**
+     * Subscribes to changes published after the given sequence number;
+     * those already published are replayed first.
+     *
+     * @param after a sequence number, e.g. a closed subscription's
+     *        position, or -1 for now
+     */
+    public static Subscription subscribe(Listener listener,boolean onEdt,long after,String... tables)
+    {
+        synchronized(LOCK)
+        {
+            ChangeEvent[] buffer=buffer();
+            if(after<0 || after>sequence)
+            {
+                after=sequence;
+            }
+            Subscription s=new Subscription(listener,onEdt,tables,after);
+            if(after<sequence)
+            {
+                if(after>=sequence-buffer.length)
+                {
+                    for(long seq=after+1;seq<=sequence;seq++)
+                    {
+                        s.offer(buffer[(int)(seq%buffer.length)]);
+                    }
+                }
+                else
+                {
+                    for(String table:tables.length==0 ? TABLES : tables)
+                    {
+                        s.offer(ChangeEvent.reset(sequence,table));
+                    }
+                    LOG.log(Level.FINE,"Subscriber at {0} is past the replay buffer, sent resets",after);
+                }
+            }
+            SUBSCRIPTIONS.add(s);
+            return s;
+        }
+    }
+
+    /**
+     * Calls the listener on the EDT with the changes to the tables while
+     * the form is showing. Changes made while it is hidden or closed are
+     * delivered when it is shown again.
+     */
+    public static void follow(Component form,Listener listener,String... tables)
+    {
+        Follower f=new Follower(listener,tables);
+        form.addComponentListener(f);
+        if(form instanceof Window)
+        {
+            ((Window)form).addWindowListener(f.closer);
+        }
+        if(form.isShowing())
+        {
+            f.resume();
+        }
+    }
+
+    /**
+     * Publishes the committed change of one row. Does nothing if both
+     * images are null, i.e. there was no such row.
+     *
+     * @param key the row's key; numbers and numeric text are passed on as
+     *        a Long
+     * @param before the row before the write, null for an insert
+     * @param after the row after the write, null for a delete
+     */
+    public static void publish(String table,Object key,Object before,Object after)
+    {
+        if(before!=null || after!=null)
+        {
+            publish(table,key,before,after,false);
+        }
+    }
+
+    /**
+     * Publishes that any row of the table may have changed, for writes
+     * that do not know which rows they touched.
+     */
+    public static void publishReset(String table)
+    {
+        publish(table,null,null,null,true);
+    }
+
+    private static void publish(String table,Object key,Object before,Object after,boolean reset)
+    {
+        key=key(key);
+        if(!EventQueue.isDispatchThread() && Thread.currentThread()!=dispatcher)
+        {
+            // Back-pressure: wait for slow listeners before taking LOCK, so
+            // other writers and the EDT are not held while this one waits.
+            String rowKey=reset ? null : ChangeEvent.rowKey(table,key);
+            for(Subscription s:SUBSCRIPTIONS)
+            {
+                s.awaitRoom(table,rowKey);
+            }
+        }
+        synchronized(LOCK)
+        {
+            ChangeEvent[] buffer=buffer();
+            sequence++;
+            ChangeEvent e=reset ? ChangeEvent.reset(sequence,table) : new ChangeEvent(sequence,table,key,before,after);
+            buffer[(int)(sequence%buffer.length)]=e;
+            LAST.put(table,sequence);
+            // Offered under LOCK, which only queues, so that every
+            // subscription sees the events in sequence order.
+            for(Subscription s:SUBSCRIPTIONS)
+            {
+                s.offer(e);
+            }
+        }
+    }
+
+    /**
+     * @return the sequence number of the latest change
+     */
+    public static long getSequence()
+    {
+        synchronized(LOCK)
+        {
+            return sequence;
+        }
+    }
+
+    /**
+     * @return the sequence number of the latest change to the table, 0 if
+     *         there was none
+     */
+    public static long getSequence(String table)
+    {
+        synchronized(LOCK)
+        {
+            Long seq=LAST.get(table);
+            return seq==null ? 0 : seq;
+        }
+    }
+
+    /**
+     * @return whether the table changed after the given sequence number
+     */
+    public static boolean changedSince(String table,long seq)
+    {
+        return getSequence(table)>seq;
+    }
+
+    private static ChangeEvent[] buffer()
+    {
+        if(replay==null)
+        {
+            replay=new ChangeEvent[Math.max(1,javaconnect.getConfig().getCdcReplay())];
+        }
+        return replay;
+    }
+
+    static Object key(Object key)
+    {
+        if(key instanceof Long || key==null)
+        {
+            return key;
+        }
+        if(key instanceof Integer || key instanceof Short)
+        {
+            return ((Number)key).longValue();
+        }
+        try{
+            return Long.valueOf(key.toString().trim());
+        }catch(NumberFormatException e)
+        {
+            return key;
+        }
+    }
+
+    /**
+     * Holds a form's subscription while it is showing.
+     */
+    private static final class Follower extends ComponentAdapter {
+
+        private final Listener listener;
+        private final String[] tables;
+        private long position=getSequence();
+        private Subscription current;
+        final WindowAdapter closer=new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                pause();
+            }
+        };
+
+        Follower(Listener listener,String[] tables)
+        {
+            this.listener=listener;
+            this.tables=tables;
+        }
+
+        @Override
+        public void componentShown(ComponentEvent e)
+        {
+            resume();
+        }
+
+        @Override
+        public void componentHidden(ComponentEvent e)
+        {
+            pause();
+        }
+
+        void resume()
+        {
+            if(current==null)
+            {
+                current=subscribe(listener,true,position,tables);
+            }
+        }
+
+        void pause()
+        {
+            if(current!=null)
+            {
+                position=current.getPosition();
+                current.close();
+                current=null;
+            }
+        }
+    }
+
+    /**
+     * The queue of events waiting for one listener.
+     */
+    public static final class Subscription {
+
+        private final Listener listener;
+        private final boolean onEdt;
+        private final Set<String> tables;
+        private final int capacity;
+        private final long waitMillis;
+        private final LinkedHashMap<String,ChangeEvent> pending=new LinkedHashMap<String,ChangeEvent>();
+        private final Runnable drain=new Runnable()
+        {
+            public void run()
+            {
+                drain();
+            }
+        };
+
+        /** Latest sequence number offered, whether or not of interest. */
+        private long offered;
+        /** Sequence number of the oldest change folded into pending. */
+        private long oldestPending;
+        private boolean scheduled;
+        private boolean closed;
+
+        private long received;
+        private long coalesced;
+        private long overflows;
+        private long batches;
+
+        Subscription(Listener listener,boolean onEdt,String[] tables,long after)
+        {
+            this.listener=listener;
+            this.onEdt=onEdt;
+            this.tables=tables.length==0 ? null : new HashSet<String>(Arrays.asList(tables));
+            this.capacity=Math.max(1,javaconnect.getConfig().getCdcQueue());
+            this.waitMillis=javaconnect.getConfig().getCdcWait();
+            this.offered=after;
+        }
+
+        /**
+         * Waits, for up to cdc.wait ms, until the listener has room for a
+         * change of the given row, or of the table if rowKey is null.
+         * Returns at once if the change would be folded into one already
+         * waiting.
+         */
+        synchronized void awaitRoom(String table,String rowKey)
+        {
+            long deadline=System.currentTimeMillis()+waitMillis;
+            long left=waitMillis;
+            while(!closed && left>0 && needsRoom(table,rowKey))
+            {
+                try{
+                    wait(left);
+                }catch(InterruptedException ex)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+                left=deadline-System.currentTimeMillis();
+            }
+        }
+
+        private boolean needsRoom(String table,String rowKey)
+        {
+            return (tables==null || tables.contains(table)) && rowKey!=null && !pending.containsKey(table+"#*")
+                    && !pending.containsKey(rowKey) && pending.size()>=capacity;
+        }
+
+        /**
+         * Queues an event without waiting; if the listener has no room for
+         * it, everything waiting is replaced by resets.
+         */
+        synchronized void offer(ChangeEvent e)
+        {
+            if(closed)
+            {
+                return;
+            }
+            offered=Math.max(offered,e.getSequence());
+            if(tables!=null && !tables.contains(e.getTable()))
+            {
+                return;
+            }
+            received++;
+            String resetKey=e.getTable()+"#*";
+            if(!e.isReset() && pending.containsKey(resetKey))
+            {
+                // The listener reloads the table after the reset anyway.
+                pending.remove(resetKey);
+                pending.put(resetKey,ChangeEvent.reset(e.getSequence(),e.getTable()));
+                coalesced++;
+                return;
+            }
+            String rowKey=e.getRowKey();
+            if(!e.isReset() && !pending.containsKey(rowKey) && pending.size()>=capacity)
+            {
+                overflow(e);
+                return;
+            }
+            if(pending.isEmpty())
+            {
+                oldestPending=e.getSequence();
+            }
+            if(e.isReset())
+            {
+                Iterator<ChangeEvent> it=pending.values().iterator();
+                while(it.hasNext())
+                {
+                    ChangeEvent p=it.next();
+                    if(p.getTable().equals(e.getTable()) && !p.isReset())
+                    {
+                        it.remove();
+                        coalesced++;
+                    }
+                }
+            }
+            ChangeEvent earlier=pending.remove(rowKey);
+            ChangeEvent merged=earlier==null ? e : earlier.then(e);
+            if(earlier!=null)
+            {
+                coalesced++;
+            }
+            if(merged!=null)
+            {
+                pending.put(rowKey,merged);
+            }
+            schedule();
+        }
+
+        /**
+         * Gives up on row events: whatever is waiting, and the event that
+         * did not fit, become one RESET per table.
+         */
+        private void overflow(ChangeEvent e)
+        {
+            Set<String> reset=new LinkedHashSet<String>();
+            for(ChangeEvent p:pending.values())
+            {
+                reset.add(p.getTable());
+            }
+            reset.add(e.getTable());
+            coalesced+=pending.size();
+            pending.clear();
+            for(String table:reset)
+            {
+                pending.put(table+"#*",ChangeEvent.reset(e.getSequence(),table));
+            }
+            overflows++;
+            LOG.log(Level.FINE,"Change listener fell behind, sent resets for {0}",reset);
+            schedule();
+        }
+
+        private void schedule()
+        {
+            if(scheduled || pending.isEmpty())
+            {
+                return;
+            }
+            scheduled=true;
+            if(onEdt)
+            {
+                EventQueue.invokeLater(drain);
+            }
+            else
+            {
+                DISPATCH.execute(drain);
+            }
+        }
+
+        private void drain()
+        {
+            List<ChangeEvent> events;
+            synchronized(this)
+            {
+                scheduled=false;
+                if(closed || pending.isEmpty())
+                {
+                    return;
+                }
+                events=new ArrayList<ChangeEvent>(pending.values());
+                pending.clear();
+                batches++;
+                notifyAll();
+            }
+            try{
+                listener.changed(events);
+            }catch(RuntimeException e)
+            {
+                LOG.log(Level.WARNING,"Change listener failed",e);
+            }
+        }
+
+        /**
+         * Stops delivery. Events still waiting are dropped, but remain
+         * covered by getPosition().
+         */
+        public void close()
+        {
+            SUBSCRIPTIONS.remove(this);
+            synchronized(this)
+            {
+                closed=true;
+                notifyAll();
+            }
+        }
+
+        /**
+         * @return the sequence number up to which this subscriber has been
+         *         told everything; subscribing after it later resumes
+         *         where this one stopped
+         */
+        public synchronized long getPosition()
+        {
+            return pending.isEmpty() ? offered : oldestPending-1;
+        }
+
+        /** Events of interest offered so far. */
+        public synchronized long getReceived()
+        {
+            return received;
+        }
+
+        /** Events folded into another or dropped by a RESET. */
+        public synchronized long getCoalesced()
+        {
+            return coalesced;
+        }
+
+        /** Times the listener fell behind and was sent resets. */
+        public synchronized long getOverflows()
+        {
+            return overflows;
+        }
+
+        /** Calls made to the listener. */
+        public synchronized long getBatches()
+        {
+            return batches;
+        }
+    }
+}
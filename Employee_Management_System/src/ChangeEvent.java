@@ -0,0 +1,133 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One committed change to a row, as published on ChangeBus: the table,
+ * the row's key and the row as it was before and after the write (a
+ * record of the table's repository, e.g. EmployeeRecord). The before image
+ * is null for an insert and the after image for a delete.
+ *
+ * A RESET event has neither key nor images and means any row of the table
+ * may have changed, e.g. after a CSV import, or that the subscriber fell
+ * too far behind to be told row by row. The subscriber should read the
+ * table again when it gets one.
+ *
+ * @author prateek
+ */
+public final class ChangeEvent {
+
+    public enum Type { INSERT, UPDATE, DELETE, RESET }
+
+    private final long sequence;
+    private final String table;
+    private final Object key;
+    private final Object before;
+    private final Object after;
+    private final boolean reset;
+
+    ChangeEvent(long sequence,String table,Object key,Object before,Object after)
+    {
+        this(sequence,table,key,before,after,false);
+    }
+
+    private ChangeEvent(long sequence,String table,Object key,Object before,Object after,boolean reset)
+    {
+        this.sequence=sequence;
+        this.table=table;
+        this.key=key;
+        this.before=before;
+        this.after=after;
+        this.reset=reset;
+    }
+
+    static ChangeEvent reset(long sequence,String table)
+    {
+        return new ChangeEvent(sequence,table,null,null,null,true);
+    }
+
+    /**
+     * Position of the change among everything published; later changes
+     * have higher numbers.
+     */
+    public long getSequence()
+    {
+        return sequence;
+    }
+
+    public String getTable()
+    {
+        return table;
+    }
+
+    /**
+     * @return the row's key (Employee_id, Project_No or Dept_id), null for
+     *         a RESET
+     */
+    public Object getKey()
+    {
+        return key;
+    }
+
+    public Object getBefore()
+    {
+        return before;
+    }
+
+    public Object getAfter()
+    {
+        return after;
+    }
+
+    public Type getType()
+    {
+        return reset ? Type.RESET : before==null ? Type.INSERT : after==null ? Type.DELETE : Type.UPDATE;
+    }
+
+    public boolean isReset()
+    {
+        return reset;
+    }
+
+    /**
+     * Identifies the row for coalescing; all of a table's resets share
+     * one.
+     */
+    String getRowKey()
+    {
+        return reset ? table+"#*" : rowKey(table,key);
+    }
+
+    static String rowKey(String table,Object key)
+    {
+        return table+"#"+key;
+    }
+
+    /**
+     * Folds a later change of the same row into this one: the result goes
+     * from this before image to the later after image.
+     *
+     * @return the combined change, or null if the row was inserted and
+     *         deleted again, which leaves nothing to tell
+     */
+    ChangeEvent then(ChangeEvent later)
+    {
+        if(reset || later.reset)
+        {
+            return reset(later.sequence,table);
+        }
+        if(before==null && later.after==null)
+        {
+            return null;
+        }
+        return new ChangeEvent(later.sequence,table,key,before,later.after);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "#"+sequence+" "+getType()+" "+table+(reset ? "" : " "+key);
+    }
+}
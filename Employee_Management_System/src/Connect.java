@@ -59,9 +59,7 @@ public class Connect extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        EmpLog ob=new EmpLog();
-         
-        ob.setVisible(true);
+        Navigator.show(EmpLog.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     /**
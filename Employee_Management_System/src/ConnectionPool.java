@@ -0,0 +1,278 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * A small bounded pool of SQLite connections. Connections are leased by the
+ * forms and handed back with release() when the form is closed, so the
+ * number of open file handles stays bounded for the whole session.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.Collections;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+public class ConnectionPool {
+
+    private final String url;
+    private final int maxSize;
+    private final long leaseTimeoutMillis;
+    private final long validateAfterMillis;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<Idle> idle=new LinkedBlockingDeque<Idle>();
+    private final Set<Connection> leased=Collections.newSetFromMap(new ConcurrentHashMap<Connection,Boolean>());
+
+    private final AtomicLong leases=new AtomicLong();
+    private final AtomicLong waits=new AtomicLong();
+    private final AtomicLong timeouts=new AtomicLong();
+    private final AtomicLong created=new AtomicLong();
+    private final AtomicLong discarded=new AtomicLong();
+    private volatile boolean closed;
+
+    /**
+     * @param url JDBC url of the database
+     * @param maxSize maximum number of open connections
+     * @param leaseTimeoutMillis how long lease() waits for a free connection
+     * @param validateAfterMillis idle time after which a connection is
+     *        checked with a query before it is handed out again
+     */
+    public ConnectionPool(String url,int maxSize,long leaseTimeoutMillis,long validateAfterMillis)
+    {
+        if(maxSize<1)
+        {
+            throw new IllegalArgumentException("maxSize must be at least 1");
+        }
+        this.url=url;
+        this.maxSize=maxSize;
+        this.leaseTimeoutMillis=leaseTimeoutMillis;
+        this.validateAfterMillis=validateAfterMillis;
+        this.permits=new Semaphore(maxSize,true);
+    }
+
+    /**
+     * Borrows a connection, waiting up to the lease timeout when all
+     * connections are in use.
+     *
+     * @return a healthy connection
+     * @throws SQLException if the pool is closed, the wait timed out or a
+     *         new connection could not be opened
+     */
+    public Connection lease() throws SQLException
+    {
+        if(closed)
+        {
+            throw new SQLException("Connection pool is closed");
+        }
+        if(!permits.tryAcquire())
+        {
+            waits.incrementAndGet();
+            try{
+                if(!permits.tryAcquire(leaseTimeoutMillis,TimeUnit.MILLISECONDS))
+                {
+                    timeouts.incrementAndGet();
+                    throw new SQLException("Timed out after "+leaseTimeoutMillis+" ms waiting for a database connection");
+                }
+            }catch(InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                throw new SQLException("Interrupted while waiting for a database connection",e);
+            }
+        }
+        try{
+            Connection conn=takeIdle();
+            if(conn==null)
+            {
+                conn=open();
+            }
+            leased.add(conn);
+            leases.incrementAndGet();
+            return conn;
+        }catch(SQLException e)
+        {
+            permits.release();
+            throw e;
+        }catch(RuntimeException e)
+        {
+            permits.release();
+            throw e;
+        }
+    }
+
+    /**
+     * Hands a leased connection back. Releasing a connection twice, or one
+     * that did not come from this pool, does nothing.
+     */
+    public void release(Connection conn)
+    {
+        if(conn==null || !leased.remove(conn))
+        {
+            return;
+        }
+        try{
+            if(closed || conn.isClosed())
+            {
+                discard(conn);
+            }
+            else
+            {
+                if(!conn.getAutoCommit())
+                {
+                    conn.rollback();
+                    conn.setAutoCommit(true);
+                }
+                idle.offerFirst(new Idle(conn));
+            }
+        }catch(SQLException e)
+        {
+            discard(conn);
+        }finally{
+            permits.release();
+        }
+    }
+
+    /**
+     * Closes all idle connections and refuses further leases. Connections
+     * still leased are closed as they come back.
+     */
+    public void close()
+    {
+        closed=true;
+        Idle entry;
+        while((entry=idle.pollFirst())!=null)
+        {
+            discard(entry.conn);
+        }
+    }
+
+    private Connection takeIdle()
+    {
+        Idle entry;
+        while((entry=idle.pollFirst())!=null)
+        {
+            if(isHealthy(entry))
+            {
+                return entry.conn;
+            }
+            discard(entry.conn);
+        }
+        return null;
+    }
+
+    private boolean isHealthy(Idle entry)
+    {
+        try{
+            if(entry.conn.isClosed())
+            {
+                return false;
+            }
+            if(System.currentTimeMillis()-entry.since<validateAfterMillis)
+            {
+                return true;
+            }
+            Statement st=entry.conn.createStatement();
+            try{
+                st.executeQuery("select 1").close();
+            }finally{
+                st.close();
+            }
+            return true;
+        }catch(SQLException e)
+        {
+            return false;
+        }
+    }
+
+    protected Connection open() throws SQLException
+    {
+        Connection conn=DriverManager.getConnection(url);
+        created.incrementAndGet();
+        return conn;
+    }
+
+    private void discard(Connection conn)
+    {
+        discarded.incrementAndGet();
+        StatementCache.discard(conn);
+        try{
+            conn.close();
+        }catch(SQLException e)
+        {
+        }
+    }
+
+    public int getMaxSize()
+    {
+        return maxSize;
+    }
+
+    /** Number of connections currently open, leased or idle. */
+    public int getOpenCount()
+    {
+        return leased.size()+idle.size();
+    }
+
+    public int getLeasedCount()
+    {
+        return leased.size();
+    }
+
+    public int getIdleCount()
+    {
+        return idle.size();
+    }
+
+    /** Total number of successful leases. */
+    public long getLeaseCount()
+    {
+        return leases.get();
+    }
+
+    /** Number of leases that had to wait for a connection to come back. */
+    public long getWaitCount()
+    {
+        return waits.get();
+    }
+
+    public long getTimeoutCount()
+    {
+        return timeouts.get();
+    }
+
+    public long getCreatedCount()
+    {
+        return created.get();
+    }
+
+    public long getDiscardedCount()
+    {
+        return discarded.get();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ConnectionPool[open="+getOpenCount()+", leased="+getLeasedCount()+", idle="+getIdleCount()
+                +", max="+maxSize+", leases="+getLeaseCount()+", waits="+getWaitCount()
+                +", timeouts="+getTimeoutCount()+", created="+getCreatedCount()+", discarded="+getDiscardedCount()+"]";
+    }
+
+    private static class Idle
+    {
+        final Connection conn;
+        final long since;
+
+        Idle(Connection conn)
+        {
+            this.conn=conn;
+            this.since=System.currentTimeMillis();
+        }
+    }
+}
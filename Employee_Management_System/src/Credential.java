@@ -0,0 +1,67 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Credentials: the login of an employee with its salted
+ * password hash. Username and Designation mirror Emp_info.
+ *
+ * @author prateek
+ */
+public final class Credential {
+
+    private final long employeeId;
+    private final String username;
+    private final String designation;
+    private final byte[] salt;
+    private final byte[] hash;
+    private final int iterations;
+
+    public Credential(long employeeId,String username,String designation,byte[] salt,byte[] hash,int iterations)
+    {
+        this.employeeId=employeeId;
+        this.username=username;
+        this.designation=designation;
+        this.salt=salt;
+        this.hash=hash;
+        this.iterations=iterations;
+    }
+
+    public long getEmployeeId()
+    {
+        return employeeId;
+    }
+
+    public String getUsername()
+    {
+        return username;
+    }
+
+    public String getDesignation()
+    {
+        return designation;
+    }
+
+    byte[] getSalt()
+    {
+        return salt;
+    }
+
+    byte[] getHash()
+    {
+        return hash;
+    }
+
+    public int getIterations()
+    {
+        return iterations;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "Credential["+employeeId+", "+username+"]";
+    }
+}
@@ -0,0 +1,67 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Queries on the Credentials table. Logins are looked up here by username
+ * instead of in Emp_info; triggers keep Username and Designation in step
+ * with Emp_info and drop the login of a deleted employee.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class CredentialRepository extends Repository<Credential> {
+
+    static final String COLUMNS="Employee_id,Username,Designation,Salt,Hash,Iterations";
+    static final String FIND_BY_USERNAME="select "+COLUMNS+" from Credentials where Username=?";
+    static final String SAVE="insert or replace into Credentials("+COLUMNS+") "
+            +"select Employee_id,Username,Designation,?,?,? from Emp_info where Employee_id=?";
+
+    static final String[] INSTALL={
+        "create table if not exists Credentials("
+            +"Employee_id INTEGER PRIMARY KEY NOT NULL,"
+            +"Username CHAR,"
+            +"Designation CHAR,"
+            +"Salt BLOB NOT NULL,"
+            +"Hash BLOB NOT NULL,"
+            +"Iterations INTEGER NOT NULL)",
+        "create index if not exists Credentials_username on Credentials(Username)",
+        "create trigger if not exists Credentials_update after update of Username,Designation on Emp_info begin "
+            +"update Credentials set Username=NEW.Username,Designation=NEW.Designation where Employee_id=NEW.Employee_id; end",
+        "create trigger if not exists Credentials_delete after delete on Emp_info begin "
+            +"delete from Credentials where Employee_id=OLD.Employee_id; end"
+    };
+
+    public CredentialRepository(Connection conn)
+    {
+        super(conn);
+    }
+
+    /**
+     * @return the logins with this username; normally at most one
+     */
+    public List<Credential> findByUsername(String username) throws SQLException
+    {
+        return findAll(FIND_BY_USERNAME,username);
+    }
+
+    /**
+     * Stores the password hash of an employee, taking the username and
+     * designation from Emp_info.
+     *
+     * @return false if there is no such employee
+     */
+    public boolean save(long employeeId,byte[] salt,byte[] hash,int iterations) throws SQLException
+    {
+        return execute(SAVE,salt,hash,iterations,employeeId)>0;
+    }
+
+    @Override
+    protected Credential map(ResultSet rs) throws SQLException
+    {
+        return new Credential(rs.getLong(1),rs.getString(2),rs.getString(3),rs.getBytes(4),rs.getBytes(5),rs.getInt(6));
+    }
+}
@@ -0,0 +1,155 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads CSV (RFC 4180: comma separated, double-quoted values may hold
+ * commas, quotes doubled and line breaks) one record at a time from a
+ * fixed-size buffer, so a file of any size is read in constant memory.
+ * A record longer than MAX_RECORD characters is refused rather than
+ * buffered.
+ *
+ * @author prateek
+ */
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Reader;
+import java.util.ArrayList;
+import java.util.List;
+public class CsvReader implements Closeable {
+
+    static final int BUFFER=64*1024;
+    static final int MAX_RECORD=1024*1024;
+
+    private final Reader in;
+    private final char[] buf=new char[BUFFER];
+    private int pos;
+    private int end;
+    private boolean eof;
+
+    private final StringBuilder value=new StringBuilder();
+    private final List<String> values=new ArrayList<String>();
+    private long line=1;
+    private long recordLine;
+
+    public CsvReader(Reader in)
+    {
+        this.in=in;
+    }
+
+    /**
+     * @return the values of the next record, or null at the end of the
+     *         input; an empty line is a record with one empty value
+     * @throws IOException also if a quote is left open or the record is
+     *         too long
+     */
+    public String[] next() throws IOException
+    {
+        if(!fill())
+        {
+            return null;
+        }
+        recordLine=line;
+        values.clear();
+        value.setLength(0);
+        boolean quoted=false;
+        boolean wasQuoted=false;
+        int length=0;
+        while(fill())
+        {
+            char c=buf[pos++];
+            if(++length>MAX_RECORD)
+            {
+                throw new IOException("Record at line "+recordLine+" is longer than "+MAX_RECORD+" characters");
+            }
+            if(quoted)
+            {
+                if(c=='"')
+                {
+                    if(fill() && buf[pos]=='"')
+                    {
+                        pos++;
+                        value.append('"');
+                    }
+                    else
+                    {
+                        quoted=false;
+                    }
+                }
+                else
+                {
+                    if(c=='\n')
+                    {
+                        line++;
+                    }
+                    value.append(c);
+                }
+            }
+            else if(c==',')
+            {
+                values.add(value.toString());
+                value.setLength(0);
+                wasQuoted=false;
+            }
+            else if(c=='\n' || c=='\r')
+            {
+                if(c=='\r' && fill() && buf[pos]=='\n')
+                {
+                    pos++;
+                }
+                line++;
+                break;
+            }
+            else if(c=='"' && value.length()==0 && !wasQuoted)
+            {
+                quoted=true;
+                wasQuoted=true;
+            }
+            else
+            {
+                value.append(c);
+            }
+        }
+        if(quoted)
+        {
+            throw new IOException("Quote opened at line "+recordLine+" is never closed");
+        }
+        values.add(value.toString());
+        return values.toArray(new String[values.size()]);
+    }
+
+    /**
+     * @return the line the last record returned started on, from 1
+     */
+    public long getLine()
+    {
+        return recordLine;
+    }
+
+    private boolean fill() throws IOException
+    {
+        while(pos>=end)
+        {
+            if(eof)
+            {
+                return false;
+            }
+            int n=in.read(buf,0,buf.length);
+            if(n<0)
+            {
+                eof=true;
+                return false;
+            }
+            pos=0;
+            end=n;
+        }
+        return true;
+    }
+
+    public void close() throws IOException
+    {
+        in.close();
+    }
+}
@@ -0,0 +1,167 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * A table that can be imported from and exported to CSV: its columns in
+ * file order and the type each value must parse as. Passwords are not
+ * part of the Emp_info layout; they live in Credentials as hashes.
+ *
+ * @author prateek
+ */
+import java.util.Locale;
+public final class CsvTable {
+
+    public static final int TEXT=0;
+    public static final int INTEGER=1;
+    public static final int REAL=2;
+
+    public static final CsvTable EMP_INFO=new CsvTable("Emp_info",
+            new String[]{"Employee_id","Name","Surname","Age","Username","Gender","Department","Designation","Salary"},
+            new int[]{INTEGER,TEXT,TEXT,INTEGER,TEXT,TEXT,TEXT,TEXT,REAL});
+    public static final CsvTable WORKS_ON=new CsvTable("Works_on",
+            new String[]{"Employee_id","Project_No","Department","Hours","Bonus"},
+            new int[]{INTEGER,INTEGER,TEXT,INTEGER,REAL});
+    public static final CsvTable PROJECT=new CsvTable("Project",
+            new String[]{"Project_No","Project_Name","Project_Loc","Dept_id"},
+            new int[]{INTEGER,TEXT,TEXT,INTEGER});
+    public static final CsvTable DEPARTMENT=new CsvTable("Department",
+            new String[]{"Dept_id","Department","Manager_id"},
+            new int[]{INTEGER,TEXT,INTEGER});
+
+    private static final CsvTable[] ALL={EMP_INFO,WORKS_ON,PROJECT,DEPARTMENT};
+
+    private final String name;
+    private final String[] columns;
+    private final int[] types;
+
+    private CsvTable(String name,String[] columns,int[] types)
+    {
+        this.name=name;
+        this.columns=columns;
+        this.types=types;
+    }
+
+    public static CsvTable[] values()
+    {
+        return ALL.clone();
+    }
+
+    /**
+     * @return the table of that name, ignoring case, or null
+     */
+    public static CsvTable forName(String name)
+    {
+        for(CsvTable t:ALL)
+        {
+            if(t.name.equalsIgnoreCase(name))
+            {
+                return t;
+            }
+        }
+        return null;
+    }
+
+    public String getName()
+    {
+        return name;
+    }
+
+    /**
+     * The first column is the table's key.
+     */
+    public String[] getColumns()
+    {
+        return columns.clone();
+    }
+
+    public int getColumnCount()
+    {
+        return columns.length;
+    }
+
+    /**
+     * @return the position of a column, ignoring case, or -1
+     */
+    public int indexOf(String column)
+    {
+        String c=column.trim();
+        for(int i=0;i<columns.length;i++)
+        {
+            if(columns[i].equalsIgnoreCase(c))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Converts one CSV value to what is stored. Blank is NULL.
+     *
+     * @throws NumberFormatException if a number column holds something else
+     */
+    public Object parse(int column,String value)
+    {
+        if(value==null || value.trim().isEmpty())
+        {
+            return null;
+        }
+        switch(types[column])
+        {
+            case INTEGER:
+                return Long.valueOf(value.trim());
+            case REAL:
+                return Double.valueOf(value.trim());
+            default:
+                return value;
+        }
+    }
+
+    String insertSql()
+    {
+        StringBuilder sb=new StringBuilder("insert into ").append(name).append('(');
+        StringBuilder marks=new StringBuilder();
+        for(int i=0;i<columns.length;i++)
+        {
+            if(i>0)
+            {
+                sb.append(',');
+                marks.append(',');
+            }
+            sb.append(columns[i]);
+            marks.append('?');
+        }
+        return sb.append(") values(").append(marks).append(')').toString();
+    }
+
+    String selectSql()
+    {
+        StringBuilder sb=new StringBuilder("select ");
+        for(int i=0;i<columns.length;i++)
+        {
+            if(i>0)
+            {
+                sb.append(',');
+            }
+            sb.append(columns[i]);
+        }
+        return sb.append(" from ").append(name).append(" order by ").append(columns[0]).toString();
+    }
+
+    @Override
+    public String toString()
+    {
+        return name;
+    }
+
+    /**
+     * @return the name as a lower-case file name, e.g. emp_info.csv
+     */
+    public String getFileName()
+    {
+        return name.toLowerCase(Locale.ROOT)+".csv";
+    }
+}
@@ -0,0 +1,82 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Writes CSV records in the format CsvReader reads, quoting only the
+ * values that need it. Output goes through the given writer as it is
+ * produced; wrap it in a BufferedWriter.
+ *
+ * @author prateek
+ */
+import java.io.Closeable;
+import java.io.Flushable;
+import java.io.IOException;
+import java.io.Writer;
+public class CsvWriter implements Closeable, Flushable {
+
+    private final Writer out;
+
+    public CsvWriter(Writer out)
+    {
+        this.out=out;
+    }
+
+    /**
+     * Writes one record. Null values are written as empty.
+     */
+    public void write(Object... values) throws IOException
+    {
+        for(int i=0;i<values.length;i++)
+        {
+            if(i>0)
+            {
+                out.write(',');
+            }
+            Object v=values[i];
+            if(v!=null)
+            {
+                writeValue(v.toString());
+            }
+        }
+        out.write("\r\n");
+    }
+
+    private void writeValue(String s) throws IOException
+    {
+        boolean quote=false;
+        for(int i=0;i<s.length() && !quote;i++)
+        {
+            char c=s.charAt(i);
+            quote=c==',' || c=='"' || c=='\n' || c=='\r';
+        }
+        if(!quote && (s.isEmpty() || s.charAt(0)!=' ' && s.charAt(s.length()-1)!=' '))
+        {
+            out.write(s);
+            return;
+        }
+        out.write('"');
+        for(int i=0;i<s.length();i++)
+        {
+            char c=s.charAt(i);
+            if(c=='"')
+            {
+                out.write('"');
+            }
+            out.write(c);
+        }
+        out.write('"');
+    }
+
+    public void flush() throws IOException
+    {
+        out.flush();
+    }
+
+    public void close() throws IOException
+    {
+        out.close();
+    }
+}
@@ -0,0 +1,289 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Charts of headcount and salaries per department and of hours per
+ * project. The figures come from the Dept_stats and Project_hours summary
+ * tables, which triggers keep current, so a refresh reads a few rows
+ * rather than scanning Emp_info or Works_on.
+ *
+ * Changes on ChangeBus mark the affected charts stale, judged from the
+ * before and after images: renaming an employee, say, touches no chart.
+ * The first change starts a ui.dashboard_refresh timer and later changes
+ * ride along, so a bulk edit costs one read and one redraw per period
+ * however many rows it touches. Only values that differ are set on the
+ * datasets, with notification held back until all are in, so each chart
+ * repaints once. Changes made while the dashboard is hidden are caught up
+ * on when it is shown again.
+ *
+ * @author prateek
+ */
+import java.awt.GridLayout;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.Timer;
+import org.jfree.chart.ChartFactory;
+import org.jfree.chart.ChartPanel;
+import org.jfree.chart.JFreeChart;
+import org.jfree.chart.plot.PlotOrientation;
+import org.jfree.data.category.DefaultCategoryDataset;
+public class Dashboard extends javax.swing.JFrame {
+
+    private static final Logger LOG=Logger.getLogger(Dashboard.class.getName());
+
+    Connection conn;
+    DepartmentStatsRepository stats;
+    ProjectHoursRepository hours;
+
+    private final DefaultCategoryDataset headcount=new DefaultCategoryDataset();
+    private final DefaultCategoryDataset salaries=new DefaultCategoryDataset();
+    private final DefaultCategoryDataset projectHours=new DefaultCategoryDataset();
+
+    private final Timer throttle;
+    private boolean departmentsStale;
+    private boolean projectsStale;
+    private boolean reading;
+    private long redraws;
+
+    /**
+     * Creates new form Dashboard
+     */
+    public Dashboard() {
+        initComponents();
+        conn=javaconnect.ConnecrDb(this);
+        stats=new DepartmentStatsRepository(conn);
+        hours=new ProjectHoursRepository(conn);
+        throttle=new Timer(javaconnect.getConfig().getDashboardRefresh(),new java.awt.event.ActionListener()
+        {
+            public void actionPerformed(java.awt.event.ActionEvent e)
+            {
+                read();
+            }
+        });
+        throttle.setRepeats(false);
+        addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                throttle.stop();
+            }
+        });
+        Update();
+        ChangeBus.follow(this,new ChangeBus.Listener()
+        {
+            public void changed(List<ChangeEvent> events)
+            {
+                for(ChangeEvent e:events)
+                {
+                    stale(e);
+                }
+            }
+        },ChangeBus.EMP_INFO,ChangeBus.WORKS_ON,ChangeBus.PROJECT);
+    }
+
+    public void Update()
+    {
+        departmentsStale=true;
+        projectsStale=true;
+        read();
+    }
+
+    private void stale(ChangeEvent e)
+    {
+        if(ChangeBus.EMP_INFO.equals(e.getTable()) && !departmentsStale)
+        {
+            EmployeeRecord before=(EmployeeRecord)e.getBefore();
+            EmployeeRecord after=(EmployeeRecord)e.getAfter();
+            departmentsStale=e.getType()!=ChangeEvent.Type.UPDATE
+                    || !same(before.getDepartment(),after.getDepartment()) || !same(before.getSalary(),after.getSalary());
+        }
+        else if(ChangeBus.WORKS_ON.equals(e.getTable()) && !projectsStale)
+        {
+            WorksRecord before=(WorksRecord)e.getBefore();
+            WorksRecord after=(WorksRecord)e.getAfter();
+            projectsStale=e.getType()!=ChangeEvent.Type.UPDATE
+                    || !same(before.getProjectNo(),after.getProjectNo()) || !same(before.getHours(),after.getHours());
+        }
+        else if(ChangeBus.PROJECT.equals(e.getTable()) && !projectsStale)
+        {
+            ProjectRecord before=(ProjectRecord)e.getBefore();
+            ProjectRecord after=(ProjectRecord)e.getAfter();
+            projectsStale=e.getType()!=ChangeEvent.Type.UPDATE || !same(before.getProjectName(),after.getProjectName());
+        }
+        if((departmentsStale || projectsStale) && isShowing() && !throttle.isRunning())
+        {
+            throttle.start();
+        }
+    }
+
+    private void read()
+    {
+        if(reading || !departmentsStale && !projectsStale)
+        {
+            return;
+        }
+        reading=true;
+        final boolean departments=departmentsStale;
+        final boolean projects=projectsStale;
+        departmentsStale=false;
+        projectsStale=false;
+        QueryExecutor.submit(this,"read dashboard",()->{
+            Snapshot s=new Snapshot();
+            s.departments=departments ? stats.findAll() : null;
+            s.projects=projects ? hours.findAll() : null;
+            return s;
+        },s->{
+            reading=false;
+            show(s);
+            if((departmentsStale || projectsStale) && !throttle.isRunning())
+            {
+                throttle.start();
+            }
+        },e->{
+            reading=false;
+            departmentsStale|=departments;
+            projectsStale|=projects;
+            LOG.log(Level.WARNING,"Could not read the dashboard figures",e);
+        });
+    }
+
+    private void show(Snapshot s)
+    {
+        if(s.departments!=null)
+        {
+            Map<String,Number> count=new LinkedHashMap<String,Number>();
+            Map<String,Number> min=new LinkedHashMap<String,Number>();
+            Map<String,Number> avg=new LinkedHashMap<String,Number>();
+            Map<String,Number> max=new LinkedHashMap<String,Number>();
+            for(DepartmentStats d:s.departments)
+            {
+                String key=d.getDepartment()==null ? "(none)" : d.getDepartment();
+                count.put(key,d.getHeadcount());
+                min.put(key,d.getSalaryMin());
+                avg.put(key,d.getSalaryAverage());
+                max.put(key,d.getSalaryMax());
+            }
+            redraw(headcount,sync(headcount,"Headcount",count));
+            boolean changed=sync(salaries,"Minimum",min);
+            changed|=sync(salaries,"Average",avg);
+            changed|=sync(salaries,"Maximum",max);
+            redraw(salaries,changed);
+        }
+        if(s.projects!=null)
+        {
+            Map<String,Number> h=new LinkedHashMap<String,Number>();
+            for(ProjectHours p:s.projects)
+            {
+                String key=p.getProjectNo()==0 ? "Unassigned"
+                        : p.getProjectName()!=null ? p.getProjectNo()+" "+p.getProjectName() : "Project "+p.getProjectNo();
+                h.put(key,p.getHours());
+            }
+            redraw(projectHours,sync(projectHours,"Hours",h));
+        }
+    }
+
+    private static boolean same(Object a,Object b)
+    {
+        return a==null ? b==null : a.equals(b);
+    }
+
+    /**
+     * Sets the values of one series that differ from what the dataset
+     * holds and drops categories no longer present. Notification is
+     * switched off at the first change; redraw() switches it back on.
+     *
+     * @return whether anything changed
+     */
+    private static boolean sync(DefaultCategoryDataset dataset,String series,Map<String,Number> values)
+    {
+        boolean changed=false;
+        boolean hasSeries=dataset.getRowIndex(series)>=0;
+        for(Map.Entry<String,Number> e:values.entrySet())
+        {
+            boolean present=hasSeries && dataset.getColumnIndex(e.getKey())>=0;
+            Number old=present ? dataset.getValue(series,e.getKey()) : null;
+            if(present && (old==null ? e.getValue()==null : old.equals(e.getValue())))
+            {
+                continue;
+            }
+            if(dataset.getNotify())
+            {
+                dataset.setNotify(false);
+            }
+            dataset.setValue(e.getValue(),series,e.getKey());
+            changed=true;
+        }
+        List<Comparable<?>> gone=new ArrayList<Comparable<?>>();
+        for(Object key:dataset.getColumnKeys())
+        {
+            if(!values.containsKey(key))
+            {
+                gone.add((Comparable<?>)key);
+            }
+        }
+        for(Comparable<?> key:gone)
+        {
+            if(dataset.getNotify())
+            {
+                dataset.setNotify(false);
+            }
+            dataset.removeColumn(key);
+            changed=true;
+        }
+        return changed;
+    }
+
+    private void redraw(DefaultCategoryDataset dataset,boolean changed)
+    {
+        if(changed)
+        {
+            redraws++;
+            dataset.setNotify(true);
+        }
+    }
+
+    /** Chart repaints caused by data changes. */
+    public long getRedrawCount()
+    {
+        return redraws;
+    }
+
+    private static final class Snapshot {
+
+        List<DepartmentStats> departments;
+        List<ProjectHours> projects;
+    }
+
+    private void initComponents() {
+
+        setDefaultCloseOperation(javax.swing.WindowConstants.DISPOSE_ON_CLOSE);
+        setTitle("Dashboard");
+        getContentPane().setLayout(new GridLayout(1,3,8,8));
+        getContentPane().add(panel(ChartFactory.createBarChart("Headcount by department","Department","Employees",
+                headcount,PlotOrientation.VERTICAL,false,true,false)));
+        getContentPane().add(panel(ChartFactory.createBarChart("Salary by department","Department","Salary",
+                salaries,PlotOrientation.VERTICAL,true,true,false)));
+        getContentPane().add(panel(ChartFactory.createBarChart("Hours by project","Project","Hours",
+                projectHours,PlotOrientation.HORIZONTAL,false,true,false)));
+        setSize(new java.awt.Dimension(1320, 480));
+        setLocationRelativeTo(null);
+    }
+
+    private static ChartPanel panel(JFreeChart chart)
+    {
+        ChartPanel panel=new ChartPanel(chart);
+        panel.setMouseWheelEnabled(false);
+        return panel;
+    }
+}
@@ -0,0 +1,297 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Database location and SQLite tuning settings. Values are read from the
+ * file named by the ems.config system property (default ems.properties in
+ * the working directory); any key may also be given as a -D system
+ * property, which wins over the file.
+ *
+ * @author prateek
+ */
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.sql.*;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Properties;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public class DbConfig {
+
+    static final String DEFAULT_PATH="/home/prateek/NetBeansProjects/Employee_Management_System//Ems.sqlite";
+
+    /** Pragmas applied to every new connection, in this order. */
+    static final String[] PRAGMAS={"journal_mode","synchronous","mmap_size","cache_size","temp_store","busy_timeout"};
+
+    private static final Logger LOG=Logger.getLogger(DbConfig.class.getName());
+
+    private final Properties props;
+
+    DbConfig(Properties props)
+    {
+        this.props=props;
+    }
+
+    /**
+     * Loads the configuration file, falling back to the built-in defaults
+     * when it does not exist.
+     */
+    public static DbConfig load()
+    {
+        Properties p=defaults();
+        File file=new File(System.getProperty("ems.config","ems.properties"));
+        if(file.isFile())
+        {
+            InputStream in=null;
+            try{
+                in=new FileInputStream(file);
+                p.load(in);
+            }catch(IOException e)
+            {
+                LOG.log(Level.WARNING,"Could not read "+file,e);
+            }finally{
+                try{
+                    if(in!=null)
+                    {
+                        in.close();
+                    }
+                }catch(IOException e)
+                {
+                }
+            }
+        }
+        for(String key:p.stringPropertyNames())
+        {
+            String override=System.getProperty("ems."+key);
+            if(override!=null)
+            {
+                p.setProperty(key,override);
+            }
+        }
+        return new DbConfig(p);
+    }
+
+    static Properties defaults()
+    {
+        Properties p=new Properties();
+        p.setProperty("db.path",DEFAULT_PATH);
+        p.setProperty("db.journal_mode","WAL");
+        p.setProperty("db.synchronous","NORMAL");
+        p.setProperty("db.mmap_size","268435456");
+        p.setProperty("db.cache_size","-16000");
+        p.setProperty("db.temp_store","MEMORY");
+        p.setProperty("db.busy_timeout","5000");
+        p.setProperty("pool.size","8");
+        p.setProperty("pool.lease_timeout","5000");
+        p.setProperty("pool.validate_after","30000");
+        p.setProperty("auth.iterations","100000");
+        p.setProperty("auth.threads","2");
+        p.setProperty("auth.queue","16");
+        p.setProperty("auth.sessions","64");
+        p.setProperty("auth.session_ttl","600000");
+        p.setProperty("ui.cached_frames","4");
+        p.setProperty("ui.dashboard_refresh","500");
+        p.setProperty("csv.batch","2000");
+        p.setProperty("csv.queue","8");
+        p.setProperty("payroll.standard_hours","40");
+        p.setProperty("payroll.overtime_rate","1.5");
+        p.setProperty("cdc.replay","4096");
+        p.setProperty("cdc.queue","1024");
+        p.setProperty("cdc.wait","100");
+        return p;
+    }
+
+    public String getPath()
+    {
+        return props.getProperty("db.path");
+    }
+
+    public String getUrl()
+    {
+        return "jdbc:sqlite:"+getPath();
+    }
+
+    public int getPoolSize()
+    {
+        return Integer.parseInt(props.getProperty("pool.size").trim());
+    }
+
+    public long getLeaseTimeout()
+    {
+        return Long.parseLong(props.getProperty("pool.lease_timeout").trim());
+    }
+
+    public long getValidateAfter()
+    {
+        return Long.parseLong(props.getProperty("pool.validate_after").trim());
+    }
+
+    /** PBKDF2 iterations for newly set passwords. */
+    public int getAuthIterations()
+    {
+        return Integer.parseInt(props.getProperty("auth.iterations").trim());
+    }
+
+    /** Threads verifying passwords; also the most logins hashed at once. */
+    public int getAuthThreads()
+    {
+        return Integer.parseInt(props.getProperty("auth.threads").trim());
+    }
+
+    /** Logins allowed to wait for a verifier thread before more are refused. */
+    public int getAuthQueue()
+    {
+        return Integer.parseInt(props.getProperty("auth.queue").trim());
+    }
+
+    /** Recent logins remembered. */
+    public int getAuthSessions()
+    {
+        return Integer.parseInt(props.getProperty("auth.sessions").trim());
+    }
+
+    /** How long a remembered login is honoured, in milliseconds. */
+    public long getAuthSessionTtl()
+    {
+        return Long.parseLong(props.getProperty("auth.session_ttl").trim());
+    }
+
+    /**
+     * Hidden forms kept for reuse. Each holds a pooled connection, so the
+     * Navigator keeps fewer when they would take over half of pool.size.
+     */
+    public int getCachedFrames()
+    {
+        return Integer.parseInt(props.getProperty("ui.cached_frames").trim());
+    }
+
+    /** Least time between two redraws of the dashboard, in milliseconds. */
+    public int getDashboardRefresh()
+    {
+        return Integer.parseInt(props.getProperty("ui.dashboard_refresh").trim());
+    }
+
+    /** Rows inserted per transaction by a CSV import. */
+    public int getCsvBatch()
+    {
+        return Integer.parseInt(props.getProperty("csv.batch").trim());
+    }
+
+    /** Parsed batches a CSV import may hold ahead of the database. */
+    public int getCsvQueue()
+    {
+        return Integer.parseInt(props.getProperty("csv.queue").trim());
+    }
+
+    /** Works_on hours a salary pays for; hours beyond are overtime. */
+    public double getPayrollStandardHours()
+    {
+        return Double.parseDouble(props.getProperty("payroll.standard_hours").trim());
+    }
+
+    /** Overtime pay as a multiple of the hourly rate. */
+    public double getPayrollOvertimeRate()
+    {
+        return Double.parseDouble(props.getProperty("payroll.overtime_rate").trim());
+    }
+
+    /** Latest changes ChangeBus keeps for subscribers catching up. */
+    public int getCdcReplay()
+    {
+        return Integer.parseInt(props.getProperty("cdc.replay").trim());
+    }
+
+    /** Changed rows a ChangeBus subscriber may have waiting. */
+    public int getCdcQueue()
+    {
+        return Integer.parseInt(props.getProperty("cdc.queue").trim());
+    }
+
+    /** Longest a writer waits for a slow ChangeBus subscriber, in milliseconds. */
+    public long getCdcWait()
+    {
+        return Long.parseLong(props.getProperty("cdc.wait").trim());
+    }
+
+    /**
+     * @return the configured value of a pragma, or null if it is left at
+     *         the SQLite default
+     */
+    public String getPragma(String name)
+    {
+        String value=props.getProperty("db."+name);
+        return value==null || value.trim().isEmpty() ? null : value.trim();
+    }
+
+    /**
+     * Applies the tuning profile to a freshly opened connection.
+     */
+    public void applyPragmas(Connection conn) throws SQLException
+    {
+        Statement st=conn.createStatement();
+        try{
+            for(String name:PRAGMAS)
+            {
+                String value=getPragma(name);
+                if(value!=null)
+                {
+                    if(!value.matches("[A-Za-z0-9_-]+"))
+                    {
+                        throw new SQLException("Invalid value for pragma "+name+": "+value);
+                    }
+                    st.execute("pragma "+name+"="+value);
+                }
+            }
+        }finally{
+            st.close();
+        }
+    }
+
+    /**
+     * Reads back the pragmas actually in effect on a connection.
+     */
+    public static Map<String,String> readPragmas(Connection conn) throws SQLException
+    {
+        Map<String,String> result=new LinkedHashMap<String,String>();
+        Statement st=conn.createStatement();
+        try{
+            for(String name:PRAGMAS)
+            {
+                ResultSet rs=st.executeQuery("pragma "+name);
+                try{
+                    result.put(name,rs.next() ? rs.getString(1) : null);
+                }finally{
+                    rs.close();
+                }
+            }
+        }finally{
+            st.close();
+        }
+        return result;
+    }
+
+    /**
+     * Logs the effective pragmas and warns about any that differ from the
+     * configured profile, e.g. WAL refused on a network file system.
+     *
+     * @return the effective pragmas
+     */
+    public Map<String,String> check(Connection conn) throws SQLException
+    {
+        Map<String,String> effective=readPragmas(conn);
+        LOG.log(Level.INFO,"Database {0}, effective pragmas {1}",new Object[]{getPath(),effective});
+        String journal=getPragma("journal_mode");
+        if(journal!=null && !journal.equalsIgnoreCase(effective.get("journal_mode")))
+        {
+            LOG.log(Level.WARNING,"Requested journal_mode={0} but database is using {1}",
+                    new Object[]{journal,effective.get("journal_mode")});
+        }
+        return effective;
+    }
+}
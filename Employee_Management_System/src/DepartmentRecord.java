@@ -0,0 +1,64 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Department.
+ *
+ * @author prateek
+ */
+public final class DepartmentRecord implements LiveTable.Row {
+
+    private final long deptId;
+    private final String department;
+    private final Integer managerId;
+
+    public DepartmentRecord(long deptId,String department,Integer managerId)
+    {
+        this.deptId=deptId;
+        this.department=department;
+        this.managerId=managerId;
+    }
+
+    /** Dept_id */
+    public long getDeptId()
+    {
+        return deptId;
+    }
+
+    /** Department */
+    public String getDepartment()
+    {
+        return department;
+    }
+
+    /** Manager_id */
+    public Integer getManagerId()
+    {
+        return managerId;
+    }
+
+    @Override
+    public Object getColumn(String label)
+    {
+        switch(label)
+        {
+            case "Dept_id":
+                return deptId;
+            case "Department":
+                return department;
+            case "Manager_id":
+                return managerId;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DepartmentRecord["+deptId+", "+department+"]";
+    }
+}
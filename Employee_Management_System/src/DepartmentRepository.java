@@ -0,0 +1,94 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads and updates Department through statements cached on the connection.
+ * Every write is published on ChangeBus.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class DepartmentRepository extends Repository<DepartmentRecord> {
+
+    static final String COLUMNS="Dept_id,Department,Manager_id";
+    static final String SELECT="select "+COLUMNS+" from Department";
+    static final String FIND_BY_ID=SELECT+" where Dept_id=?";
+    static final String FIND_BY_NAME=SELECT+" where Department=?";
+    static final String FIND_ALL=SELECT;
+    static final String INSERT="insert into Department(Dept_id,Department,Manager_id) values(?,?,?)";
+    static final String DELETE="delete from Department where Dept_id=?";
+
+    public DepartmentRepository(Connection conn)
+    {
+        super(conn,ChangeBus.DEPARTMENT,FIND_BY_ID);
+    }
+
+    /**
+     * @param deptId the Dept_id as typed into a form
+     * @return the department, or null if there is none
+     */
+    public DepartmentRecord findById(String deptId) throws SQLException
+    {
+        return findOne(FIND_BY_ID,deptId);
+    }
+
+    public List<DepartmentRecord> findByName(String department) throws SQLException
+    {
+        return findAll(FIND_BY_NAME,department);
+    }
+
+    public List<DepartmentRecord> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    /**
+     * Starts a batched update of the given Department columns.
+     */
+    public BatchUpdate newUpdate(String... columns)
+    {
+        return new BatchUpdate(this,"Dept_id",columns);
+    }
+
+    /**
+     * Adds a department.
+     *
+     * @param deptId the Dept_id, or null to let the database assign one
+     * @return the Dept_id of the new row
+     */
+    public long insert(Long deptId,String department,Integer managerId) throws SQLException
+    {
+        long newId=insert(INSERT,deptId,department,managerId);
+        publish(newId,null,findByKey(newId));
+        return newId;
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public int delete(long deptId) throws SQLException
+    {
+        DepartmentRecord before=findByKey(deptId);
+        int rows=execute(DELETE,deptId);
+        if(rows>0)
+        {
+            publish(deptId,before,null);
+        }
+        return rows;
+    }
+
+    public UpdateResult update(String deptId,String department,Integer managerId) throws SQLException
+    {
+        return newUpdate("Department","Manager_id").add(deptId,department,managerId).execute();
+    }
+
+    @Override
+    protected DepartmentRecord map(ResultSet rs) throws SQLException
+    {
+        return new DepartmentRecord(rs.getLong(1),rs.getString(2),getInteger(rs,3));
+    }
+}
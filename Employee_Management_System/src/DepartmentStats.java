@@ -0,0 +1,76 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Dept_stats: headcount and salary figures of a department,
+ * kept up to date by triggers on Emp_info.
+ *
+ * @author prateek
+ */
+public final class DepartmentStats {
+
+    private final String department;
+    private final int headcount;
+    private final int salaryCount;
+    private final double salarySum;
+    private final Double salaryMin;
+    private final Double salaryMax;
+
+    public DepartmentStats(String department,int headcount,int salaryCount,double salarySum,Double salaryMin,Double salaryMax)
+    {
+        this.department=department;
+        this.headcount=headcount;
+        this.salaryCount=salaryCount;
+        this.salarySum=salarySum;
+        this.salaryMin=salaryMin;
+        this.salaryMax=salaryMax;
+    }
+
+    /** Department, or null for the whole company. */
+    public String getDepartment()
+    {
+        return department;
+    }
+
+    public int getHeadcount()
+    {
+        return headcount;
+    }
+
+    /** Number of employees with a salary set. */
+    public int getSalaryCount()
+    {
+        return salaryCount;
+    }
+
+    /** Total salary, or null if nobody has a salary set. */
+    public Double getSalarySum()
+    {
+        return salaryCount==0 ? null : Double.valueOf(salarySum);
+    }
+
+    public Double getSalaryMin()
+    {
+        return salaryMin;
+    }
+
+    public Double getSalaryMax()
+    {
+        return salaryMax;
+    }
+
+    /** Average salary, or null if nobody has a salary set. */
+    public Double getSalaryAverage()
+    {
+        return salaryCount==0 ? null : Double.valueOf(salarySum/salaryCount);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "DepartmentStats["+department+", "+headcount+"]";
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads the Dept_stats summary table. Triggers on Emp_info adjust the
+ * summary row of the affected department on every insert, delete and
+ * salary or department change, so headcount and salary totals are read
+ * from one row instead of scanning Emp_info. Employees without a
+ * department are counted under the empty string.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class DepartmentStatsRepository extends Repository<DepartmentStats> {
+
+    static final String COLUMNS="Department,Headcount,Salary_count,Salary_sum,Salary_min,Salary_max";
+    static final String SELECT="select "+COLUMNS+" from Dept_stats";
+    static final String FIND_BY_DEPARTMENT=SELECT+" where Department=?";
+    static final String FIND_ALL=SELECT;
+
+    static final String CREATE_TABLE="create table if not exists Dept_stats("
+            +"Department CHAR PRIMARY KEY NOT NULL,"
+            +"Headcount INTEGER NOT NULL DEFAULT 0,"
+            +"Salary_count INTEGER NOT NULL DEFAULT 0,"
+            +"Salary_sum REAL NOT NULL DEFAULT 0,"
+            +"Salary_min REAL,"
+            +"Salary_max REAL)";
+
+    public DepartmentStatsRepository(Connection conn)
+    {
+        super(conn);
+    }
+
+    /**
+     * @return the figures of a department; all zero if it has nobody
+     */
+    public DepartmentStats find(String department) throws SQLException
+    {
+        DepartmentStats stats=findOne(FIND_BY_DEPARTMENT,department==null ? "" : department);
+        return stats!=null ? stats : new DepartmentStats(department,0,0,0,null,null);
+    }
+
+    public List<DepartmentStats> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    /**
+     * @return the figures of the whole company, combined from the
+     *         department rows
+     */
+    public DepartmentStats total() throws SQLException
+    {
+        int headcount=0;
+        int salaryCount=0;
+        double salarySum=0;
+        Double min=null;
+        Double max=null;
+        for(DepartmentStats d:findAll())
+        {
+            headcount+=d.getHeadcount();
+            salaryCount+=d.getSalaryCount();
+            if(d.getSalarySum()!=null)
+            {
+                salarySum+=d.getSalarySum();
+            }
+            if(d.getSalaryMin()!=null && (min==null || d.getSalaryMin()<min))
+            {
+                min=d.getSalaryMin();
+            }
+            if(d.getSalaryMax()!=null && (max==null || d.getSalaryMax()>max))
+            {
+                max=d.getSalaryMax();
+            }
+        }
+        return new DepartmentStats(null,headcount,salaryCount,salarySum,min,max);
+    }
+
+    @Override
+    protected DepartmentStats map(ResultSet rs) throws SQLException
+    {
+        String department=rs.getString(1);
+        return new DepartmentStats(department.isEmpty() ? null : department,rs.getInt(2),rs.getInt(3),rs.getDouble(4),
+                getDouble(rs,5),getDouble(rs,6));
+    }
+
+    /**
+     * Creates Dept_stats and its triggers if they are missing, filling the
+     * table from Emp_info the first time. Run by SchemaMigrator.
+     */
+    public static void install(Connection conn) throws SQLException
+    {
+        boolean created;
+        Statement st=conn.createStatement();
+        try{
+            ResultSet rs=st.executeQuery("select count(*) from sqlite_master where type='table' and name='Dept_stats'");
+            try{
+                created=rs.next() && rs.getInt(1)==0;
+            }finally{
+                rs.close();
+            }
+            st.execute(CREATE_TABLE);
+            st.execute("create trigger if not exists Dept_stats_insert after insert on Emp_info begin "
+                    +add("NEW")+" end");
+            st.execute("create trigger if not exists Dept_stats_delete after delete on Emp_info begin "
+                    +remove("OLD")+" end");
+            st.execute("create trigger if not exists Dept_stats_update after update of Department,Salary on Emp_info begin "
+                    +remove("OLD")+add("NEW")+" end");
+        }finally{
+            st.close();
+        }
+        if(created)
+        {
+            rebuild(conn);
+        }
+    }
+
+    /**
+     * Recomputes every summary row from Emp_info. Runs in its own
+     * transaction unless the caller already has one open.
+     */
+    public static void rebuild(Connection conn) throws SQLException
+    {
+        boolean autoCommit=conn.getAutoCommit();
+        if(autoCommit)
+        {
+            conn.setAutoCommit(false);
+        }
+        Statement st=conn.createStatement();
+        try{
+            st.execute("delete from Dept_stats");
+            st.execute("insert into Dept_stats("+COLUMNS+") "
+                    +"select ifnull(Department,''),count(*),count(Salary),ifnull(sum(Salary),0),min(Salary),max(Salary) "
+                    +"from Emp_info group by ifnull(Department,'')");
+            if(autoCommit)
+            {
+                conn.commit();
+            }
+        }catch(SQLException e)
+        {
+            if(autoCommit)
+            {
+                conn.rollback();
+            }
+            throw e;
+        }finally{
+            st.close();
+            if(autoCommit)
+            {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+
+    /** Trigger body counting row r into its department. */
+    private static String add(String r)
+    {
+        String dept="ifnull("+r+".Department,'')";
+        String sal=r+".Salary";
+        return "insert or ignore into Dept_stats(Department) values("+dept+"); "
+                +"update Dept_stats set Headcount=Headcount+1,"
+                +"Salary_count=Salary_count+("+sal+" is not null),"
+                +"Salary_sum=Salary_sum+ifnull("+sal+",0),"
+                +"Salary_min=case when "+sal+" is not null and (Salary_min is null or "+sal+"<Salary_min) then "+sal+" else Salary_min end,"
+                +"Salary_max=case when "+sal+" is not null and (Salary_max is null or "+sal+">Salary_max) then "+sal+" else Salary_max end "
+                +"where Department="+dept+"; ";
+    }
+
+    /**
+     * Trigger body taking row r out of its department. Only when r held
+     * the minimum or maximum is that value looked up again, among the
+     * department's other employees.
+     */
+    private static String remove(String r)
+    {
+        String dept="ifnull("+r+".Department,'')";
+        String sal=r+".Salary";
+        String others="from Emp_info where Department is "+r+".Department and Employee_id<>"+r+".Employee_id";
+        return "update Dept_stats set Headcount=Headcount-1,"
+                +"Salary_count=Salary_count-("+sal+" is not null),"
+                +"Salary_sum=Salary_sum-ifnull("+sal+",0),"
+                +"Salary_min=case when "+sal+"<=Salary_min then (select min(Salary) "+others+") else Salary_min end,"
+                +"Salary_max=case when "+sal+">=Salary_max then (select max(Salary) "+others+") else Salary_max end "
+                +"where Department="+dept+"; "
+                +"delete from Dept_stats where Department="+dept+" and Headcount<=0; ";
+    }
+}
@@ -80,7 +80,7 @@ public class Emp extends javax.swing.JFrame {
                 .addContainerGap())
         );
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
 
         jButton1.setFont(new java.awt.Font("Ubuntu", 1, 24)); // NOI18N
@@ -164,22 +164,19 @@ public class Emp extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        Signup ob=new Signup();
-        ob.setVisible(true);
+        Navigator.show(Signup.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
-        EmpDept ob=new EmpDept();
-        ob.setVisible(true);
+        Navigator.show(EmpDept.class);
                
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
-            new MasterLog().setVisible(true);
+            Navigator.switchTo(this,MasterLog.class);
             // exit(0);
 
         }finally{
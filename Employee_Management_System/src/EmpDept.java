@@ -115,8 +115,7 @@ public class EmpDept extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new SalesEmp().setVisible(true);
+            Navigator.switchTo(this,SalesEmp.class);
             // exit(0);
 
         }finally{
@@ -135,8 +134,7 @@ public class EmpDept extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new AccEmp().setVisible(true);
+            Navigator.switchTo(this,AccEmp.class);
             // exit(0);
 
         }finally{
@@ -155,8 +153,7 @@ public class EmpDept extends javax.swing.JFrame {
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new MktEmp().setVisible(true);
+            Navigator.switchTo(this,MktEmp.class);
             // exit(0);
 
         }finally{
@@ -175,7 +172,7 @@ public class EmpDept extends javax.swing.JFrame {
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
+            Navigator.retain(this);
            // new Emp().setVisible(true);
             // exit(0);
 
@@ -22,41 +22,35 @@ import javax.swing.JComboBox;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.text.Document;
-import net.proteanit.sql.DbUtils;
 import java.lang.String;
-public class EmpHR8 extends javax.swing.JFrame {
+public class EmpHR8 extends javax.swing.JFrame implements Navigator.Refreshable {
 Connection conn;
     ResultSet rs;
     PreparedStatement pst;
+    EmployeeRepository employees;
     /**
      * Creates new form EmpHR8
      */
     public EmpHR8() {
     initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
+        employees=new EmployeeRepository(conn);
        
               Update();
     }
       public void Update()
     {
-        try{
-            String sql="select Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary from Emp_info where Employee_id=8";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
-            try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
-            }
-        }
+        QueryExecutor.submit(this,"load Emp_info",()->Repository.tableModel(conn,"select Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary from Emp_info where Employee_id=8"),
+                model->jTable1.setModel(model),e->JOptionPane.showMessageDialog(null, e));
     }
+    /**
+     * Reloads the data when the form is shown again.
+     */
+    public void refresh()
+    {
+        Update();
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -94,7 +88,7 @@ Connection conn;
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         getContentPane().setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
         getContentPane().add(jLabel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(12, 12, 266, 255));
 
@@ -153,7 +147,7 @@ Connection conn;
 
         jPanel2.setBorder(javax.swing.BorderFactory.createTitledBorder(javax.swing.BorderFactory.createLineBorder(new java.awt.Color(248, 19, 19)), "Operations", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Dialog", 0, 24), new java.awt.Color(251, 8, 8))); // NOI18N
 
-        jButton4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/clr.png")); // NOI18N
+        jButton4.setIcon(ImageAssets.icon("clr.png")); // NOI18N
         jButton4.setText("Clear");
         jButton4.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -161,7 +155,7 @@ Connection conn;
             }
         });
 
-        jButton3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/upd.png")); // NOI18N
+        jButton3.setIcon(ImageAssets.icon("upd.png")); // NOI18N
         jButton3.setText("Update");
         jButton3.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -192,7 +186,7 @@ Connection conn;
 
         getContentPane().add(jPanel2, new org.netbeans.lib.awtextra.AbsoluteConstraints(410, 300, -1, -1));
 
-        jButton6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/prn.png")); // NOI18N
+        jButton6.setIcon(ImageAssets.icon("prn.png")); // NOI18N
         jButton6.setText("Print");
         jButton6.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -335,9 +329,7 @@ Connection conn;
             String val7=jTextField8.getText();
             String val8=jTextField10.getText();
 
-            String sql="update Emp_info set Name='"+val2+"',Surname='"+val3+"',Age='"+val7+"',Gender='"+val8+"' where Employee_id='"+val1+"'";
-            pst=conn.prepareStatement(sql);
-            pst.execute();
+            employees.updatePersonal(val1,val2,val3,Repository.toInteger(val7),val8);
             JOptionPane.showMessageDialog(null, "Data Updated");
 
         }catch(Exception e)
@@ -366,7 +358,7 @@ Connection conn;
 
         // TODO add your handling code here:
         try{
-            dispose();
+            Navigator.retain(this);
           //  new SalesEmp().setVisible(true);
 
         }finally{
@@ -431,37 +423,32 @@ Connection conn;
     private void jButton9ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton9ActionPerformed
         // TODO add your handling code here:
 
-        try{
-            String sql="select * from Emp_info where Employee_id=? and Employee_id=8";
-            //   String sql1="select * from Emp_info where Name=?";
-            pst=conn.prepareStatement(sql);
-            //   pst=conn.prepareStatement(sql1);
-            pst.setString(1, jTextField9.getText());
-            rs=pst.executeQuery();
-            if(rs.next())
+        String key=jTextField9.getText();
+        QueryExecutor.submit(this,"find Emp_info",()->employees.findById(key),emp->{
+            if(emp!=null && emp.getEmployeeId()==8)
             {
-                String add1=rs.getString("Employee_id");
+                String add1=Repository.text(emp.getEmployeeId());
                 jTextField1.setText(add1);
 
-                String add2=rs.getString("Name");
+                String add2=emp.getName();
                 jTextField2.setText(add2);
 
-                String add3=rs.getString("Surname");
+                String add3=emp.getSurname();
                 jTextField3.setText(add3);
 
-                //    String add4=rs.getString("Department");
+                //    String add4=emp.getDepartment();
                 //   jTextField4.setText(add4);
 
-                //  String add5=rs.getString("Designation");
+                //  String add5=emp.getDesignation();
                 // jTextField5.setText(add5);
 
-                //    String add6=rs.getString("Salary");
+                //    String add6=Repository.text(emp.getSalary());
                 //   jTextField6.setText(add6);
 
-                String add7=rs.getString("Age");
+                String add7=Repository.text(emp.getAge());
                 jTextField8.setText(add7);
 
-                String add8=rs.getString("Gender");
+                String add8=emp.getGender();
                 jTextField10.setText(add8);
 
             }
@@ -469,13 +456,7 @@ Connection conn;
 
                 JOptionPane.showMessageDialog(null,"Invalid Input");
             }
-
-        }
-        catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null,e);
-
-        }
+        });
     }//GEN-LAST:event_jButton9ActionPerformed
 
     /**
@@ -12,7 +12,7 @@ import java.sql.*;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-public class EmpLog extends JFrame {
+public class EmpLog extends JFrame implements Navigator.Refreshable {
  Connection conn;
     ResultSet rs;
     PreparedStatement pst;
@@ -22,12 +22,20 @@ public class EmpLog extends JFrame {
     public EmpLog() {
         super("Employee Login");
         initComponents();
-         conn=javaconnect.ConnecrDb();
+         conn=javaconnect.ConnecrDb(this);
          
          
         
     }
 
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField2.setText("");
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -130,7 +138,7 @@ public class EmpLog extends JFrame {
 
         getContentPane().add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(378, 178, 400, 250));
 
-        jLabel5.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/empl.jpg")); // NOI18N
+        jLabel5.setIcon(ImageAssets.icon("empl.jpg")); // NOI18N
         getContentPane().add(jLabel5, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1210, 720));
 
         pack();
@@ -139,36 +147,16 @@ public class EmpLog extends JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
       
-        String sql="select  * from Emp_info where Username=? and Password=? and Employee_id=1";
-        try {
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jPasswordField2.getText());
-            rs=pst.executeQuery();
-            if(rs.next()){
-                setVisible(false);
-               EmpSales1 ob=new EmpSales1(); 
-                ob.setVisible(true);
-                rs.close();
-                pst.close();
-               }
+        String username=jTextField1.getText();
+        char[] password=jPasswordField2.getPassword();
+        QueryExecutor.submit(this,"login",()->AuthService.authenticate(conn,username,password),session->{
+            if(session!=null && session.getEmployeeId()==1){
+                Navigator.switchTo(this,EmpSales1.class);
+            }
             else{
                 JOptionPane.showMessageDialog(null, "Invalid Username or Password!");
-                
-            }
-        }catch(Exception e)
-        {
-           JOptionPane.showMessageDialog(null, e);
-        }
-        finally{
-            try{
-                rs.close();
-                pst.close();
-            }catch(Exception e)
-            {
-                
             }
-        }
+        });
     }//GEN-LAST:event_jButton1ActionPerformed
 
     /**
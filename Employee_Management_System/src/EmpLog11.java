@@ -12,7 +12,7 @@ import java.sql.*;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-public class EmpLog11 extends javax.swing.JFrame {
+public class EmpLog11 extends javax.swing.JFrame implements Navigator.Refreshable {
 Connection conn;
     ResultSet rs;
     PreparedStatement pst;
@@ -22,7 +22,15 @@ Connection conn;
     public EmpLog11() {
         super("Employee Login");
         initComponents();
-         conn=javaconnect.ConnecrDb();
+         conn=javaconnect.ConnecrDb(this);
+    }
+
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField2.setText("");
     }
 
     /**
@@ -127,7 +135,7 @@ Connection conn;
 
         getContentPane().add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(427, 170, -1, -1));
 
-        jLabel6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/empl.jpg")); // NOI18N
+        jLabel6.setIcon(ImageAssets.icon("empl.jpg")); // NOI18N
         getContentPane().add(jLabel6, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1270, 650));
 
         pack();
@@ -136,36 +144,16 @@ Connection conn;
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
 
-        String sql="select  * from Emp_info where Username=? and Password=? and Employee_id=11";
-        try {
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jPasswordField2.getText());
-            rs=pst.executeQuery();
-            if(rs.next()){
-                setVisible(false);
-                EmpMkt11 ob=new EmpMkt11();
-                ob.setVisible(true);
-                rs.close();
-                pst.close();
+        String username=jTextField1.getText();
+        char[] password=jPasswordField2.getPassword();
+        QueryExecutor.submit(this,"login",()->AuthService.authenticate(conn,username,password),session->{
+            if(session!=null && session.getEmployeeId()==11){
+                Navigator.switchTo(this,EmpMkt11.class);
             }
             else{
                 JOptionPane.showMessageDialog(null, "Invalid Username or Password!");
-
             }
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }
-        finally{
-            try{
-                rs.close();
-                pst.close();
-            }catch(Exception e)
-            {
-
-            }
-        }
+        });
     }//GEN-LAST:event_jButton1ActionPerformed
 
     /**
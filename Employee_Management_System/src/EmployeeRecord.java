@@ -0,0 +1,104 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Emp_info.
+ *
+ * @author prateek
+ */
+public final class EmployeeRecord {
+
+    private final long employeeId;
+    private final String name;
+    private final String surname;
+    private final Integer age;
+    private final String username;
+    private final String password;
+    private final String gender;
+    private final String department;
+    private final String designation;
+    private final Double salary;
+
+    public EmployeeRecord(long employeeId,String name,String surname,Integer age,String username,String password,String gender,String department,String designation,Double salary)
+    {
+        this.employeeId=employeeId;
+        this.name=name;
+        this.surname=surname;
+        this.age=age;
+        this.username=username;
+        this.password=password;
+        this.gender=gender;
+        this.department=department;
+        this.designation=designation;
+        this.salary=salary;
+    }
+
+    /** Employee_id */
+    public long getEmployeeId()
+    {
+        return employeeId;
+    }
+
+    /** Name */
+    public String getName()
+    {
+        return name;
+    }
+
+    /** Surname */
+    public String getSurname()
+    {
+        return surname;
+    }
+
+    /** Age */
+    public Integer getAge()
+    {
+        return age;
+    }
+
+    /** Username */
+    public String getUsername()
+    {
+        return username;
+    }
+
+    /** Password */
+    public String getPassword()
+    {
+        return password;
+    }
+
+    /** Gender */
+    public String getGender()
+    {
+        return gender;
+    }
+
+    /** Department */
+    public String getDepartment()
+    {
+        return department;
+    }
+
+    /** Designation */
+    public String getDesignation()
+    {
+        return designation;
+    }
+
+    /** Salary */
+    public Double getSalary()
+    {
+        return salary;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "EmployeeRecord["+employeeId+", "+name+"]";
+    }
+}
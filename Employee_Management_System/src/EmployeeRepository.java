@@ -0,0 +1,234 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads and updates Emp_info through statements cached on the connection.
+ * Every write is published on ChangeBus.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+import java.util.Map;
+public class EmployeeRepository extends Repository<EmployeeRecord> {
+
+    static final String COLUMNS="Employee_id,Name,Surname,Age,Username,Password,Gender,Department,Designation,Salary";
+    static final String SELECT="select "+COLUMNS+" from Emp_info";
+    static final String FIND_BY_ID=SELECT+" where Employee_id=?";
+    static final String FIND_BY_NAME=SELECT+" where Name=?";
+    static final String FIND_BY_DEPARTMENT=SELECT+" where Department=?";
+    static final String FIND_ALL=SELECT;
+    static final String PAGE_AFTER=SELECT+" where Employee_id>? order by Employee_id limit ?";
+    static final String PAGE_AFTER_IN_DEPARTMENT=SELECT+" where Department=? and Employee_id>? order by Employee_id limit ?";
+    static final String PAGE_AT=SELECT+" order by Employee_id limit ? offset ?";
+    static final String PAGE_AT_IN_DEPARTMENT=SELECT+" where Department=? order by Employee_id limit ? offset ?";
+    static final String COUNT="select count(*) from Emp_info";
+    static final String COUNT_IN_DEPARTMENT="select count(*) from Emp_info where Department=?";
+    static final String INSERT="insert into Emp_info(Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary) values(?,?,?,?,?,?,?,?)";
+    static final String DELETE="delete from Emp_info where Employee_id=?";
+
+    public EmployeeRepository(Connection conn)
+    {
+        super(conn,ChangeBus.EMP_INFO,FIND_BY_ID);
+    }
+
+    /**
+     * @param id the Employee_id as typed into a form
+     * @return the employee, or null if there is none
+     */
+    public EmployeeRecord findById(String id) throws SQLException
+    {
+        return findOne(FIND_BY_ID,id);
+    }
+
+    public List<EmployeeRecord> findByName(String name) throws SQLException
+    {
+        return findAll(FIND_BY_NAME,name);
+    }
+
+    public List<EmployeeRecord> findByDepartment(String department) throws SQLException
+    {
+        return findAll(FIND_BY_DEPARTMENT,department);
+    }
+
+    public List<EmployeeRecord> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    /**
+     * Keyset pagination: the next employees after the given id, in id
+     * order.
+     *
+     * @param department only this department, or null for everyone
+     */
+    public List<EmployeeRecord> findPageAfter(String department,long afterId,int limit) throws SQLException
+    {
+        return department==null ? findAll(PAGE_AFTER,afterId,limit)
+                : findAll(PAGE_AFTER_IN_DEPARTMENT,department,afterId,limit);
+    }
+
+    /**
+     * Offset pagination, only used when jumping to a page whose preceding
+     * id is not known yet.
+     *
+     * @param department only this department, or null for everyone
+     */
+    public List<EmployeeRecord> findPageAt(String department,int offset,int limit) throws SQLException
+    {
+        return department==null ? findAll(PAGE_AT,limit,offset)
+                : findAll(PAGE_AT_IN_DEPARTMENT,department,limit,offset);
+    }
+
+    /**
+     * @param department only this department, or null for everyone
+     */
+    public int count(String department) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            PreparedStatement pst=cache.prepare(department==null ? COUNT : COUNT_IN_DEPARTMENT);
+            if(department!=null)
+            {
+                pst.setString(1,department);
+            }
+            ResultSet rs=pst.executeQuery();
+            try{
+                return rs.next() ? rs.getInt(1) : 0;
+            }finally{
+                rs.close();
+            }
+        }
+    }
+
+    /**
+     * Adds an employee.
+     *
+     * @param id the Employee_id, or null to let the database assign one
+     * @return the Employee_id of the new row
+     */
+    public long insert(Long id,String name,String surname,Integer age,String gender,String department,
+            String designation,Double salary) throws SQLException
+    {
+        long newId=insert(INSERT,id,name,surname,age,gender,department,designation,salary);
+        publish(newId,null,findByKey(newId));
+        return newId;
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public int delete(long id) throws SQLException
+    {
+        AuthService.forget(id);
+        EmployeeRecord before=findByKey(id);
+        int rows=execute(DELETE,id);
+        if(rows>0)
+        {
+            publish(id,before,null);
+        }
+        return rows;
+    }
+
+    /**
+     * Starts a batched update of the given Emp_info columns.
+     */
+    public BatchUpdate newUpdate(String... columns)
+    {
+        return new BatchUpdate(this,"Employee_id",columns);
+    }
+
+    public UpdateResult update(String id,String name,String surname,String department,String designation,
+            Double salary,Integer age,String gender) throws SQLException
+    {
+        UpdateResult result=newUpdate("Name","Surname","Department","Designation","Salary","Age","Gender")
+                .add(id,name,surname,department,designation,salary,age,gender).execute();
+        forgetLogin(id);
+        return result;
+    }
+
+    /**
+     * Updates everything but the salary, for screens that may not change it.
+     */
+    public UpdateResult updateExceptSalary(String id,String name,String surname,String department,String designation,
+            Integer age,String gender) throws SQLException
+    {
+        UpdateResult result=newUpdate("Name","Surname","Department","Designation","Age","Gender")
+                .add(id,name,surname,department,designation,age,gender).execute();
+        forgetLogin(id);
+        return result;
+    }
+
+    /**
+     * Forgets the remembered logins of an edited employee, which may hold
+     * the old department or designation. Called once the edit is committed.
+     */
+    private static void forgetLogin(String id)
+    {
+        Object key=ChangeBus.key(id);
+        if(key instanceof Long)
+        {
+            AuthService.forget((Long)key);
+        }
+    }
+
+    /**
+     * Updates the fields an employee may edit on their own screen.
+     */
+    public UpdateResult updatePersonal(String id,String name,String surname,Integer age,String gender) throws SQLException
+    {
+        return newUpdate("Name","Surname","Age","Gender").add(id,name,surname,age,gender).execute();
+    }
+
+    /**
+     * Publishes an employee added outside this repository, e.g. by Signup
+     * together with the credentials, once that is committed.
+     */
+    public void publishInsert(long id) throws SQLException
+    {
+        publish(id,null,findByKey(id));
+    }
+
+    /**
+     * Sets new salaries for many employees in one transaction.
+     *
+     * @param salaries new salary by Employee_id
+     */
+    public UpdateResult updateSalaries(Map<Long,Double> salaries) throws SQLException
+    {
+        BatchUpdate batch=newUpdate("Salary");
+        for(Map.Entry<Long,Double> e:salaries.entrySet())
+        {
+            batch.add(e.getKey(),e.getValue());
+        }
+        return batch.execute();
+    }
+
+    /**
+     * Raises (or with a negative percent, cuts) the salary of everyone in
+     * a department, in one transaction.
+     */
+    public UpdateResult reviseSalaries(String department,double percent) throws SQLException
+    {
+        BatchUpdate batch=newUpdate("Salary");
+        for(EmployeeRecord emp:findByDepartment(department))
+        {
+            if(emp.getSalary()!=null)
+            {
+                batch.add(emp.getEmployeeId(),emp.getSalary()*(1+percent/100));
+            }
+        }
+        return batch.execute();
+    }
+
+    @Override
+    protected EmployeeRecord map(ResultSet rs) throws SQLException
+    {
+        return new EmployeeRecord(rs.getLong(1),rs.getString(2),rs.getString(3),getInteger(rs,4),rs.getString(5),
+                rs.getString(6),rs.getString(7),rs.getString(8),rs.getString(9),getDouble(rs,10));
+    }
+}
@@ -0,0 +1,434 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * In-memory search over Employee_id, Name, Surname and Username, for the
+ * type-ahead search boxes. Every word of those fields is kept in a sorted
+ * term map, so a prefix is a range lookup, and its three-letter grams are
+ * indexed too, so text in the middle of a word is found without scanning
+ * every employee. Each word of the query must match; results are ranked
+ * by how well and in which field they match.
+ *
+ * The index is filled once from Emp_info and then kept up to date from
+ * the after images of the Emp_info changes on ChangeBus; a RESET clears
+ * it. Thread safe.
+ *
+ * @author prateek
+ */
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public final class EmployeeSearchIndex {
+
+    static final int GRAM=3;
+
+    /** Field weights, in the order fields() returns them. */
+    static final int[] WEIGHTS={4,3,2,1};
+
+    private static final Logger LOG=Logger.getLogger(EmployeeSearchIndex.class.getName());
+
+    private static final EmployeeSearchIndex INSTANCE=new EmployeeSearchIndex();
+
+    static
+    {
+        ChangeBus.subscribe(INSTANCE.listener,false,ChangeBus.EMP_INFO);
+    }
+
+    /** Marks a deletion among the changes seen while loading. */
+    private static final EmployeeRecord DELETED=new EmployeeRecord(-1,null,null,null,null,null,null,null,null,null);
+
+    private final Map<Long,EmployeeRecord> records=new HashMap<Long,EmployeeRecord>();
+    private final TreeMap<String,Set<Long>> terms=new TreeMap<String,Set<Long>>();
+    private final Map<String,Set<Long>> grams=new HashMap<String,Set<Long>>();
+
+    private boolean loaded;
+    private Map<Long,EmployeeRecord> changedWhileLoading;
+    /** Set by clear() during a load, whose rows may then be out of date. */
+    private boolean clearedWhileLoading;
+
+    private long queries;
+    private long queryNanos;
+
+    private final ChangeBus.Listener listener=new ChangeBus.Listener()
+    {
+        public void changed(List<ChangeEvent> events)
+        {
+            for(ChangeEvent e:events)
+            {
+                if(e.isReset())
+                {
+                    clear();
+                }
+                else if(e.getAfter()==null)
+                {
+                    remove(((EmployeeRecord)e.getBefore()).getEmployeeId());
+                }
+                else
+                {
+                    put((EmployeeRecord)e.getAfter());
+                }
+            }
+        }
+    };
+
+    EmployeeSearchIndex()
+    {
+    }
+
+    public static EmployeeSearchIndex get()
+    {
+        return INSTANCE;
+    }
+
+    public synchronized boolean isLoaded()
+    {
+        return loaded;
+    }
+
+    /**
+     * Fills the index from Emp_info unless that has been done; if another
+     * thread is doing it, waits for that. Changes reported while the rows
+     * are read are applied afterwards.
+     */
+    public void load(EmployeeRepository employees) throws SQLException
+    {
+        synchronized(this)
+        {
+            while(changedWhileLoading!=null)
+            {
+                try{
+                    wait();
+                }catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+            if(loaded)
+            {
+                return;
+            }
+            changedWhileLoading=new LinkedHashMap<Long,EmployeeRecord>();
+        }
+        List<EmployeeRecord> rows;
+        try{
+            rows=employees.findAll();
+        }catch(SQLException e)
+        {
+            synchronized(this)
+            {
+                changedWhileLoading=null;
+                notifyAll();
+            }
+            throw e;
+        }
+        synchronized(this)
+        {
+            long start=System.nanoTime();
+            for(EmployeeRecord emp:rows)
+            {
+                add(emp);
+            }
+            for(Map.Entry<Long,EmployeeRecord> e:changedWhileLoading.entrySet())
+            {
+                unindex(e.getKey());
+                if(e.getValue()!=DELETED)
+                {
+                    add(e.getValue());
+                }
+            }
+            changedWhileLoading=null;
+            loaded=!clearedWhileLoading;
+            if(clearedWhileLoading)
+            {
+                clearedWhileLoading=false;
+                reset();
+            }
+            notifyAll();
+            LOG.log(Level.FINE,"Indexed {0} employees, {1} terms, {2} grams in {3} ms",
+                    new Object[]{records.size(),terms.size(),grams.size(),(System.nanoTime()-start)/1000000});
+        }
+    }
+
+    /**
+     * Adds or replaces an employee.
+     */
+    public synchronized void put(EmployeeRecord emp)
+    {
+        if(changedWhileLoading!=null)
+        {
+            changedWhileLoading.put(emp.getEmployeeId(),emp);
+        }
+        else if(loaded)
+        {
+            unindex(emp.getEmployeeId());
+            add(emp);
+        }
+    }
+
+    public synchronized void remove(long employeeId)
+    {
+        if(changedWhileLoading!=null)
+        {
+            changedWhileLoading.put(employeeId,DELETED);
+        }
+        else if(loaded)
+        {
+            unindex(employeeId);
+        }
+    }
+
+    /**
+     * Forgets everything, e.g. after a bulk import; the next search loads
+     * the index again.
+     */
+    public synchronized void clear()
+    {
+        if(changedWhileLoading!=null)
+        {
+            clearedWhileLoading=true;
+        }
+        loaded=false;
+        reset();
+    }
+
+    private void reset()
+    {
+        records.clear();
+        terms.clear();
+        grams.clear();
+    }
+
+    /**
+     * @param department only this department, or null for everyone
+     * @return up to limit employees matching every word of the query,
+     *         best first; empty until the index is loaded
+     */
+    public synchronized List<EmployeeRecord> search(String query,String department,int limit)
+    {
+        long start=System.nanoTime();
+        String[] words=tokens(query);
+        if(!loaded || words.length==0)
+        {
+            return Collections.emptyList();
+        }
+        Set<Long> matches=null;
+        for(String w:words)
+        {
+            Set<Long> ids=candidates(w);
+            if(matches==null)
+            {
+                matches=ids;
+            }
+            else
+            {
+                matches.retainAll(ids);
+            }
+            if(matches.isEmpty())
+            {
+                break;
+            }
+        }
+        final Map<Long,Integer> scores=new HashMap<Long,Integer>();
+        List<EmployeeRecord> hits=new ArrayList<EmployeeRecord>();
+        for(Long id:matches)
+        {
+            EmployeeRecord emp=records.get(id);
+            if(department!=null && !department.equals(emp.getDepartment()))
+            {
+                continue;
+            }
+            int score=score(emp,words);
+            if(score>0)
+            {
+                scores.put(id,score);
+                hits.add(emp);
+            }
+        }
+        Collections.sort(hits,new Comparator<EmployeeRecord>()
+        {
+            public int compare(EmployeeRecord a,EmployeeRecord b)
+            {
+                int c=scores.get(b.getEmployeeId())-scores.get(a.getEmployeeId());
+                return c!=0 ? c : Long.compare(a.getEmployeeId(),b.getEmployeeId());
+            }
+        });
+        List<EmployeeRecord> result=hits.size()>limit ? new ArrayList<EmployeeRecord>(hits.subList(0,limit)) : hits;
+        queries++;
+        queryNanos+=System.nanoTime()-start;
+        return result;
+    }
+
+    /**
+     * @return employees having a word that starts with or contains w
+     */
+    private Set<Long> candidates(String w)
+    {
+        Set<Long> ids=new HashSet<Long>();
+        for(Set<Long> s:terms.subMap(w,true,w+Character.MAX_VALUE,false).values())
+        {
+            ids.addAll(s);
+        }
+        if(w.length()>=GRAM)
+        {
+            // walk the rarest gram's ids, keeping those having every gram
+            List<Set<Long>> sets=new ArrayList<Set<Long>>();
+            for(int i=0;i+GRAM<=w.length();i++)
+            {
+                Set<Long> s=grams.get(w.substring(i,i+GRAM));
+                if(s==null)
+                {
+                    return ids;
+                }
+                sets.add(s);
+            }
+            Collections.sort(sets,new Comparator<Set<Long>>()
+            {
+                public int compare(Set<Long> a,Set<Long> b)
+                {
+                    return a.size()-b.size();
+                }
+            });
+            next:
+            for(Long id:sets.get(0))
+            {
+                for(int i=1;i<sets.size();i++)
+                {
+                    if(!sets.get(i).contains(id))
+                    {
+                        continue next;
+                    }
+                }
+                ids.add(id);
+            }
+        }
+        return ids;
+    }
+
+    /**
+     * Sums, over the query words, the best match among the fields: a whole
+     * word counts most, then a prefix, then text inside a word. Zero if
+     * some word does not really occur (gram sets can over-match).
+     */
+    private static int score(EmployeeRecord emp,String[] words)
+    {
+        String[] fields=fields(emp);
+        int total=0;
+        for(String w:words)
+        {
+            int best=0;
+            for(int f=0;f<fields.length;f++)
+            {
+                for(String t:tokens(fields[f]))
+                {
+                    int s=t.equals(w) ? 100 : t.startsWith(w) ? 50 : t.contains(w) ? 10 : 0;
+                    best=Math.max(best,s*WEIGHTS[f]);
+                }
+            }
+            if(best==0)
+            {
+                return 0;
+            }
+            total+=best;
+        }
+        return total;
+    }
+
+    private void add(EmployeeRecord emp)
+    {
+        records.put(emp.getEmployeeId(),emp);
+        for(String field:fields(emp))
+        {
+            for(String t:tokens(field))
+            {
+                link(terms,t,emp.getEmployeeId());
+                for(int i=0;i+GRAM<=t.length();i++)
+                {
+                    link(grams,t.substring(i,i+GRAM),emp.getEmployeeId());
+                }
+            }
+        }
+    }
+
+    private void unindex(long employeeId)
+    {
+        EmployeeRecord emp=records.remove(employeeId);
+        if(emp==null)
+        {
+            return;
+        }
+        for(String field:fields(emp))
+        {
+            for(String t:tokens(field))
+            {
+                unlink(terms,t,employeeId);
+                for(int i=0;i+GRAM<=t.length();i++)
+                {
+                    unlink(grams,t.substring(i,i+GRAM),employeeId);
+                }
+            }
+        }
+    }
+
+    private static void link(Map<String,Set<Long>> map,String key,long id)
+    {
+        Set<Long> ids=map.get(key);
+        if(ids==null)
+        {
+            ids=new HashSet<Long>(4);
+            map.put(key,ids);
+        }
+        ids.add(id);
+    }
+
+    private static void unlink(Map<String,Set<Long>> map,String key,long id)
+    {
+        Set<Long> ids=map.get(key);
+        if(ids!=null && ids.remove(id) && ids.isEmpty())
+        {
+            map.remove(key);
+        }
+    }
+
+    private static String[] fields(EmployeeRecord emp)
+    {
+        return new String[]{String.valueOf(emp.getEmployeeId()),emp.getName(),emp.getSurname(),emp.getUsername()};
+    }
+
+    private static String[] tokens(String text)
+    {
+        if(text==null)
+        {
+            return new String[0];
+        }
+        String t=text.trim().toLowerCase(Locale.ROOT);
+        return t.isEmpty() ? new String[0] : t.split("\\s+");
+    }
+
+    public synchronized int size()
+    {
+        return records.size();
+    }
+
+    /**
+     * @return average search time in microseconds
+     */
+    public synchronized double getAverageQueryMicros()
+    {
+        return queries==0 ? 0 : queryNanos/1000.0/queries;
+    }
+}
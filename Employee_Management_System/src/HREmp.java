@@ -98,21 +98,18 @@ public class HREmp extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        EmpLog3 ob=new EmpLog3();
-        ob.setVisible(true);
+        Navigator.show(EmpLog3.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
-        EmpLog8 ob=new EmpLog8();
-        ob.setVisible(true);
+        Navigator.show(EmpLog8.class);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
-            new Emp().setVisible(true);
+            Navigator.switchTo(this,Emp.class);
             // exit(0);
 
         }finally{
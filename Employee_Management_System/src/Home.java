@@ -11,14 +11,20 @@
 import com.itextpdf.text.pdf.PdfWriter;
 import static com.sun.xml.internal.fastinfoset.alphabet.BuiltInRestrictedAlphabets.table;
 import java.awt.*;
+import java.io.BufferedOutputStream;
+import java.io.BufferedWriter;
+import java.io.File;
+import java.io.FileInputStream;
 import java.io.FileOutputStream;
+import java.io.InputStreamReader;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
 import java.sql.*;
 import java.text.MessageFormat;
-import java.util.Calendar;
-import java.util.GregorianCalendar;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 import javax.swing.JComboBox;
+import javax.swing.JFileChooser;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
 import javax.swing.text.Document;
@@ -32,71 +38,67 @@ public class Home extends javax.swing.JFrame {
     Connection conn;
     ResultSet rs;
     PreparedStatement pst;
+    EmployeeRepository employees;
+    DepartmentStatsRepository stats;
+    PagedEmployeeTableModel model;
     /**
      * Creates new form Home
      */
     public Home() {
         initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
+        employees=new EmployeeRepository(conn);
+        stats=new DepartmentStatsRepository(conn);
+        model=new PagedEmployeeTableModel(this,employees,null);
+        jTable1.setModel(model);
+        SearchBox.install(jTextField9,employees,null,this::showEmployee);
         CurrentDate();
               Update();  
     }
     
     public void Update()
     {
-        try{
-            String sql="select Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary from Emp_info";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
-            try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
-            }
-        }
+        model.refresh();
     }
     
 public void CurrentDate()
 {
-    Thread clock=new Thread()
-    { 
-            public void run()
+    UiClock.subscribe(this,tick->{
+        jMenu4.setText("Date "+tick.getDate());
+        jMenu5.setText("Time "+tick.getTime());
+    });
+}
+
+    /**
+     * Fills the detail fields with an employee found by the search.
+     */
+    private void showEmployee(EmployeeRecord emp)
     {
-     for(;;)
-            {
-                Calendar cal=new GregorianCalendar();
-                int month=cal.get(Calendar.MONTH);
-                int year=cal.get(Calendar.YEAR);
-                int day=cal.get(Calendar.DAY_OF_MONTH);
-                jMenu4.setText("Date "+day+"-"+(month+1)+"-"+year);
-              
-                int hour=cal.get(Calendar.HOUR);
-                int min=cal.get(Calendar.MINUTE);
-                int sec=cal.get(Calendar.SECOND);
-                
-                jMenu5.setText("Time "+hour+":"+min+":"+sec);
-                
-                try{
-                    sleep(1000);
-                }
-                catch(InterruptedException ex)
-                {
-                      Logger.getLogger(Home.class.getName()).log(Level.SEVERE,null,ex);
-                      
-                    
-                }
-            }
+        String add1=Repository.text(emp.getEmployeeId());
+        jTextField1.setText(add1);
+
+        String add2=emp.getName();
+        jTextField2.setText(add2);
+
+        String add3=emp.getSurname();
+        jTextField3.setText(add3);
+
+        String add4=emp.getDepartment();
+        jTextField4.setText(add4);
+
+        String add5=emp.getDesignation();
+        jTextField5.setText(add5);
+
+        String add6=Repository.text(emp.getSalary());
+        jTextField6.setText(add6);
+
+        String add7=Repository.text(emp.getAge());
+        jTextField8.setText(add7);
+
+        String add8=emp.getGender();
+        jTextField10.setText(add8);
     }
-    };
-    clock.start();
-}
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -155,6 +157,10 @@ public void CurrentDate()
         jLabel16 = new javax.swing.JLabel();
         jMenuBar1 = new javax.swing.JMenuBar();
         jMenu1 = new javax.swing.JMenu();
+        jMenuItem1 = new javax.swing.JMenuItem();
+        jMenuItem2 = new javax.swing.JMenuItem();
+        jMenuItem3 = new javax.swing.JMenuItem();
+        jMenuItem4 = new javax.swing.JMenuItem();
         jCheckBoxMenuItem1 = new javax.swing.JCheckBoxMenuItem();
         jMenu2 = new javax.swing.JMenu();
         jMenu3 = new javax.swing.JMenu();
@@ -166,7 +172,7 @@ public void CurrentDate()
         setFont(new java.awt.Font("Abyssinica SIL", 0, 14)); // NOI18N
         getContentPane().setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
         getContentPane().add(jLabel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(12, 0, 266, 255));
 
@@ -256,7 +262,7 @@ public void CurrentDate()
 
         getContentPane().add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(12, 261, -1, -1));
 
-        jButton6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/prn.png")); // NOI18N
+        jButton6.setIcon(ImageAssets.icon("prn.png")); // NOI18N
         jButton6.setText("Print");
         jButton6.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -267,7 +273,7 @@ public void CurrentDate()
 
         jPanel2.setBorder(javax.swing.BorderFactory.createTitledBorder(javax.swing.BorderFactory.createLineBorder(new java.awt.Color(248, 19, 19)), "Operations", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Dialog", 0, 24), new java.awt.Color(251, 8, 8))); // NOI18N
 
-        jButton4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/clr.png")); // NOI18N
+        jButton4.setIcon(ImageAssets.icon("clr.png")); // NOI18N
         jButton4.setText("Clear");
         jButton4.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -275,7 +281,7 @@ public void CurrentDate()
             }
         });
 
-        jButton3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/upd.png")); // NOI18N
+        jButton3.setIcon(ImageAssets.icon("upd.png")); // NOI18N
         jButton3.setText("Update");
         jButton3.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -283,7 +289,7 @@ public void CurrentDate()
             }
         });
 
-        jButton2.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/dele.png")); // NOI18N
+        jButton2.setIcon(ImageAssets.icon("dele.png")); // NOI18N
         jButton2.setText("Delete");
         jButton2.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -291,7 +297,7 @@ public void CurrentDate()
             }
         });
 
-        jButton1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/sve.png")); // NOI18N
+        jButton1.setIcon(ImageAssets.icon("sve.png")); // NOI18N
         jButton1.setText("Save");
         jButton1.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -509,11 +515,43 @@ public void CurrentDate()
         getContentPane().add(jButton10, new org.netbeans.lib.awtextra.AbsoluteConstraints(1230, 660, -1, -1));
         getContentPane().add(jTextField11, new org.netbeans.lib.awtextra.AbsoluteConstraints(1050, 660, 170, -1));
 
-        jLabel16.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/home.jpg")); // NOI18N
+        jLabel16.setIcon(ImageAssets.icon("home.jpg")); // NOI18N
         getContentPane().add(jLabel16, new org.netbeans.lib.awtextra.AbsoluteConstraints(7, 8, 1320, 730));
 
         jMenu1.setText("File");
 
+        jMenuItem1.setText("Import CSV...");
+        jMenuItem1.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItem1ActionPerformed(evt);
+            }
+        });
+        jMenu1.add(jMenuItem1);
+
+        jMenuItem2.setText("Export CSV...");
+        jMenuItem2.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItem2ActionPerformed(evt);
+            }
+        });
+        jMenu1.add(jMenuItem2);
+
+        jMenuItem3.setText("PDF Report...");
+        jMenuItem3.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItem3ActionPerformed(evt);
+            }
+        });
+        jMenu1.add(jMenuItem3);
+
+        jMenuItem4.setText("Dashboard");
+        jMenuItem4.addActionListener(new java.awt.event.ActionListener() {
+            public void actionPerformed(java.awt.event.ActionEvent evt) {
+                jMenuItem4ActionPerformed(evt);
+            }
+        });
+        jMenu1.add(jMenuItem4);
+
         jCheckBoxMenuItem1.setSelected(true);
         jCheckBoxMenuItem1.setText("Exit");
         jCheckBoxMenuItem1.addActionListener(new java.awt.event.ActionListener() {
@@ -547,8 +585,7 @@ public void CurrentDate()
      
         // TODO add your handling code here:
         try{
-            dispose();
-            new MasterLog().setVisible(true);
+            Navigator.switchTo(this,MasterLog.class);
            // exit(0);
             
         }finally{
@@ -570,30 +607,114 @@ public void CurrentDate()
         System.exit(0);
     }//GEN-LAST:event_jCheckBoxMenuItem1ActionPerformed
 
-    private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
+    private void jMenuItem1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem1ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="Insert into Emp_info(Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary) values(?,?,?,?,?,?,?,?)";
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jTextField2.getText());
-            pst.setString(3, jTextField3.getText());
-
-            pst.setString(6, jTextField4.getText());
-            pst.setString(7, jTextField5.getText());
-            pst.setString(8, jTextField6.getText());
-            pst.setString(4, jTextField8.getText());
-            pst.setString(5,jTextField10.getText());
-            
-            pst.execute();
-            JOptionPane.showMessageDialog(null,"Data Saved");
-          
-            
-            
-        }catch(Exception e)
+        CsvTable table=chooseTable("Import");
+        if(table==null)
         {
-            JOptionPane.showMessageDialog(null, e);
-        }Update();
+            return;
+        }
+        JFileChooser chooser=new JFileChooser();
+        chooser.setSelectedFile(new File(table.getFileName()));
+        if(chooser.showOpenDialog(this)!=JFileChooser.APPROVE_OPTION)
+        {
+            return;
+        }
+        File file=chooser.getSelectedFile();
+        QueryExecutor.submit(this,"import "+table,()->{
+            // a connection of its own, so the grid stays usable meanwhile
+            Connection c=javaconnect.getPool().lease();
+            try{
+                return new BulkLoader(c).load(table,new InputStreamReader(new FileInputStream(file),StandardCharsets.UTF_8));
+            }finally{
+                javaconnect.release(c);
+            }
+        },result->{
+            model.refresh();
+            StringBuilder msg=new StringBuilder(result.toString());
+            for(BulkResult.Rejected r:result.getRejected().subList(0,Math.min(10,result.getRejected().size())))
+            {
+                msg.append('\n').append(r);
+            }
+            JOptionPane.showMessageDialog(null,msg);
+        },e->JOptionPane.showMessageDialog(null,e));
+    }//GEN-LAST:event_jMenuItem1ActionPerformed
+
+    private void jMenuItem2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem2ActionPerformed
+        // TODO add your handling code here:
+        CsvTable table=chooseTable("Export");
+        if(table==null)
+        {
+            return;
+        }
+        JFileChooser chooser=new JFileChooser();
+        chooser.setSelectedFile(new File(table.getFileName()));
+        if(chooser.showSaveDialog(this)!=JFileChooser.APPROVE_OPTION)
+        {
+            return;
+        }
+        File file=chooser.getSelectedFile();
+        QueryExecutor.submit(this,"export "+table,()->{
+            Connection c=javaconnect.getPool().lease();
+            try{
+                return new BulkExporter(c).export(table,new BufferedWriter(
+                        new OutputStreamWriter(new FileOutputStream(file),StandardCharsets.UTF_8),CsvReader.BUFFER));
+            }finally{
+                javaconnect.release(c);
+            }
+        },result->JOptionPane.showMessageDialog(null,result),e->JOptionPane.showMessageDialog(null,e));
+    }//GEN-LAST:event_jMenuItem2ActionPerformed
+
+    private void jMenuItem3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem3ActionPerformed
+        // TODO add your handling code here:
+        PdfReport report=(PdfReport)JOptionPane.showInputDialog(this,"Which report?","PDF Report",
+                JOptionPane.QUESTION_MESSAGE,null,new PdfReport[]{PdfReport.EMPLOYEES,PdfReport.WORKS},PdfReport.EMPLOYEES);
+        if(report==null)
+        {
+            return;
+        }
+        JFileChooser chooser=new JFileChooser();
+        chooser.setSelectedFile(new File("report.pdf"));
+        if(chooser.showSaveDialog(this)!=JFileChooser.APPROVE_OPTION)
+        {
+            return;
+        }
+        File file=chooser.getSelectedFile();
+        QueryExecutor.submit(this,"report "+report.getTitle(),()->{
+            Connection c=javaconnect.getPool().lease();
+            try{
+                return report.write(c,new BufferedOutputStream(new FileOutputStream(file)));
+            }finally{
+                javaconnect.release(c);
+            }
+        },rows->JOptionPane.showMessageDialog(null,"Report of "+rows+" rows saved to "+file),
+                e->JOptionPane.showMessageDialog(null,e));
+    }//GEN-LAST:event_jMenuItem3ActionPerformed
+
+    private void jMenuItem4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jMenuItem4ActionPerformed
+        // TODO add your handling code here:
+        Navigator.show(Dashboard.class);
+    }//GEN-LAST:event_jMenuItem4ActionPerformed
+
+    private CsvTable chooseTable(String action)
+    {
+        return (CsvTable)JOptionPane.showInputDialog(this,action+" which table?",action+" CSV",
+                JOptionPane.QUESTION_MESSAGE,null,CsvTable.values(),CsvTable.EMP_INFO);
+    }
+
+    private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
+        // TODO add your handling code here:
+        String id=jTextField1.getText();
+        String name=jTextField2.getText();
+        String surname=jTextField3.getText();
+        String age=jTextField8.getText();
+        String gender=jTextField10.getText();
+        String department=jTextField4.getText();
+        String designation=jTextField5.getText();
+        String salary=jTextField6.getText();
+        QueryExecutor.submit(this,"insert Emp_info",()->employees.insert(Repository.toLong(id),name,surname,
+                Repository.toInteger(age),gender,department,designation,Repository.toDouble(salary)),
+                r->JOptionPane.showMessageDialog(null,"Data Saved"));
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
@@ -602,45 +723,24 @@ public void CurrentDate()
         int p=JOptionPane.showConfirmDialog(null,"Are You Sure?","Delete",JOptionPane.YES_NO_OPTION);
         if(p==0)
         {
-            String sql="delete from Emp_info where Employee_id=?";
-            try{
-                pst=conn.prepareStatement(sql);
-                pst.setString(1, jTextField1.getText());
-                pst.execute();
-                
-                JOptionPane.showMessageDialog(null, "Deleted");
-            }catch(Exception e)
-            {
-                JOptionPane.showMessageDialog(null, e);
-                
-            }
-        }Update();
+            String key=jTextField1.getText();
+            QueryExecutor.submit(this,"delete Emp_info",()->employees.delete(Repository.toLong(key)),
+                    r->JOptionPane.showMessageDialog(null, "Deleted"));
+        }
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
-        try{
-            String val1=jTextField1.getText();
-            String val2=jTextField2.getText();
-            String val3=jTextField3.getText();
-            String val4=jTextField4.getText();
-            String val5=jTextField5.getText();
-            String val6=jTextField6.getText();
-            String val7=jTextField8.getText();
-            String val8=jTextField10.getText();
-            
-           
-            String sql="update Emp_info set Name='"+val2+"',Surname='"+val3+"',Department='"+val4+"',Designation='"+val5+"',Salary='"+val6+"',Age='"+val7+"',Gender='"+val8+"' where Employee_id='"+val1+"'";
-            pst=conn.prepareStatement(sql);
-            pst.execute();
-             JOptionPane.showMessageDialog(null, "Data Updated");
-            
-            
-            
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
+        String val3=jTextField3.getText();
+        String val4=jTextField4.getText();
+        String val5=jTextField5.getText();
+        String val6=jTextField6.getText();
+        String val7=jTextField8.getText();
+        String val8=jTextField10.getText();
+        QueryExecutor.submit(this,"update Emp_info",()->employees.update(val1,val2,val3,val4,val5,Repository.toDouble(val6),Repository.toInteger(val7),val8),
+                r->JOptionPane.showMessageDialog(null, "Data Updated"));
         
     }//GEN-LAST:event_jButton3ActionPerformed
 
@@ -661,21 +761,8 @@ public void CurrentDate()
 
     private void jButton7ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton7ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="select count(Age) from Emp_info";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            if(rs.next())
-            {
-                String sum=rs.getString("count(Age)");
-                jTextField7.setText(sum);
-                
-             
-            }
-        }catch(Exception e)
-        {
-              JOptionPane.showMessageDialog(null ,e);
-        }
+        QueryExecutor.submit(this,"read Dept_stats",()->stats.total(),
+                s->jTextField7.setText(String.valueOf(s.getHeadcount())));
     }//GEN-LAST:event_jButton7ActionPerformed
 
     private void jButton6ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton6ActionPerformed
@@ -752,79 +839,29 @@ public void CurrentDate()
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
-        LookAround ob=new LookAround();
-        ob.setVisible(true);
+        Navigator.show(LookAround.class);
     }//GEN-LAST:event_jButton5ActionPerformed
 
     private void jButton9ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton9ActionPerformed
         // TODO add your handling code here:
         
-         try{
-           String sql="select * from Emp_info where Employee_id=?"; 
-        //   String sql1="select * from Emp_info where Name=?"; 
-           pst=conn.prepareStatement(sql);
-         //   pst=conn.prepareStatement(sql1);
-           pst.setString(1, jTextField9.getText());
-           rs=pst.executeQuery();
-           if(rs.next())
-           {
-               String add1=rs.getString("Employee_id");
-               jTextField1.setText(add1);
-               
-               String add2=rs.getString("Name");
-               jTextField2.setText(add2);
-               
-               String add3=rs.getString("Surname");
-               jTextField3.setText(add3);
-               
-               String add4=rs.getString("Department");
-               jTextField4.setText(add4);
-               
-               String add5=rs.getString("Designation");
-               jTextField5.setText(add5);
-               
-               String add6=rs.getString("Salary");
-               jTextField6.setText(add6);
-               
-               String add7=rs.getString("Age");
-               jTextField8.setText(add7);
-               
-               String add8=rs.getString("Gender");
-               jTextField10.setText(add8);
+         String key=jTextField9.getText();
+         QueryExecutor.submit(this,"find Emp_info",()->employees.findById(key),emp->{
+             if(emp!=null)
+             {
+                 showEmployee(emp);
+             }
+             else{
                
-              
-          
-           }
-           else{
-               
-              JOptionPane.showMessageDialog(null,"Invalid Input");
-           }
-        
-        }
-        catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null,e);
-            
-        }
+                JOptionPane.showMessageDialog(null,"Invalid Input");
+             }
+         });
     }//GEN-LAST:event_jButton9ActionPerformed
 
     private void jButton10ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton10ActionPerformed
         // TODO add your handling code here:
-       try{
-            String sql="select sum(Salary) from Emp_info";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            if(rs.next())
-            {
-                String sum=rs.getString("sum(Salary)");
-                jTextField11.setText(sum);
-                
-             
-            }
-        }catch(Exception e)
-        {
-              JOptionPane.showMessageDialog(null ,e);
-        }
+        QueryExecutor.submit(this,"read Dept_stats",()->stats.total(),
+                s->jTextField11.setText(Repository.text(s.getSalarySum())));
     }//GEN-LAST:event_jButton10ActionPerformed
 
     /**
@@ -899,6 +936,10 @@ public void CurrentDate()
     private javax.swing.JMenu jMenu4;
     private javax.swing.JMenu jMenu5;
     private javax.swing.JMenuBar jMenuBar1;
+    private javax.swing.JMenuItem jMenuItem1;
+    private javax.swing.JMenuItem jMenuItem2;
+    private javax.swing.JMenuItem jMenuItem3;
+    private javax.swing.JMenuItem jMenuItem4;
     private javax.swing.JPanel jPanel1;
     private javax.swing.JPanel jPanel2;
     private javax.swing.JPanel jPanel3;
@@ -12,7 +12,7 @@ import java.sql.*;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-public class HrLogin extends javax.swing.JFrame {
+public class HrLogin extends javax.swing.JFrame implements Navigator.Refreshable {
 
     Connection conn;
     ResultSet rs;
@@ -23,7 +23,15 @@ public class HrLogin extends javax.swing.JFrame {
     public HrLogin() {
         super("Manager Login");
         initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
+    }
+
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField1.setText("");
     }
 
     /**
@@ -149,38 +157,16 @@ public class HrLogin extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
 
-        String sql="select * from Emp_info where Username=? and Password=? and Designation='Manager'";
-        try {
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField2.getText());
-            pst.setString(2, jPasswordField1.getText());
-
-            rs=pst.executeQuery();
-
-            if(rs.next()){
-                setVisible(false);
-
-                Home2 ob=new Home2();
-                ob.setVisible(true);
-                rs.close();
-                pst.close();
+        String username=jTextField2.getText();
+        char[] password=jPasswordField1.getPassword();
+        QueryExecutor.submit(this,"login",()->AuthService.authenticate(conn,username,password),session->{
+            if(session!=null && session.isDesignation("Manager")){
+                Navigator.switchTo(this,Home2.class);
             }
             else{
                 JOptionPane.showMessageDialog(null, "Invalid Username or Password!");
             }
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }
-        finally{
-            try{
-                rs.close();
-                pst.close();
-            }catch(Exception e)
-            {
-
-            }
-        }
+        });
     }//GEN-LAST:event_jButton1ActionPerformed
 
     /**
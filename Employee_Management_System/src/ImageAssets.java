@@ -0,0 +1,193 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * The forms' images, loaded from the images folder on the classpath.
+ * Each image is decoded once and converted to the screen's native pixel
+ * format, so painting it is a plain copy; every form showing it shares
+ * the same icon. Icons are held through soft references, so large
+ * backgrounds not on screen can be reclaimed when memory runs low and
+ * are decoded again on next use.
+ *
+ * Animated GIFs are left to the toolkit so they keep animating.
+ *
+ * @author prateek
+ */
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.lang.ref.SoftReference;
+import java.net.URL;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.imageio.ImageIO;
+import javax.swing.ImageIcon;
+public final class ImageAssets {
+
+    static final String FOLDER="/images/";
+
+    private static final Logger LOG=Logger.getLogger(ImageAssets.class.getName());
+
+    private static final Map<String,SoftReference<ImageIcon>> CACHE=new HashMap<String,SoftReference<ImageIcon>>();
+    /** One lock per key, so an image is decoded once while others load in parallel. */
+    private static final Map<String,Object> LOCKS=new HashMap<String,Object>();
+
+    private static final AtomicLong HITS=new AtomicLong();
+    private static final AtomicLong DECODES=new AtomicLong();
+
+    private ImageAssets()
+    {
+    }
+
+    /**
+     * @param name file name in the images folder, e.g. "home.jpg"
+     * @return the image at its own size; an empty icon if it is missing
+     */
+    public static ImageIcon icon(String name)
+    {
+        return icon(name,-1,-1);
+    }
+
+    /**
+     * @return the image scaled to the given size, which is done once and
+     *         cached like the image itself
+     */
+    public static ImageIcon icon(String name,int width,int height)
+    {
+        String key=width<0 ? name : name+"@"+width+"x"+height;
+        Object lock;
+        synchronized(LOCKS)
+        {
+            lock=LOCKS.get(key);
+            if(lock==null)
+            {
+                lock=new Object();
+                LOCKS.put(key,lock);
+            }
+        }
+        synchronized(lock)
+        {
+            ImageIcon icon=cached(key);
+            if(icon!=null)
+            {
+                HITS.incrementAndGet();
+                return icon;
+            }
+            icon=load(name,width,height);
+            synchronized(CACHE)
+            {
+                CACHE.put(key,new SoftReference<ImageIcon>(icon));
+            }
+            return icon;
+        }
+    }
+
+    private static ImageIcon cached(String key)
+    {
+        synchronized(CACHE)
+        {
+            SoftReference<ImageIcon> ref=CACHE.get(key);
+            ImageIcon icon=ref==null ? null : ref.get();
+            if(ref!=null && icon==null)
+            {
+                CACHE.remove(key);
+            }
+            return icon;
+        }
+    }
+
+    private static ImageIcon load(String name,int width,int height)
+    {
+        URL url=ImageAssets.class.getResource(FOLDER+name);
+        if(url==null)
+        {
+            LOG.log(Level.WARNING,"Image {0} not found",name);
+            return new ImageIcon();
+        }
+        DECODES.incrementAndGet();
+        if(name.toLowerCase().endsWith(".gif"))
+        {
+            ImageIcon icon=new ImageIcon(url);
+            if(width>=0)
+            {
+                icon=new ImageIcon(icon.getImage().getScaledInstance(width,height,java.awt.Image.SCALE_DEFAULT));
+            }
+            return icon;
+        }
+        try{
+            BufferedImage image=ImageIO.read(url);
+            if(image==null)
+            {
+                LOG.log(Level.WARNING,"Image {0} has an unknown format",name);
+                return new ImageIcon(url);
+            }
+            return new ImageIcon(compatible(image,width<0 ? image.getWidth() : width,height<0 ? image.getHeight() : height));
+        }catch(IOException e)
+        {
+            LOG.log(Level.WARNING,"Could not read image "+name,e);
+            return new ImageIcon();
+        }
+    }
+
+    /**
+     * Copies an image into the screen's pixel format at the given size.
+     */
+    private static BufferedImage compatible(BufferedImage image,int width,int height)
+    {
+        boolean sameSize=width==image.getWidth() && height==image.getHeight();
+        int transparency=image.getTransparency()==Transparency.OPAQUE ? Transparency.OPAQUE : Transparency.TRANSLUCENT;
+        BufferedImage copy;
+        if(GraphicsEnvironment.isHeadless())
+        {
+            if(sameSize)
+            {
+                return image;
+            }
+            copy=new BufferedImage(width,height,transparency==Transparency.OPAQUE
+                    ? BufferedImage.TYPE_INT_RGB : BufferedImage.TYPE_INT_ARGB);
+        }
+        else
+        {
+            GraphicsConfiguration gc=GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+            if(sameSize && image.getColorModel().equals(gc.getColorModel(image.getTransparency())))
+            {
+                return image;
+            }
+            copy=gc.createCompatibleImage(width,height,transparency);
+        }
+        Graphics2D g=copy.createGraphics();
+        try{
+            if(!sameSize)
+            {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION,RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING,RenderingHints.VALUE_RENDER_QUALITY);
+            }
+            g.drawImage(image,0,0,width,height,null);
+        }finally{
+            g.dispose();
+        }
+        return copy;
+    }
+
+    /** Icons served from the cache. */
+    public static long getHits()
+    {
+        return HITS.get();
+    }
+
+    /** Images read from the classpath. */
+    public static long getDecodes()
+    {
+        return DECODES.get();
+    }
+}
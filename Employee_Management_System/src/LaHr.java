@@ -98,7 +98,7 @@ public class LaHr extends javax.swing.JFrame {
         });
         getContentPane().add(jButton3, new org.netbeans.lib.awtextra.AbsoluteConstraints(10, 20, 70, -1));
 
-        jLabel5.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/adobe-office.jpg")); // NOI18N
+        jLabel5.setIcon(ImageAssets.icon("adobe-office.jpg")); // NOI18N
         getContentPane().add(jLabel5, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1070, 580));
 
         pack();
@@ -107,8 +107,7 @@ public class LaHr extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  HrDepartment().setVisible(true);
+            Navigator.switchTo(this,HrDepartment.class);
             // exit(0);
 
         }finally{
@@ -127,8 +126,7 @@ public class LaHr extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  HrProject().setVisible(true);
+            Navigator.switchTo(this,HrProject.class);
             // exit(0);
 
         }finally{
@@ -147,8 +145,7 @@ public class LaHr extends javax.swing.JFrame {
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  HrWork().setVisible(true);
+            Navigator.switchTo(this,HrWork.class);
             // exit(0);
 
         }finally{
@@ -167,7 +164,7 @@ public class LaHr extends javax.swing.JFrame {
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
+            Navigator.retain(this);
             // new MasterLog().setVisible(true);
             // exit(0);
 
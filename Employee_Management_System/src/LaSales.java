@@ -98,7 +98,7 @@ public class LaSales extends javax.swing.JFrame {
         });
         getContentPane().add(jButton3, new org.netbeans.lib.awtextra.AbsoluteConstraints(10, 20, 90, -1));
 
-        jLabel4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/adobe-office.jpg")); // NOI18N
+        jLabel4.setIcon(ImageAssets.icon("adobe-office.jpg")); // NOI18N
         getContentPane().add(jLabel4, new org.netbeans.lib.awtextra.AbsoluteConstraints(-1, 0, 1040, 600));
 
         pack();
@@ -107,8 +107,7 @@ public class LaSales extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
           try{
-            dispose();
-            new  SalesDepartment().setVisible(true);
+            Navigator.switchTo(this,SalesDepartment.class);
             // exit(0);
 
         }finally{
@@ -127,8 +126,7 @@ public class LaSales extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  SalesProject().setVisible(true);
+            Navigator.switchTo(this,SalesProject.class);
             // exit(0);
 
         }finally{
@@ -147,8 +145,7 @@ public class LaSales extends javax.swing.JFrame {
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  SalesWork().setVisible(true);
+            Navigator.switchTo(this,SalesWork.class);
             // exit(0);
 
         }finally{
@@ -167,7 +164,7 @@ public class LaSales extends javax.swing.JFrame {
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
+            Navigator.retain(this);
             // new MasterLog().setVisible(true);
             // exit(0);
 
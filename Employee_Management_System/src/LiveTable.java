@@ -0,0 +1,178 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Keeps a form's JTable of query results in step with ChangeBus. The
+ * table shows the rows of one database table that pass a filter, loaded
+ * through QueryExecutor by a query whose first column is the row key.
+ * Change events are applied to the loaded model from their row images:
+ * a row is updated in place, added when its after image passes the
+ * filter and removed when it is deleted or no longer passes. Only a RESET
+ * reloads the query.
+ *
+ * Events that arrive while a load is running are kept and applied to its
+ * result; applying one twice changes nothing, so it does not matter
+ * whether the query already saw the write.
+ *
+ * @author prateek
+ */
+import java.awt.Component;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.function.Predicate;
+import javax.swing.JOptionPane;
+import javax.swing.JTable;
+import javax.swing.table.DefaultTableModel;
+import javax.swing.table.TableModel;
+
+public final class LiveTable<R extends LiveTable.Row> implements ChangeBus.Listener {
+
+    /**
+     * A row image that gives its columns by the labels of the query.
+     */
+    public interface Row {
+
+        /** The column's value, or null if the row has no such column. */
+        Object getColumn(String label);
+    }
+
+    private final Component form;
+    private final JTable view;
+    private final Connection conn;
+    private final String table;
+    private final String sql;
+    private final Predicate<? super R> filter;
+    private final List<ChangeEvent> missed=new ArrayList<ChangeEvent>();
+    private long loads;
+    private boolean loading;
+
+    private LiveTable(Component form,JTable view,Connection conn,String table,String sql,Predicate<? super R> filter)
+    {
+        this.form=form;
+        this.view=view;
+        this.conn=conn;
+        this.table=table;
+        this.sql=sql;
+        this.filter=filter;
+    }
+
+    /**
+     * Loads the query into the form's table and follows the changes to
+     * the database table while the form is showing. Call on the EDT.
+     *
+     * @param table the ChangeBus table the query reads
+     * @param sql the query, with the table's key as its first column
+     * @param filter the rows the query selects; null for all of them
+     */
+    public static <R extends Row> LiveTable<R> follow(Component form,JTable view,Connection conn,String table,String sql,
+            Predicate<? super R> filter)
+    {
+        LiveTable<R> live=new LiveTable<R>(form,view,conn,table,sql,filter);
+        live.reload();
+        ChangeBus.follow(form,live,table);
+        return live;
+    }
+
+    /**
+     * Reads the query again. A result of an earlier load still running is
+     * dropped.
+     */
+    public void reload()
+    {
+        final long load=++loads;
+        loading=true;
+        QueryExecutor.submit(form,"load "+table,()->Repository.tableModel(conn,sql),model->
+        {
+            if(load==loads)
+            {
+                loading=false;
+                view.setModel(model);
+                List<ChangeEvent> events=new ArrayList<ChangeEvent>(missed);
+                missed.clear();
+                changed(events);
+            }
+        },e->
+        {
+            if(load==loads)
+            {
+                loading=false;
+                missed.clear();
+                JOptionPane.showMessageDialog(null,e);
+            }
+        });
+    }
+
+    public void changed(List<ChangeEvent> events)
+    {
+        for(ChangeEvent e:events)
+        {
+            if(e.isReset())
+            {
+                missed.clear();
+                reload();
+                return;
+            }
+        }
+        TableModel model=view.getModel();
+        if(loading || !(model instanceof DefaultTableModel))
+        {
+            missed.addAll(events);
+            return;
+        }
+        for(ChangeEvent e:events)
+        {
+            apply((DefaultTableModel)model,e);
+        }
+    }
+
+    private void apply(DefaultTableModel model,ChangeEvent e)
+    {
+        @SuppressWarnings("unchecked")
+        R after=(R)e.getAfter();
+        int row=indexOf(model,e.getKey());
+        if(after==null || (filter!=null && !filter.test(after)))
+        {
+            if(row>=0)
+            {
+                model.removeRow(row);
+            }
+            return;
+        }
+        int columns=model.getColumnCount();
+        if(row<0)
+        {
+            Object[] values=new Object[columns];
+            for(int c=0;c<columns;c++)
+            {
+                values[c]=after.getColumn(model.getColumnName(c));
+            }
+            model.addRow(values);
+            return;
+        }
+        for(int c=0;c<columns;c++)
+        {
+            Object value=after.getColumn(model.getColumnName(c));
+            if(!Objects.equals(ChangeBus.key(value),ChangeBus.key(model.getValueAt(row,c))))
+            {
+                model.setValueAt(value,row,c);
+            }
+        }
+    }
+
+    private static int indexOf(DefaultTableModel model,Object key)
+    {
+        for(int i=0;i<model.getRowCount();i++)
+        {
+            if(Objects.equals(key,ChangeBus.key(model.getValueAt(i,0))))
+            {
+                return i;
+            }
+        }
+        return -1;
+    }
+}
@@ -5,18 +5,53 @@
  */
 
 /**
+ * Splash shown after the administrator logs in. Instead of counting down
+ * a fixed delay it warms up what Home needs, in parallel: the connection
+ * pool (which also runs the schema migrations), the employee count and
+ * first page, the department figures, and Home's images, which
+ * ImageAssets then serves already decoded. The bar advances as each piece finishes
+ * and Home opens as soon as the last one has.
  *
  * @author prateek
  */
 import java.sql.*;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
 public class Loading extends javax.swing.JFrame implements Runnable {
     Connection conn;
     ResultSet rs;
     PreparedStatement pst;
     int s=0;
     Thread th;
-    
+
+    static final int WARMUP_THREADS=4;
+
+    /** Images shown by Home, by ImageAssets name. */
+    static final String[] HOME_IMAGES={
+        "home.jpg",
+        "index.png",
+        "sve.png",
+        "dele.png",
+        "upd.png",
+        "clr.png",
+        "prn.png"
+    };
+
+    private static final Logger LOG=Logger.getLogger(Loading.class.getName());
+
+    private volatile int employeeCount=-1;
+    private volatile List<EmployeeRecord> firstPage;
 
     /**
      * Creates new form Loading
@@ -24,7 +59,8 @@ public class Loading extends javax.swing.JFrame implements Runnable {
     public Loading() {
         super("Redirecting");
         initComponents();
-            th=new Thread((Runnable)this);
+            th=new Thread((Runnable)this,"warm-up");
+            th.setDaemon(true);
     }
 
     public void setUpLoading() {
@@ -34,28 +70,113 @@ public class Loading extends javax.swing.JFrame implements Runnable {
     
     public void run()
     {
-        try{
-           for(int i=0;i<=200;i++){
-               s=s+1;
-               int m=jProgressBar1.getMaximum();
-               int v=jProgressBar1.getValue();
-               if(v<m){
-                   jProgressBar1.setValue(jProgressBar1.getValue()+1);
-               }
-               else
-               {
-                   i=201;
-                   setVisible(false);
-                   Home ob=new Home();
-                   ob.setVisible(true);
-               }
-               Thread.sleep(50);
-           } 
+        long start=System.nanoTime();
+        List<Callable<String>> steps=new ArrayList<Callable<String>>();
+        steps.add(new Callable<String>()
+        {
+            public String call() throws Exception
+            {
+                Connection c=javaconnect.getPool().lease();
+                javaconnect.release(c);
+                return "connection";
+            }
+        });
+        steps.add(new Callable<String>()
+        {
+            public String call() throws Exception
+            {
+                Connection c=javaconnect.getPool().lease();
+                try{
+                    EmployeeRepository employees=new EmployeeRepository(c);
+                    firstPage=employees.findPageAfter(null,Long.MIN_VALUE,PagedEmployeeTableModel.DEFAULT_PAGE_SIZE);
+                    employeeCount=employees.count(null);
+                }finally{
+                    javaconnect.release(c);
+                }
+                return "employees";
+            }
+        });
+        steps.add(new Callable<String>()
+        {
+            public String call() throws Exception
+            {
+                Connection c=javaconnect.getPool().lease();
+                try{
+                    new DepartmentStatsRepository(c).total();
+                }finally{
+                    javaconnect.release(c);
+                }
+                return "department figures";
+            }
+        });
+        for(final String image:HOME_IMAGES)
+        {
+            steps.add(new Callable<String>()
+            {
+                public String call()
+                {
+                    ImageAssets.icon(image);
+                    return image;
+                }
+            });
         }
-        catch(Exception e)
+
+        ExecutorService workers=Executors.newFixedThreadPool(WARMUP_THREADS);
+        try{
+            CompletionService<String> done=new ExecutorCompletionService<String>(workers);
+            for(Callable<String> step:steps)
+            {
+                done.submit(step);
+            }
+            for(int i=1;i<=steps.size();i++)
+            {
+                Future<String> step=done.take();
+                try{
+                    LOG.log(Level.FINE,"Warmed up {0}",step.get());
+                }catch(ExecutionException e)
+                {
+                    // Home reports database problems itself when it opens.
+                    LOG.log(Level.WARNING,"Warm-up step failed",e.getCause());
+                }
+                progress(i,steps.size());
+            }
+        }catch(InterruptedException e)
         {
-            JOptionPane.showMessageDialog(null, e);
+            Thread.currentThread().interrupt();
+        }finally{
+            workers.shutdownNow();
         }
+        LOG.log(Level.INFO,"Warm-up finished in {0} ms",(System.nanoTime()-start)/1000000);
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            public void run()
+            {
+                try{
+                    Home ob=Navigator.show(Home.class);
+                    if(employeeCount>=0 && firstPage!=null)
+                    {
+                        ob.model.preload(employeeCount,firstPage);
+                    }
+                    dispose();
+                }catch(Exception e)
+                {
+                    JOptionPane.showMessageDialog(null, e);
+                }
+            }
+        });
+    }
+
+    private void progress(final int done,final int total)
+    {
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            public void run()
+            {
+                s=done;
+                jProgressBar1.setValue(jProgressBar1.getMinimum()
+                        +(jProgressBar1.getMaximum()-jProgressBar1.getMinimum())*done/total);
+            }
+        });
     }
     /**
      * This method is called from within the constructor to initialize the form.
@@ -84,9 +205,9 @@ public class Loading extends javax.swing.JFrame implements Runnable {
         jProgressBar1.setForeground(new java.awt.Color(21, 66, 218));
         jProgressBar1.setStringPainted(true);
 
-        jLabel3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/loading.gif")); // NOI18N
+        jLabel3.setIcon(ImageAssets.icon("loading.gif")); // NOI18N
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
 
         javax.swing.GroupLayout jPanel2Layout = new javax.swing.GroupLayout(jPanel2);
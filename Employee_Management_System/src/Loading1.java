@@ -45,9 +45,7 @@ public class Loading1 extends javax.swing.JFrame implements Runnable{
                else
                {
                    i=201;
-                   setVisible(false);
-                   Project ob=new Project();
-                   ob.setVisible(true);
+                   Navigator.switchTo(this,Project.class);
                }
                Thread.sleep(50);
            } 
@@ -85,9 +83,9 @@ public class Loading1 extends javax.swing.JFrame implements Runnable{
         jProgressBar1.setForeground(new java.awt.Color(21, 66, 218));
         jProgressBar1.setStringPainted(true);
 
-        jLabel3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/loading.gif")); // NOI18N
+        jLabel3.setIcon(ImageAssets.icon("loading.gif")); // NOI18N
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
 
         javax.swing.GroupLayout jPanel2Layout = new javax.swing.GroupLayout(jPanel2);
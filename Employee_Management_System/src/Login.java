@@ -12,7 +12,7 @@ import java.sql.*;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-public class Login extends JFrame {
+public class Login extends JFrame implements Navigator.Refreshable {
     
     Connection conn;
     ResultSet rs;
@@ -24,7 +24,7 @@ public class Login extends JFrame {
     public Login() {
         super("Admin Login");
         initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
     }
    /* public Login(){
         
@@ -40,6 +40,14 @@ public class Login extends JFrame {
 
   
    
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField1.setText("");
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -153,7 +161,7 @@ public class Login extends JFrame {
 
         getContentPane().add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(370, 230, 410, 250));
 
-        jLabel6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/Login-Background.jpg")); // NOI18N
+        jLabel6.setIcon(ImageAssets.icon("Login-Background.jpg")); // NOI18N
         getContentPane().add(jLabel6, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1500, 1070));
 
         setSize(new java.awt.Dimension(1516, 1100));
@@ -163,37 +171,19 @@ public class Login extends JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
         
-        String sql="select * from Emp_info where Username=? and Password=? and Designation='Administrator'";
-        try {
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jPasswordField1.getText());
-            rs=pst.executeQuery();
-            if(rs.next()){
-                setVisible(false);
+        String username=jTextField1.getText();
+        char[] password=jPasswordField1.getPassword();
+        QueryExecutor.submit(this,"login",()->AuthService.authenticate(conn,username,password),session->{
+            if(session!=null && session.isDesignation("Administrator")){
+                Navigator.retain(this);
                 Loading ob=new Loading();
                 ob.setUpLoading();
                 ob.setVisible(true);
-                rs.close();
-                pst.close();
-               }
+            }
             else{
                 JOptionPane.showMessageDialog(null, "Invalid Username or Password!");
-                
-            }
-        }catch(Exception e)
-        {
-           JOptionPane.showMessageDialog(null, e);
-        }
-        finally{
-            try{
-                rs.close();
-                pst.close();
-            }catch(Exception e)
-            {
-                
             }
-        }
+        });
         
     }//GEN-LAST:event_jButton1ActionPerformed
 
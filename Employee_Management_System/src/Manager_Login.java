@@ -10,7 +10,7 @@ import java.sql.*;
 import javax.swing.JFrame;
 import javax.swing.JOptionPane;
 import javax.swing.UIManager;
-public class Manager_Login extends JFrame {
+public class Manager_Login extends JFrame implements Navigator.Refreshable {
     
     Connection conn;
     ResultSet rs;
@@ -28,7 +28,7 @@ public class Manager_Login extends JFrame {
     public Manager_Login() {
         super("Manager Login");
         initComponents();
-        conn=javaconnect.ConnecrDb();
+        conn=javaconnect.ConnecrDb(this);
     }
 
     private Manager_Login(JFrame jFrame, boolean b) {
@@ -37,6 +37,14 @@ public class Manager_Login extends JFrame {
 
  
 
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField1.setText("");
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -141,7 +149,7 @@ public class Manager_Login extends JFrame {
 
         jPanel2.add(jPanel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(355, 162, 410, 280));
 
-        jLabel6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/manager.png")); // NOI18N
+        jLabel6.setIcon(ImageAssets.icon("manager.png")); // NOI18N
         jPanel2.add(jLabel6, new org.netbeans.lib.awtextra.AbsoluteConstraints(-180, 10, 1420, 690));
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
@@ -166,40 +174,16 @@ public class Manager_Login extends JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
 
-        String sql="select * from Emp_info where Username=? and Password=? and Designation='Manager'";
-        try {
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField2.getText());
-            pst.setString(2, jPasswordField1.getText());
-          
-            
-            
-            rs=pst.executeQuery();
-            
-            if(rs.next()){
-                setVisible(false);
-               
-                Home1 ob=new Home1();
-                ob.setVisible(true);
-                rs.close();
-                pst.close();
+        String username=jTextField2.getText();
+        char[] password=jPasswordField1.getPassword();
+        QueryExecutor.submit(this,"login",()->AuthService.authenticate(conn,username,password),session->{
+            if(session!=null && session.isDesignation("Manager")){
+                Navigator.switchTo(this,Home1.class);
             }
             else{
                 JOptionPane.showMessageDialog(null, "Invalid Username or Password!");
             }
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }
-        finally{
-            try{
-                rs.close();
-                pst.close();
-            }catch(Exception e)
-            {
-
-            }
-        }
+        });
     }//GEN-LAST:event_jButton1ActionPerformed
 
     /**
@@ -125,7 +125,7 @@ public class Manager_dept extends javax.swing.JFrame {
                 .addContainerGap())
         );
 
-        jLabel3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel3.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel3.setText("jLabel1");
 
         jButton3.setText("Exit");
@@ -195,8 +195,7 @@ public class Manager_dept extends javax.swing.JFrame {
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new Manager_Login().setVisible(true);
+            Navigator.switchTo(this,Manager_Login.class);
             // exit(0);
 
         }finally{
@@ -216,8 +215,7 @@ public class Manager_dept extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new accLog().setVisible(true);
+            Navigator.switchTo(this,accLog.class);
             // exit(0);
 
         }finally{
@@ -236,8 +234,7 @@ public class Manager_dept extends javax.swing.JFrame {
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new HrLogin().setVisible(true);
+            Navigator.switchTo(this,HrLogin.class);
             // exit(0);
 
         }finally{
@@ -256,8 +253,7 @@ public class Manager_dept extends javax.swing.JFrame {
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
            try{
-            dispose();
-            new MarketLog().setVisible(true);
+            Navigator.switchTo(this,MarketLog.class);
             // exit(0);
 
         }finally{
@@ -276,8 +272,7 @@ public class Manager_dept extends javax.swing.JFrame {
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
           try{
-            dispose();
-            new MasterLog().setVisible(true);
+            Navigator.switchTo(this,MasterLog.class);
             // exit(0);
 
         }finally{
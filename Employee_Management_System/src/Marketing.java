@@ -28,40 +28,59 @@ public class Marketing extends javax.swing.JFrame {
 Connection conn;
     ResultSet rs;
     PreparedStatement pst;
+    EmployeeRepository employees;
+    DepartmentStatsRepository stats;
+    PagedEmployeeTableModel model;
     /**
      * Creates new form Marketing
      */
     public Marketing() {
         initComponents();
-          conn=javaconnect.ConnecrDb();
+          conn=javaconnect.ConnecrDb(this);
+          employees=new EmployeeRepository(conn);
+          stats=new DepartmentStatsRepository(conn);
+          model=new PagedEmployeeTableModel(this,employees,"Marketing");
+          jTable1.setModel(model);
+          SearchBox.install(jTextField11,employees,"Marketing",this::showEmployee);
        
               Update(); 
     }
      public void Update()
     {
-        try{
-           
-           
-            String sql="select Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary from Emp_info where Department='Marketing'";
-         
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
-            try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
-            }
-        }
+        model.refresh();
     }
 
 
+    /**
+     * Fills the detail fields with an employee found by the search.
+     */
+    private void showEmployee(EmployeeRecord emp)
+    {
+        String add1=Repository.text(emp.getEmployeeId());
+        jTextField1.setText(add1);
+
+        String add2=emp.getName();
+        jTextField2.setText(add2);
+
+        String add3=emp.getSurname();
+        jTextField3.setText(add3);
+
+        String add4=emp.getDepartment();
+        jTextField4.setText(add4);
+
+        String add5=emp.getDesignation();
+        jTextField5.setText(add5);
+
+        String add6=Repository.text(emp.getSalary());
+        jTextField6.setText(add6);
+
+        String add7=Repository.text(emp.getAge());
+        jTextField8.setText(add7);
+
+        String add8=emp.getGender();
+        jTextField10.setText(add8);
+    }
+
     /**
      * This method is called from within the constructor to initialize the form.
      * WARNING: Do NOT modify this code. The content of this method is always
@@ -119,7 +138,7 @@ Connection conn;
         setDefaultCloseOperation(javax.swing.WindowConstants.EXIT_ON_CLOSE);
         getContentPane().setLayout(new org.netbeans.lib.awtextra.AbsoluteLayout());
 
-        jLabel1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel1.setIcon(ImageAssets.icon("index.png")); // NOI18N
         jLabel1.setText("jLabel1");
         getContentPane().add(jLabel1, new org.netbeans.lib.awtextra.AbsoluteConstraints(12, 12, 266, 264));
 
@@ -254,7 +273,7 @@ Connection conn;
 
         jPanel2.setBorder(javax.swing.BorderFactory.createTitledBorder(javax.swing.BorderFactory.createLineBorder(new java.awt.Color(248, 19, 19)), "Operations", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Dialog", 0, 24), new java.awt.Color(251, 8, 8))); // NOI18N
 
-        jButton4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/clr.png")); // NOI18N
+        jButton4.setIcon(ImageAssets.icon("clr.png")); // NOI18N
         jButton4.setText("Clear");
         jButton4.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -262,7 +281,7 @@ Connection conn;
             }
         });
 
-        jButton3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/upd.png")); // NOI18N
+        jButton3.setIcon(ImageAssets.icon("upd.png")); // NOI18N
         jButton3.setText("Update");
         jButton3.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -270,7 +289,7 @@ Connection conn;
             }
         });
 
-        jButton2.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/dele.png")); // NOI18N
+        jButton2.setIcon(ImageAssets.icon("dele.png")); // NOI18N
         jButton2.setText("Delete");
         jButton2.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -278,7 +297,7 @@ Connection conn;
             }
         });
 
-        jButton1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/sve.png")); // NOI18N
+        jButton1.setIcon(ImageAssets.icon("sve.png")); // NOI18N
         jButton1.setText("Save");
         jButton1.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -401,7 +420,7 @@ Connection conn;
         });
         getContentPane().add(jButton8, new org.netbeans.lib.awtextra.AbsoluteConstraints(1139, 208, -1, -1));
 
-        jButton6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/prn.png")); // NOI18N
+        jButton6.setIcon(ImageAssets.icon("prn.png")); // NOI18N
         jButton6.setText("Print");
         jButton6.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -452,7 +471,7 @@ Connection conn;
         });
         getContentPane().add(jButton10, new org.netbeans.lib.awtextra.AbsoluteConstraints(1250, 710, -1, -1));
 
-        jLabel14.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/home.jpg")); // NOI18N
+        jLabel14.setIcon(ImageAssets.icon("home.jpg")); // NOI18N
         getContentPane().add(jLabel14, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1350, 820));
 
         pack();
@@ -472,25 +491,16 @@ Connection conn;
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
-        try{
-            String val1=jTextField1.getText();
-            String val2=jTextField2.getText();
-            String val3=jTextField3.getText();
-            String val4=jTextField4.getText();
-            String val5=jTextField5.getText();
-            String val6=jTextField6.getText();
-            String val7=jTextField8.getText();
-            String val8=jTextField10.getText();
-
-            String sql="update Emp_info set Name='"+val2+"',Surname='"+val3+"',Department='"+val4+"',Designation='"+val5+"',Salary='"+val6+"',Age='"+val7+"',Gender='"+val8+"' where Employee_id='"+val1+"'";
-            pst=conn.prepareStatement(sql);
-            pst.execute();
-            JOptionPane.showMessageDialog(null, "Data Updated");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
+        String val3=jTextField3.getText();
+        String val4=jTextField4.getText();
+        String val5=jTextField5.getText();
+        String val6=jTextField6.getText();
+        String val7=jTextField8.getText();
+        String val8=jTextField10.getText();
+        QueryExecutor.submit(this,"update Emp_info",()->employees.update(val1,val2,val3,val4,val5,Repository.toDouble(val6),Repository.toInteger(val7),val8),
+                r->JOptionPane.showMessageDialog(null, "Data Updated"));
     }//GEN-LAST:event_jButton3ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
@@ -499,43 +509,25 @@ Connection conn;
         int p=JOptionPane.showConfirmDialog(null,"Are You Sure?","Delete",JOptionPane.YES_NO_OPTION);
         if(p==0)
         {
-            String sql="delete from Emp_info where Employee_id=?";
-            try{
-                pst=conn.prepareStatement(sql);
-                pst.setString(1, jTextField1.getText());
-                pst.execute();
-
-                JOptionPane.showMessageDialog(null, "Deleted");
-            }catch(Exception e)
-            {
-                JOptionPane.showMessageDialog(null, e);
-
-            }
-        }Update();
+            String key=jTextField1.getText();
+            QueryExecutor.submit(this,"delete Emp_info",()->employees.delete(Repository.toLong(key)),
+                    r->JOptionPane.showMessageDialog(null, "Deleted"));
+        }
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="Insert into Emp_info(Employee_id,Name,Surname,Age,Gender,Department,Designation,Salary) values(?,?,?,?,?,?,?,?)";
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jTextField2.getText());
-            pst.setString(3, jTextField3.getText());
-
-            pst.setString(6, jTextField4.getText());
-            pst.setString(7, jTextField5.getText());
-            pst.setString(8, jTextField6.getText());
-            pst.setString(4, jTextField8.getText());
-            pst.setString(5, jTextField10.getText());
-
-            pst.execute();
-            JOptionPane.showMessageDialog(null,"Data Saved");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }Update();
+        String id=jTextField1.getText();
+        String name=jTextField2.getText();
+        String surname=jTextField3.getText();
+        String age=jTextField8.getText();
+        String gender=jTextField10.getText();
+        String department=jTextField4.getText();
+        String designation=jTextField5.getText();
+        String salary=jTextField6.getText();
+        QueryExecutor.submit(this,"insert Emp_info",()->employees.insert(Repository.toLong(id),name,surname,
+                Repository.toInteger(age),gender,department,designation,Repository.toDouble(salary)),
+                r->JOptionPane.showMessageDialog(null,"Data Saved"));
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jTable1MouseClicked(java.awt.event.MouseEvent evt) {//GEN-FIRST:event_jTable1MouseClicked
@@ -545,59 +537,24 @@ Connection conn;
     private void jButton9ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton9ActionPerformed
         // TODO add your handling code here:
 
-        try{
-            String sql="select * from Emp_info where Employee_id=? and Department='Marketing'";
-            //   String sql1="select * from Emp_info where Name=?";
-            pst=conn.prepareStatement(sql);
-            //   pst=conn.prepareStatement(sql1);
-            pst.setString(1, jTextField11.getText());
-            rs=pst.executeQuery();
-            if(rs.next())
+        String key=jTextField11.getText();
+        QueryExecutor.submit(this,"find Emp_info",()->employees.findById(key),emp->{
+            if(emp!=null && "Marketing".equals(emp.getDepartment()))
             {
-                String add1=rs.getString("Employee_id");
-                jTextField1.setText(add1);
-
-                String add2=rs.getString("Name");
-                jTextField2.setText(add2);
-
-                String add3=rs.getString("Surname");
-                jTextField3.setText(add3);
-
-                String add4=rs.getString("Department");
-                jTextField4.setText(add4);
-
-                String add5=rs.getString("Designation");
-                jTextField5.setText(add5);
-
-                String add6=rs.getString("Salary");
-                jTextField6.setText(add6);
-
-                String add7=rs.getString("Age");
-                jTextField8.setText(add7);
-
-                String add8=rs.getString("Gender");
-                jTextField10.setText(add8);
-
+                showEmployee(emp);
             }
             else{
 
                 JOptionPane.showMessageDialog(null,"Invalid Input");
             }
-
-        }
-        catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null,e);
-
-        }
+        });
     }//GEN-LAST:event_jButton9ActionPerformed
 
     private void jButton8ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton8ActionPerformed
 
         // TODO add your handling code here:
         try{
-            dispose();
-            new Manager_dept().setVisible(true);
+            Navigator.switchTo(this,Manager_dept.class);
 
         }finally{
             try{
@@ -624,44 +581,19 @@ Connection conn;
 
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
-        LaMarketing ob=new LaMarketing();
-        ob.setVisible(true);
+        Navigator.show(LaMarketing.class);
     }//GEN-LAST:event_jButton5ActionPerformed
 
     private void jButton7ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton7ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="select count(Age) from Emp_info where Department='Marketing'";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            if(rs.next())
-            {
-                String sum=rs.getString("count(Age)");
-                jTextField7.setText(sum);
-
-            }
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        QueryExecutor.submit(this,"read Dept_stats",()->stats.find("Marketing"),
+                s->jTextField7.setText(String.valueOf(s.getHeadcount())));
     }//GEN-LAST:event_jButton7ActionPerformed
 
     private void jButton10ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton10ActionPerformed
         // TODO add your handling code here:
-        try{
-            String sql="select sum(Salary) from Emp_info where Department='Marketing'";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            if(rs.next())
-            {
-                String sum=rs.getString("sum(Salary)");
-                jTextField12.setText(sum);
-
-            }
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        QueryExecutor.submit(this,"read Dept_stats",()->stats.find("Marketing"),
+                s->jTextField12.setText(Repository.text(s.getSalarySum())));
     }//GEN-LAST:event_jButton10ActionPerformed
 
     /**
@@ -139,7 +139,7 @@ public class MasterLog extends javax.swing.JFrame {
         jLabel13.setText("All Rights Reserved @2020");
         getContentPane().add(jLabel13, new org.netbeans.lib.awtextra.AbsoluteConstraints(820, 590, 200, -1));
 
-        jLabel3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/background-7.jpg")); // NOI18N
+        jLabel3.setIcon(ImageAssets.icon("background-7.jpg")); // NOI18N
         getContentPane().add(jLabel3, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1070, 610));
 
         pack();
@@ -149,8 +149,7 @@ public class MasterLog extends javax.swing.JFrame {
         // TODO add your handling code here:
          try{
             
-            new Login().setVisible(true);
-            dispose();
+            Navigator.switchTo(this,Login.class);
             // exit(0);
 
         }catch(UnsupportedOperationException uns){}
@@ -170,8 +169,7 @@ public class MasterLog extends javax.swing.JFrame {
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  Manager_dept().setVisible(true);
+            Navigator.switchTo(this,Manager_dept.class);
             // exit(0);
 
         }finally{
@@ -190,8 +188,7 @@ public class MasterLog extends javax.swing.JFrame {
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
          try{
-            dispose();
-            new  Emp().setVisible(true);
+            Navigator.switchTo(this,Emp.class);
             // exit(0);
 
         }finally{
@@ -98,21 +98,18 @@ public class MktEmp extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        EmpLog9 ob=new EmpLog9();
-        ob.setVisible(true);
+        Navigator.show(EmpLog9.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
-        EmpLog11 ob=new EmpLog11();
-        ob.setVisible(true);
+        Navigator.show(EmpLog11.class);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
-            new Emp().setVisible(true);
+            Navigator.switchTo(this,Emp.class);
             // exit(0);
 
         }finally{
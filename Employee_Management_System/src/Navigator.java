@@ -0,0 +1,240 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Moves between the forms. Rather than disposing a form and building the
+ * next one from scratch, forms that are left are hidden and kept, and
+ * showing one that is kept just makes it visible again after calling its
+ * refresh hook. Only the ui.cached_frames most recently used hidden forms
+ * are kept; older ones are disposed, which hands their database
+ * connection back to the pool and stops their queries and clock. As every
+ * kept form holds a connection, the forms kept, visible or not, never take
+ * more than half of pool.size, so a form being opened can still lease one.
+ *
+ * There is at most one instance of each form class. EDT only.
+ *
+ * @author prateek
+ */
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.lang.reflect.InvocationTargetException;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JFrame;
+public final class Navigator {
+
+    private static final Logger LOG=Logger.getLogger(Navigator.class.getName());
+
+    /** Forms by class, least recently shown first. */
+    private static final Map<Class<?>,JFrame> FRAMES=new LinkedHashMap<Class<?>,JFrame>(16,0.75f,true);
+
+    private static int maxCached=-1;
+    private static int maxKept=-1;
+    private static long reused;
+    private static long created;
+    private static long evicted;
+
+    private Navigator()
+    {
+    }
+
+    /**
+     * Implemented by forms whose contents may be stale when they are shown
+     * again, e.g. to reload their table or clear a password field.
+     */
+    public interface Refreshable {
+
+        void refresh();
+    }
+
+    /**
+     * Leaves a form for another one: hides the current form, keeping it
+     * for later, and shows the next.
+     */
+    public static <T extends JFrame> T switchTo(Window from,Class<T> type)
+    {
+        T next=show(type);
+        if(from!=next)
+        {
+            retain(from);
+        }
+        return next;
+    }
+
+    /**
+     * Shows the form of the given class, reusing the kept instance if
+     * there is one.
+     */
+    public static <T extends JFrame> T show(Class<T> type)
+    {
+        T frame=type.cast(FRAMES.get(type));
+        if(frame!=null)
+        {
+            reused++;
+            if(!frame.isVisible() && frame instanceof Refreshable)
+            {
+                ((Refreshable)frame).refresh();
+            }
+        }
+        else
+        {
+            // make room for the connection the new form leases
+            trim(1);
+            frame=create(type);
+            track(frame);
+        }
+        frame.setVisible(true);
+        frame.toFront();
+        trim();
+        return frame;
+    }
+
+    /**
+     * Hides a form, keeping it to be shown again.
+     */
+    public static void retain(Window window)
+    {
+        if(window instanceof JFrame)
+        {
+            JFrame frame=(JFrame)window;
+            JFrame kept=FRAMES.get(frame.getClass());
+            if(kept!=frame)
+            {
+                if(kept!=null)
+                {
+                    // a second instance built outside the navigator
+                    frame.dispose();
+                    return;
+                }
+                track(frame);
+            }
+            frame.setVisible(false);
+            trim();
+        }
+        else if(window!=null)
+        {
+            window.dispose();
+        }
+    }
+
+    private static <T extends JFrame> T create(Class<T> type)
+    {
+        created++;
+        try{
+            return type.getDeclaredConstructor().newInstance();
+        }catch(InvocationTargetException e)
+        {
+            throw new IllegalStateException("Cannot open "+type.getName(),e.getCause());
+        }catch(ReflectiveOperationException e)
+        {
+            throw new IllegalStateException("Cannot open "+type.getName(),e);
+        }
+    }
+
+    private static void track(final JFrame frame)
+    {
+        FRAMES.put(frame.getClass(),frame);
+        frame.addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                if(FRAMES.get(frame.getClass())==frame)
+                {
+                    FRAMES.remove(frame.getClass());
+                }
+                frame.removeWindowListener(this);
+            }
+        });
+    }
+
+    private static void trim()
+    {
+        trim(0);
+    }
+
+    /**
+     * Disposes the least recently used hidden forms beyond the limits.
+     *
+     * @param opening forms about to be created, which will be kept too
+     */
+    private static void trim(int opening)
+    {
+        int hidden=0;
+        for(JFrame f:FRAMES.values())
+        {
+            if(!f.isVisible())
+            {
+                hidden++;
+            }
+        }
+        int visible=FRAMES.size()-hidden+opening;
+        int limit=Math.min(getMaxCached(),Math.max(0,getMaxKept()-visible));
+        List<JFrame> drop=new ArrayList<JFrame>();
+        Iterator<JFrame> it=FRAMES.values().iterator();
+        while(hidden>limit && it.hasNext())
+        {
+            JFrame f=it.next();
+            if(!f.isVisible())
+            {
+                it.remove();
+                drop.add(f);
+                hidden--;
+            }
+        }
+        for(JFrame f:drop)
+        {
+            evicted++;
+            LOG.log(Level.FINE,"Disposing {0}",f.getClass().getName());
+            f.dispose();
+        }
+    }
+
+    private static int getMaxCached()
+    {
+        if(maxCached<0)
+        {
+            maxCached=javaconnect.getConfig().getCachedFrames();
+        }
+        return maxCached;
+    }
+
+    private static int getMaxKept()
+    {
+        if(maxKept<0)
+        {
+            maxKept=javaconnect.getConfig().getPoolSize()/2;
+        }
+        return maxKept;
+    }
+
+    /** Forms currently kept, visible or not. */
+    public static int getFrameCount()
+    {
+        return FRAMES.size();
+    }
+
+    public static long getReusedCount()
+    {
+        return reused;
+    }
+
+    public static long getCreatedCount()
+    {
+        return created;
+    }
+
+    public static long getEvictedCount()
+    {
+        return evicted;
+    }
+}
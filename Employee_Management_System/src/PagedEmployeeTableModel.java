@@ -0,0 +1,561 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Lazily loaded employee grid. Rows are fetched a page at a time, in
+ * Employee_id order, only when the table asks for them, and at most
+ * maxPages pages are kept (least recently used are dropped). A page
+ * following a known page is read by keyset (Employee_id greater than the
+ * last id seen), so scrolling never re-reads the rows before it.
+ *
+ * Opening a grid therefore costs one count and one page no matter how many
+ * employees there are. Afterwards the grid follows the Emp_info changes on
+ * ChangeBus, including those made in other forms, and applies them row by
+ * row; the before image tells whether a row that moved department leaves
+ * this grid. Changes made while the owner is hidden are applied when it is
+ * shown again, so it never needs reloading.
+ *
+ * The count and the pages are read through QueryExecutor, off the EDT;
+ * rows of a page still loading show as empty and are repainted when it
+ * arrives. If a read fails the error is shown once and nothing more is
+ * read until refresh() or the next change event.
+ *
+ * Must only be used on the Event Dispatch Thread.
+ *
+ * @author prateek
+ */
+import java.awt.Component;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Callable;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.table.AbstractTableModel;
+public class PagedEmployeeTableModel extends AbstractTableModel {
+
+    static final int DEFAULT_PAGE_SIZE=100;
+    static final int DEFAULT_MAX_PAGES=20;
+
+    static final String[] COLUMNS={"Employee_id","Name","Surname","Age","Gender","Department","Designation","Salary"};
+    static final Class<?>[] TYPES={Long.class,String.class,String.class,Integer.class,String.class,String.class,String.class,Double.class};
+
+    private static final Logger LOG=Logger.getLogger(PagedEmployeeTableModel.class.getName());
+
+    private final Component owner;
+    private final EmployeeRepository employees;
+    private final String department;
+    private final int pageSize;
+    private final int maxPages;
+
+    private final LinkedHashMap<Integer,List<EmployeeRecord>> pages;
+    /** Last Employee_id of each page seen so far; kept when a page is dropped. */
+    private final Map<Integer,Long> lastIdOfPage=new HashMap<Integer,Long>();
+    private int rowCount=-1;
+    private final Set<Integer> loading=new HashSet<Integer>();
+    private boolean counting;
+    /** The last failed read; nothing is read while it is set. */
+    private Exception failure;
+    /** Bumped whenever cached rows are dropped, so stale loads are ignored. */
+    private int generation;
+
+    private long keysetLoads;
+    private long offsetLoads;
+
+    public PagedEmployeeTableModel(Component owner,EmployeeRepository employees,String department)
+    {
+        this(owner,employees,department,DEFAULT_PAGE_SIZE,DEFAULT_MAX_PAGES);
+    }
+
+    /**
+     * @param owner the form showing the grid, busy while pages load
+     * @param department only this department, or null for everyone
+     */
+    public PagedEmployeeTableModel(Component owner,EmployeeRepository employees,String department,int pageSize,final int maxPages)
+    {
+        this.owner=owner;
+        this.employees=employees;
+        this.department=department;
+        this.pageSize=pageSize;
+        this.maxPages=maxPages;
+        this.pages=new LinkedHashMap<Integer,List<EmployeeRecord>>(16,0.75f,true)
+        {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Integer,List<EmployeeRecord>> eldest)
+            {
+                return size()>maxPages;
+            }
+        };
+        ChangeBus.follow(owner,new ChangeBus.Listener()
+        {
+            public void changed(List<ChangeEvent> events)
+            {
+                apply(events);
+            }
+        },ChangeBus.EMP_INFO);
+    }
+
+    public String getDepartment()
+    {
+        return department;
+    }
+
+    /**
+     * Drops every cached page and the row count; the table re-reads only
+     * what is visible.
+     */
+    public void refresh()
+    {
+        pages.clear();
+        lastIdOfPage.clear();
+        loading.clear();
+        counting=false;
+        failure=null;
+        generation++;
+        rowCount=-1;
+        fireTableDataChanged();
+    }
+
+    /**
+     * Shows a row count and first page read ahead of time (by the startup
+     * warm-up), replacing anything loaded or still loading.
+     */
+    public void preload(int count,List<EmployeeRecord> firstPage)
+    {
+        pages.clear();
+        lastIdOfPage.clear();
+        loading.clear();
+        counting=false;
+        generation++;
+        rowCount=count;
+        List<EmployeeRecord> page=new ArrayList<EmployeeRecord>(firstPage);
+        pages.put(0,page);
+        if(!page.isEmpty())
+        {
+            lastIdOfPage.put(0,page.get(page.size()-1).getEmployeeId());
+        }
+        fireTableDataChanged();
+    }
+
+    public int getPageSize()
+    {
+        return pageSize;
+    }
+
+    /**
+     * @return the employee shown in a row, or null while its page is
+     *         loading
+     */
+    public EmployeeRecord getRow(int row)
+    {
+        int pageNo=row/pageSize;
+        List<EmployeeRecord> page=pages.get(pageNo);
+        if(page==null)
+        {
+            if(failure==null)
+            {
+                load(pageNo);
+            }
+            return null;
+        }
+        int index=row%pageSize;
+        return index<page.size() ? page.get(index) : null;
+    }
+
+    private void load(final int pageNo)
+    {
+        if(!loading.add(pageNo))
+        {
+            return;
+        }
+        final int gen=generation;
+        final Long after=pageNo==0 ? Long.valueOf(Long.MIN_VALUE) : lastIdOfPage.get(pageNo-1);
+        if(after!=null)
+        {
+            keysetLoads++;
+        }
+        else
+        {
+            offsetLoads++;
+        }
+        QueryExecutor.submit(owner,"page Emp_info",new Callable<List<EmployeeRecord>>()
+        {
+            public List<EmployeeRecord> call() throws Exception
+            {
+                return after!=null ? employees.findPageAfter(department,after,pageSize)
+                        : employees.findPageAt(department,pageNo*pageSize,pageSize);
+            }
+        },new Consumer<List<EmployeeRecord>>()
+        {
+            public void accept(List<EmployeeRecord> rows)
+            {
+                if(gen!=generation)
+                {
+                    return;
+                }
+                loading.remove(pageNo);
+                List<EmployeeRecord> page=new ArrayList<EmployeeRecord>(rows);
+                pages.put(pageNo,page);
+                if(!page.isEmpty())
+                {
+                    lastIdOfPage.put(pageNo,page.get(page.size()-1).getEmployeeId());
+                }
+                int first=pageNo*pageSize;
+                int last=Math.min(first+pageSize,getRowCount())-1;
+                if(last>=first)
+                {
+                    fireTableRowsUpdated(first,last);
+                }
+            }
+        },new Consumer<Exception>()
+        {
+            public void accept(Exception e)
+            {
+                if(gen==generation)
+                {
+                    loading.remove(pageNo);
+                    failed("Could not load employee page "+pageNo,e);
+                }
+            }
+        });
+    }
+
+    /**
+     * Applies changes to Emp_info, oldest first. A RESET drops everything
+     * and the rest of the batch with it, since the reload sees it anyway.
+     */
+    public void apply(List<ChangeEvent> events)
+    {
+        if(failure!=null)
+        {
+            // try again from scratch rather than patch what is missing
+            refresh();
+            return;
+        }
+        for(ChangeEvent e:events)
+        {
+            EmployeeRecord before=(EmployeeRecord)e.getBefore();
+            EmployeeRecord after=(EmployeeRecord)e.getAfter();
+            if(e.isReset())
+            {
+                refresh();
+                return;
+            }
+            if(after==null || before!=null && accepts(before) && !accepts(after))
+            {
+                if(accepts(before))
+                {
+                    applyDelete(before.getEmployeeId());
+                }
+            }
+            else
+            {
+                apply(after);
+            }
+        }
+    }
+
+    /**
+     * Applies the current state of one row after it was inserted or
+     * updated. Does nothing for null.
+     */
+    public void apply(EmployeeRecord emp)
+    {
+        if(emp==null)
+        {
+            return;
+        }
+        int row=findLoaded(emp.getEmployeeId());
+        if(row>=0)
+        {
+            if(!accepts(emp))
+            {
+                applyDelete(emp.getEmployeeId());
+                return;
+            }
+            pages.get(row/pageSize).set(row%pageSize,emp);
+            fireTableRowsUpdated(row,row);
+        }
+        else if(accepts(emp))
+        {
+            applyInsert(emp);
+        }
+    }
+
+    /**
+     * Applies a newly inserted row. An id past the end is appended in
+     * place; otherwise the pages from the insert position on are dropped.
+     */
+    public void applyInsert(EmployeeRecord emp)
+    {
+        if(!accepts(emp))
+        {
+            return;
+        }
+        if(rowCount<0)
+        {
+            refresh();
+            return;
+        }
+        int row=rowCount;
+        int lastPage=row==0 ? -1 : (row-1)/pageSize;
+        Long lastId=lastPage<0 ? null : lastIdOfPage.get(lastPage);
+        if(lastPage<0 || lastId!=null && emp.getEmployeeId()>lastId)
+        {
+            rowCount++;
+            List<EmployeeRecord> page=pages.get(row/pageSize);
+            if(page!=null)
+            {
+                page.add(emp);
+                lastIdOfPage.put(row/pageSize,emp.getEmployeeId());
+            }
+            fireTableRowsInserted(row,row);
+        }
+        else
+        {
+            invalidateFrom(emp.getEmployeeId());
+            rowCount++;
+            fireTableDataChanged();
+        }
+    }
+
+    public void applyDelete(long employeeId)
+    {
+        if(rowCount<0)
+        {
+            refresh();
+            return;
+        }
+        int row=findLoaded(employeeId);
+        invalidateFrom(employeeId);
+        if(row>=0)
+        {
+            rowCount--;
+            fireTableRowsDeleted(row,row);
+        }
+        else
+        {
+            rowCount=-1;
+            fireTableDataChanged();
+        }
+    }
+
+    /**
+     * Drops the pages that may hold the id or anything after it, since
+     * their rows shift.
+     */
+    private void invalidateFrom(long employeeId)
+    {
+        int first=Integer.MAX_VALUE;
+        for(Map.Entry<Integer,Long> e:lastIdOfPage.entrySet())
+        {
+            if(e.getValue()>=employeeId && e.getKey()<first)
+            {
+                first=e.getKey();
+            }
+        }
+        if(first==Integer.MAX_VALUE)
+        {
+            first=lastIdOfPage.isEmpty() ? 0 : (rowCount<=0 ? 0 : (rowCount-1)/pageSize);
+        }
+        generation++;
+        loading.clear();
+        Iterator<Integer> it=pages.keySet().iterator();
+        while(it.hasNext())
+        {
+            if(it.next()>=first)
+            {
+                it.remove();
+            }
+        }
+        it=lastIdOfPage.keySet().iterator();
+        while(it.hasNext())
+        {
+            if(it.next()>=first)
+            {
+                it.remove();
+            }
+        }
+    }
+
+    private int findLoaded(long employeeId)
+    {
+        for(Map.Entry<Integer,List<EmployeeRecord>> e:pages.entrySet())
+        {
+            List<EmployeeRecord> page=e.getValue();
+            int lo=0;
+            int hi=page.size()-1;
+            while(lo<=hi)
+            {
+                int mid=(lo+hi)>>>1;
+                long id=page.get(mid).getEmployeeId();
+                if(id<employeeId)
+                {
+                    lo=mid+1;
+                }
+                else if(id>employeeId)
+                {
+                    hi=mid-1;
+                }
+                else
+                {
+                    return e.getKey()*pageSize+mid;
+                }
+            }
+        }
+        return -1;
+    }
+
+    private boolean accepts(EmployeeRecord emp)
+    {
+        return department==null || department.equals(emp.getDepartment());
+    }
+
+    public int getCachedPageCount()
+    {
+        return pages.size();
+    }
+
+    public long getKeysetLoads()
+    {
+        return keysetLoads;
+    }
+
+    public long getOffsetLoads()
+    {
+        return offsetLoads;
+    }
+
+    /**
+     * @return the number of rows, 0 until the count has been read
+     */
+    @Override
+    public int getRowCount()
+    {
+        if(rowCount<0)
+        {
+            if(failure==null)
+            {
+                count();
+            }
+            return 0;
+        }
+        return rowCount;
+    }
+
+    /**
+     * @return the error of the last failed read, or null
+     */
+    public Exception getFailure()
+    {
+        return failure;
+    }
+
+    /**
+     * Records a failed read, showing it only if it is the first since the
+     * grid was last refreshed.
+     */
+    private void failed(String message,Exception e)
+    {
+        boolean first=failure==null;
+        failure=e;
+        if(first)
+        {
+            LOG.log(Level.WARNING,message,e);
+            JOptionPane.showMessageDialog(null,e);
+        }
+    }
+
+    private void count()
+    {
+        if(counting)
+        {
+            return;
+        }
+        counting=true;
+        final int gen=generation;
+        QueryExecutor.submit(owner,"count Emp_info",new Callable<Integer>()
+        {
+            public Integer call() throws Exception
+            {
+                return employees.count(department);
+            }
+        },new Consumer<Integer>()
+        {
+            public void accept(Integer count)
+            {
+                if(gen!=generation)
+                {
+                    return;
+                }
+                counting=false;
+                rowCount=count;
+                fireTableDataChanged();
+            }
+        },new Consumer<Exception>()
+        {
+            public void accept(Exception e)
+            {
+                if(gen==generation)
+                {
+                    counting=false;
+                    failed("Could not count employees",e);
+                }
+            }
+        });
+    }
+
+    @Override
+    public int getColumnCount()
+    {
+        return COLUMNS.length;
+    }
+
+    @Override
+    public String getColumnName(int column)
+    {
+        return COLUMNS[column];
+    }
+
+    @Override
+    public Class<?> getColumnClass(int column)
+    {
+        return TYPES[column];
+    }
+
+    @Override
+    public Object getValueAt(int row,int column)
+    {
+        EmployeeRecord emp=getRow(row);
+        return emp==null ? null : valueAt(emp,column);
+    }
+
+    /**
+     * @return the value shown in the given column for an employee
+     */
+    static Object valueAt(EmployeeRecord emp,int column)
+    {
+        switch(column)
+        {
+            case 0: return emp.getEmployeeId();
+            case 1: return emp.getName();
+            case 2: return emp.getSurname();
+            case 3: return emp.getAge();
+            case 4: return emp.getGender();
+            case 5: return emp.getDepartment();
+            case 6: return emp.getDesignation();
+            case 7: return emp.getSalary();
+            default: return null;
+        }
+    }
+}
@@ -0,0 +1,173 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Computes everyone's pay into the Payroll table from Emp_info salaries
+ * and Works_on hours:
+ *
+ *   overtime = max(Hours - standard hours, 0) * Salary / standard hours * overtime rate
+ *   bonus    = Works_on.Bonus + overtime
+ *   pay      = Salary + bonus
+ *
+ * with payroll.standard_hours and payroll.overtime_rate from DbConfig.
+ * The whole computation is one insert ... select, so the database does it
+ * in a single pass over the join without shipping rows to Java, and the
+ * result is written in one transaction.
+ *
+ * Triggers on Works_on and Emp_info note the employees whose hours,
+ * bonus or salary change in Payroll_dirty; recomputeChanged() redoes only
+ * those. After changing the rates, use recomputeAll().
+ *
+ * @author prateek
+ */
+import java.sql.*;
+public class PayrollEngine {
+
+    static final String[] INSTALL={
+        "create table if not exists Payroll("
+            +"Employee_id INTEGER PRIMARY KEY NOT NULL,"
+            +"Salary REAL NOT NULL,"
+            +"Hours INTEGER NOT NULL,"
+            +"Overtime REAL NOT NULL,"
+            +"Bonus REAL NOT NULL,"
+            +"Pay REAL NOT NULL,"
+            +"Computed_at CHAR NOT NULL)",
+        "create table if not exists Payroll_dirty(Employee_id INTEGER PRIMARY KEY NOT NULL)",
+        "create trigger if not exists Payroll_works_insert after insert on Works_on begin "
+            +"insert or ignore into Payroll_dirty values(NEW.Employee_id); end",
+        "create trigger if not exists Payroll_works_update after update of Employee_id,Hours,Bonus on Works_on begin "
+            +"insert or ignore into Payroll_dirty values(OLD.Employee_id); "
+            +"insert or ignore into Payroll_dirty values(NEW.Employee_id); end",
+        "create trigger if not exists Payroll_works_delete after delete on Works_on begin "
+            +"insert or ignore into Payroll_dirty values(OLD.Employee_id); end",
+        "create trigger if not exists Payroll_emp_insert after insert on Emp_info begin "
+            +"insert or ignore into Payroll_dirty values(NEW.Employee_id); end",
+        "create trigger if not exists Payroll_emp_update after update of Employee_id,Salary on Emp_info begin "
+            +"insert or ignore into Payroll_dirty values(OLD.Employee_id); "
+            +"insert or ignore into Payroll_dirty values(NEW.Employee_id); end",
+        "create trigger if not exists Payroll_emp_delete after delete on Emp_info begin "
+            +"insert or ignore into Payroll_dirty values(OLD.Employee_id); end",
+        "insert or ignore into Payroll_dirty select Employee_id from Emp_info"
+    };
+
+    static final String COMPUTE="insert or replace into Payroll(Employee_id,Salary,Hours,Overtime,Bonus,Pay,Computed_at) "
+            +"select Employee_id,Salary,Hours,Overtime,round(Extra+Overtime,2),round(Salary+Extra+Overtime,2),CURRENT_TIMESTAMP from ("
+            +"select e.Employee_id,ifnull(e.Salary,0) Salary,ifnull(w.Hours,0) Hours,ifnull(w.Bonus,0) Extra,"
+            +"round(max(ifnull(w.Hours,0)-?,0)*ifnull(e.Salary,0)/?*?,2) Overtime "
+            +"from Emp_info e left join Works_on w on w.Employee_id=e.Employee_id";
+    static final String DIRTY=" where e.Employee_id in (select Employee_id from Payroll_dirty)";
+
+    private final Connection conn;
+    private final double standardHours;
+    private final double overtimeRate;
+
+    public PayrollEngine(Connection conn)
+    {
+        this(conn,javaconnect.getConfig().getPayrollStandardHours(),javaconnect.getConfig().getPayrollOvertimeRate());
+    }
+
+    public PayrollEngine(Connection conn,double standardHours,double overtimeRate)
+    {
+        if(standardHours<=0)
+        {
+            throw new IllegalArgumentException("Standard hours must be positive: "+standardHours);
+        }
+        this.conn=conn;
+        this.standardHours=standardHours;
+        this.overtimeRate=overtimeRate;
+    }
+
+    /**
+     * Recomputes every employee, replacing the whole Payroll table.
+     *
+     * @return employees computed
+     */
+    public UpdateResult recomputeAll() throws SQLException
+    {
+        return run(true);
+    }
+
+    /**
+     * Recomputes only the employees noted in Payroll_dirty, dropping those
+     * that no longer exist.
+     *
+     * @return employees computed
+     */
+    public UpdateResult recomputeChanged() throws SQLException
+    {
+        return run(false);
+    }
+
+    /**
+     * @return employees waiting to be recomputed
+     */
+    public int getPendingCount() throws SQLException
+    {
+        Statement st=conn.createStatement();
+        try{
+            ResultSet rs=st.executeQuery("select count(*) from Payroll_dirty");
+            try{
+                return rs.next() ? rs.getInt(1) : 0;
+            }finally{
+                rs.close();
+            }
+        }finally{
+            st.close();
+        }
+    }
+
+    private UpdateResult run(boolean all) throws SQLException
+    {
+        long start=System.nanoTime();
+        int pending=all ? -1 : getPendingCount();
+        if(pending==0)
+        {
+            return new UpdateResult(0,0,System.nanoTime()-start);
+        }
+        boolean autoCommit=conn.getAutoCommit();
+        if(autoCommit)
+        {
+            conn.setAutoCommit(false);
+        }
+        Statement st=conn.createStatement();
+        PreparedStatement pst=conn.prepareStatement(COMPUTE+(all ? "" : DIRTY)+")");
+        try{
+            if(all)
+            {
+                st.executeUpdate("delete from Payroll");
+            }
+            else
+            {
+                st.executeUpdate("delete from Payroll where Employee_id in (select Employee_id from Payroll_dirty) "
+                        +"and Employee_id not in (select Employee_id from Emp_info)");
+            }
+            pst.setDouble(1,standardHours);
+            pst.setDouble(2,standardHours);
+            pst.setDouble(3,overtimeRate);
+            int computed=pst.executeUpdate();
+            st.executeUpdate("delete from Payroll_dirty");
+            if(autoCommit)
+            {
+                conn.commit();
+            }
+            return new UpdateResult(all ? computed : pending,computed,System.nanoTime()-start);
+        }catch(SQLException e)
+        {
+            if(autoCommit)
+            {
+                conn.rollback();
+            }
+            throw e;
+        }finally{
+            pst.close();
+            st.close();
+            if(autoCommit)
+            {
+                conn.setAutoCommit(true);
+            }
+        }
+    }
+}
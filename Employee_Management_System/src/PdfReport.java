@@ -0,0 +1,300 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * A tabular PDF report read straight from a query. Rows go from the
+ * result set into an iText table that is marked incomplete, and the table
+ * is handed to the document every FLUSH_ROWS rows, which lays out and
+ * writes the finished pages and lets their rows go. A report of any
+ * length therefore holds only a page or so in memory, and never needs the
+ * rows in a JTable.
+ *
+ * The query must be ordered by the grouping column; a subtotal row of the
+ * summed columns follows each group, and a grand total ends the report.
+ * The header row repeats on every page and each page is numbered
+ * "Page n of m".
+ *
+ * @author prateek
+ */
+import com.itextpdf.text.BaseColor;
+import com.itextpdf.text.Document;
+import com.itextpdf.text.DocumentException;
+import com.itextpdf.text.Element;
+import com.itextpdf.text.Font;
+import com.itextpdf.text.PageSize;
+import com.itextpdf.text.Paragraph;
+import com.itextpdf.text.Phrase;
+import com.itextpdf.text.Rectangle;
+import com.itextpdf.text.pdf.ColumnText;
+import com.itextpdf.text.pdf.PdfContentByte;
+import com.itextpdf.text.pdf.PdfPCell;
+import com.itextpdf.text.pdf.PdfPTable;
+import com.itextpdf.text.pdf.PdfPageEventHelper;
+import com.itextpdf.text.pdf.PdfTemplate;
+import com.itextpdf.text.pdf.PdfWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.sql.*;
+import java.text.SimpleDateFormat;
+import java.util.Date;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public class PdfReport {
+
+    static final int FLUSH_ROWS=100;
+    static final int FETCH_SIZE=500;
+
+    public static final PdfReport EMPLOYEES=new PdfReport("Employees by department",
+            "select Employee_id,Name,Surname,Department,Designation,Age,Gender,Salary from Emp_info"
+            +" order by Department,Employee_id",
+            new String[]{"Id","Name","Surname","Department","Designation","Age","Gender","Salary"},
+            new float[]{1f,2.5f,2.5f,2.5f,2.5f,1f,1.2f,2f},3,new int[]{7});
+    public static final PdfReport WORKS=new PdfReport("Project hours and bonuses by department",
+            "select w.Employee_id,e.Name,e.Surname,w.Department,w.Project_No,p.Project_Name,w.Hours,w.Bonus"
+            +" from Works_on w left join Emp_info e on e.Employee_id=w.Employee_id"
+            +" left join Project p on p.Project_No=w.Project_No order by w.Department,w.Employee_id",
+            new String[]{"Id","Name","Surname","Department","Project","Project name","Hours","Bonus"},
+            new float[]{1f,2.5f,2.5f,2.5f,1.2f,3f,1.2f,2f},3,new int[]{6,7});
+
+    private static final Logger LOG=Logger.getLogger(PdfReport.class.getName());
+
+    private static final Font TITLE=new Font(Font.FontFamily.HELVETICA,16,Font.BOLD);
+    private static final Font HEADER=new Font(Font.FontFamily.HELVETICA,9,Font.BOLD,BaseColor.WHITE);
+    private static final Font CELL=new Font(Font.FontFamily.HELVETICA,9);
+    private static final Font TOTAL=new Font(Font.FontFamily.HELVETICA,9,Font.BOLD);
+    private static final Font FOOTER=new Font(Font.FontFamily.HELVETICA,8);
+
+    private final String title;
+    private final String sql;
+    private final String[] headers;
+    private final float[] widths;
+    private final int groupColumn;
+    private final int[] sumColumns;
+
+    /**
+     * @param groupColumn the column the query is ordered by, subtotalled
+     *        whenever it changes
+     * @param sumColumns numeric columns added up in the subtotals
+     */
+    public PdfReport(String title,String sql,String[] headers,float[] widths,int groupColumn,int[] sumColumns)
+    {
+        this.title=title;
+        this.sql=sql;
+        this.headers=headers;
+        this.widths=widths;
+        this.groupColumn=groupColumn;
+        this.sumColumns=sumColumns;
+    }
+
+    public String getTitle()
+    {
+        return title;
+    }
+
+    @Override
+    public String toString()
+    {
+        return title;
+    }
+
+    /**
+     * Runs the query and writes the report; the stream is closed.
+     *
+     * @return the number of rows in the report
+     */
+    public long write(Connection conn,OutputStream out) throws SQLException, IOException, DocumentException
+    {
+        PreparedStatement pst=conn.prepareStatement(sql);
+        try{
+            pst.setFetchSize(FETCH_SIZE);
+            ResultSet rs=pst.executeQuery();
+            try{
+                return write(rs,out);
+            }finally{
+                rs.close();
+            }
+        }finally{
+            pst.close();
+        }
+    }
+
+    /**
+     * Writes the report from the remaining rows of a result set whose
+     * columns match the headers; the stream is closed.
+     */
+    public long write(ResultSet rs,OutputStream out) throws SQLException, IOException, DocumentException
+    {
+        long start=System.nanoTime();
+        Document doc=new Document(PageSize.A4.rotate(),36,36,36,48);
+        long rows=0;
+        try{
+            PdfWriter writer=PdfWriter.getInstance(doc,out);
+            writer.setPageEvent(new PageNumbers(new SimpleDateFormat("d-M-yyyy H:mm").format(new Date())));
+            doc.open();
+            Paragraph heading=new Paragraph(title,TITLE);
+            heading.setSpacingAfter(12);
+            doc.add(heading);
+
+            PdfPTable table=new PdfPTable(widths);
+            table.setWidthPercentage(100);
+            table.setHeaderRows(1);
+            table.setComplete(false);
+            for(String h:headers)
+            {
+                PdfPCell cell=new PdfPCell(new Phrase(h,HEADER));
+                cell.setBackgroundColor(BaseColor.DARK_GRAY);
+                table.addCell(cell);
+            }
+
+            double[] groupSums=new double[headers.length];
+            double[] totals=new double[headers.length];
+            long groupRows=0;
+            String group=null;
+            while(rs.next())
+            {
+                String g=rs.getString(groupColumn+1);
+                if(rows>0 && !same(g,group))
+                {
+                    addTotal(table,"Subtotal "+label(group),groupRows,groupSums);
+                    groupSums=new double[headers.length];
+                    groupRows=0;
+                }
+                group=g;
+                for(int c=0;c<headers.length;c++)
+                {
+                    Object value=rs.getObject(c+1);
+                    if(isSummed(c) && value instanceof Number)
+                    {
+                        groupSums[c]+=((Number)value).doubleValue();
+                        totals[c]+=((Number)value).doubleValue();
+                    }
+                    PdfPCell cell=new PdfPCell(new Phrase(format(value),CELL));
+                    if(value instanceof Number)
+                    {
+                        cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+                    }
+                    table.addCell(cell);
+                }
+                rows++;
+                groupRows++;
+                if(rows%FLUSH_ROWS==0)
+                {
+                    doc.add(table);
+                }
+            }
+            if(rows>0)
+            {
+                addTotal(table,"Subtotal "+label(group),groupRows,groupSums);
+            }
+            addTotal(table,"Total",rows,totals);
+            table.setComplete(true);
+            doc.add(table);
+        }finally{
+            if(doc.isOpen())
+            {
+                doc.close();
+            }
+            out.close();
+        }
+        LOG.log(Level.INFO,"{0}: {1} rows in {2} ms",new Object[]{title,rows,(System.nanoTime()-start)/1000000});
+        return rows;
+    }
+
+    private void addTotal(PdfPTable table,String label,long count,double[] sums)
+    {
+        PdfPCell name=new PdfPCell(new Phrase(label+" ("+count+")",TOTAL));
+        int first=sumColumns.length==0 ? headers.length : sumColumns[0];
+        for(int c:sumColumns)
+        {
+            first=Math.min(first,c);
+        }
+        name.setColspan(first);
+        name.setBackgroundColor(BaseColor.LIGHT_GRAY);
+        table.addCell(name);
+        for(int c=first;c<headers.length;c++)
+        {
+            PdfPCell cell=new PdfPCell(new Phrase(isSummed(c) ? format(sums[c]) : "",TOTAL));
+            cell.setHorizontalAlignment(Element.ALIGN_RIGHT);
+            cell.setBackgroundColor(BaseColor.LIGHT_GRAY);
+            table.addCell(cell);
+        }
+    }
+
+    private boolean isSummed(int column)
+    {
+        for(int c:sumColumns)
+        {
+            if(c==column)
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String format(Object value)
+    {
+        if(value==null)
+        {
+            return "";
+        }
+        if(value instanceof Double || value instanceof Float)
+        {
+            double d=((Number)value).doubleValue();
+            return d==Math.rint(d) && Math.abs(d)<1e15 ? String.format("%,d",(long)d) : String.format("%,.2f",d);
+        }
+        return value.toString();
+    }
+
+    private static boolean same(String a,String b)
+    {
+        return a==null ? b==null : a.equals(b);
+    }
+
+    private static String label(String group)
+    {
+        return group==null || group.isEmpty() ? "(none)" : group;
+    }
+
+    /**
+     * Writes "Page n of m" and the print date at the foot of every page.
+     * The total is a template filled in when the document closes.
+     */
+    private static final class PageNumbers extends PdfPageEventHelper {
+
+        private final String printed;
+        private PdfTemplate total;
+
+        PageNumbers(String printed)
+        {
+            this.printed=printed;
+        }
+
+        @Override
+        public void onOpenDocument(PdfWriter writer,Document document)
+        {
+            total=writer.getDirectContent().createTemplate(40,12);
+        }
+
+        @Override
+        public void onEndPage(PdfWriter writer,Document document)
+        {
+            PdfContentByte cb=writer.getDirectContent();
+            Rectangle page=document.getPageSize();
+            float y=document.bottom()-24;
+            ColumnText.showTextAligned(cb,Element.ALIGN_LEFT,new Phrase("Printed "+printed,FOOTER),document.left(),y,0);
+            ColumnText.showTextAligned(cb,Element.ALIGN_RIGHT,new Phrase("Page "+writer.getPageNumber()+" of ",FOOTER),
+                    page.getWidth()/2,y,0);
+            cb.addTemplate(total,page.getWidth()/2+2,y);
+        }
+
+        @Override
+        public void onCloseDocument(PdfWriter writer,Document document)
+        {
+            ColumnText.showTextAligned(total,Element.ALIGN_LEFT,new Phrase(String.valueOf(writer.getPageNumber()-1),FOOTER),0,0,0);
+        }
+    }
+}
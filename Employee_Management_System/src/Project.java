@@ -5,7 +5,6 @@ import java.sql.*;
 import java.text.MessageFormat;
 import javax.swing.JOptionPane;
 import javax.swing.JTable;
-import net.proteanit.sql.DbUtils;
 
 /*
  * To change this license header, choose License Headers in Department Properties.
@@ -19,16 +18,19 @@ import net.proteanit.sql.DbUtils;
  */
 public class Project extends javax.swing.JFrame {
 Connection conn;
+    LiveTable<DepartmentRecord> live;
     ResultSet rs;
     PreparedStatement pst;
+    DepartmentRepository departments;
     /**
      * Creates new form Department
      */
     public Project() {
         
         initComponents();
-        conn=javaconnect.ConnecrDb();
-        Update();
+        conn=javaconnect.ConnecrDb(this);
+        departments=new DepartmentRepository(conn);
+        live=LiveTable.follow(this,jTable1,conn,ChangeBus.DEPARTMENT,"select Dept_id,Department,Manager_id from Department",null);
     }
 
     /**
@@ -130,7 +132,7 @@ Connection conn;
 
         jPanel2.setBorder(javax.swing.BorderFactory.createTitledBorder(javax.swing.BorderFactory.createLineBorder(new java.awt.Color(248, 19, 19)), "Operations", javax.swing.border.TitledBorder.DEFAULT_JUSTIFICATION, javax.swing.border.TitledBorder.DEFAULT_POSITION, new java.awt.Font("Dialog", 0, 24), new java.awt.Color(251, 8, 8))); // NOI18N
 
-        jButton4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/clr.png")); // NOI18N
+        jButton4.setIcon(ImageAssets.icon("clr.png")); // NOI18N
         jButton4.setText("Clear");
         jButton4.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -138,7 +140,7 @@ Connection conn;
             }
         });
 
-        jButton3.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/upd.png")); // NOI18N
+        jButton3.setIcon(ImageAssets.icon("upd.png")); // NOI18N
         jButton3.setText("Update");
         jButton3.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -146,7 +148,7 @@ Connection conn;
             }
         });
 
-        jButton2.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/dele.png")); // NOI18N
+        jButton2.setIcon(ImageAssets.icon("dele.png")); // NOI18N
         jButton2.setText("Delete");
         jButton2.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -154,7 +156,7 @@ Connection conn;
             }
         });
 
-        jButton1.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/sve.png")); // NOI18N
+        jButton1.setIcon(ImageAssets.icon("sve.png")); // NOI18N
         jButton1.setText("Save");
         jButton1.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -190,7 +192,7 @@ Connection conn;
 
         getContentPane().add(jPanel2, new org.netbeans.lib.awtextra.AbsoluteConstraints(440, 270, -1, -1));
 
-        jButton6.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/prn.png")); // NOI18N
+        jButton6.setIcon(ImageAssets.icon("prn.png")); // NOI18N
         jButton6.setText("Print");
         jButton6.addActionListener(new java.awt.event.ActionListener() {
             public void actionPerformed(java.awt.event.ActionEvent evt) {
@@ -280,7 +282,7 @@ Connection conn;
         });
         getContentPane().add(jButton5, new org.netbeans.lib.awtextra.AbsoluteConstraints(980, 190, 80, -1));
 
-        jLabel4.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/proje.jpg")); // NOI18N
+        jLabel4.setIcon(ImageAssets.icon("proje.jpg")); // NOI18N
         getContentPane().add(jLabel4, new org.netbeans.lib.awtextra.AbsoluteConstraints(0, 0, 1160, 640));
 
         pack();
@@ -298,22 +300,11 @@ Connection conn;
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
-        try{
-            String val1=jTextField1.getText();
-            String val2=jTextField2.getText();
-           
-            String val4=jTextField4.getText();
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
            
-
-            String sql="update Department set Department='"+val2+"',Manager_id='"+val4+"' where Dept_id='"+val1+"'";
-            pst=conn.prepareStatement(sql);
-            pst.execute();
-            JOptionPane.showMessageDialog(null, "Data Updated");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null ,e);
-        }
+        String val4=jTextField4.getText();
+        QueryExecutor.submit(this,"update Department",()->departments.update(val1,val2,Repository.toInteger(val4)),r->JOptionPane.showMessageDialog(null, "Data Updated"));
 
     }//GEN-LAST:event_jButton3ActionPerformed
 
@@ -323,39 +314,18 @@ Connection conn;
         int p=JOptionPane.showConfirmDialog(null,"Are You Sure?","Delete",JOptionPane.YES_NO_OPTION);
         if(p==0)
         {
-            String sql="delete from Department where Dept_id=?";
-            try{
-                pst=conn.prepareStatement(sql);
-                pst.setString(1, jTextField1.getText());
-                pst.execute();
-
-                JOptionPane.showMessageDialog(null, "Deleted");
-            }catch(Exception e)
-            {
-                JOptionPane.showMessageDialog(null, e);
-
-            }
-        }Update();
+            String key=jTextField1.getText();
+            QueryExecutor.submit(this,"delete Department",()->departments.delete(Repository.toLong(key)),
+                    r->JOptionPane.showMessageDialog(null, "Deleted"));
+        }
     }//GEN-LAST:event_jButton2ActionPerformed
 public void InsertDetails(){
-        try{
-            String sql="Insert into Department(Dept_id,Department,Manager_id) values(?,?,?)";
-            pst=conn.prepareStatement(sql);
-            pst.setString(1, jTextField1.getText());
-            pst.setString(2, jTextField2.getText());
-            pst.setString(3, jTextField4.getText());
-           
-
-           
-
-            pst.execute();
-            JOptionPane.showMessageDialog(null,"Data Saved using Stored Procedure");
-
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-      
-        }Update();}
+        String val1=jTextField1.getText();
+        String val2=jTextField2.getText();
+        String val4=jTextField4.getText();
+        QueryExecutor.submit(this,"insert Department",()->departments.insert(Repository.toLong(val1),val2,Repository.toInteger(val4)),
+                r->JOptionPane.showMessageDialog(null,"Data Saved using Stored Procedure"));
+    }
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
         try{
@@ -428,8 +398,7 @@ public void InsertDetails(){
     private void jButton5ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton5ActionPerformed
         // TODO add your handling code here:
           try{
-            dispose();
-            new LookAround().setVisible(true);
+            Navigator.switchTo(this,LookAround.class);
            // exit(0);
             
         }finally{
@@ -448,24 +417,19 @@ public void InsertDetails(){
         // TODO add your handling code here:
         
         
-        try{
-            String sql="select * from Department where Dept_id=? ";
-            //   String sql1="select * from Emp_info where Name=?";
-            pst=conn.prepareStatement(sql);
-            //   pst=conn.prepareStatement(sql1);
-            pst.setString(1, jTextField9.getText());
-            rs=pst.executeQuery();
-            if(rs.next())
+        String key=jTextField9.getText();
+        QueryExecutor.submit(this,"find Department",()->departments.findById(key),dept->{
+            if(dept!=null)
             {
-                String add1=rs.getString("Dept_id");
+                String add1=Repository.text(dept.getDeptId());
                 jTextField1.setText(add1);
 
-                String add2=rs.getString("Department");
+                String add2=dept.getDepartment();
                 jTextField2.setText(add2);
 
               
 
-                String add4=rs.getString("Manager_id");
+                String add4=Repository.text(dept.getManagerId());
                 jTextField4.setText(add4);
 
                 
@@ -476,13 +440,7 @@ public void InsertDetails(){
             else{
                     JOptionPane.showMessageDialog(null,"Inavlid Input");
             }
-
-        }
-        catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null,e);
-
-        }
+        });
     }//GEN-LAST:event_jButton7ActionPerformed
 
     /**
@@ -548,22 +506,6 @@ public void InsertDetails(){
 
     public void Update() {
         //To change body of generated methods, choose Tools | Templates.
-        try{   
-        String sql="select Dept_id,Department,Manager_id from Department";
-            pst=conn.prepareStatement(sql);
-            rs=pst.executeQuery();
-            jTable1.setModel(DbUtils.resultSetToTableModel(rs));
-        }catch(Exception e)
-        {
-            JOptionPane.showMessageDialog(null, e);
-        }finally{   //to avoid multiple operations
-            try{
-                rs.close(); 
-                pst.close();
-            }catch(Exception e)
-            {
-                
-            }
-        }
+        live.reload();
     }
 }
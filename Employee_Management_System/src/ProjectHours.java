@@ -0,0 +1,55 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Project_hours: how many employees work on a project and
+ * their hours, kept up to date by triggers on Works_on.
+ *
+ * @author prateek
+ */
+public final class ProjectHours {
+
+    private final long projectNo;
+    private final String projectName;
+    private final int workers;
+    private final long hours;
+
+    public ProjectHours(long projectNo,String projectName,int workers,long hours)
+    {
+        this.projectNo=projectNo;
+        this.projectName=projectName;
+        this.workers=workers;
+        this.hours=hours;
+    }
+
+    /** Project_No, or 0 for work not assigned to a project. */
+    public long getProjectNo()
+    {
+        return projectNo;
+    }
+
+    /** Name from Project, or null if the project is not listed there. */
+    public String getProjectName()
+    {
+        return projectName;
+    }
+
+    public int getWorkers()
+    {
+        return workers;
+    }
+
+    public long getHours()
+    {
+        return hours;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProjectHours["+projectNo+", "+workers+" workers, "+hours+" h]";
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads the Project_hours summary table, which triggers on Works_on keep
+ * current the same way Dept_stats is kept for Emp_info. Work without a
+ * project is counted under Project_No 0.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class ProjectHoursRepository extends Repository<ProjectHours> {
+
+    static final String FIND_ALL="select h.Project_No,p.Project_Name,h.Workers,h.Hours from Project_hours h "
+            +"left join Project p on p.Project_No=h.Project_No order by h.Project_No";
+
+    static final String CREATE_TABLE="create table if not exists Project_hours("
+            +"Project_No INTEGER PRIMARY KEY NOT NULL,"
+            +"Workers INTEGER NOT NULL DEFAULT 0,"
+            +"Hours INTEGER NOT NULL DEFAULT 0)";
+
+    public ProjectHoursRepository(Connection conn)
+    {
+        super(conn);
+    }
+
+    public List<ProjectHours> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    @Override
+    protected ProjectHours map(ResultSet rs) throws SQLException
+    {
+        return new ProjectHours(rs.getLong(1),rs.getString(2),rs.getInt(3),rs.getLong(4));
+    }
+
+    /**
+     * Creates Project_hours and its triggers if they are missing, filling
+     * the table from Works_on the first time. Run by SchemaMigrator.
+     */
+    public static void install(Connection conn) throws SQLException
+    {
+        boolean created;
+        Statement st=conn.createStatement();
+        try{
+            ResultSet rs=st.executeQuery("select count(*) from sqlite_master where type='table' and name='Project_hours'");
+            try{
+                created=rs.next() && rs.getInt(1)==0;
+            }finally{
+                rs.close();
+            }
+            st.execute(CREATE_TABLE);
+            st.execute("create trigger if not exists Project_hours_insert after insert on Works_on begin "
+                    +add("NEW")+" end");
+            st.execute("create trigger if not exists Project_hours_delete after delete on Works_on begin "
+                    +remove("OLD")+" end");
+            st.execute("create trigger if not exists Project_hours_update after update of Project_No,Hours on Works_on begin "
+                    +remove("OLD")+add("NEW")+" end");
+            if(created)
+            {
+                st.execute("insert into Project_hours(Project_No,Workers,Hours) "
+                        +"select ifnull(Project_No,0),count(*),ifnull(sum(Hours),0) from Works_on group by ifnull(Project_No,0)");
+            }
+        }finally{
+            st.close();
+        }
+    }
+
+    /** Trigger body counting row r into its project. */
+    private static String add(String r)
+    {
+        String project="ifnull("+r+".Project_No,0)";
+        return "insert or ignore into Project_hours(Project_No) values("+project+"); "
+                +"update Project_hours set Workers=Workers+1,Hours=Hours+ifnull("+r+".Hours,0) "
+                +"where Project_No="+project+"; ";
+    }
+
+    /** Trigger body taking row r out of its project. */
+    private static String remove(String r)
+    {
+        String project="ifnull("+r+".Project_No,0)";
+        return "update Project_hours set Workers=Workers-1,Hours=Hours-ifnull("+r+".Hours,0) "
+                +"where Project_No="+project+"; "
+                +"delete from Project_hours where Project_No="+project+" and Workers<=0; ";
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Project.
+ *
+ * @author prateek
+ */
+public final class ProjectRecord implements LiveTable.Row {
+
+    private final long projectNo;
+    private final String projectName;
+    private final String projectLoc;
+    private final Integer deptId;
+
+    public ProjectRecord(long projectNo,String projectName,String projectLoc,Integer deptId)
+    {
+        this.projectNo=projectNo;
+        this.projectName=projectName;
+        this.projectLoc=projectLoc;
+        this.deptId=deptId;
+    }
+
+    /** Project_No */
+    public long getProjectNo()
+    {
+        return projectNo;
+    }
+
+    /** Project_Name */
+    public String getProjectName()
+    {
+        return projectName;
+    }
+
+    /** Project_Loc */
+    public String getProjectLoc()
+    {
+        return projectLoc;
+    }
+
+    /** Dept_id */
+    public Integer getDeptId()
+    {
+        return deptId;
+    }
+
+    @Override
+    public Object getColumn(String label)
+    {
+        switch(label)
+        {
+            case "Project_No":
+                return projectNo;
+            case "Project_Name":
+                return projectName;
+            case "Project_Loc":
+                return projectLoc;
+            case "Dept_id":
+                return deptId;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProjectRecord["+projectNo+", "+projectName+"]";
+    }
+}
@@ -0,0 +1,94 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads and updates Project through statements cached on the connection.
+ * Every write is published on ChangeBus.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class ProjectRepository extends Repository<ProjectRecord> {
+
+    static final String COLUMNS="Project_No,Project_Name,Project_Loc,Dept_id";
+    static final String SELECT="select "+COLUMNS+" from Project";
+    static final String FIND_BY_NO=SELECT+" where Project_No=?";
+    static final String FIND_BY_DEPT=SELECT+" where Dept_id=?";
+    static final String FIND_ALL=SELECT;
+    static final String INSERT="insert into Project(Project_No,Project_Name,Project_Loc,Dept_id) values(?,?,?,?)";
+    static final String DELETE="delete from Project where Project_No=?";
+
+    public ProjectRepository(Connection conn)
+    {
+        super(conn,ChangeBus.PROJECT,FIND_BY_NO);
+    }
+
+    /**
+     * @param projectNo the Project_No as typed into a form
+     * @return the project, or null if there is none
+     */
+    public ProjectRecord findByNo(String projectNo) throws SQLException
+    {
+        return findOne(FIND_BY_NO,projectNo);
+    }
+
+    public List<ProjectRecord> findByDept(long deptId) throws SQLException
+    {
+        return findAll(FIND_BY_DEPT,deptId);
+    }
+
+    public List<ProjectRecord> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    /**
+     * Starts a batched update of the given Project columns.
+     */
+    public BatchUpdate newUpdate(String... columns)
+    {
+        return new BatchUpdate(this,"Project_No",columns);
+    }
+
+    /**
+     * Adds a project.
+     *
+     * @param projectNo the Project_No, or null to let the database assign one
+     * @return the Project_No of the new row
+     */
+    public long insert(Long projectNo,String projectName,String projectLoc,Integer deptId) throws SQLException
+    {
+        long newNo=insert(INSERT,projectNo,projectName,projectLoc,deptId);
+        publish(newNo,null,findByKey(newNo));
+        return newNo;
+    }
+
+    /**
+     * @return the number of rows deleted
+     */
+    public int delete(long projectNo) throws SQLException
+    {
+        ProjectRecord before=findByKey(projectNo);
+        int rows=execute(DELETE,projectNo);
+        if(rows>0)
+        {
+            publish(projectNo,before,null);
+        }
+        return rows;
+    }
+
+    public UpdateResult update(String projectNo,String projectName,String projectLoc,Integer deptId) throws SQLException
+    {
+        return newUpdate("Project_Name","Project_Loc","Dept_id").add(projectNo,projectName,projectLoc,deptId).execute();
+    }
+
+    @Override
+    protected ProjectRecord map(ResultSet rs) throws SQLException
+    {
+        return new ProjectRecord(rs.getLong(1),rs.getString(2),rs.getString(3),getInteger(rs,4));
+    }
+}
@@ -0,0 +1,421 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Runs database work off the Event Dispatch Thread. A query is submitted
+ * for a form; while it runs the form shows a wait cursor, and its result
+ * (or error) is delivered back on the EDT. Queries still running when the
+ * form is disposed are cancelled and their results dropped.
+ *
+ * A form's database connection is handed back to the pool only once the
+ * form is disposed and the last of its queries has actually stopped: the
+ * SQLite driver ignores interrupts, so a cancelled query may still be
+ * using the connection, possibly in the middle of a transaction.
+ *
+ * The time each query takes is recorded by name, and slow ones are
+ * logged.
+ *
+ * @author prateek
+ */
+import java.awt.Component;
+import java.awt.Cursor;
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.sql.Connection;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.WeakHashMap;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.JOptionPane;
+import javax.swing.SwingUtilities;
+import javax.swing.SwingWorker;
+public final class QueryExecutor {
+
+    static final int THREADS=4;
+    static final long SLOW_MILLIS=250;
+
+    private static final Logger LOG=Logger.getLogger(QueryExecutor.class.getName());
+
+    private static final ExecutorService EXECUTOR=Executors.newFixedThreadPool(THREADS,new ThreadFactory()
+    {
+        private final AtomicInteger count=new AtomicInteger();
+
+        public Thread newThread(Runnable r)
+        {
+            Thread t=new Thread(r,"db-query-"+count.incrementAndGet());
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /** Tasks in flight and connections held per form; only touched on the EDT. */
+    private static final Map<Window,Form> FORMS=new WeakHashMap<Window,Form>();
+
+    private static final Map<String,Timing> TIMINGS=new ConcurrentHashMap<String,Timing>();
+
+    private QueryExecutor()
+    {
+    }
+
+    /**
+     * Runs a query in the background. Errors are shown in a message
+     * dialog, like the forms do.
+     *
+     * @param owner the form the query belongs to, or null
+     * @param name name under which the query time is recorded
+     * @param query the database work, run off the EDT
+     * @param onResult receives the result on the EDT
+     */
+    public static <T> Task<T> submit(Component owner,String name,Callable<T> query,Consumer<? super T> onResult)
+    {
+        return submit(owner,name,query,onResult,new Consumer<Exception>()
+        {
+            public void accept(Exception e)
+            {
+                JOptionPane.showMessageDialog(null,e);
+            }
+        });
+    }
+
+    /**
+     * @param onError receives the query's exception on the EDT
+     */
+    public static <T> Task<T> submit(Component owner,String name,Callable<T> query,Consumer<? super T> onResult,
+            Consumer<Exception> onError)
+    {
+        final Task<T> task=new Task<T>(name,query,onResult,onError);
+        final Window window=windowOf(owner);
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                task.start(window==null ? null : formOf(window),window);
+            }
+        });
+        return task;
+    }
+
+    /**
+     * Hands a form's connection back to the pool once the form has been
+     * disposed and none of its queries is running any more.
+     */
+    public static void releaseWhenClosed(Component owner,final Connection conn)
+    {
+        final Window window=windowOf(owner);
+        if(window==null)
+        {
+            throw new IllegalArgumentException("No window for "+owner);
+        }
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                Form form=formOf(window);
+                form.connections.add(conn);
+                form.releaseIfIdle();
+            }
+        });
+    }
+
+    /**
+     * @return the number of queries running for a form; EDT only
+     */
+    public static int getRunningCount(Component owner)
+    {
+        Form form=FORMS.get(windowOf(owner));
+        return form==null ? 0 : form.tasks.size();
+    }
+
+    /**
+     * @return recorded query times by name
+     */
+    public static Map<String,Timing> getTimings()
+    {
+        return Collections.unmodifiableMap(new TreeMap<String,Timing>(TIMINGS));
+    }
+
+    private static Window windowOf(Component c)
+    {
+        return c instanceof Window ? (Window)c : c==null ? null : SwingUtilities.getWindowAncestor(c);
+    }
+
+    private static void onEdt(Runnable r)
+    {
+        if(SwingUtilities.isEventDispatchThread())
+        {
+            r.run();
+        }
+        else
+        {
+            SwingUtilities.invokeLater(r);
+        }
+    }
+
+    private static Form formOf(Window window)
+    {
+        Form form=FORMS.get(window);
+        if(form==null)
+        {
+            form=new Form();
+            FORMS.put(window,form);
+            window.addWindowListener(form);
+        }
+        return form;
+    }
+
+    /**
+     * What a form has in flight. Closing the form cancels its queries and
+     * returns its connections once the running ones have ended. Only its
+     * tasks in flight refer to the window, which is the key in FORMS.
+     */
+    private static final class Form extends WindowAdapter {
+
+        final Set<Task<?>> tasks=new HashSet<Task<?>>();
+        final List<Connection> connections=new ArrayList<Connection>();
+        boolean closed;
+
+        @Override
+        public void windowClosed(WindowEvent e)
+        {
+            Window window=e.getWindow();
+            window.removeWindowListener(this);
+            FORMS.remove(window);
+            closed=true;
+            for(Task<?> t:tasks.toArray(new Task<?>[0]))
+            {
+                if(t.abandon())
+                {
+                    // still queued, so it will never touch the connection
+                    tasks.remove(t);
+                }
+                t.cancel(true);
+            }
+            releaseIfIdle();
+        }
+
+        void started(Task<?> task,Window window)
+        {
+            tasks.add(task);
+            window.setCursor(Cursor.getPredefinedCursor(Cursor.WAIT_CURSOR));
+        }
+
+        void ended(Task<?> task,Window window)
+        {
+            tasks.remove(task);
+            if(tasks.isEmpty())
+            {
+                if(closed)
+                {
+                    releaseIfIdle();
+                }
+                else
+                {
+                    window.setCursor(Cursor.getDefaultCursor());
+                }
+            }
+        }
+
+        void releaseIfIdle()
+        {
+            if(closed && tasks.isEmpty())
+            {
+                for(Connection conn:connections)
+                {
+                    javaconnect.release(conn);
+                }
+                connections.clear();
+            }
+        }
+    }
+
+    private static void record(String name,long nanos)
+    {
+        Timing timing=TIMINGS.get(name);
+        if(timing==null)
+        {
+            TIMINGS.putIfAbsent(name,new Timing());
+            timing=TIMINGS.get(name);
+        }
+        timing.add(nanos);
+        long millis=nanos/1000000;
+        if(millis>=SLOW_MILLIS)
+        {
+            LOG.log(Level.INFO,"Slow query {0}: {1} ms",new Object[]{name,millis});
+        }
+    }
+
+    /**
+     * A submitted query. cancel(true) interrupts it and suppresses its
+     * result.
+     */
+    public static final class Task<T> extends SwingWorker<T,Void> {
+
+        private final String name;
+        private final Callable<T> query;
+        private final Consumer<? super T> onResult;
+        private final Consumer<Exception> onError;
+        private final AtomicBoolean claimed=new AtomicBoolean();
+        private Form form;
+        private Window window;
+        private volatile long elapsedNanos;
+
+        Task(String name,Callable<T> query,Consumer<? super T> onResult,Consumer<Exception> onError)
+        {
+            this.name=name;
+            this.query=query;
+            this.onResult=onResult;
+            this.onError=onError;
+        }
+
+        /**
+         * Queues the task; EDT only. A form that is already closed gets
+         * no more queries.
+         */
+        void start(Form form,Window window)
+        {
+            if(form!=null)
+            {
+                if(form.closed)
+                {
+                    cancel(false);
+                    return;
+                }
+                this.form=form;
+                this.window=window;
+                form.started(this,window);
+            }
+            EXECUTOR.execute(this);
+        }
+
+        /**
+         * Keeps a task that has not started from ever running.
+         *
+         * @return true if it had not started
+         */
+        boolean abandon()
+        {
+            return claimed.compareAndSet(false,true);
+        }
+
+        @Override
+        protected T doInBackground() throws Exception
+        {
+            if(!claimed.compareAndSet(false,true))
+            {
+                return null;
+            }
+            long start=System.nanoTime();
+            try{
+                return query.call();
+            }finally{
+                elapsedNanos=System.nanoTime()-start;
+                record(name,elapsedNanos);
+                if(form!=null)
+                {
+                    SwingUtilities.invokeLater(new Runnable()
+                    {
+                        public void run()
+                        {
+                            form.ended(Task.this,window);
+                        }
+                    });
+                }
+            }
+        }
+
+        @Override
+        protected void done()
+        {
+            if(isCancelled())
+            {
+                return;
+            }
+            T value;
+            try{
+                value=get();
+            }catch(InterruptedException e)
+            {
+                return;
+            }catch(ExecutionException e)
+            {
+                Throwable cause=e.getCause();
+                onError.accept(cause instanceof Exception ? (Exception)cause : e);
+                return;
+            }
+            onResult.accept(value);
+        }
+
+        public String getName()
+        {
+            return name;
+        }
+
+        /**
+         * @return how long the query ran, 0 until it has finished
+         */
+        public long getElapsedNanos()
+        {
+            return elapsedNanos;
+        }
+    }
+
+    /**
+     * Accumulated run times of one named query.
+     */
+    public static final class Timing {
+
+        private long count;
+        private long totalNanos;
+        private long maxNanos;
+
+        synchronized void add(long nanos)
+        {
+            count++;
+            totalNanos+=nanos;
+            if(nanos>maxNanos)
+            {
+                maxNanos=nanos;
+            }
+        }
+
+        public synchronized long getCount()
+        {
+            return count;
+        }
+
+        public synchronized double getAverageMillis()
+        {
+            return count==0 ? 0 : totalNanos/1e6/count;
+        }
+
+        public synchronized double getMaxMillis()
+        {
+            return maxNanos/1e6;
+        }
+
+        @Override
+        public synchronized String toString()
+        {
+            return count+" runs, avg "+String.format("%.2f",getAverageMillis())+" ms, max "+String.format("%.2f",getMaxMillis())+" ms";
+        }
+    }
+}
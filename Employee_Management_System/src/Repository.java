@@ -0,0 +1,325 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Common plumbing for the table repositories: statement caching and the
+ * conversions between typed values and what the forms show.
+ *
+ * A repository constructed with its table and a query by key publishes
+ * its writes on ChangeBus; findByKey() reads the before and after images.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import javax.swing.table.TableModel;
+import net.proteanit.sql.DbUtils;
+public abstract class Repository<T> {
+
+    /**
+     * Most keys bound in one findByKeys() query, well below SQLite's limit
+     * of 999 parameters.
+     */
+    static final int KEYS_PER_QUERY=512;
+
+    protected final Connection conn;
+    private final String table;
+    private final String findByKey;
+
+    protected Repository(Connection conn)
+    {
+        this(conn,null,null);
+    }
+
+    /**
+     * @param table the table whose writes are published on ChangeBus
+     * @param findByKey a query selecting the row with the key given as its
+     *        only parameter, ending in "where key_column=?" and with the
+     *        key as its first column
+     */
+    protected Repository(Connection conn,String table,String findByKey)
+    {
+        this.conn=conn;
+        this.table=table;
+        this.findByKey=findByKey;
+    }
+
+    public Connection getConnection()
+    {
+        return conn;
+    }
+
+    /**
+     * @return the table written to, or null if writes are not published
+     */
+    public String getTable()
+    {
+        return table;
+    }
+
+    /**
+     * Reads the row with the given key, for a change image.
+     *
+     * @return the row, or null if there is none or writes are not
+     *         published
+     */
+    protected T findByKey(Object key) throws SQLException
+    {
+        if(findByKey==null || key==null)
+        {
+            return null;
+        }
+        List<T> rows=findAll(findByKey,key);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Reads the rows with the given keys, for the change images of a batch,
+     * with one query per KEYS_PER_QUERY keys.
+     *
+     * @return the rows by key as ChangeBus.key() gives it; keys without a
+     *         row are left out
+     */
+    protected Map<Object,T> findByKeys(List<?> keys) throws SQLException
+    {
+        Map<Object,T> rows=new HashMap<Object,T>();
+        if(findByKey==null || keys.isEmpty())
+        {
+            return rows;
+        }
+        if(!findByKey.endsWith("=?"))
+        {
+            throw new IllegalStateException("Cannot read several keys with "+findByKey);
+        }
+        List<Object> unique=new ArrayList<Object>();
+        for(Object key:new LinkedHashSet<Object>(keys))
+        {
+            if(key!=null)
+            {
+                unique.add(ChangeBus.key(key));
+            }
+        }
+        String prefix=findByKey.substring(0,findByKey.length()-2)+" in (?";
+        StatementCache cache=StatementCache.of(conn);
+        for(int from=0;from<unique.size();from+=KEYS_PER_QUERY)
+        {
+            List<Object> chunk=unique.subList(from,Math.min(unique.size(),from+KEYS_PER_QUERY));
+            // The parameter count is rounded up to a power of two, repeating
+            // the last key, so that only a few statements end up cached.
+            int size=8;
+            while(size<chunk.size())
+            {
+                size*=2;
+            }
+            StringBuilder sql=new StringBuilder(prefix);
+            for(int i=1;i<size;i++)
+            {
+                sql.append(",?");
+            }
+            sql.append(')');
+            synchronized(cache)
+            {
+                PreparedStatement pst=cache.prepare(sql.toString());
+                for(int i=0;i<size;i++)
+                {
+                    pst.setObject(i+1,chunk.get(Math.min(i,chunk.size()-1)));
+                }
+                ResultSet rs=pst.executeQuery();
+                try{
+                    while(rs.next())
+                    {
+                        Object key=ChangeBus.key(rs.getObject(1));
+                        if(!rows.containsKey(key))
+                        {
+                            rows.put(key,map(rs));
+                        }
+                    }
+                }finally{
+                    rs.close();
+                }
+            }
+        }
+        return rows;
+    }
+
+    /**
+     * Publishes a committed change of one row on ChangeBus.
+     */
+    protected void publish(Object key,T before,T after)
+    {
+        if(table!=null)
+        {
+            ChangeBus.publish(table,key,before,after);
+        }
+    }
+
+    /**
+     * Maps the current row of a result set. Columns are read by position
+     * in the order of the repository's select list.
+     */
+    protected abstract T map(ResultSet rs) throws SQLException;
+
+    /**
+     * Runs a cached query with a single key and maps the first row.
+     *
+     * @return the row, or null if there is none
+     */
+    protected T findOne(String sql,String key) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            PreparedStatement pst=cache.prepare(sql);
+            pst.setString(1,key);
+            ResultSet rs=pst.executeQuery();
+            try{
+                return rs.next() ? map(rs) : null;
+            }finally{
+                rs.close();
+            }
+        }
+    }
+
+    /**
+     * Runs a cached query with the given parameters and maps every row.
+     */
+    protected List<T> findAll(String sql,Object... params) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            PreparedStatement pst=cache.prepare(sql);
+            for(int i=0;i<params.length;i++)
+            {
+                pst.setObject(i+1,params[i]);
+            }
+            ResultSet rs=pst.executeQuery();
+            try{
+                List<T> rows=new ArrayList<T>();
+                while(rs.next())
+                {
+                    rows.add(map(rs));
+                }
+                return rows;
+            }finally{
+                rs.close();
+            }
+        }
+    }
+
+    /**
+     * Runs a cached insert, update or delete.
+     *
+     * @return the number of rows changed
+     */
+    protected int execute(String sql,Object... params) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            PreparedStatement pst=cache.prepare(sql);
+            for(int i=0;i<params.length;i++)
+            {
+                pst.setObject(i+1,params[i]);
+            }
+            return pst.executeUpdate();
+        }
+    }
+
+    /**
+     * Runs a cached insert and returns the rowid SQLite assigned to it.
+     */
+    protected long insert(String sql,Object... params) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            execute(sql,params);
+            ResultSet rs=cache.prepare("select last_insert_rowid()").executeQuery();
+            try{
+                rs.next();
+                return rs.getLong(1);
+            }finally{
+                rs.close();
+            }
+        }
+    }
+
+    protected static Integer getInteger(ResultSet rs,int column) throws SQLException
+    {
+        int value=rs.getInt(column);
+        return rs.wasNull() ? null : Integer.valueOf(value);
+    }
+
+    protected static Double getDouble(ResultSet rs,int column) throws SQLException
+    {
+        double value=rs.getDouble(column);
+        return rs.wasNull() ? null : Double.valueOf(value);
+    }
+
+    /**
+     * @return the number typed into a text field, null if it is blank
+     * @throws NumberFormatException if the text is not a whole number
+     */
+    public static Integer toInteger(String text)
+    {
+        return text==null || text.trim().isEmpty() ? null : Integer.valueOf(text.trim());
+    }
+
+    /**
+     * @return the id typed into a text field, null if it is blank
+     * @throws NumberFormatException if the text is not a whole number
+     */
+    public static Long toLong(String text)
+    {
+        return text==null || text.trim().isEmpty() ? null : Long.valueOf(text.trim());
+    }
+
+    /**
+     * @return the number typed into a text field, null if it is blank
+     * @throws NumberFormatException if the text is not a number
+     */
+    public static Double toDouble(String text)
+    {
+        return text==null || text.trim().isEmpty() ? null : Double.valueOf(text.trim());
+    }
+
+    /**
+     * @return the value as a text field shows it, "" for null
+     */
+    public static String text(Object value)
+    {
+        return value==null ? "" : value.toString();
+    }
+
+    /**
+     * Runs a cached query and copies its rows into a table model, for the
+     * forms that show a query's result as it is. Meant to be run through
+     * QueryExecutor, off the EDT.
+     */
+    public static TableModel tableModel(Connection conn,String sql,Object... params) throws SQLException
+    {
+        StatementCache cache=StatementCache.of(conn);
+        synchronized(cache)
+        {
+            PreparedStatement pst=cache.prepare(sql);
+            for(int i=0;i<params.length;i++)
+            {
+                pst.setObject(i+1,params[i]);
+            }
+            ResultSet rs=pst.executeQuery();
+            try{
+                return DbUtils.resultSetToTableModel(rs);
+            }finally{
+                rs.close();
+            }
+        }
+    }
+}
@@ -116,26 +116,23 @@ public class SalesEmp extends javax.swing.JFrame {
 
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
         // TODO add your handling code here:
-        EmpLog ob=new EmpLog();
-        ob.setVisible(true);
+        Navigator.show(EmpLog.class);
     }//GEN-LAST:event_jButton1ActionPerformed
 
     private void jButton2ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton2ActionPerformed
         // TODO add your handling code here:
-        EmpLog6 ob=new EmpLog6();
-        ob.setVisible(true);
+        Navigator.show(EmpLog6.class);
     }//GEN-LAST:event_jButton2ActionPerformed
 
     private void jButton3ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton3ActionPerformed
         // TODO add your handling code here:
-        EmpLog7 ob=new EmpLog7();
-        ob.setVisible(true);
+        Navigator.show(EmpLog7.class);
     }//GEN-LAST:event_jButton3ActionPerformed
 
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
+            Navigator.retain(this);
            // new Emp().setVisible(true);
             // exit(0);
 
@@ -0,0 +1,223 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Brings the database schema up to date at startup. Each migration has a
+ * version number and runs once, in its own transaction, together with
+ * the row recording it in Schema_version. A database is never migrated
+ * downwards: one newer than this build is left alone with a warning.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+public final class SchemaMigrator {
+
+    private static final Logger LOG=Logger.getLogger(SchemaMigrator.class.getName());
+
+    static final String CREATE_VERSION_TABLE="create table if not exists Schema_version("
+            +"Version INTEGER PRIMARY KEY NOT NULL,"
+            +"Description CHAR,"
+            +"Applied_at CHAR NOT NULL DEFAULT CURRENT_TIMESTAMP)";
+
+    /** All migrations, in version order. Append only; never edit one that has shipped. */
+    static final List<Migration> MIGRATIONS;
+
+    static
+    {
+        List<Migration> list=new ArrayList<Migration>();
+        // Employee_id is the rowid of Emp_info and Works_on, so it needs no index.
+        list.add(new Migration(1,"Index the columns the forms search on",
+                "create index if not exists Emp_info_name on Emp_info(Name)",
+                "create index if not exists Emp_info_department on Emp_info(Department,Employee_id)",
+                "create index if not exists Emp_info_designation on Emp_info(Designation)",
+                "create index if not exists Emp_info_login on Emp_info(Username,Password)",
+                "create index if not exists Works_on_department on Works_on(Department)",
+                "create index if not exists Works_on_project on Works_on(Project_No)",
+                "create index if not exists Project_dept on Project(Dept_id)"));
+        list.add(new Migration(2,"Store numeric columns as numbers",
+                numeric("Emp_info","Age","INTEGER"),
+                numeric("Emp_info","Salary","REAL"),
+                numeric("Works_on","Project_No","INTEGER"),
+                numeric("Works_on","Hours","INTEGER"),
+                numeric("Works_on","Bonus","REAL"),
+                numeric("Bonus","Bonus","REAL"),
+                numeric("Project","Dept_id","INTEGER"),
+                numeric("Department","Manager_id","INTEGER")));
+        list.add(new Migration(3,"Department statistics table")
+        {
+            @Override
+            void apply(Connection conn) throws SQLException
+            {
+                DepartmentStatsRepository.install(conn);
+            }
+        });
+        list.add(new Migration(4,"Hashed logins in Credentials",CredentialRepository.INSTALL)
+        {
+            @Override
+            void apply(Connection conn) throws SQLException
+            {
+                super.apply(conn);
+                Statement st=conn.createStatement();
+                try{
+                    ResultSet rs=st.executeQuery("select Employee_id,Password from Emp_info "
+                            +"where Username is not null and Password is not null and Password<>''");
+                    try{
+                        while(rs.next())
+                        {
+                            AuthService.setPassword(conn,rs.getLong(1),rs.getString(2).toCharArray());
+                        }
+                    }finally{
+                        rs.close();
+                    }
+                    st.executeUpdate("update Emp_info set Password=null");
+                    st.execute("drop index if exists Emp_info_login");
+                }finally{
+                    st.close();
+                }
+            }
+        });
+        list.add(new Migration(5,"Payroll table and change tracking",PayrollEngine.INSTALL));
+        list.add(new Migration(6,"Project hours table")
+        {
+            @Override
+            void apply(Connection conn) throws SQLException
+            {
+                ProjectHoursRepository.install(conn);
+            }
+        });
+        MIGRATIONS=Collections.unmodifiableList(list);
+    }
+
+    private SchemaMigrator()
+    {
+    }
+
+    /**
+     * @return the version this build brings the schema to
+     */
+    public static int getLatestVersion()
+    {
+        return MIGRATIONS.get(MIGRATIONS.size()-1).version;
+    }
+
+    /**
+     * @return the recorded schema version, 0 for a database never migrated
+     */
+    public static int getVersion(Connection conn) throws SQLException
+    {
+        Statement st=conn.createStatement();
+        try{
+            st.execute(CREATE_VERSION_TABLE);
+            ResultSet rs=st.executeQuery("select ifnull(max(Version),0) from Schema_version");
+            try{
+                return rs.next() ? rs.getInt(1) : 0;
+            }finally{
+                rs.close();
+            }
+        }finally{
+            st.close();
+        }
+    }
+
+    /**
+     * Applies every migration newer than the recorded version.
+     *
+     * @return the number of migrations applied
+     */
+    public static int migrate(Connection conn) throws SQLException
+    {
+        int current=getVersion(conn);
+        if(current>getLatestVersion())
+        {
+            LOG.log(Level.WARNING,"Database schema version {0} is newer than this build ({1})",
+                    new Object[]{current,getLatestVersion()});
+            return 0;
+        }
+        int applied=0;
+        boolean autoCommit=conn.getAutoCommit();
+        try{
+            for(Migration m:MIGRATIONS)
+            {
+                if(m.version<=current)
+                {
+                    continue;
+                }
+                conn.setAutoCommit(false);
+                try{
+                    long start=System.nanoTime();
+                    m.apply(conn);
+                    PreparedStatement pst=conn.prepareStatement("insert into Schema_version(Version,Description) values(?,?)");
+                    try{
+                        pst.setInt(1,m.version);
+                        pst.setString(2,m.description);
+                        pst.executeUpdate();
+                    }finally{
+                        pst.close();
+                    }
+                    conn.commit();
+                    applied++;
+                    LOG.log(Level.INFO,"Applied schema migration {0} ({1}) in {2} ms",
+                            new Object[]{m.version,m.description,(System.nanoTime()-start)/1000000});
+                }catch(SQLException e)
+                {
+                    conn.rollback();
+                    throw new SQLException("Schema migration "+m.version+" ("+m.description+") failed",e);
+                }
+            }
+        }finally{
+            conn.setAutoCommit(autoCommit);
+        }
+        return applied;
+    }
+
+    /**
+     * Rewrites text values of a numeric column as numbers, so comparisons
+     * and aggregates need no coercion. Blank text becomes null; anything
+     * that does not look like a number is left as it is.
+     */
+    static String numeric(String table,String column,String type)
+    {
+        String value="trim("+column+")";
+        return "update "+table+" set "+column+"=case when "+value+"='' then null else cast("+value+" as "+type+") end "
+                +"where typeof("+column+")='text' and ("+value+"='' or "+value+" glob '*[0-9]*' and "
+                +value+" not glob '*[^0-9.eE+-]*')";
+    }
+
+    /**
+     * One schema change. The default runs its SQL statements in order.
+     */
+    static class Migration {
+
+        final int version;
+        final String description;
+        private final String[] sql;
+
+        Migration(int version,String description,String... sql)
+        {
+            this.version=version;
+            this.description=description;
+            this.sql=sql;
+        }
+
+        void apply(Connection conn) throws SQLException
+        {
+            Statement st=conn.createStatement();
+            try{
+                for(String s:sql)
+                {
+                    st.execute(s);
+                }
+            }finally{
+                st.close();
+            }
+        }
+    }
+}
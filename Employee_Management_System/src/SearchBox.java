@@ -0,0 +1,264 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Turns a form's search field into a type-ahead box. Once typing pauses
+ * for DELAY ms the text is looked up in EmployeeSearchIndex, without a
+ * database round trip, and the best matches are listed under the field.
+ * Up and Down move through the list, Enter or a click picks an employee,
+ * Escape closes it. The first search of a session loads the index in the
+ * background and lists the matches when it is ready.
+ *
+ * EDT only.
+ *
+ * @author prateek
+ */
+import java.awt.Component;
+import java.awt.event.ActionEvent;
+import java.awt.event.ActionListener;
+import java.awt.event.FocusAdapter;
+import java.awt.event.FocusEvent;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.DefaultListCellRenderer;
+import javax.swing.DefaultListModel;
+import javax.swing.JList;
+import javax.swing.JPopupMenu;
+import javax.swing.JScrollPane;
+import javax.swing.JTextField;
+import javax.swing.ListSelectionModel;
+import javax.swing.Timer;
+import javax.swing.event.DocumentEvent;
+import javax.swing.event.DocumentListener;
+public final class SearchBox {
+
+    static final int DELAY=150;
+    static final int LIMIT=10;
+
+    private static final Logger LOG=Logger.getLogger(SearchBox.class.getName());
+
+    private final JTextField field;
+    private final EmployeeRepository employees;
+    private final String department;
+    private final Consumer<EmployeeRecord> onPick;
+
+    private final Timer timer;
+    private final DefaultListModel<EmployeeRecord> results=new DefaultListModel<EmployeeRecord>();
+    private final JList<EmployeeRecord> list=new JList<EmployeeRecord>(results);
+    private final JPopupMenu popup=new JPopupMenu();
+    /** Set while the field is filled in from a pick, so that is not searched. */
+    private boolean picking;
+
+    private SearchBox(JTextField field,EmployeeRepository employees,String department,Consumer<EmployeeRecord> onPick)
+    {
+        this.field=field;
+        this.employees=employees;
+        this.department=department;
+        this.onPick=onPick;
+        timer=new Timer(DELAY,new ActionListener()
+        {
+            public void actionPerformed(ActionEvent e)
+            {
+                search();
+            }
+        });
+        timer.setRepeats(false);
+    }
+
+    /**
+     * @param department only list employees of this department, or null
+     *        for everyone
+     * @param onPick shows the picked employee on the form
+     */
+    public static SearchBox install(JTextField field,EmployeeRepository employees,String department,Consumer<EmployeeRecord> onPick)
+    {
+        SearchBox box=new SearchBox(field,employees,department,onPick);
+        box.listen();
+        return box;
+    }
+
+    private void listen()
+    {
+        list.setSelectionMode(ListSelectionModel.SINGLE_SELECTION);
+        list.setFocusable(false);
+        list.setCellRenderer(new DefaultListCellRenderer()
+        {
+            @Override
+            public Component getListCellRendererComponent(JList<?> l,Object value,int index,boolean selected,boolean focus)
+            {
+                EmployeeRecord emp=(EmployeeRecord)value;
+                String text=emp.getEmployeeId()+"  "+Repository.text(emp.getName())+" "+Repository.text(emp.getSurname())
+                        +(emp.getUsername()==null ? "" : "  ("+emp.getUsername()+")");
+                return super.getListCellRendererComponent(l,text,index,selected,focus);
+            }
+        });
+        list.addMouseListener(new MouseAdapter()
+        {
+            @Override
+            public void mouseClicked(MouseEvent e)
+            {
+                int index=list.locationToIndex(e.getPoint());
+                if(index>=0)
+                {
+                    pick(results.get(index));
+                }
+            }
+        });
+        JScrollPane scroll=new JScrollPane(list);
+        scroll.setBorder(null);
+        popup.add(scroll);
+        popup.setFocusable(false);
+
+        field.getDocument().addDocumentListener(new DocumentListener()
+        {
+            public void insertUpdate(DocumentEvent e)
+            {
+                changed();
+            }
+
+            public void removeUpdate(DocumentEvent e)
+            {
+                changed();
+            }
+
+            public void changedUpdate(DocumentEvent e)
+            {
+            }
+        });
+        field.addKeyListener(new KeyAdapter()
+        {
+            @Override
+            public void keyPressed(KeyEvent e)
+            {
+                if(!popup.isVisible())
+                {
+                    return;
+                }
+                int index=list.getSelectedIndex();
+                switch(e.getKeyCode())
+                {
+                    case KeyEvent.VK_DOWN:
+                        select(Math.min(index+1,results.size()-1));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_UP:
+                        select(Math.max(index-1,0));
+                        e.consume();
+                        break;
+                    case KeyEvent.VK_ENTER:
+                        if(index>=0)
+                        {
+                            pick(results.get(index));
+                            e.consume();
+                        }
+                        break;
+                    case KeyEvent.VK_ESCAPE:
+                        popup.setVisible(false);
+                        e.consume();
+                        break;
+                    default:
+                }
+            }
+        });
+        field.addFocusListener(new FocusAdapter()
+        {
+            @Override
+            public void focusLost(FocusEvent e)
+            {
+                if(e.isTemporary())
+                {
+                    return;
+                }
+                timer.stop();
+                popup.setVisible(false);
+            }
+        });
+    }
+
+    private void changed()
+    {
+        if(!picking)
+        {
+            timer.restart();
+        }
+    }
+
+    private void search()
+    {
+        final String query=field.getText();
+        if(query.trim().isEmpty())
+        {
+            popup.setVisible(false);
+            return;
+        }
+        final EmployeeSearchIndex index=EmployeeSearchIndex.get();
+        if(!index.isLoaded())
+        {
+            QueryExecutor.submit(field,"index Emp_info",()->{
+                index.load(employees);
+                return index.size();
+            },size->{
+                if(query.equals(field.getText()) && field.isShowing())
+                {
+                    search();
+                }
+            },e->LOG.log(Level.WARNING,"Could not load the employee search index",e));
+            return;
+        }
+        show(index.search(query,department,LIMIT));
+    }
+
+    private void show(List<EmployeeRecord> hits)
+    {
+        results.clear();
+        for(EmployeeRecord emp:hits)
+        {
+            results.addElement(emp);
+        }
+        if(hits.isEmpty() || !field.isShowing() || !field.hasFocus())
+        {
+            popup.setVisible(false);
+            return;
+        }
+        list.setVisibleRowCount(Math.min(hits.size(),LIMIT));
+        select(0);
+        popup.pack();
+        popup.setPreferredSize(null);
+        if(popup.getPreferredSize().width<field.getWidth())
+        {
+            popup.setPopupSize(field.getWidth(),popup.getPreferredSize().height);
+        }
+        popup.show(field,0,field.getHeight());
+    }
+
+    private void select(int index)
+    {
+        if(index>=0)
+        {
+            list.setSelectedIndex(index);
+            list.ensureIndexIsVisible(index);
+        }
+    }
+
+    private void pick(EmployeeRecord emp)
+    {
+        timer.stop();
+        popup.setVisible(false);
+        picking=true;
+        try{
+            field.setText(String.valueOf(emp.getEmployeeId()));
+        }finally{
+            picking=false;
+        }
+        onPick.accept(emp);
+    }
+}
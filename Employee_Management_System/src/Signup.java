@@ -25,7 +25,7 @@ import javax.swing.text.Document;
 import net.proteanit.sql.DbUtils;
 import java.lang.String;
 
-public class Signup extends javax.swing.JFrame {
+public class Signup extends javax.swing.JFrame implements Navigator.Refreshable {
   Connection conn;
     ResultSet rs;
     PreparedStatement pst;
@@ -34,7 +34,7 @@ public class Signup extends javax.swing.JFrame {
      */
     public Signup() {
         initComponents();
-         conn=javaconnect.ConnecrDb();
+         conn=javaconnect.ConnecrDb(this);
        //Update();
              
     }
@@ -61,6 +61,15 @@ public class Signup extends javax.swing.JFrame {
             }
         }
     }
+*/
+
+    /**
+     * Clears the password when the form is shown again.
+     */
+    public void refresh()
+    {
+        jPasswordField1.setText("");
+    }
 
     /**
      * This method is called from within the constructor to initialize the form.
@@ -244,7 +253,7 @@ public class Signup extends javax.swing.JFrame {
                     .addComponent(jButton4)))
         );
 
-        jLabel16.setIcon(new javax.swing.ImageIcon("/home/prateek/NetBeansProjects/Employee_Management_System/index.png")); // NOI18N
+        jLabel16.setIcon(ImageAssets.icon("index.png")); // NOI18N
 
         javax.swing.GroupLayout layout = new javax.swing.GroupLayout(getContentPane());
         getContentPane().setLayout(layout);
@@ -278,42 +287,68 @@ public class Signup extends javax.swing.JFrame {
                 JOptionPane.showMessageDialog(null, "Missing field!!Please check");
             }
             else{
-           try{
-               
-            String sql="Insert into Emp_info(Name,Surname,Age,Username,Password,Gender,Department,Designation) values(?,?,?,?,?,?,?,?)";
-            pst=conn.prepareStatement(sql);
-      
-            pst.setString(1, jTextField2.getText());
-            pst.setString(2, jTextField3.getText());
-            String value3=jComboBox5.getSelectedItem().toString();
-             pst.setString(3,value3);
-            pst.setString(4, jTextField1.getText());
-            pst.setString(5, jPasswordField1.getText());
-             String value6=jComboBox4.getSelectedItem().toString();
-             pst.setString(6,value6);
-            String value7=jComboBox2.getSelectedItem().toString();
-             pst.setString(7,value7);
-            String value8=jComboBox3.getSelectedItem().toString();
-             pst.setString(8,value8);
-        
-            pst.execute();
-            JOptionPane.showMessageDialog(null,"Data Saved Successfully! You will be notified once the details are approved by Admin");
-            JOptionPane.showMessageDialog(null, "Data Saved Using Stored Procedure");
-        }catch(Exception e)
-        {
-           
-
-            JOptionPane.showMessageDialog(null, "Error in some field!!Please check");
-           
-        }
-           finally{   try {
-              
-               rs.close();
-               pst.close();
-               } catch (SQLException ex) {
-                   Logger.getLogger(Signup.class.getName()).log(Level.SEVERE, null, ex);
-               }
-            }
+            final String name=jTextField2.getText();
+            final String surname=jTextField3.getText();
+            final String age=jComboBox5.getSelectedItem().toString();
+            final String username=jTextField1.getText();
+            final char[] password=jPasswordField1.getPassword();
+            final String gender=jComboBox4.getSelectedItem().toString();
+            final String department=jComboBox2.getSelectedItem().toString();
+            final String designation=jComboBox3.getSelectedItem().toString();
+            jButton1.setEnabled(false);
+            QueryExecutor.submit(this,"insert Emp_info",()->{
+                // The password goes to Credentials as a salted hash, never into Emp_info.
+                // The cache's lock keeps other tasks on the form's connection
+                // out of the transaction, so last_insert_rowid() is this insert's.
+                synchronized(StatementCache.of(conn))
+                {
+                    conn.setAutoCommit(false);
+                    try{
+                        String sql="Insert into Emp_info(Name,Surname,Age,Username,Gender,Department,Designation) values(?,?,?,?,?,?,?)";
+                        PreparedStatement insert=conn.prepareStatement(sql);
+                        try{
+                            insert.setString(1,name);
+                            insert.setString(2,surname);
+                            insert.setObject(3,Repository.toInteger(age));
+                            insert.setString(4,username);
+                            insert.setString(5,gender);
+                            insert.setString(6,department);
+                            insert.setString(7,designation);
+                            insert.executeUpdate();
+                        }finally{
+                            insert.close();
+                        }
+                        Statement st=conn.createStatement();
+                        long id;
+                        try{
+                            ResultSet key=st.executeQuery("select last_insert_rowid()");
+                            key.next();
+                            id=key.getLong(1);
+                            key.close();
+                        }finally{
+                            st.close();
+                        }
+                        AuthService.setPassword(conn,id,password);
+                        conn.commit();
+                        new EmployeeRepository(conn).publishInsert(id);
+                        return id;
+                    }catch(Exception e)
+                    {
+                        conn.rollback();
+                        throw e;
+                    }finally{
+                        conn.setAutoCommit(true);
+                    }
+                }
+            },id->{
+                jButton1.setEnabled(true);
+                JOptionPane.showMessageDialog(null,"Data Saved Successfully! You will be notified once the details are approved by Admin");
+                JOptionPane.showMessageDialog(null, "Data Saved Using Stored Procedure");
+            },e->{
+                jButton1.setEnabled(true);
+                Logger.getLogger(Signup.class.getName()).log(Level.WARNING,null,e);
+                JOptionPane.showMessageDialog(null, "Error in some field!!Please check");
+            });
     }                              
     }
     private void jButton1ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton1ActionPerformed
@@ -325,7 +360,7 @@ public class Signup extends javax.swing.JFrame {
     private void jButton4ActionPerformed(java.awt.event.ActionEvent evt) {//GEN-FIRST:event_jButton4ActionPerformed
         // TODO add your handling code here:
         try{
-            dispose();
+            Navigator.retain(this);
            // new Emp().setVisible(true);
             // exit(0);
 
@@ -0,0 +1,123 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Keeps the compiled statements of one connection so that a fixed query is
+ * prepared once per connection instead of once per button click. Since
+ * pooled connections outlive the forms, a form opened later reuses the
+ * statements compiled by an earlier one.
+ *
+ * Callers must hold the cache's lock while using a statement it returned.
+ * The cache and its statements refer to their connection, so they are
+ * dropped explicitly with discard() when the pool closes the connection.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.HashMap;
+import java.util.Map;
+public class StatementCache {
+
+    private static final Map<Connection,StatementCache> CACHES=new HashMap<Connection,StatementCache>();
+
+    private final Connection conn;
+    private final Map<String,PreparedStatement> statements=new HashMap<String,PreparedStatement>();
+    private long hits;
+    private long misses;
+
+    private StatementCache(Connection conn)
+    {
+        this.conn=conn;
+    }
+
+    /**
+     * @return the cache belonging to the given connection
+     */
+    public static StatementCache of(Connection conn) throws SQLException
+    {
+        if(conn==null)
+        {
+            throw new SQLException("No database connection");
+        }
+        synchronized(CACHES)
+        {
+            StatementCache cache=CACHES.get(conn);
+            if(cache==null)
+            {
+                cache=new StatementCache(conn);
+                CACHES.put(conn,cache);
+            }
+            return cache;
+        }
+    }
+
+    /**
+     * Closes and forgets the statements of a connection that is about to
+     * be closed.
+     */
+    public static void discard(Connection conn)
+    {
+        StatementCache cache;
+        synchronized(CACHES)
+        {
+            cache=CACHES.remove(conn);
+        }
+        if(cache!=null)
+        {
+            cache.clear();
+        }
+    }
+
+    /**
+     * Returns the cached statement for the sql, preparing it on first use.
+     * Parameters left over from the previous use are cleared.
+     */
+    public synchronized PreparedStatement prepare(String sql) throws SQLException
+    {
+        PreparedStatement pst=statements.get(sql);
+        if(pst!=null && !pst.isClosed())
+        {
+            hits++;
+            pst.clearParameters();
+            return pst;
+        }
+        misses++;
+        pst=conn.prepareStatement(sql);
+        statements.put(sql,pst);
+        return pst;
+    }
+
+    /**
+     * Closes every cached statement.
+     */
+    public synchronized void clear()
+    {
+        for(PreparedStatement pst:statements.values())
+        {
+            try{
+                pst.close();
+            }catch(SQLException e)
+            {
+            }
+        }
+        statements.clear();
+    }
+
+    public synchronized int size()
+    {
+        return statements.size();
+    }
+
+    public synchronized long getHits()
+    {
+        return hits;
+    }
+
+    public synchronized long getMisses()
+    {
+        return misses;
+    }
+}
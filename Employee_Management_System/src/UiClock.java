@@ -0,0 +1,201 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * The date and time shown in the forms' menu bars. One daemon thread
+ * ticks once a second, on the second, and only while some form is
+ * subscribed. Each tick is formatted once and handed to the subscribers
+ * on the EDT; if the EDT is busy, ticks it has not picked up yet are
+ * replaced by the newest rather than queued.
+ *
+ * A subscription tied to a window ends when the window is disposed.
+ *
+ * @author prateek
+ */
+import java.awt.Window;
+import java.awt.event.WindowAdapter;
+import java.awt.event.WindowEvent;
+import java.util.ArrayList;
+import java.util.Calendar;
+import java.util.GregorianCalendar;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.function.Consumer;
+import javax.swing.SwingUtilities;
+public final class UiClock {
+
+    private static final ScheduledExecutorService SCHEDULER=Executors.newSingleThreadScheduledExecutor(new ThreadFactory()
+    {
+        public Thread newThread(Runnable r)
+        {
+            Thread t=new Thread(r,"ui-clock");
+            t.setDaemon(true);
+            return t;
+        }
+    });
+
+    /** Subscribers; only touched on the EDT. */
+    private static final List<Subscription> SUBSCRIBERS=new ArrayList<Subscription>();
+
+    /** Newest tick not yet delivered; null once the EDT has taken it. */
+    private static final AtomicReference<Tick> PENDING=new AtomicReference<Tick>();
+
+    /** Only used on the clock thread. */
+    private static final Calendar CAL=new GregorianCalendar();
+
+    private static ScheduledFuture<?> ticking;
+    private static Tick last;
+
+    private UiClock()
+    {
+    }
+
+    /**
+     * Calls the listener on the EDT now and then every second until the
+     * window is disposed. Must be called on the EDT.
+     */
+    public static Subscription subscribe(final Window window,Consumer<Tick> listener)
+    {
+        final Subscription s=subscribe(listener);
+        window.addWindowListener(new WindowAdapter()
+        {
+            @Override
+            public void windowClosed(WindowEvent e)
+            {
+                s.cancel();
+                window.removeWindowListener(this);
+            }
+        });
+        return s;
+    }
+
+    /**
+     * Calls the listener on the EDT now and then every second until the
+     * subscription is cancelled. Must be called on the EDT.
+     */
+    public static Subscription subscribe(Consumer<Tick> listener)
+    {
+        Subscription s=new Subscription(listener);
+        SUBSCRIBERS.add(s);
+        if(ticking==null)
+        {
+            long now=System.currentTimeMillis();
+            ticking=SCHEDULER.scheduleAtFixedRate(new Runnable()
+            {
+                public void run()
+                {
+                    publish(format(System.currentTimeMillis()));
+                }
+            },1000-now%1000,1000,TimeUnit.MILLISECONDS);
+            last=null;
+        }
+        listener.accept(last!=null ? last : format(System.currentTimeMillis()));
+        return s;
+    }
+
+    /**
+     * @return the number of live subscriptions; EDT only
+     */
+    public static int getSubscriberCount()
+    {
+        return SUBSCRIBERS.size();
+    }
+
+    private static Tick format(long millis)
+    {
+        synchronized(CAL)
+        {
+            CAL.setTimeInMillis(millis);
+            return new Tick(CAL.get(Calendar.DAY_OF_MONTH)+"-"+(CAL.get(Calendar.MONTH)+1)+"-"+CAL.get(Calendar.YEAR),
+                    CAL.get(Calendar.HOUR)+":"+CAL.get(Calendar.MINUTE)+":"+CAL.get(Calendar.SECOND));
+        }
+    }
+
+    private static void publish(Tick tick)
+    {
+        if(PENDING.getAndSet(tick)!=null)
+        {
+            return;
+        }
+        SwingUtilities.invokeLater(new Runnable()
+        {
+            public void run()
+            {
+                Tick t=PENDING.getAndSet(null);
+                if(t==null)
+                {
+                    return;
+                }
+                last=t;
+                for(Subscription s:SUBSCRIBERS.toArray(new Subscription[0]))
+                {
+                    s.listener.accept(t);
+                }
+            }
+        });
+    }
+
+    private static void unsubscribe(Subscription s)
+    {
+        SUBSCRIBERS.remove(s);
+        if(SUBSCRIBERS.isEmpty() && ticking!=null)
+        {
+            ticking.cancel(false);
+            ticking=null;
+        }
+    }
+
+    /**
+     * A listener receiving ticks.
+     */
+    public static final class Subscription {
+
+        private final Consumer<Tick> listener;
+
+        Subscription(Consumer<Tick> listener)
+        {
+            this.listener=listener;
+        }
+
+        /** Stops the ticks; EDT only. */
+        public void cancel()
+        {
+            unsubscribe(this);
+        }
+    }
+
+    /**
+     * One second of the clock, as the menu bars show it.
+     */
+    public static final class Tick {
+
+        private final String date;
+        private final String time;
+
+        Tick(String date,String time)
+        {
+            this.date=date;
+            this.time=time;
+        }
+
+        /** Day-month-year, e.g. 7-3-2016. */
+        public String getDate()
+        {
+            return date;
+        }
+
+        /** Hour (of 12), minute and second, e.g. 4:5:9. */
+        public String getTime()
+        {
+            return time;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Outcome of a BatchUpdate: how many rows were sent, how many the
+ * database changed and how long the transaction took.
+ *
+ * @author prateek
+ */
+public final class UpdateResult {
+
+    private final int rowsSent;
+    private final int rowsAffected;
+    private final long elapsedNanos;
+
+    public UpdateResult(int rowsSent,int rowsAffected,long elapsedNanos)
+    {
+        this.rowsSent=rowsSent;
+        this.rowsAffected=rowsAffected;
+        this.elapsedNanos=elapsedNanos;
+    }
+
+    public int getRowsSent()
+    {
+        return rowsSent;
+    }
+
+    public int getRowsAffected()
+    {
+        return rowsAffected;
+    }
+
+    public long getElapsedNanos()
+    {
+        return elapsedNanos;
+    }
+
+    public double getElapsedMillis()
+    {
+        return elapsedNanos/1e6;
+    }
+
+    @Override
+    public String toString()
+    {
+        return rowsAffected+" of "+rowsSent+" rows updated in "+String.format("%.2f",getElapsedMillis())+" ms";
+    }
+}
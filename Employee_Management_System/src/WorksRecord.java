@@ -0,0 +1,84 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * One row of Works_on.
+ *
+ * @author prateek
+ */
+public final class WorksRecord implements LiveTable.Row {
+
+    private final long employeeId;
+    private final Integer projectNo;
+    private final String department;
+    private final Integer hours;
+    private final Double bonus;
+
+    public WorksRecord(long employeeId,Integer projectNo,String department,Integer hours,Double bonus)
+    {
+        this.employeeId=employeeId;
+        this.projectNo=projectNo;
+        this.department=department;
+        this.hours=hours;
+        this.bonus=bonus;
+    }
+
+    /** Employee_id */
+    public long getEmployeeId()
+    {
+        return employeeId;
+    }
+
+    /** Project_No */
+    public Integer getProjectNo()
+    {
+        return projectNo;
+    }
+
+    /** Department */
+    public String getDepartment()
+    {
+        return department;
+    }
+
+    /** Hours */
+    public Integer getHours()
+    {
+        return hours;
+    }
+
+    /** Bonus */
+    public Double getBonus()
+    {
+        return bonus;
+    }
+
+    @Override
+    public Object getColumn(String label)
+    {
+        switch(label)
+        {
+            case "Employee_id":
+                return employeeId;
+            case "Project_No":
+                return projectNo;
+            case "Department":
+                return department;
+            case "Hours":
+                return hours;
+            case "Bonus":
+                return bonus;
+            default:
+                return null;
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "WorksRecord["+employeeId+", "+projectNo+"]";
+    }
+}
@@ -0,0 +1,108 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+/**
+ * Reads and updates Works_on through statements cached on the connection.
+ * Every write is published on ChangeBus.
+ *
+ * @author prateek
+ */
+import java.sql.*;
+import java.util.List;
+public class WorksRepository extends Repository<WorksRecord> {
+
+    static final String COLUMNS="Employee_id,Project_No,Department,Hours,Bonus";
+    static final String SELECT="select "+COLUMNS+" from Works_on";
+    static final String FIND_BY_EMPLOYEE=SELECT+" where Employee_id=?";
+    static final String FIND_BY_DEPARTMENT=SELECT+" where Department=?";
+    static final String FIND_BY_PROJECT=SELECT+" where Project_No=?";
+    static final String FIND_ALL=SELECT;
+    static final String INSERT="insert into Works_on(Employee_id,Project_No,Department,Hours,Bonus) values(?,?,?,?,?)";
+    static final String DELETE="delete from Works_on where Employee_id=?";
+    static final String DELETE_IN_DEPARTMENT=DELETE+" and Department=?";
+
+    public WorksRepository(Connection conn)
+    {
+        super(conn,ChangeBus.WORKS_ON,FIND_BY_EMPLOYEE);
+    }
+
+    /**
+     * @param employeeId the Employee_id as typed into a form
+     * @return the assignment, or null if there is none
+     */
+    public WorksRecord findByEmployee(String employeeId) throws SQLException
+    {
+        return findOne(FIND_BY_EMPLOYEE,employeeId);
+    }
+
+    public List<WorksRecord> findByDepartment(String department) throws SQLException
+    {
+        return findAll(FIND_BY_DEPARTMENT,department);
+    }
+
+    public List<WorksRecord> findByProject(long projectNo) throws SQLException
+    {
+        return findAll(FIND_BY_PROJECT,projectNo);
+    }
+
+    public List<WorksRecord> findAll() throws SQLException
+    {
+        return findAll(FIND_ALL);
+    }
+
+    /**
+     * Starts a batched update of the given Works_on columns.
+     */
+    public BatchUpdate newUpdate(String... columns)
+    {
+        return new BatchUpdate(this,"Employee_id",columns);
+    }
+
+    /**
+     * Assigns an employee to a project.
+     *
+     * @param employeeId the Employee_id, or null to let the database assign one
+     * @return the Employee_id of the new row
+     */
+    public long insert(Long employeeId,Integer projectNo,String department,Integer hours,Double bonus) throws SQLException
+    {
+        long newId=insert(INSERT,employeeId,projectNo,department,hours,bonus);
+        publish(newId,null,findByKey(newId));
+        return newId;
+    }
+
+    /**
+     * @param department only if the assignment is in this department, or
+     *        null for any
+     * @return the number of rows deleted
+     */
+    public int delete(long employeeId,String department) throws SQLException
+    {
+        WorksRecord before=findByKey(employeeId);
+        int rows=department==null ? execute(DELETE,employeeId) : execute(DELETE_IN_DEPARTMENT,employeeId,department);
+        if(rows>0)
+        {
+            publish(employeeId,before,null);
+        }
+        return rows;
+    }
+
+    public UpdateResult update(String employeeId,Integer projectNo,String department,Integer hours) throws SQLException
+    {
+        return newUpdate("Project_No","Department","Hours").add(employeeId,projectNo,department,hours).execute();
+    }
+
+    public UpdateResult update(String employeeId,Integer projectNo,String department,Integer hours,Double bonus) throws SQLException
+    {
+        return newUpdate("Project_No","Department","Hours","Bonus").add(employeeId,projectNo,department,hours,bonus).execute();
+    }
+
+    @Override
+    protected WorksRecord map(ResultSet rs) throws SQLException
+    {
+        return new WorksRecord(rs.getLong(1),getInteger(rs,2),rs.getString(3),getInteger(rs,4),getDouble(rs,5));
+    }
+}
@@ -5,31 +5,164 @@
  */
 
 /**
+ * Hands out database connections from one shared pool. A form that passes
+ * itself to ConnecrDb gets its connection returned automatically once the
+ * form is disposed and its background queries have finished.
+ *
+ * The database location and pragmas come from DbConfig.
  *
  * @author prateek
  */
+import java.awt.Window;
 import java.sql.*;
+import java.util.Map;
 import javax.swing.JOptionPane;
 public class javaconnect {
 
-   
+    private static DbConfig config;
+    private static ConnectionPool pool;
+
     Connection conn=null;
     ResultSet rs;
     PreparedStatement pst;
-    
+
+    /**
+     * @return the shared pool, created, checked and migrated on first use
+     */
+    public static synchronized ConnectionPool getPool() throws SQLException
+    {
+        if(pool==null)
+        {
+            try{
+                Class.forName("org.sqlite.JDBC");
+            }catch(ClassNotFoundException e)
+            {
+                throw new SQLException("SQLite driver not found",e);
+            }
+            final DbConfig cfg=getConfig();
+            ConnectionPool created=new ConnectionPool(cfg.getUrl(),cfg.getPoolSize(),cfg.getLeaseTimeout(),cfg.getValidateAfter())
+            {
+                @Override
+                protected Connection open() throws SQLException
+                {
+                    Connection conn=super.open();
+                    try{
+                        cfg.applyPragmas(conn);
+                    }catch(SQLException e)
+                    {
+                        conn.close();
+                        throw e;
+                    }
+                    return conn;
+                }
+            };
+            // published only once migrated, so a failed start is retried
+            boolean migrated=false;
+            try{
+                Connection conn=created.lease();
+                try{
+                    cfg.check(conn);
+                    SchemaMigrator.migrate(conn);
+                }finally{
+                    created.release(conn);
+                }
+                migrated=true;
+            }finally{
+                if(!migrated)
+                {
+                    created.close();
+                }
+            }
+            pool=created;
+            Runtime.getRuntime().addShutdownHook(new Thread("javaconnect-shutdown")
+            {
+                public void run()
+                {
+                    shutdown();
+                }
+            });
+        }
+        return pool;
+    }
+
+    public static synchronized DbConfig getConfig()
+    {
+        if(config==null)
+        {
+            config=DbConfig.load();
+        }
+        return config;
+    }
+
+    /**
+     * Startup check: opens a connection and logs the pragmas in effect.
+     *
+     * @return the effective pragmas
+     */
+    public static Map<String,String> checkDatabase() throws SQLException
+    {
+        Connection conn=getPool().lease();
+        try{
+            return getConfig().check(conn);
+        }finally{
+            release(conn);
+        }
+    }
+
     /**
+     * Leases a connection from the pool. The caller must hand it back
+     * with release().
      *
-     * @return
+     * @return the connection, or null if none could be obtained
      */
     public static Connection ConnecrDb(){
     try{
-    Class.forName("org.sqlite.JDBC");
-    Connection conn=DriverManager.getConnection("jdbc:sqlite:/home/prateek/NetBeansProjects/Employee_Management_System//Ems.sqlite");
-    return conn;
+    return getPool().lease();
 }catch(Exception e)
 {
     JOptionPane.showMessageDialog(null, e);
     return null;
 }
 }
-}
\ No newline at end of file
+
+    /**
+     * Leases a connection that is released when the given window has been
+     * disposed and none of its QueryExecutor tasks is still running.
+     */
+    public static Connection ConnecrDb(Window owner)
+    {
+        Connection conn=ConnecrDb();
+        if(conn!=null && owner!=null)
+        {
+            QueryExecutor.releaseWhenClosed(owner,conn);
+        }
+        return conn;
+    }
+
+    /**
+     * Returns a leased connection to the pool.
+     */
+    public static void release(Connection conn)
+    {
+        ConnectionPool p;
+        synchronized(javaconnect.class)
+        {
+            p=pool;
+        }
+        if(p!=null)
+        {
+            p.release(conn);
+        }
+    }
+
+    /**
+     * Closes every pooled connection. Called on JVM exit.
+     */
+    public static synchronized void shutdown()
+    {
+        if(pool!=null)
+        {
+            pool.close();
+        }
+    }
+}
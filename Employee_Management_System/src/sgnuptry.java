@@ -34,7 +34,7 @@ public class sgnuptry extends javax.swing.JFrame {
      */
     public sgnuptry() {
          initComponents();
-         conn=javaconnect.ConnecrDb();
+         conn=javaconnect.ConnecrDb(this);
     }
 
     /**
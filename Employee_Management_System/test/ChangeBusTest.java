@@ -0,0 +1,323 @@
+/*
+ * To change this license header, choose License Headers in Project Properties.
+ * To change this template file, choose Tools | Templates
+ * and open the template in the editor.
+ */
+
+import java.awt.EventQueue;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.After;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import static org.junit.Assert.*;
+
+/**
+ * Tests of the ChangeBus queueing: folding of changes to the same row,
+ * resets, overflow, replay and resuming from a position. Events are
+ * published on the EDT, where writers are never held, and inside one
+ * runnable so that nothing is delivered until the whole burst is queued.
+ *
+ * @author prateek
+ */
+public class ChangeBusTest {
+
+    static final int REPLAY=8;
+    static final int QUEUE=4;
+    static final long WAIT=1000;
+
+    private final List<ChangeBus.Subscription> subscriptions=new ArrayList<ChangeBus.Subscription>();
+
+    @BeforeClass
+    public static void setUpClass() {
+        System.setProperty("ems.cdc.replay",String.valueOf(REPLAY));
+        System.setProperty("ems.cdc.queue",String.valueOf(QUEUE));
+        System.setProperty("ems.cdc.wait",String.valueOf(WAIT));
+    }
+
+    @After
+    public void tearDown() {
+        for(ChangeBus.Subscription s:subscriptions)
+        {
+            s.close();
+        }
+    }
+
+    /** Records what it is told, batch by batch. */
+    static final class Recorder implements ChangeBus.Listener {
+
+        final List<List<ChangeEvent>> batches=new ArrayList<List<ChangeEvent>>();
+
+        public synchronized void changed(List<ChangeEvent> events)
+        {
+            batches.add(events);
+        }
+
+        synchronized List<ChangeEvent> all()
+        {
+            List<ChangeEvent> all=new ArrayList<ChangeEvent>();
+            for(List<ChangeEvent> batch:batches)
+            {
+                all.addAll(batch);
+            }
+            return all;
+        }
+    }
+
+    private ChangeBus.Subscription subscribe(Recorder r,long after,String... tables)
+    {
+        ChangeBus.Subscription s=ChangeBus.subscribe(r,true,after,tables);
+        subscriptions.add(s);
+        return s;
+    }
+
+    /** Runs the burst on the EDT, then waits for the deliveries it caused. */
+    private static void onEdt(Runnable burst) throws Exception
+    {
+        EventQueue.invokeAndWait(burst);
+        EventQueue.invokeAndWait(new Runnable()
+        {
+            public void run()
+            {
+            }
+        });
+    }
+
+    @Test
+    public void testInsertThenDeleteCancels() throws Exception {
+        final Recorder r=new Recorder();
+        final ChangeBus.Subscription[] s=new ChangeBus.Subscription[1];
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                s[0]=subscribe(r,-1,ChangeBus.EMP_INFO);
+                ChangeBus.publish(ChangeBus.EMP_INFO,1L,null,"a");
+                ChangeBus.publish(ChangeBus.EMP_INFO,"1","a",null);
+                ChangeBus.publish(ChangeBus.EMP_INFO,2,null,"b");
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(1,r.batches.size());
+        assertEquals(1,events.size());
+        assertEquals(ChangeEvent.Type.INSERT,events.get(0).getType());
+        assertEquals(2L,events.get(0).getKey());
+        assertEquals(3,s[0].getReceived());
+        assertEquals(1,s[0].getCoalesced());
+    }
+
+    @Test
+    public void testUpdatesFoldIntoInsert() throws Exception {
+        final Recorder r=new Recorder();
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                subscribe(r,-1,ChangeBus.EMP_INFO);
+                ChangeBus.publish(ChangeBus.EMP_INFO,5,null,"a");
+                ChangeBus.publish(ChangeBus.EMP_INFO,5,"a","b");
+                ChangeBus.publish(ChangeBus.EMP_INFO,5,"b","c");
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(1,events.size());
+        ChangeEvent e=events.get(0);
+        assertEquals(ChangeEvent.Type.INSERT,e.getType());
+        assertNull(e.getBefore());
+        assertEquals("c",e.getAfter());
+        assertEquals(ChangeBus.getSequence(),e.getSequence());
+    }
+
+    @Test
+    public void testRowsFoldIntoReset() throws Exception {
+        final Recorder r=new Recorder();
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                subscribe(r,-1,ChangeBus.WORKS_ON,ChangeBus.PROJECT);
+                ChangeBus.publish(ChangeBus.WORKS_ON,1,"a","b");
+                ChangeBus.publish(ChangeBus.PROJECT,7,"p","q");
+                ChangeBus.publishReset(ChangeBus.WORKS_ON);
+                ChangeBus.publish(ChangeBus.WORKS_ON,2,null,"c");
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(2,events.size());
+        assertEquals(ChangeBus.PROJECT,events.get(0).getTable());
+        assertEquals(ChangeEvent.Type.UPDATE,events.get(0).getType());
+        ChangeEvent reset=events.get(1);
+        assertTrue(reset.isReset());
+        assertEquals(ChangeBus.WORKS_ON,reset.getTable());
+        assertEquals(ChangeBus.getSequence(),reset.getSequence());
+    }
+
+    @Test
+    public void testOverflowBecomesResets() throws Exception {
+        final Recorder r=new Recorder();
+        final ChangeBus.Subscription[] s=new ChangeBus.Subscription[1];
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                s[0]=subscribe(r,-1);
+                ChangeBus.publish(ChangeBus.DEPARTMENT,1,"a","b");
+                for(int i=0;i<QUEUE-1;i++)
+                {
+                    ChangeBus.publish(ChangeBus.EMP_INFO,100+i,"a","b");
+                }
+                // the same row again still fits
+                ChangeBus.publish(ChangeBus.DEPARTMENT,1,"b","c");
+            }
+        });
+        assertEquals(0,s[0].getOverflows());
+        assertEquals(QUEUE,r.all().size());
+        r.batches.clear();
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                for(int i=0;i<QUEUE;i++)
+                {
+                    ChangeBus.publish(ChangeBus.EMP_INFO,200+i,"a","b");
+                }
+                ChangeBus.publish(ChangeBus.PROJECT,3,"a","b");
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(1,s[0].getOverflows());
+        assertEquals(2,events.size());
+        assertTrue(events.get(0).isReset());
+        assertEquals(ChangeBus.EMP_INFO,events.get(0).getTable());
+        assertTrue(events.get(1).isReset());
+        assertEquals(ChangeBus.PROJECT,events.get(1).getTable());
+    }
+
+    @Test
+    public void testResumeFromPosition() throws Exception {
+        final Recorder r=new Recorder();
+        final long[] position=new long[1];
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                ChangeBus.Subscription s=subscribe(r,-1,ChangeBus.EMP_INFO);
+                ChangeBus.publish(ChangeBus.EMP_INFO,1,"a","b");
+                ChangeBus.publish(ChangeBus.PROJECT,1,"a","b");
+                // one event waiting: the position is just before it
+                assertEquals(ChangeBus.getSequence()-2,s.getPosition());
+                s.close();
+                position[0]=s.getPosition();
+                ChangeBus.publish(ChangeBus.EMP_INFO,2,"a","b");
+            }
+        });
+        assertTrue(r.all().isEmpty());
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                subscribe(r,position[0],ChangeBus.EMP_INFO);
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(2,events.size());
+        assertEquals(1L,events.get(0).getKey());
+        assertEquals(2L,events.get(1).getKey());
+        assertTrue(events.get(0).getSequence()<events.get(1).getSequence());
+    }
+
+    @Test
+    public void testPositionAfterDelivery() throws Exception {
+        final Recorder r=new Recorder();
+        final ChangeBus.Subscription[] s=new ChangeBus.Subscription[1];
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                s[0]=subscribe(r,-1,ChangeBus.EMP_INFO);
+                ChangeBus.publish(ChangeBus.EMP_INFO,1,"a","b");
+                ChangeBus.publish(ChangeBus.DEPARTMENT,1,"a","b");
+            }
+        });
+        // changes to other tables move the position too
+        assertEquals(ChangeBus.getSequence(),s[0].getPosition());
+    }
+
+    @Test
+    public void testReplayPastBufferSendsResets() throws Exception {
+        final Recorder r=new Recorder();
+        final long start=ChangeBus.getSequence();
+        onEdt(new Runnable()
+        {
+            public void run()
+            {
+                for(int i=0;i<REPLAY+2;i++)
+                {
+                    ChangeBus.publish(ChangeBus.EMP_INFO,300+i,"a","b");
+                }
+                subscribe(r,start,ChangeBus.EMP_INFO,ChangeBus.WORKS_ON);
+            }
+        });
+        List<ChangeEvent> events=r.all();
+        assertEquals(2,events.size());
+        assertTrue(events.get(0).isReset());
+        assertEquals(ChangeBus.EMP_INFO,events.get(0).getTable());
+        assertTrue(events.get(1).isReset());
+        assertEquals(ChangeBus.WORKS_ON,events.get(1).getTable());
+    }
+
+    /**
+     * A writer held back by a listener that is not draining must not keep
+     * others from the bus.
+     */
+    @Test
+    public void testWaitingWriterDoesNotHoldBus() throws Exception {
+        final CountDownLatch entered=new CountDownLatch(1);
+        final CountDownLatch release=new CountDownLatch(1);
+        ChangeBus.Subscription slow=ChangeBus.subscribe(new ChangeBus.Listener()
+        {
+            public void changed(List<ChangeEvent> events)
+            {
+                entered.countDown();
+                try{
+                    release.await(10,TimeUnit.SECONDS);
+                }catch(InterruptedException e)
+                {
+                    Thread.currentThread().interrupt();
+                }
+            }
+        },false,ChangeBus.EMP_INFO);
+        subscriptions.add(slow);
+        try{
+            // the first is taken by the listener, which then blocks while
+            // the next ones fill the queue
+            ChangeBus.publish(ChangeBus.EMP_INFO,399,"a","b");
+            assertTrue(entered.await(WAIT,TimeUnit.MILLISECONDS));
+            for(int i=0;i<QUEUE;i++)
+            {
+                ChangeBus.publish(ChangeBus.EMP_INFO,400+i,"a","b");
+            }
+            Thread writer=new Thread(new Runnable()
+            {
+                public void run()
+                {
+                    ChangeBus.publish(ChangeBus.EMP_INFO,500,"a","b");
+                }
+            });
+            writer.start();
+            Thread.sleep(100);
+            assertTrue(writer.isAlive());
+            long start=System.nanoTime();
+            ChangeBus.getSequence();
+            ChangeBus.publish(ChangeBus.PROJECT,1,"a","b");
+            assertTrue((System.nanoTime()-start)/1000000<WAIT/2);
+            release.countDown();
+            writer.join(WAIT*2);
+            assertFalse(writer.isAlive());
+        }finally{
+            release.countDown();
+        }
+    }
+}